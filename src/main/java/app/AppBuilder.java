@@ -1,12 +1,39 @@
 package app;
 
+import data_access.CachingRoutingDataAccessObject;
+import data_access.CachingSearchDataAccessObject;
+import data_access.CachingTileDataAccessObject;
+import data_access.CachingTravelMatrixDataAccessObject;
+import data_access.ContractionHierarchy;
+import data_access.FileBatchGeocodeDataAccessObject;
 import data_access.FileStopListDAO;
+import data_access.FuzzyPlaceIndex;
+import data_access.FuzzySearchDataAccessObject;
+import data_access.GazetteerDataAccessObject;
+import data_access.GazetteerIndex;
+import data_access.HybridSearchDataAccessObject;
+import data_access.KnownLocationIndex;
 import data_access.OSMDataAccessObject;
+import data_access.OfflineRoutingDataAccessObject;
+import data_access.OsmTileDataAccessObject;
+import data_access.OsrmTableDataAccessObject;
+import data_access.ReverseGeocodeDataAccessObject;
+import data_access.RoadGraph;
+import data_access.RoadGraphRouter;
 import data_access.RoutingDataAccessObject;
+import data_access.StraightLineDurationDataAccessObject;
+import entity.Location;
 import interface_adapter.ViewManagerModel;
+import interface_adapter.batch_geocode.BatchGeocodeController;
+import interface_adapter.batch_geocode.BatchGeocodePresenter;
 import interface_adapter.generate_route.GenerateRouteController;
 import interface_adapter.generate_route.GenerateRoutePresenter;
+import interface_adapter.generate_route.GenerateRouteStateDataAccess;
 import interface_adapter.generate_route.GenerateRouteViewModel;
+import interface_adapter.optimize_order.OptimizeOrderController;
+import interface_adapter.optimize_order.OptimizeOrderPresenter;
+import interface_adapter.reverse_geocode.ReverseGeocodeController;
+import interface_adapter.reverse_geocode.ReverseGeocodePresenter;
 import interface_adapter.save_stops.SaveStopsController;
 import interface_adapter.save_stops.SaveStopsPresenter;
 import interface_adapter.search.SearchController;
@@ -14,20 +41,32 @@ import interface_adapter.search.SearchPresenter;
 import interface_adapter.search.SearchViewModel;
 import interface_adapter.remove_marker.RemoveMarkerController;
 import interface_adapter.remove_marker.RemoveMarkerPresenter;
+import use_case.batch_geocode.BatchGeocodeInputBoundary;
+import use_case.batch_geocode.BatchGeocodeInteractor;
+import use_case.batch_geocode.BatchGeocodeOutputBoundary;
 import use_case.generate_route.GenerateRouteInputBoundary;
 import use_case.generate_route.GenerateRouteInteractor;
 import use_case.generate_route.GenerateRouteOutputBoundary;
+import use_case.generate_route.GenerateRouteRoutingDataAccessInterface;
+import use_case.optimize_order.OptimizeOrderDataAccessInterface;
+import use_case.optimize_order.OptimizeOrderInputBoundary;
+import use_case.optimize_order.OptimizeOrderInteractor;
+import use_case.optimize_order.OptimizeOrderOutputBoundary;
 import use_case.save_stops.SaveStopsInputBoundary;
 import use_case.save_stops.SaveStopsInteractor;
 import use_case.save_stops.SaveStopsOutputBoundary;
 import interface_adapter.suggestion.SuggestionController;
 import interface_adapter.suggestion.SuggestionPresenter;
+import use_case.search.SearchDataAccessInterface;
 import use_case.search.SearchInputBoundary;
 import use_case.search.SearchInteractor;
 import use_case.search.SearchOutputBoundary;
 import use_case.remove_marker.RemoveMarkerInputBoundary;
 import use_case.remove_marker.RemoveMarkerInteractor;
 import use_case.remove_marker.RemoveMarkerOutputBoundary;
+import use_case.reverse_geocode.ReverseGeocodeInputBoundary;
+import use_case.reverse_geocode.ReverseGeocodeInteractor;
+import use_case.reverse_geocode.ReverseGeocodeOutputBoundary;
 import use_case.suggestion.SuggestionInputBoundary;
 import use_case.suggestion.SuggestionInteractor;
 import use_case.suggestion.SuggestionOutputBoundary;
@@ -35,24 +74,81 @@ import view.SearchView;
 import view.ViewManager;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
 import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configures and wires the application using the simplified Clean Architecture graph.
  */
 public class AppBuilder {
 
+    /** Saved stops outrank places that were merely looked up once. */
+    private static final float SAVED_STOP_WEIGHT = 3f;
+
     private final JPanel cardPanel = new JPanel();
     private final CardLayout cardLayout = new CardLayout();
     final ViewManagerModel viewManagerModel = new ViewManagerModel();
     ViewManager viewManager = new ViewManager(cardPanel, cardLayout, viewManagerModel);
 
+    private final String stopListPath = "src/main/";
+    final FileStopListDAO fileStopListDAO = new FileStopListDAO(stopListPath);
+
     private final HttpClient client = HttpClient.newHttpClient();
     final OSMDataAccessObject osmDataAccessObject = new OSMDataAccessObject(client);
     final RoutingDataAccessObject routingDataAccessObject = new RoutingDataAccessObject(client);
 
-    private final String stopListPath = "src/main/";
-    final FileStopListDAO fileStopListDAO = new FileStopListDAO(stopListPath);
+    // Routed legs are cached by endpoints, so re-routing only requests the legs that changed
+    final CachingRoutingDataAccessObject cachingRoutingDataAccessObject = new CachingRoutingDataAccessObject(
+            routingDataAccessObject, new File(stopListPath, "route_cache"));
+
+    // Offline road graph (built with BuildRoadGraph) routes first when present; OSRM covers the rest.
+    // Profiles with a contraction hierarchy (BuildContractionHierarchy) skip the A* search.
+    private final File roadGraphFile = new File(stopListPath, "road_graph.bin");
+    final GenerateRouteRoutingDataAccessInterface routingDataAccess = buildRoutingDataAccess();
+
+    // Stop ordering needs every pairwise travel time: OSRM's table service, tiled and cached per cell,
+    // with straight-line estimates when it cannot be reached
+    final OptimizeOrderDataAccessInterface durationDataAccess = new CachingTravelMatrixDataAccessObject(
+            new OsrmTableDataAccessObject(client), new StraightLineDurationDataAccessObject());
+
+    // Route legs are requested together, a few at a time
+    private final ExecutorService routeLegExecutor =
+            GenerateRouteInteractor.newLegExecutor(GenerateRouteInteractor.DEFAULT_PARALLELISM);
+
+    // Blocking use cases started from the view (routing, import, reverse geocoding, optimizing)
+    // get their own few threads, so a long import never starves the common pool
+    private final ExecutorService backgroundExecutor = newBackgroundExecutor();
+
+    // Geocoding goes through a memory + disk cache so repeat searches skip Nominatim
+    final CachingSearchDataAccessObject cachingSearchDataAccessObject = new CachingSearchDataAccessObject(
+            osmDataAccessObject, new File(stopListPath, "geocode_cache"));
+
+    // Every place we resolve is indexed, so map points near known places are named offline
+    final KnownLocationIndex knownLocationIndex = new KnownLocationIndex(
+            new File(stopListPath, "known_locations.txt"));
+
+    // The same places, searchable with typos ("Toronot")
+    final FuzzyPlaceIndex fuzzyPlaceIndex = new FuzzyPlaceIndex();
+
+    // Offline gazetteer (built with BuildGazetteerIndex) answers first when present
+    private final File gazetteerFile = new File(stopListPath, "gazetteer.bin");
+    final SearchDataAccessInterface searchDataAccessObject = buildSearchDataAccess();
+
+    // Map tiles are kept on disk (LRU within a byte budget), so a restart draws known areas without
+    // the network; run with -Dtripplanner.offline=true to serve cached tiles only
+    final CachingTileDataAccessObject tileCache = new CachingTileDataAccessObject(
+            new OsmTileDataAccessObject(client), new File(stopListPath, "tile_cache"));
 
     private SearchViewModel searchViewModel;
     private GenerateRouteViewModel generateRouteViewModel;
@@ -60,12 +156,64 @@ public class AppBuilder {
 
     public AppBuilder() {
         cardPanel.setLayout(cardLayout);
+        for (Location known : knownLocationIndex.all()) {
+            fuzzyPlaceIndex.add(known);
+        }
+        cachingSearchDataAccessObject.setResolvedLocationListener(location -> {
+            knownLocationIndex.add(location);
+            fuzzyPlaceIndex.add(location);
+        });
+    }
+
+    private SearchDataAccessInterface buildSearchDataAccess() {
+        return new FuzzySearchDataAccessObject(fuzzyPlaceIndex, buildExactSearchDataAccess());
+    }
+
+    private SearchDataAccessInterface buildExactSearchDataAccess() {
+        if (!gazetteerFile.isFile()) {
+            return cachingSearchDataAccessObject;
+        }
+        try {
+            GazetteerIndex index = GazetteerIndex.read(gazetteerFile.toPath());
+            return new HybridSearchDataAccessObject(
+                    new GazetteerDataAccessObject(index), cachingSearchDataAccessObject);
+        } catch (Exception e) {
+            System.err.println("Failed to load gazetteer index: " + e.getMessage());
+            return cachingSearchDataAccessObject;
+        }
+    }
+
+    private GenerateRouteRoutingDataAccessInterface buildRoutingDataAccess() {
+        if (!roadGraphFile.isFile()) {
+            return cachingRoutingDataAccessObject;
+        }
+        try {
+            RoadGraph graph = RoadGraph.read(roadGraphFile.toPath());
+            List<ContractionHierarchy> hierarchies = new ArrayList<>();
+            for (RoadGraph.Profile profile : RoadGraph.Profile.values()) {
+                Path chFile = ContractionHierarchy.fileFor(roadGraphFile.toPath(), profile);
+                if (!Files.isRegularFile(chFile)) continue;
+                try {
+                    hierarchies.add(ContractionHierarchy.read(chFile, graph));
+                } catch (IOException e) {
+                    System.err.println("Ignoring contraction hierarchy: " + e.getMessage());
+                }
+            }
+            return new OfflineRoutingDataAccessObject(new RoadGraphRouter(graph, hierarchies),
+                    cachingRoutingDataAccessObject);
+        } catch (Exception e) {
+            System.err.println("Failed to load road graph: " + e.getMessage());
+            return cachingRoutingDataAccessObject;
+        }
     }
 
     public AppBuilder addSearchView() {
         searchViewModel = new SearchViewModel();
         generateRouteViewModel = new GenerateRouteViewModel();
         searchView = new SearchView(searchViewModel, generateRouteViewModel);
+        tileCache.setOffline(Boolean.getBoolean("tripplanner.offline"));
+        searchView.setTileCache(tileCache);
+        searchView.setBackgroundExecutor(backgroundExecutor);
         cardPanel.add(searchView, searchView.getViewName());
         return this;
     }
@@ -73,7 +221,8 @@ public class AppBuilder {
     public AppBuilder addGenerateRouteUseCase() {
         final GenerateRouteOutputBoundary generateRoutePresenter = new GenerateRoutePresenter(generateRouteViewModel);
         final GenerateRouteInputBoundary generateRouteInteractor = new GenerateRouteInteractor(
-                routingDataAccessObject, generateRoutePresenter);
+                routingDataAccess, generateRoutePresenter, routeLegExecutor,
+                new GenerateRouteStateDataAccess(generateRouteViewModel));
 
         GenerateRouteController generateRouteController = new GenerateRouteController(generateRouteInteractor);
         searchView.setGenerateRouteController(generateRouteController);
@@ -81,10 +230,21 @@ public class AppBuilder {
         return this;
     }
 
+    public AppBuilder addOptimizeOrderUseCase() {
+        final OptimizeOrderOutputBoundary optimizeOrderPresenter = new OptimizeOrderPresenter(searchViewModel);
+        final OptimizeOrderInputBoundary optimizeOrderInteractor = new OptimizeOrderInteractor(
+                durationDataAccess, optimizeOrderPresenter);
+
+        OptimizeOrderController optimizeOrderController = new OptimizeOrderController(optimizeOrderInteractor);
+        searchView.setOptimizeOrderController(optimizeOrderController);
+
+        return this;
+    }
+
     public AppBuilder addSearchUseCase() {
         final SearchOutputBoundary searchOutputBoundary = new SearchPresenter(searchViewModel);
         final SearchInputBoundary searchInteractor = new SearchInteractor(
-                osmDataAccessObject, searchOutputBoundary);
+                searchDataAccessObject, searchOutputBoundary);
 
         SearchController searchController = new SearchController(searchInteractor);
         searchView.setSearchController(searchController);
@@ -104,7 +264,7 @@ public class AppBuilder {
 
     public AppBuilder addSuggestionUseCase() {
         final SuggestionOutputBoundary outputBoundary = new SuggestionPresenter(searchViewModel);
-        final SuggestionInputBoundary interactor = new SuggestionInteractor(osmDataAccessObject, outputBoundary);
+        final SuggestionInputBoundary interactor = new SuggestionInteractor(searchDataAccessObject, outputBoundary);
 
         SuggestionController suggestionController = new SuggestionController(interactor);
         searchView.setSuggestionController(suggestionController);
@@ -122,10 +282,41 @@ public class AppBuilder {
         return this;
     }
 
+    public AppBuilder addReverseGeocodeUseCase() {
+        final ReverseGeocodeOutputBoundary reverseGeocodePresenter = new ReverseGeocodePresenter(searchViewModel);
+        final ReverseGeocodeInputBoundary reverseGeocodeInteractor = new ReverseGeocodeInteractor(
+                new ReverseGeocodeDataAccessObject(knownLocationIndex, osmDataAccessObject),
+                reverseGeocodePresenter);
+
+        ReverseGeocodeController reverseGeocodeController = new ReverseGeocodeController(reverseGeocodeInteractor);
+        searchView.setReverseGeocodeController(reverseGeocodeController);
+
+        return this;
+    }
+
+    public AppBuilder addBatchGeocodeUseCase() {
+        final BatchGeocodeOutputBoundary batchGeocodePresenter = new BatchGeocodePresenter(searchViewModel);
+        final BatchGeocodeInputBoundary batchGeocodeInteractor = new BatchGeocodeInteractor(
+                new FileBatchGeocodeDataAccessObject(searchDataAccessObject, new File(stopListPath, "batch_checkpoints")),
+                batchGeocodePresenter);
+
+        BatchGeocodeController batchGeocodeController = new BatchGeocodeController(batchGeocodeInteractor);
+        searchView.setBatchGeocodeController(batchGeocodeController);
+
+        return this;
+    }
+
     public AppBuilder loadStopsOnStartup() {
         try {
             FileStopListDAO.LoadedStops stored = fileStopListDAO.load();
 
+            for (int i = 0; i < stored.names.size(); i++) {
+                var p = stored.positions.get(i);
+                Location stop = new Location(stored.names.get(i), p.getLatitude(), p.getLongitude());
+                knownLocationIndex.add(stop);
+                fuzzyPlaceIndex.add(stop, SAVED_STOP_WEIGHT);
+            }
+
             if (!stored.names.isEmpty()) {
 
                 var state = searchViewModel.getState();
@@ -155,6 +346,13 @@ public class AppBuilder {
     public JFrame build() {
         final JFrame application = new JFrame("trip planner");
         application.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        application.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                backgroundExecutor.shutdownNow();
+                routeLegExecutor.shutdownNow();
+            }
+        });
 
         application.add(cardPanel);
 
@@ -164,4 +362,16 @@ public class AppBuilder {
 
         return application;
     }
+
+    /**
+     * Three daemon threads with room for a few dozen waiting tasks; past that the view drops
+     * the request instead of queueing clicks without bound.
+     */
+    private static ExecutorService newBackgroundExecutor() {
+        return new ThreadPoolExecutor(3, 3, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(32), task -> {
+            Thread thread = new Thread(task, "background-task");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
@@ -0,0 +1,68 @@
+package app;
+
+import data_access.ContractionHierarchy;
+import data_access.ContractionHierarchyBuilder;
+import data_access.RoadGraph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Build step for fast offline routing.
+ * Contracts a road graph written by {@link BuildRoadGraph} and saves one shortcut index per
+ * profile next to it (road_graph.walking.ch, ...), which the app loads at startup.
+ * <p>
+ * Usage: java app.BuildContractionHierarchy [graph, default src/main/road_graph.bin]
+ *        [--profiles walking,cycling,driving] [--threads N]
+ * <p>
+ * Node rating and witness searches run on all cores (or --threads). Rebuild whenever the
+ * graph is rebuilt; a stale index is rejected at load time.
+ */
+public class BuildContractionHierarchy {
+
+    public static void main(String[] args) throws IOException {
+        Path graphFile = Paths.get(BuildRoadGraph.DEFAULT_OUTPUT);
+        List<RoadGraph.Profile> profiles = List.of(RoadGraph.Profile.values());
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--profiles") && i + 1 < args.length) {
+                profiles = parseProfiles(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                graphFile = Paths.get(args[i]);
+            }
+        }
+        if (profiles == null) {
+            System.err.println("Usage: java app.BuildContractionHierarchy [graph]"
+                    + " [--profiles walking,cycling,driving] [--threads N]");
+            System.exit(1);
+        }
+
+        RoadGraph graph = RoadGraph.read(graphFile);
+        for (RoadGraph.Profile profile : profiles) {
+            long start = System.currentTimeMillis();
+            ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(graph, profile, threads);
+            long built = System.currentTimeMillis();
+            Path output = ContractionHierarchy.fileFor(graphFile, profile);
+            hierarchy.write(output);
+            System.out.printf("%s: %d hierarchy edges for %d road edges, built in %d ms, wrote %s%n",
+                    profile, hierarchy.edgeCount(), graph.edgeCount(), built - start, output);
+        }
+    }
+
+    /** Profiles in a comma-separated list; null if any name is unknown. */
+    private static List<RoadGraph.Profile> parseProfiles(String names) {
+        List<RoadGraph.Profile> profiles = new ArrayList<>();
+        for (String name : names.split(",")) {
+            RoadGraph.Profile profile = RoadGraph.Profile.of(name.trim());
+            if (profile == null) return null;
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+}
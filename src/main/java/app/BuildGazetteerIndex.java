@@ -0,0 +1,114 @@
+package app;
+
+import data_access.GazetteerIndex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Build step for the offline gazetteer.
+ * Reads a local places file and serializes a {@link GazetteerIndex} that the app loads at startup.
+ * <p>
+ * Usage: java app.BuildGazetteerIndex &lt;places file&gt; [output, default src/main/gazetteer.bin]
+ * <p>
+ * Accepted input formats:
+ * - GeoNames dump (tab separated: id, name, asciiname, alternatenames, lat, lon, ..., population)
+ * - CSV export: name,lat,lon[,importance] (name may contain commas; a header line is skipped)
+ */
+public class BuildGazetteerIndex {
+
+    public static final String DEFAULT_OUTPUT = "src/main/gazetteer.bin";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java app.BuildGazetteerIndex <places file> [output]");
+            System.exit(1);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args.length > 1 ? args[1] : DEFAULT_OUTPUT);
+
+        long start = System.currentTimeMillis();
+        GazetteerIndex.Builder builder = new GazetteerIndex.Builder();
+        int skipped = 0;
+
+        try (BufferedReader br = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                boolean added = line.indexOf('\t') >= 0 ? addGeoNamesRow(builder, line) : addCsvRow(builder, line);
+                if (!added) skipped++;
+            }
+        }
+
+        GazetteerIndex index = builder.build();
+        index.write(output);
+        System.out.printf("Indexed %d names (%d lines skipped) into %s in %d ms%n",
+                index.size(), skipped, output, System.currentTimeMillis() - start);
+    }
+
+    private static boolean addGeoNamesRow(GazetteerIndex.Builder builder, String line) {
+        String[] p = line.split("\t", -1);
+        if (p.length < 15) return false;
+        try {
+            String name = p[1];
+            String ascii = p[2];
+            double lat = Double.parseDouble(p[4]);
+            double lon = Double.parseDouble(p[5]);
+            String country = p[8];
+            float population = p[14].isEmpty() ? 0f : Float.parseFloat(p[14]);
+
+            String display = country.isEmpty() ? name : name + ", " + country;
+            builder.add(name, display, lat, lon, population);
+            if (!ascii.isEmpty() && !ascii.equalsIgnoreCase(name)) {
+                builder.add(ascii, display, lat, lon, population);
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** name,lat,lon[,importance], parsed from the right so names may contain commas. */
+    private static boolean addCsvRow(GazetteerIndex.Builder builder, String line) {
+        String[] p = line.split(",");
+        if (p.length < 3) return false;
+        try {
+            int n = p.length;
+            float importance = 0f;
+            double lat;
+            double lon;
+            int nameFields;
+            if (n >= 4 && isNumber(p[n - 3])) {
+                lat = Double.parseDouble(p[n - 3].trim());
+                lon = Double.parseDouble(p[n - 2].trim());
+                importance = Float.parseFloat(p[n - 1].trim());
+                nameFields = n - 3;
+            } else {
+                lat = Double.parseDouble(p[n - 2].trim());
+                lon = Double.parseDouble(p[n - 1].trim());
+                nameFields = n - 2;
+            }
+            String name = String.join(",", Arrays.copyOf(p, nameFields)).trim();
+            if (name.startsWith("\"") && name.endsWith("\"") && name.length() > 1) {
+                name = name.substring(1, name.length() - 1);
+            }
+            builder.add(name, name, lat, lon, importance);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isNumber(String s) {
+        try {
+            Double.parseDouble(s.trim());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
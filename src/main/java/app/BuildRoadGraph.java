@@ -0,0 +1,76 @@
+package app;
+
+import data_access.OsmExtractReader;
+import data_access.RoadGraph;
+import data_access.RoadGraphImporter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Build step for offline routing.
+ * Imports an OpenStreetMap extract and serializes a {@link RoadGraph} that the app loads at startup.
+ * <p>
+ * Usage: java app.BuildRoadGraph &lt;extract.osm.pbf | extract.osm&gt; [output, default src/main/road_graph.bin]
+ *        [--profiles walking,cycling,driving] [--threads N]
+ * <p>
+ * PBF extracts are decoded on all cores (or --threads); XML extracts are read on one thread.
+ * Only ways usable by the listed profiles are kept.
+ */
+public class BuildRoadGraph {
+
+    public static final String DEFAULT_OUTPUT = "src/main/road_graph.bin";
+
+    public static void main(String[] args) throws IOException {
+        Path input = null;
+        Path output = Paths.get(DEFAULT_OUTPUT);
+        int access = RoadGraph.ACCESS_FOOT | RoadGraph.ACCESS_BIKE | RoadGraph.ACCESS_CAR;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        boolean outputGiven = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--profiles") && i + 1 < args.length) {
+                access = profileAccess(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (input == null) {
+                input = Paths.get(args[i]);
+            } else if (!outputGiven) {
+                output = Paths.get(args[i]);
+                outputGiven = true;
+            }
+        }
+        if (input == null || access == 0) {
+            System.err.println("Usage: java app.BuildRoadGraph <extract.osm.pbf | extract.osm> [output]"
+                    + " [--profiles walking,cycling,driving] [--threads N]");
+            System.exit(1);
+        }
+
+        long start = System.currentTimeMillis();
+        RoadGraphImporter importer = new RoadGraphImporter(OsmExtractReader.forFile(input, threads), access);
+        RoadGraph graph = importer.importFile(input);
+        long imported = System.currentTimeMillis();
+        graph.write(output);
+        long written = System.currentTimeMillis();
+        System.out.printf("Imported %d ways into %d nodes and %d edges (%d nodes off the main network dropped)"
+                        + " in %d ms, wrote %s in %d ms%n",
+                importer.getWayCount(), graph.nodeCount(), graph.edgeCount(), importer.getRemovedNodeCount(),
+                imported - start, output, written - imported);
+
+        long loadStart = System.currentTimeMillis();
+        RoadGraph.read(output);
+        System.out.printf("Graph loads in %d ms%n", System.currentTimeMillis() - loadStart);
+    }
+
+    /** ACCESS_* bits for a comma-separated profile list; 0 if any name is unknown. */
+    private static int profileAccess(String profiles) {
+        int access = 0;
+        for (String name : profiles.split(",")) {
+            RoadGraph.Profile profile = RoadGraph.Profile.of(name.trim());
+            if (profile == null) return 0;
+            access |= profile.access();
+        }
+        return access;
+    }
+}
@@ -10,9 +10,12 @@ public class Main {
                 .addSearchUseCase()
                 .addRemoveMarkerUseCase()
                 .addSuggestionUseCase()
+                .addReverseGeocodeUseCase()
+                .addBatchGeocodeUseCase()
                 .addSaveStopsUseCase()
                 .addRemoveMarkerUseCase()
                 .addGenerateRouteUseCase()
+                .addOptimizeOrderUseCase()
                 .build();
 
         application.pack();
@@ -0,0 +1,384 @@
+package data_access;
+
+import entity.RouteGeometry;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.generate_route.GenerateRouteRoutingDataAccessInterface;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CachingRoutingDataAccessObject
+ * Decorator that caches routed legs in front of another
+ * GenerateRouteRoutingDataAccessInterface (normally the OSRM RoutingDataAccessObject).
+ * <p>
+ * Tiers:
+ * - Memory: LRU bounded by the estimated bytes of the cached geometry
+ * - Disk (optional): one small binary file per leg, so routes survive restarts; least
+ *   recently used files are deleted past a byte budget, expired ones when they are next read,
+ *   and files of the older ".leg" format when the cache opens
+ * <p>
+ * A leg is keyed by profile and both endpoints rounded to 1e-5 degrees (about 1 m),
+ * so re-routing an itinerary only requests the legs whose stops moved or are new.
+ * Legs with no route are not cached; the next attempt asks again.
+ */
+public class CachingRoutingDataAccessObject implements GenerateRouteRoutingDataAccessInterface {
+
+    public static final long DEFAULT_MAX_MEMORY_BYTES = 32L * 1024 * 1024;
+    public static final long DEFAULT_MAX_DISK_BYTES = 64L * 1024 * 1024;
+    public static final Duration DEFAULT_TTL = Duration.ofDays(30);
+
+    private static final String SUFFIX = ".leg6";
+    private static final String LEGACY_SUFFIX = ".leg";
+
+    /** Endpoint rounding: 1e-5 degrees is about 1.1 m of latitude. */
+    private static final double QUANTUM_PER_DEGREE = 1e5;
+    private static final long BYTES_PER_ENTRY = 128;
+
+    private final GenerateRouteRoutingDataAccessInterface delegate;
+    private final File cacheDirectory;
+    private final LruCache<String, CacheEntry> memory;
+    private final long ttlMs;
+    private final long maxDiskBytes;
+
+    /** File size per disk file name, least recently used first. */
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(256, 0.75f, true);
+    private long diskBytes;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachingRoutingDataAccessObject(GenerateRouteRoutingDataAccessInterface delegate, File cacheDirectory) {
+        this(delegate, cacheDirectory, DEFAULT_MAX_MEMORY_BYTES, DEFAULT_TTL);
+    }
+
+    public CachingRoutingDataAccessObject(GenerateRouteRoutingDataAccessInterface delegate, File cacheDirectory,
+                                          long maxMemoryBytes, Duration ttl) {
+        this(delegate, cacheDirectory, maxMemoryBytes, ttl, DEFAULT_MAX_DISK_BYTES);
+    }
+
+    /**
+     * @param cacheDirectory directory for the disk tier, or null for a memory-only cache
+     * @param maxMemoryBytes bound on the estimated size of the memory tier
+     * @param maxDiskBytes   bound on the total size of the leg files
+     */
+    public CachingRoutingDataAccessObject(GenerateRouteRoutingDataAccessInterface delegate, File cacheDirectory,
+                                          long maxMemoryBytes, Duration ttl, long maxDiskBytes) {
+        if (maxDiskBytes <= 0) throw new IllegalArgumentException("maxDiskBytes must be positive");
+        this.delegate = delegate;
+        this.cacheDirectory = cacheDirectory;
+        this.memory = new LruCache<>(maxMemoryBytes, CacheEntry::estimatedBytes);
+        this.ttlMs = ttl.toMillis();
+        this.maxDiskBytes = maxDiskBytes;
+
+        if (cacheDirectory != null && !cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            System.err.println("Could not create route cache directory: " + cacheDirectory);
+        }
+        loadDiskIndex();
+    }
+
+    @Override
+    public RouteGeometry getRoute(GeoPosition start, GeoPosition end, String profile) throws IOException, InterruptedException {
+        String key = keyFor(start, end, profile);
+        RouteGeometry cached = cached(key, null);
+        if (cached != null) return cached;
+
+        misses.incrementAndGet();
+        return store(key, delegate.getRoute(start, end, profile));
+    }
+
+    @Override
+    public boolean routesManyLegsAtOnce() {
+        return delegate.routesManyLegsAtOnce();
+    }
+
+    /**
+     * Cached legs are used as they are; each run of consecutive uncached legs is asked
+     * of the delegate in one multi-waypoint call. Appending a stop costs one request.
+     * Statistics are only counted if the whole call succeeds, since callers then retry leg by leg.
+     */
+    @Override
+    public List<RouteGeometry> getRoutes(List<GeoPosition> stops, String profile) throws IOException, InterruptedException {
+        int legCount = Math.max(0, stops.size() - 1);
+        List<RouteGeometry> legs = new ArrayList<>(Collections.nCopies(legCount, null));
+        String[] keys = new String[legCount];
+        long[] hits = new long[2];
+        for (int i = 0; i < legCount; i++) {
+            keys[i] = keyFor(stops.get(i), stops.get(i + 1), profile);
+            legs.set(i, cached(keys[i], hits));
+        }
+
+        int i = 0;
+        while (i < legCount) {
+            if (legs.get(i) != null) {
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < legCount && legs.get(end) == null) end++;
+
+            List<RouteGeometry> fetched = delegate.getRoutes(stops.subList(i, end + 1), profile);
+            if (fetched == null || fetched.size() != end - i) {
+                throw new IOException("Routing source returned the wrong number of legs");
+            }
+            for (int j = i; j < end; j++) {
+                legs.set(j, store(keys[j], fetched.get(j - i)));
+            }
+            i = end;
+        }
+
+        memoryHits.addAndGet(hits[0]);
+        diskHits.addAndGet(hits[1]);
+        misses.addAndGet(legCount - hits[0] - hits[1]);
+        return legs;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Cache statistics                                                    */
+    /* ------------------------------------------------------------------ */
+
+    public long getMemoryHitCount() { return memoryHits.get(); }
+
+    public long getDiskHitCount() { return diskHits.get(); }
+
+    public long getHitCount() { return memoryHits.get() + diskHits.get(); }
+
+    /** Legs that had to be routed by the delegate. */
+    public long getMissCount() { return misses.get(); }
+
+    /** Share of leg lookups answered from the cache, 0 before the first lookup. */
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /** Estimated bytes held by the memory tier. */
+    public long getMemoryBytes() {
+        return memory.weight();
+    }
+
+    /** Total size of the leg files of the disk tier. */
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    /** Drops the memory tier (the disk tier is kept). */
+    public void clearMemory() {
+        memory.clear();
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Lookup                                                              */
+    /* ------------------------------------------------------------------ */
+
+    static String keyFor(GeoPosition start, GeoPosition end, String profile) {
+        return profile + "|" + quantize(start.getLatitude()) + "," + quantize(start.getLongitude())
+                + "|" + quantize(end.getLatitude()) + "," + quantize(end.getLongitude());
+    }
+
+    private static long quantize(double degrees) {
+        return Math.round(degrees * QUANTUM_PER_DEGREE);
+    }
+
+    /**
+     * Returns the unexpired leg from memory or disk, or null.
+     *
+     * @param hits where to count the hit ([0] memory, [1] disk); null counts it right away
+     */
+    private RouteGeometry cached(String key, long[] hits) {
+        long now = System.currentTimeMillis();
+
+        CacheEntry entry = memory.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            if (hits != null) hits[0]++; else memoryHits.incrementAndGet();
+            return entry.points;
+        }
+
+        entry = readFromDisk(key);
+        if (entry != null && !entry.isExpired(now)) {
+            if (hits != null) hits[1]++; else diskHits.incrementAndGet();
+            memory.put(key, entry);
+            return entry.points;
+        }
+        return null;
+    }
+
+    private RouteGeometry store(String key, RouteGeometry fetched) {
+        if (fetched == null || fetched.isEmpty()) return fetched;
+
+        // Geometries are immutable, so the cache keeps the delegate's instance
+        CacheEntry entry = new CacheEntry(fetched, System.currentTimeMillis() + ttlMs);
+        memory.put(key, entry);
+        writeToDisk(key, entry);
+        return fetched;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Disk tier                                                           */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * File format (DataOutput, big-endian):
+     *   UTF key, long expiresAtMs, int count, count x (int latE6, int lonE6)
+     */
+    private CacheEntry readFromDisk(String key) {
+        File file = fileFor(key);
+        if (file == null) return null;
+        synchronized (this) {
+            // Looking the name up also marks it most recently used
+            if (diskIndex.get(file.getName()) == null) return null;
+        }
+
+        CacheEntry entry = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            // Name collision: the file belongs to another leg, so leave it alone
+            if (!key.equals(in.readUTF())) return null;
+
+            long expiresAt = in.readLong();
+            if (System.currentTimeMillis() < expiresAt) {
+                int count = in.readInt();
+                if (count <= 0) throw new IOException("Empty route cache entry: " + file);
+                RouteGeometry.Builder points = new RouteGeometry.Builder(count);
+                for (int i = 0; i < count; i++) {
+                    points.addE6(in.readInt(), in.readInt());
+                }
+                entry = new CacheEntry(points.build(), expiresAt);
+            }
+        } catch (IOException | RuntimeException e) {
+            // unreadable: deleted below like an expired entry
+        }
+
+        // The stream is closed by now, which some platforms require before deleting
+        if (entry == null) {
+            delete(file);
+            return null;
+        }
+        // Recency for the next run's eviction order
+        file.setLastModified(System.currentTimeMillis());
+        return entry;
+    }
+
+    private void writeToDisk(String key, CacheEntry entry) {
+        File file = fileFor(key);
+        if (file == null) return;
+
+        File tmp = null;
+        try {
+            tmp = File.createTempFile("route", ".tmp", cacheDirectory);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeUTF(key);
+                out.writeLong(entry.expiresAtMs);
+                out.writeInt(entry.points.size());
+                for (int i = 0; i < entry.points.size(); i++) {
+                    out.writeInt(entry.points.latitudeE6(i));
+                    out.writeInt(entry.points.longitudeE6(i));
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            record(file.getName(), file.length());
+        } catch (IOException e) {
+            if (tmp != null && !tmp.delete() && tmp.exists()) tmp.deleteOnExit();
+            System.err.println("Failed to write route cache entry: " + e.getMessage());
+        }
+    }
+
+    private File fileFor(String key) {
+        if (cacheDirectory == null) return null;
+        // Keys are short and unique; hash them only to keep the file names tidy.
+        // ".leg6": fixed-point coordinates; files of the older double format are deleted on open.
+        return new File(cacheDirectory, String.format(Locale.ROOT, "%08x-%08x" + SUFFIX,
+                key.hashCode(), new StringBuilder(key).reverse().toString().hashCode()));
+    }
+
+    /** Adds a written leg file to the index, deleting least recently used files past the budget. */
+    private synchronized void record(String name, long bytes) {
+        Long previous = diskIndex.put(name, bytes);
+        diskBytes += bytes - (previous == null ? 0 : previous);
+        evictOverBudget();
+    }
+
+    private void delete(File file) {
+        synchronized (this) {
+            Long removed = diskIndex.remove(file.getName());
+            if (removed != null) diskBytes -= removed;
+        }
+        if (!file.delete() && file.exists()) {
+            System.err.println("Could not delete route cache entry: " + file);
+        }
+    }
+
+    /** Evicts least recently used first (the newest leg goes last, if it must go at all). */
+    private synchronized void evictOverBudget() {
+        Iterator<Map.Entry<String, Long>> eldest = diskIndex.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            diskBytes -= entry.getValue();
+            eldest.remove();
+            File file = new File(cacheDirectory, entry.getKey());
+            if (!file.delete() && file.exists()) {
+                System.err.println("Could not delete evicted route: " + file);
+            }
+        }
+    }
+
+    /**
+     * Indexes the leg files left by earlier runs, least recently used first, and deletes
+     * leftover temp files and files of the older format.
+     */
+    private synchronized void loadDiskIndex() {
+        if (cacheDirectory == null) return;
+        File[] files = cacheDirectory.listFiles(File::isFile);
+        if (files == null) return;
+
+        List<File> legs = new ArrayList<>();
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(".tmp") || name.endsWith(LEGACY_SUFFIX)) {
+                if (!file.delete() && file.exists()) {
+                    System.err.println("Could not delete stale route cache file: " + file);
+                }
+            } else if (name.endsWith(SUFFIX)) {
+                legs.add(file);
+            }
+        }
+        legs.sort(Comparator.comparingLong(File::lastModified));
+        for (File file : legs) {
+            diskIndex.put(file.getName(), file.length());
+            diskBytes += file.length();
+        }
+        evictOverBudget();
+    }
+
+    /** Immutable cached leg with an absolute expiry time. */
+    private static class CacheEntry {
+        final RouteGeometry points;
+        final long expiresAtMs;
+
+        CacheEntry(RouteGeometry points, long expiresAtMs) {
+            this.points = points;
+            this.expiresAtMs = expiresAtMs;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMs;
+        }
+
+        long estimatedBytes() {
+            return BYTES_PER_ENTRY + points.estimatedBytes();
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package data_access;
+
+import entity.Location;
+import use_case.search.QueryNormalizer;
+import use_case.search.SearchDataAccessInterface;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * CachingSearchDataAccessObject
+ * Decorator that puts a two-tier geocoding cache in front of another
+ * SearchDataAccessInterface (normally the rate-limited OSMDataAccessObject).
+ * <p>
+ * Tiers:
+ * - Memory: bounded LRU of recent results
+ * - Disk: one small file per query under a cache directory, so results survive restarts;
+ *   least recently used files are deleted past a byte budget and expired ones when they
+ *   are next read
+ * <p>
+ * Keys are normalized with {@link QueryNormalizer}, so "Toronto" and " toronto "
+ * share an entry. Found results and "no result" answers have separate TTLs.
+ * Every freshly fetched place is also handed to an optional listener
+ * (used to feed the reverse-geocoding index).
+ */
+public class CachingSearchDataAccessObject implements SearchDataAccessInterface {
+
+    public static final int DEFAULT_MAX_MEMORY_ENTRIES = 512;
+    public static final Duration DEFAULT_HIT_TTL = Duration.ofDays(30);
+    public static final Duration DEFAULT_MISS_TTL = Duration.ofHours(1);
+    public static final long DEFAULT_MAX_DISK_BYTES = 16L * 1024 * 1024;
+
+    private static final String SUFFIX = ".txt";
+
+    private final SearchDataAccessInterface delegate;
+    private final File cacheDirectory;
+    private final LruCache<String, CacheEntry> memory;
+    private final long hitTtlMs;
+    private final long missTtlMs;
+    private final long maxDiskBytes;
+
+    /** File size per disk file name, least recently used first. */
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(256, 0.75f, true);
+    private long diskBytes;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private volatile Consumer<Location> resolvedLocationListener = location -> { };
+
+    public CachingSearchDataAccessObject(SearchDataAccessInterface delegate, File cacheDirectory) {
+        this(delegate, cacheDirectory, DEFAULT_MAX_MEMORY_ENTRIES, DEFAULT_HIT_TTL, DEFAULT_MISS_TTL);
+    }
+
+    public CachingSearchDataAccessObject(SearchDataAccessInterface delegate, File cacheDirectory,
+                                         int maxMemoryEntries, Duration hitTtl, Duration missTtl) {
+        this(delegate, cacheDirectory, maxMemoryEntries, hitTtl, missTtl, DEFAULT_MAX_DISK_BYTES);
+    }
+
+    /**
+     * @param cacheDirectory directory for the disk tier, or null for a memory-only cache
+     * @param maxDiskBytes   bound on the total size of the cache files
+     */
+    public CachingSearchDataAccessObject(SearchDataAccessInterface delegate, File cacheDirectory,
+                                         int maxMemoryEntries, Duration hitTtl, Duration missTtl,
+                                         long maxDiskBytes) {
+        if (maxDiskBytes <= 0) throw new IllegalArgumentException("maxDiskBytes must be positive");
+        this.delegate = delegate;
+        this.cacheDirectory = cacheDirectory;
+        this.memory = new LruCache<>(maxMemoryEntries);
+        this.hitTtlMs = hitTtl.toMillis();
+        this.missTtlMs = missTtl.toMillis();
+        this.maxDiskBytes = maxDiskBytes;
+
+        if (cacheDirectory != null && !cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            System.err.println("Could not create geocode cache directory: " + cacheDirectory);
+        }
+        loadDiskIndex();
+    }
+
+    @Override
+    public boolean existsByName(String locationName) throws IOException, InterruptedException {
+        return !lookup(locationName, 1).isEmpty();
+    }
+
+    @Override
+    public Location get(String locationName) throws IOException, InterruptedException {
+        List<Location> results = lookup(locationName, 1);
+        if (results.isEmpty()) {
+            throw new IOException("No results found for: " + locationName);
+        }
+        return results.get(0);
+    }
+
+    @Override
+    public Optional<Location> find(String locationName) throws IOException, InterruptedException {
+        List<Location> results = lookup(locationName, 1);
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    @Override
+    public List<Location> searchSuggestions(String query, int limit) throws IOException, InterruptedException {
+        return lookup(query, limit);
+    }
+
+    @Override
+    public CompletableFuture<List<Location>> searchSuggestionsAsync(String query, int limit) {
+        String key = keyFor(query, limit);
+        List<Location> cached = cached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        misses.incrementAndGet();
+        return FutureUtils.mapCancellable(delegate.searchSuggestionsAsync(query, limit),
+                results -> store(key, results));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Location>> findInBackground(String locationName) {
+        String key = keyFor(locationName, 1);
+        List<Location> cached = cached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(first(cached));
+        }
+
+        misses.incrementAndGet();
+        return FutureUtils.mapCancellable(delegate.findInBackground(locationName),
+                found -> first(store(key, found.map(List::of).orElse(List.of()))));
+    }
+
+    private static Optional<Location> first(List<Location> results) {
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    /** Called with every place fetched from the delegate (not for cache hits). */
+    public void setResolvedLocationListener(Consumer<Location> listener) {
+        this.resolvedLocationListener = listener == null ? location -> { } : listener;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Cache statistics                                                    */
+    /* ------------------------------------------------------------------ */
+
+    public long getMemoryHitCount() { return memoryHits.get(); }
+
+    public long getDiskHitCount() { return diskHits.get(); }
+
+    public long getHitCount() { return memoryHits.get() + diskHits.get(); }
+
+    public long getMissCount() { return misses.get(); }
+
+    /** Total size of the files of the disk tier. */
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    /** Drops the memory tier (the disk tier is kept). */
+    public void clearMemory() {
+        memory.clear();
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Lookup                                                              */
+    /* ------------------------------------------------------------------ */
+
+    private List<Location> lookup(String query, int limit) throws IOException, InterruptedException {
+        String key = keyFor(query, limit);
+        List<Location> cached = cached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        return store(key, delegate.searchSuggestions(query, limit));
+    }
+
+    private static String keyFor(String query, int limit) {
+        return QueryNormalizer.normalize(query) + "|" + limit;
+    }
+
+    /** Returns the unexpired results from memory or disk, counting the hit, or null. */
+    private List<Location> cached(String key) {
+        long now = System.currentTimeMillis();
+
+        CacheEntry entry = memory.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            memoryHits.incrementAndGet();
+            return entry.results;
+        }
+
+        entry = readFromDisk(key);
+        if (entry != null && !entry.isExpired(now)) {
+            diskHits.incrementAndGet();
+            memory.put(key, entry);
+            return entry.results;
+        }
+        return null;
+    }
+
+    private List<Location> store(String key, List<Location> fetched) {
+        List<Location> results = Collections.unmodifiableList(new ArrayList<>(fetched));
+
+        long ttl = results.isEmpty() ? missTtlMs : hitTtlMs;
+        CacheEntry entry = new CacheEntry(results, System.currentTimeMillis() + ttl);
+        memory.put(key, entry);
+        writeToDisk(key, entry);
+
+        Consumer<Location> listener = resolvedLocationListener;
+        for (Location location : results) {
+            listener.accept(location);
+        }
+        return results;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Disk tier                                                           */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * File format:
+     *   key
+     *   expiresAtMs
+     *   lat;lon;name
+     *   lat;lon;name
+     */
+    private CacheEntry readFromDisk(String key) {
+        File file = fileFor(key);
+        if (file == null) return null;
+        synchronized (this) {
+            // Looking the name up also marks it most recently used
+            if (diskIndex.get(file.getName()) == null) return null;
+        }
+
+        CacheEntry entry = null;
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            // Hash collision: the file belongs to another query, so leave it alone
+            if (!key.equals(br.readLine())) return null;
+
+            long expiresAt = Long.parseLong(br.readLine().trim());
+            if (System.currentTimeMillis() < expiresAt) {
+                List<Location> results = new ArrayList<>();
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String[] p = line.split(";", 3);
+                    if (p.length != 3) continue;
+                    results.add(new Location(p[2], Double.parseDouble(p[0]), Double.parseDouble(p[1])));
+                }
+                entry = new CacheEntry(Collections.unmodifiableList(results), expiresAt);
+            }
+        } catch (IOException | RuntimeException e) {
+            // unreadable: deleted below like an expired entry
+        }
+
+        if (entry == null) {
+            delete(file);
+            return null;
+        }
+        // Recency for the next run's eviction order
+        file.setLastModified(System.currentTimeMillis());
+        return entry;
+    }
+
+    private void writeToDisk(String key, CacheEntry entry) {
+        File file = fileFor(key);
+        if (file == null) return;
+
+        File tmp = null;
+        try {
+            tmp = File.createTempFile("geocode", ".tmp", cacheDirectory);
+            try (PrintWriter out = new PrintWriter(
+                    new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+                out.println(key);
+                out.println(entry.expiresAtMs);
+                for (Location loc : entry.results) {
+                    out.println(loc.getLatitude() + ";" + loc.getLongitude() + ";"
+                            + loc.getName().replace('\n', ' '));
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            record(file.getName(), file.length());
+        } catch (IOException e) {
+            if (tmp != null && !tmp.delete() && tmp.exists()) tmp.deleteOnExit();
+            System.err.println("Failed to write geocode cache entry: " + e.getMessage());
+        }
+    }
+
+    private File fileFor(String key) {
+        if (cacheDirectory == null) return null;
+        return new File(cacheDirectory, sha1Hex(key) + SUFFIX);
+    }
+
+    /** Adds a written file to the index, deleting least recently used files past the budget. */
+    private synchronized void record(String name, long bytes) {
+        Long previous = diskIndex.put(name, bytes);
+        diskBytes += bytes - (previous == null ? 0 : previous);
+        evictOverBudget();
+    }
+
+    private void delete(File file) {
+        synchronized (this) {
+            Long removed = diskIndex.remove(file.getName());
+            if (removed != null) diskBytes -= removed;
+        }
+        if (!file.delete() && file.exists()) {
+            System.err.println("Could not delete geocode cache entry: " + file);
+        }
+    }
+
+    /** Evicts least recently used first (the newest entry goes last, if it must go at all). */
+    private synchronized void evictOverBudget() {
+        Iterator<Map.Entry<String, Long>> eldest = diskIndex.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            diskBytes -= entry.getValue();
+            eldest.remove();
+            File file = new File(cacheDirectory, entry.getKey());
+            if (!file.delete() && file.exists()) {
+                System.err.println("Could not delete evicted geocode entry: " + file);
+            }
+        }
+    }
+
+    /** Indexes the files left by earlier runs, least recently used first, and drops leftover temp files. */
+    private synchronized void loadDiskIndex() {
+        if (cacheDirectory == null) return;
+        File[] files = cacheDirectory.listFiles(File::isFile);
+        if (files == null) return;
+
+        List<File> entries = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().endsWith(".tmp")) {
+                if (!file.delete() && file.exists()) {
+                    System.err.println("Could not delete stale geocode cache file: " + file);
+                }
+            } else if (file.getName().endsWith(SUFFIX)) {
+                entries.add(file);
+            }
+        }
+        entries.sort(Comparator.comparingLong(File::lastModified));
+        for (File file : entries) {
+            diskIndex.put(file.getName(), file.length());
+            diskBytes += file.length();
+        }
+        evictOverBudget();
+    }
+
+    private static String sha1Hex(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Immutable cached result list with an absolute expiry time. */
+    private static class CacheEntry {
+        final List<Location> results;
+        final long expiresAtMs;
+
+        CacheEntry(List<Location> results, long expiresAtMs) {
+            this.results = results;
+            this.expiresAtMs = expiresAtMs;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMs;
+        }
+    }
+}
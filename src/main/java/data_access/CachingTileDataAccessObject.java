@@ -0,0 +1,330 @@
+package data_access;
+
+import org.jxmapviewer.cache.LocalCache;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * CachingTileDataAccessObject
+ * Persistent, size-bounded map tile store in front of a TileSource, plugged into the map's
+ * tile loader as its LocalCache.
+ * <p>
+ * Responsibilities:
+ * - Keep each tile as one file at z/x/y.tile, with the ETag and Last-Modified it came with
+ * - Evict least recently used tiles once the files pass the byte budget; recency is the
+ *   file's modification time, so it carries over between runs
+ * - Serve tiles younger than the revalidation age without touching the network, and check
+ *   older ones with a conditional request (keeping the stale copy if that fails)
+ * - In offline mode, serve cached tiles of any age and fail the rest without a request
+ * <p>
+ * The map's loader asks {@link #get} before it downloads anything, so misses are fetched
+ * here (to keep their validators) and the loader's {@link #put} of the same bytes does nothing.
+ * Keys carry no host: use one directory per tile server.
+ */
+public class CachingTileDataAccessObject implements LocalCache {
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    /** OSM tiles change rarely; a week matches the expiry the tile servers send. */
+    public static final Duration DEFAULT_REVALIDATE_AFTER = Duration.ofDays(7);
+
+    private static final String SUFFIX = ".tile";
+
+    private final TileSource remote;
+    private final File cacheDirectory;
+    private final long maxBytes;
+    private final long revalidateAfterMs;
+    private volatile boolean offline;
+
+    /** File size per tile key, least recently used first. */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong downloads = new AtomicLong();
+    private final AtomicLong offlineMisses = new AtomicLong();
+
+    public CachingTileDataAccessObject(TileSource remote, File cacheDirectory) {
+        this(remote, cacheDirectory, DEFAULT_MAX_BYTES, DEFAULT_REVALIDATE_AFTER);
+    }
+
+    /**
+     * @param maxBytes        bound on the total size of the tile files
+     * @param revalidateAfter age after which a tile is checked with the server, or null to never check
+     */
+    public CachingTileDataAccessObject(TileSource remote, File cacheDirectory, long maxBytes, Duration revalidateAfter) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be positive");
+        this.remote = remote;
+        this.cacheDirectory = cacheDirectory;
+        this.maxBytes = maxBytes;
+        this.revalidateAfterMs = revalidateAfter == null ? Long.MAX_VALUE : revalidateAfter.toMillis();
+
+        if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            System.err.println("Could not create tile cache directory: " + cacheDirectory);
+        }
+        loadIndex();
+    }
+
+    /** In offline mode only cached tiles are served; nothing is requested. */
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    @Override
+    public InputStream get(URL url) throws IOException {
+        String key = keyFor(url);
+        if (key == null) {
+            // Not a z/x/y tile: the loader downloads it uncached
+            if (offline) throw new FileNotFoundException("Offline: " + url);
+            return null;
+        }
+
+        StoredTile cached = read(key);
+        if (cached != null && (offline || System.currentTimeMillis() - cached.fetchedAtMs < revalidateAfterMs)) {
+            hits.incrementAndGet();
+            return new ByteArrayInputStream(cached.image);
+        }
+        if (cached == null && offline) {
+            offlineMisses.incrementAndGet();
+            throw new FileNotFoundException("Tile " + key + " is not cached (offline)");
+        }
+
+        TileSource.Download download;
+        try {
+            download = cached == null ? remote.fetch(url, null, null)
+                    : remote.fetch(url, cached.etag, cached.lastModified);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching tile " + key);
+        } catch (IOException e) {
+            if (cached == null) throw e;
+            // An old tile beats a blank one
+            hits.incrementAndGet();
+            return new ByteArrayInputStream(cached.image);
+        }
+
+        StoredTile fresh;
+        if (download.isNotModified()) {
+            if (cached == null) throw new IOException("Tile source answered 'not modified' without a cached copy");
+            fresh = new StoredTile(cached.image, cached.etag, cached.lastModified, System.currentTimeMillis());
+            revalidations.incrementAndGet();
+        } else {
+            fresh = new StoredTile(download.getImage(), download.getEtag(), download.getLastModified(),
+                    System.currentTimeMillis());
+            downloads.incrementAndGet();
+        }
+        write(key, fresh);
+        return new ByteArrayInputStream(fresh.image);
+    }
+
+    /** Stores a tile the loader downloaded itself; tiles this cache already holds are left alone. */
+    @Override
+    public void put(URL url, InputStream data) throws IOException {
+        String key = keyFor(url);
+        if (key == null) return;
+        synchronized (this) {
+            if (index.containsKey(key)) return;
+        }
+        write(key, new StoredTile(data.readAllBytes(), null, null, System.currentTimeMillis()));
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Cache statistics                                                    */
+    /* ------------------------------------------------------------------ */
+
+    /** Tiles served from disk without a request. */
+    public long getHitCount() { return hits.get(); }
+
+    /** Cached tiles the server confirmed unchanged (a request, but no image sent). */
+    public long getRevalidationCount() { return revalidations.get(); }
+
+    /** Tiles downloaded, new or changed. */
+    public long getDownloadCount() { return downloads.get(); }
+
+    /** Tiles refused in offline mode because they were not cached. */
+    public long getOfflineMissCount() { return offlineMisses.get(); }
+
+    /** Tile lookups answered so far, from disk or not. */
+    public long getLookupCount() {
+        return hits.get() + revalidations.get() + downloads.get() + offlineMisses.get();
+    }
+
+    /** Share of tile lookups answered from disk without the network, 0 before the first lookup. */
+    public double getHitRatio() {
+        long total = getLookupCount();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public synchronized int getCachedTileCount() {
+        return index.size();
+    }
+
+    public synchronized long getCachedBytes() {
+        return totalBytes;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Disk                                                                */
+    /* ------------------------------------------------------------------ */
+
+    /** "z/x/y" from a tile URL ending in /z/x/y or /z/x/y.png, or null for any other URL. */
+    static String keyFor(URL url) {
+        String[] parts = url.getPath().split("/");
+        int n = parts.length;
+        if (n < 3) return null;
+        String y = parts[n - 1];
+        int dot = y.indexOf('.');
+        if (dot >= 0) y = y.substring(0, dot);
+        try {
+            int zoom = Integer.parseInt(parts[n - 3]);
+            int column = Integer.parseInt(parts[n - 2]);
+            int row = Integer.parseInt(y);
+            if (zoom < 0 || column < 0 || row < 0) return null;
+            return zoom + "/" + column + "/" + row;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(cacheDirectory, key + SUFFIX);
+    }
+
+    /**
+     * File format (DataOutput, big-endian):
+     *   UTF key, long fetchedAtMs, UTF etag ("" if none), UTF lastModified ("" if none),
+     *   int length, length x byte image
+     */
+    private StoredTile read(String key) {
+        synchronized (this) {
+            // Looking the key up also marks it most recently used
+            if (index.get(key) == null) return null;
+        }
+        File file = fileFor(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (!key.equals(in.readUTF())) throw new IOException("Foreign tile file: " + file);
+            long fetchedAt = in.readLong();
+            String etag = in.readUTF();
+            String lastModified = in.readUTF();
+            byte[] image = new byte[in.readInt()];
+            in.readFully(image);
+            // Recency for the next run's eviction order
+            file.setLastModified(System.currentTimeMillis());
+            return new StoredTile(image, etag.isEmpty() ? null : etag,
+                    lastModified.isEmpty() ? null : lastModified, fetchedAt);
+        } catch (IOException | RuntimeException e) {
+            forget(key);
+            return null;
+        }
+    }
+
+    private void write(String key, StoredTile tile) {
+        File file = fileFor(key);
+        File tmp = null;
+        try {
+            File parent = file.getParentFile();
+            if (!parent.isDirectory() && !parent.mkdirs()) throw new IOException("Could not create " + parent);
+            tmp = File.createTempFile("tile", ".tmp", cacheDirectory);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeUTF(key);
+                out.writeLong(tile.fetchedAtMs);
+                out.writeUTF(tile.etag == null ? "" : tile.etag);
+                out.writeUTF(tile.lastModified == null ? "" : tile.lastModified);
+                out.writeInt(tile.image.length);
+                out.write(tile.image);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            record(key, file.length());
+        } catch (IOException e) {
+            if (tmp != null && !tmp.delete() && tmp.exists()) tmp.deleteOnExit();
+            System.err.println("Failed to write tile cache entry: " + e.getMessage());
+        }
+    }
+
+    /** Adds a stored tile to the index, deleting least recently used tiles past the budget. */
+    private synchronized void record(String key, long bytes) {
+        Long previous = index.put(key, bytes);
+        totalBytes += bytes - (previous == null ? 0 : previous);
+        evictOverBudget();
+    }
+
+    private synchronized void forget(String key) {
+        Long removed = index.remove(key);
+        if (removed != null) totalBytes -= removed;
+    }
+
+    /** Evicts least recently used first (the newest tile goes last, if it must go at all). */
+    private synchronized void evictOverBudget() {
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            if (!fileFor(entry.getKey()).delete()) {
+                System.err.println("Could not delete evicted tile: " + fileFor(entry.getKey()));
+            }
+        }
+    }
+
+    /** Indexes the tiles left by earlier runs, least recently used first, and drops leftover temp files. */
+    private synchronized void loadIndex() {
+        if (!cacheDirectory.isDirectory()) return;
+        Path root = cacheDirectory.toPath();
+        List<File> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root, 4)) {
+            paths.filter(Files::isRegularFile).forEach(path -> files.add(path.toFile()));
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Failed to read tile cache directory: " + e.getMessage());
+        }
+
+        List<File> tiles = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().endsWith(".tmp") && file.getParentFile().equals(cacheDirectory)) {
+                file.delete();
+            } else if (file.getName().endsWith(SUFFIX)) {
+                tiles.add(file);
+            }
+        }
+        tiles.sort(Comparator.comparingLong(File::lastModified));
+        for (File file : tiles) {
+            String name = root.relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+            String key = name.substring(0, name.length() - SUFFIX.length());
+            index.put(key, file.length());
+            totalBytes += file.length();
+        }
+        evictOverBudget();
+    }
+
+    /** A tile image with the validators and time of its last download or revalidation. */
+    private static class StoredTile {
+        final byte[] image;
+        final String etag;
+        final String lastModified;
+        final long fetchedAtMs;
+
+        StoredTile(byte[] image, String etag, String lastModified, long fetchedAtMs) {
+            this.image = image;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAtMs = fetchedAtMs;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package data_access;
+
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.optimize_order.OptimizeOrderDataAccessInterface;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CachingTravelMatrixDataAccessObject
+ * Decorator that caches matrix cells in front of a remote TravelMatrixSource (normally
+ * OsrmTableDataAccessObject), with an offline estimate when the remote is unavailable.
+ * <p>
+ * Responsibilities:
+ * - Answer cells from an LRU of (source, destination, profile) pairs, keyed like routed legs
+ * - Ask the remote for the sources with no known cell against every destination, then
+ *   for the other sources with unknown cells against just those destinations
+ * - Fill the remaining cells from the fallback if the remote fails, without caching them
+ * <p>
+ * Adding one stop to an N-stop itinerary therefore asks for 2N + 1 cells instead of the
+ * whole matrix. Cells with no route are cached as infinite.
+ */
+public class CachingTravelMatrixDataAccessObject implements TravelMatrixSource, OptimizeOrderDataAccessInterface {
+
+    /** About 100 bytes of heap per cell, key included. */
+    public static final int DEFAULT_MAX_CELLS = 200_000;
+
+    private final TravelMatrixSource remote;
+    private final TravelMatrixSource fallback;
+    /** {seconds, meters} per cell key. */
+    private final LruCache<String, double[]> cells;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public CachingTravelMatrixDataAccessObject(TravelMatrixSource remote, TravelMatrixSource fallback) {
+        this(remote, fallback, DEFAULT_MAX_CELLS);
+    }
+
+    /**
+     * @param fallback estimate used when the remote fails, or null to report the failure
+     */
+    public CachingTravelMatrixDataAccessObject(TravelMatrixSource remote, TravelMatrixSource fallback, int maxCells) {
+        this.remote = remote;
+        this.fallback = fallback;
+        this.cells = new LruCache<>(maxCells);
+    }
+
+    @Override
+    public double[][] getDurations(List<GeoPosition> stops, String profile) throws IOException, InterruptedException {
+        return getMatrix(stops, stops, profile).toSecondsArray();
+    }
+
+    @Override
+    public TravelMatrix getMatrix(List<GeoPosition> sources, List<GeoPosition> destinations, String profile)
+            throws IOException, InterruptedException {
+        int rows = sources.size();
+        int columns = destinations.size();
+        TravelMatrix matrix = new TravelMatrix(rows, columns);
+        String[] keys = new String[rows * columns];
+        int[] unknownInRow = new int[rows];
+        int[] knownInRow = new int[rows];
+        long found = 0;
+        long unknown = 0;
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (sources.get(r).equals(destinations.get(c))) {
+                    matrix.set(r, c, 0, 0);
+                    continue;
+                }
+                String key = CachingRoutingDataAccessObject.keyFor(sources.get(r), destinations.get(c), profile);
+                keys[r * columns + c] = key;
+                double[] cell = cells.get(key);
+                if (cell != null) {
+                    matrix.set(r, c, cell[0], cell[1]);
+                    knownInRow[r]++;
+                    found++;
+                } else {
+                    unknownInRow[r]++;
+                    unknown++;
+                }
+            }
+        }
+        hits.addAndGet(found);
+        if (unknown == 0) return matrix;
+
+        // New sources first, against every destination; this also fills the new destinations'
+        // cells of other new sources, so an added stop costs one row plus one column
+        boolean[] newRow = new boolean[rows];
+        for (int r = 0; r < rows; r++) newRow[r] = unknownInRow[r] > 0 && knownInRow[r] == 0;
+        int[] newRows = indicesOf(newRow);
+        if (newRows.length > 0) {
+            int[] allColumns = new int[columns];
+            for (int c = 0; c < columns; c++) allColumns[c] = c;
+            fill(sources, destinations, newRows, allColumns, matrix, keys, profile);
+        }
+
+        // Then the remaining unknown cells, normally the known sources against new destinations
+        boolean[] rowMissing = new boolean[rows];
+        boolean[] columnMissing = new boolean[columns];
+        for (int r = 0; r < rows; r++) {
+            if (newRow[r]) continue;
+            for (int c = 0; c < columns; c++) {
+                if (!matrix.isKnown(r, c)) rowMissing[r] = columnMissing[c] = true;
+            }
+        }
+        int[] missingRows = indicesOf(rowMissing);
+        if (missingRows.length > 0) {
+            fill(sources, destinations, missingRows, indicesOf(columnMissing), matrix, keys, profile);
+        }
+        return matrix;
+    }
+
+    /**
+     * Fills the unknown cells among the given rows and columns from the remote, or from the
+     * fallback if the remote fails.
+     */
+    private void fill(List<GeoPosition> sources, List<GeoPosition> destinations, int[] rows, int[] columns,
+                      TravelMatrix matrix, String[] keys, String profile) throws IOException, InterruptedException {
+        List<GeoPosition> subSources = pick(sources, rows);
+        // An equal list on both sides lets the remote send each stop once
+        List<GeoPosition> subDestinations = sources.equals(destinations) && Arrays.equals(rows, columns)
+                ? subSources : pick(destinations, columns);
+
+        try {
+            TravelMatrix fetched = remote.getMatrix(subSources, subDestinations, profile);
+            copyUnknown(fetched, matrix, rows, columns, keys, true);
+            misses.addAndGet((long) rows.length * columns.length);
+        } catch (IOException e) {
+            if (fallback == null) throw e;
+            TravelMatrix estimated = fallback.getMatrix(subSources, subDestinations, profile);
+            fallbacks.addAndGet(copyUnknown(estimated, matrix, rows, columns, keys, false));
+        }
+    }
+
+    /** Cells answered from the cache (a stop to itself is not counted). */
+    public long getHitCount() { return hits.get(); }
+
+    /** Cells requested from the remote, including any it sent that were already known. */
+    public long getMissCount() { return misses.get(); }
+
+    /** Cells estimated by the fallback because the remote failed. */
+    public long getFallbackCount() { return fallbacks.get(); }
+
+    /** Share of cell lookups answered from the cache, 0 before the first lookup. */
+    public double getHitRatio() {
+        long total = hits.get() + misses.get() + fallbacks.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public int getCachedCellCount() {
+        return cells.size();
+    }
+
+    public void clear() {
+        cells.clear();
+    }
+
+    /**
+     * Copies the sub-matrix answer into the unknown cells of the result, caching remote
+     * answers only. A cell the source left unknown is an error.
+     *
+     * @return number of cells filled
+     */
+    private int copyUnknown(TravelMatrix from, TravelMatrix into, int[] rows, int[] columns,
+                             String[] keys, boolean cache) throws IOException {
+        if (from == null || from.getRowCount() != rows.length || from.getColumnCount() != columns.length) {
+            throw new IOException("Travel matrix source returned the wrong size");
+        }
+        int filled = 0;
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < columns.length; j++) {
+                int r = rows[i];
+                int c = columns[j];
+                if (into.isKnown(r, c)) continue;
+                if (!from.isKnown(i, j)) throw new IOException("Travel matrix source left a cell empty");
+                double seconds = from.seconds(i, j);
+                double meters = from.meters(i, j);
+                into.set(r, c, seconds, meters);
+                if (cache) cells.put(keys[r * into.getColumnCount() + c], new double[]{seconds, meters});
+                filled++;
+            }
+        }
+        return filled;
+    }
+
+    private static int[] indicesOf(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) if (flag) count++;
+        int[] indices = new int[count];
+        int k = 0;
+        for (int i = 0; i < flags.length; i++) if (flags[i]) indices[k++] = i;
+        return indices;
+    }
+
+    private static List<GeoPosition> pick(List<GeoPosition> points, int[] indices) {
+        List<GeoPosition> picked = new ArrayList<>(indices.length);
+        for (int index : indices) picked.add(points.get(index));
+        return picked;
+    }
+}
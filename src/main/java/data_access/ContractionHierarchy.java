@@ -0,0 +1,312 @@
+package data_access;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ContractionHierarchy
+ * Shortcut index over a {@link RoadGraph} for one profile, answering fastest-path
+ * queries by searching only upwards in the node order.
+ * <p>
+ * Layout (compressed sparse rows, like the graph itself):
+ * - up edges of v at [upFirst[v], upFirst[v + 1]): v -> upTarget, to nodes contracted after v
+ * - down edges of v at [downFirst[v], downFirst[v + 1]): downSource -> v, from nodes contracted after v
+ * - each edge has its travel seconds and the node it bypasses (-1 for an original road edge)
+ * <p>
+ * A query runs Dijkstra upwards from both ends, skipping nodes reached more cheaply from
+ * above (stall-on-demand), and unpacks the shortcuts of the best meeting point back into
+ * road nodes. Built by {@link ContractionHierarchyBuilder}; saved next to the graph file.
+ */
+public class ContractionHierarchy {
+
+    private static final int MAGIC = 0x52474331; // "RGC1"
+
+    private final RoadGraph graph;
+    private final RoadGraph.Profile profile;
+    final int[] upFirst;
+    final int[] upTarget;
+    final float[] upWeight;
+    final int[] upMiddle;
+    final int[] downFirst;
+    final int[] downSource;
+    final float[] downWeight;
+    final int[] downMiddle;
+    private final ThreadLocal<Search> searches;
+
+    ContractionHierarchy(RoadGraph graph, RoadGraph.Profile profile,
+                         int[] upFirst, int[] upTarget, float[] upWeight, int[] upMiddle,
+                         int[] downFirst, int[] downSource, float[] downWeight, int[] downMiddle) {
+        this.graph = graph;
+        this.profile = profile;
+        this.upFirst = upFirst;
+        this.upTarget = upTarget;
+        this.upWeight = upWeight;
+        this.upMiddle = upMiddle;
+        this.downFirst = downFirst;
+        this.downSource = downSource;
+        this.downWeight = downWeight;
+        this.downMiddle = downMiddle;
+        this.searches = ThreadLocal.withInitial(Search::new);
+    }
+
+    public RoadGraph.Profile getProfile() {
+        return profile;
+    }
+
+    /** Up and down edges, original and shortcut. */
+    public int edgeCount() {
+        return upTarget.length + downSource.length;
+    }
+
+    /** Fastest route between two nodes, or null if the target cannot be reached. */
+    public RoadGraphRouter.Route route(int source, int target) {
+        if (source == target) return new RoadGraphRouter.Route(new int[]{source}, 0);
+        return searches.get().run(source, target);
+    }
+
+    /** The hierarchy file for a profile next to the graph file, e.g. road_graph.walking.ch. */
+    public static Path fileFor(Path graphFile, RoadGraph.Profile profile) {
+        String name = graphFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return graphFile.resolveSibling(base + "." + profile.name().toLowerCase(Locale.ROOT) + ".ch");
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Query                                                               */
+    /* ------------------------------------------------------------------ */
+
+    /** Reusable state of one thread's queries, reset by stamping like RoadGraphRouter's. */
+    private final class Search {
+        /** Forward state of node v at slot v, backward state at slot nodeCount + v. */
+        final float[] dist = new float[2 * graph.nodeCount()];
+        /** Node the slot was reached from, and the CH edge used. */
+        final int[] parent = new int[2 * graph.nodeCount()];
+        final int[] parentEdge = new int[2 * graph.nodeCount()];
+        final int[] stamp = new int[2 * graph.nodeCount()];
+        final MinHeap forward = new MinHeap();
+        final MinHeap backward = new MinHeap();
+        int query;
+
+        RoadGraphRouter.Route run(int source, int target) {
+            if (++query >= Integer.MAX_VALUE / 2) {
+                Arrays.fill(stamp, 0);
+                query = 1;
+            }
+            int n = graph.nodeCount();
+            forward.clear();
+            backward.clear();
+            reach(source, 0, -1, -1, forward);
+            reach(n + target, 0, -1, -1, backward);
+
+            double best = Double.POSITIVE_INFINITY;
+            int meeting = -1;
+            while (true) {
+                boolean forwardOpen = !forward.isEmpty() && forward.minKey() < best;
+                boolean backwardOpen = !backward.isEmpty() && backward.minKey() < best;
+                if (!forwardOpen && !backwardOpen) break;
+                boolean isForward = forwardOpen && (!backwardOpen || forward.minKey() <= backward.minKey());
+
+                MinHeap heap = isForward ? forward : backward;
+                int u = heap.pop();
+                int offset = isForward ? 0 : n;
+                int slot = offset + u;
+                if (stamp[slot] != 2 * query) continue;   // stale heap entry
+                stamp[slot] = 2 * query + 1;
+                double du = dist[slot];
+
+                int oSlot = (isForward ? n : 0) + u;
+                if (stamp[oSlot] >= 2 * query && du + dist[oSlot] < best) {
+                    best = du + dist[oSlot];
+                    meeting = u;
+                }
+                if (stalled(u, du, isForward)) continue;
+
+                int[] first = isForward ? upFirst : downFirst;
+                int[] adjacent = isForward ? upTarget : downSource;
+                float[] weight = isForward ? upWeight : downWeight;
+                for (int e = first[u]; e < first[u + 1]; e++) {
+                    int vSlot = offset + adjacent[e];
+                    double dv = du + weight[e];
+                    if (stamp[vSlot] < 2 * query || dv < dist[vSlot] && stamp[vSlot] == 2 * query) {
+                        reach(vSlot, dv, u, e, heap);
+                    }
+                }
+            }
+            return meeting < 0 ? null : path(source, target, meeting, best);
+        }
+
+        /**
+         * Stall-on-demand: u need not be expanded if a node above it, already reached in the
+         * same direction, gets to u more cheaply through the edges that point down to u.
+         */
+        private boolean stalled(int u, double du, boolean isForward) {
+            int offset = isForward ? 0 : graph.nodeCount();
+            int[] first = isForward ? downFirst : upFirst;
+            int[] adjacent = isForward ? downSource : upTarget;
+            float[] weight = isForward ? downWeight : upWeight;
+            for (int e = first[u]; e < first[u + 1]; e++) {
+                int wSlot = offset + adjacent[e];
+                if (stamp[wSlot] >= 2 * query && dist[wSlot] + weight[e] < du) return true;
+            }
+            return false;
+        }
+
+        private void reach(int slot, double d, int parentNode, int edge, MinHeap heap) {
+            stamp[slot] = 2 * query;
+            dist[slot] = (float) d;
+            parent[slot] = parentNode;
+            parentEdge[slot] = edge;
+            heap.push(d, slot >= graph.nodeCount() ? slot - graph.nodeCount() : slot);
+        }
+
+        private RoadGraphRouter.Route path(int source, int target, int meeting, double seconds) {
+            int n = graph.nodeCount();
+            IntList nodes = new IntList();
+
+            // Forward half, collected from the meeting point back to the source
+            IntList chain = new IntList();
+            for (int v = meeting; v != -1; v = parent[v]) chain.add(v);
+            nodes.add(source);
+            for (int i = chain.size - 1; i > 0; i--) {
+                int from = chain.values[i];
+                int to = chain.values[i - 1];
+                unpack(from, to, upMiddle[parentEdge[to]], nodes);
+            }
+            // Backward half: each slot's parent is the next node towards the target
+            for (int v = meeting; parent[n + v] != -1; v = parent[n + v]) {
+                unpack(v, parent[n + v], downMiddle[parentEdge[n + v]], nodes);
+            }
+            assert nodes.values[nodes.size - 1] == target;
+            return new RoadGraphRouter.Route(Arrays.copyOf(nodes.values, nodes.size), seconds);
+        }
+    }
+
+    /** Appends the road nodes after {@code from} up to and including {@code to}. */
+    private void unpack(int from, int to, int middle, IntList out) {
+        if (middle < 0) {
+            out.add(to);
+            return;
+        }
+        // The bypassed node was contracted before both ends: from -> middle is one of
+        // middle's down edges and middle -> to one of its up edges
+        unpack(from, middle, downMiddle[findDown(middle, from)], out);
+        unpack(middle, to, upMiddle[findUp(middle, to)], out);
+    }
+
+    private int findUp(int v, int target) {
+        for (int e = upFirst[v]; e < upFirst[v + 1]; e++) if (upTarget[e] == target) return e;
+        throw new IllegalStateException("Missing up edge " + v + " -> " + target);
+    }
+
+    private int findDown(int v, int source) {
+        for (int e = downFirst[v]; e < downFirst[v + 1]; e++) if (downSource[e] == source) return e;
+        throw new IllegalStateException("Missing down edge " + source + " -> " + v);
+    }
+
+    /** Growable int array for unpacked paths. */
+    private static final class IntList {
+        int[] values = new int[64];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Binary file format                                                  */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * File format (little-endian):
+     *   int magic, int profile ordinal, int graph nodeCount, int graph edgeCount, int upCount, int downCount
+     *   int[nodeCount + 1] upFirst, int[upCount] upTarget, float[upCount] upWeight, int[upCount] upMiddle
+     *   int[nodeCount + 1] downFirst, int[downCount] downSource, float[downCount] downWeight,
+     *   int[downCount] downMiddle
+     */
+    public void write(Path path) throws IOException {
+        int n = graph.nodeCount();
+        long bytes = 24L + 8L * (n + 1) + 12L * upTarget.length + 12L * downSource.length;
+        ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(bytes)).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(profile.ordinal()).putInt(n).putInt(graph.edgeCount())
+                .putInt(upTarget.length).putInt(downSource.length);
+        putInts(buf, upFirst);
+        putInts(buf, upTarget);
+        putFloats(buf, upWeight);
+        putInts(buf, upMiddle);
+        putInts(buf, downFirst);
+        putInts(buf, downSource);
+        putFloats(buf, downWeight);
+        putInts(buf, downMiddle);
+        buf.flip();
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+    }
+
+    /**
+     * Loads a hierarchy written by {@link #write(Path)} for this graph.
+     *
+     * @throws IOException if the file was built for a different graph
+     */
+    public static ContractionHierarchy read(Path path, RoadGraph graph) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.getInt() != MAGIC) throw new IOException("Not a contraction hierarchy: " + path);
+
+            int profileOrdinal = buf.getInt();
+            int nodes = buf.getInt();
+            int graphEdges = buf.getInt();
+            if (profileOrdinal < 0 || profileOrdinal >= RoadGraph.Profile.values().length
+                    || nodes != graph.nodeCount() || graphEdges != graph.edgeCount()) {
+                throw new IOException("Contraction hierarchy " + path + " was built for another graph");
+            }
+            int up = buf.getInt();
+            int down = buf.getInt();
+            int[] upFirst = readInts(buf, nodes + 1);
+            int[] upTarget = readInts(buf, up);
+            float[] upWeight = readFloats(buf, up);
+            int[] upMiddle = readInts(buf, up);
+            int[] downFirst = readInts(buf, nodes + 1);
+            int[] downSource = readInts(buf, down);
+            float[] downWeight = readFloats(buf, down);
+            int[] downMiddle = readInts(buf, down);
+            return new ContractionHierarchy(graph, RoadGraph.Profile.values()[profileOrdinal],
+                    upFirst, upTarget, upWeight, upMiddle, downFirst, downSource, downWeight, downMiddle);
+        }
+    }
+
+    private static void putInts(ByteBuffer buf, int[] values) {
+        buf.asIntBuffer().put(values);
+        buf.position(buf.position() + 4 * values.length);
+    }
+
+    private static void putFloats(ByteBuffer buf, float[] values) {
+        buf.asFloatBuffer().put(values);
+        buf.position(buf.position() + 4 * values.length);
+    }
+
+    private static int[] readInts(ByteBuffer buf, int n) {
+        int[] out = new int[n];
+        buf.asIntBuffer().get(out);
+        buf.position(buf.position() + 4 * n);
+        return out;
+    }
+
+    private static float[] readFloats(ByteBuffer buf, int n) {
+        float[] out = new float[n];
+        buf.asFloatBuffer().get(out);
+        buf.position(buf.position() + 4 * n);
+        return out;
+    }
+}
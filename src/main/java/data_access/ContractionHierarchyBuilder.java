@@ -0,0 +1,430 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * ContractionHierarchyBuilder
+ * One-off preprocessing that contracts every node of a {@link RoadGraph} for one profile
+ * and produces its {@link ContractionHierarchy}.
+ * <p>
+ * Responsibilities:
+ * - Rate each node by edge difference (shortcuts it would need minus edges it removes),
+ *   contracted neighbours and depth, so cheap, spread-out nodes go first
+ * - Contract in rounds: every node that rates lower than all its remaining neighbours is
+ *   contracted in the same round, and the witness searches of a round run in parallel
+ *   (these nodes share no edge, so their shortcuts do not interfere)
+ * - Apply each round's shortcuts on one thread; a neighbour of a contracted node is only
+ *   re-rated (in parallel) once its stale rating would put it in a round
+ * <p>
+ * Witness searches are bounded; when one gives up, the shortcut is kept, which costs
+ * query speed but never correctness.
+ */
+public class ContractionHierarchyBuilder {
+
+    /** Nodes a witness search may settle before it gives up and keeps the shortcut. */
+    private static final int WITNESS_SETTLE_LIMIT = 400;
+    /** Tighter limit while only rating a node; an overestimate just delays its contraction. */
+    private static final int RATING_SETTLE_LIMIT = 10;
+
+    private static final byte ACTIVE = 0;
+    private static final byte SELECTED = 1;
+    private static final byte CONTRACTED = 2;
+
+    private final RoadGraph graph;
+    private final RoadGraph.Profile profile;
+    private final ForkJoinPool pool;
+    private final int n;
+
+    // Remaining graph: adjacency per node among the nodes not contracted yet
+    private final int[][] outNode;
+    private final float[][] outWeight;
+    private final int[][] outMiddle;
+    private final int[] outSize;
+    private final int[][] inNode;
+    private final float[][] inWeight;
+    private final int[][] inMiddle;
+    private final int[] inSize;
+
+    private final byte[] state;
+    private final float[] priority;
+    private final int[] deletedNeighbors;
+    private final int[] level;
+    /** Set when a neighbour was contracted since the node was last rated. */
+    private final boolean[] stale;
+
+    // Final hierarchy edges, captured per node when it is contracted
+    private final int[][] upNode;
+    private final float[][] upWeight;
+    private final int[][] upMiddle;
+    private final int[][] downNode;
+    private final float[][] downWeight;
+    private final int[][] downMiddle;
+
+    private final ThreadLocal<WitnessSearch> witnessSearches;
+
+    private ContractionHierarchyBuilder(RoadGraph graph, RoadGraph.Profile profile, int threads) {
+        this.graph = graph;
+        this.profile = profile;
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        this.n = graph.nodeCount();
+        outNode = new int[n][];
+        outWeight = new float[n][];
+        outMiddle = new int[n][];
+        outSize = new int[n];
+        inNode = new int[n][];
+        inWeight = new float[n][];
+        inMiddle = new int[n][];
+        inSize = new int[n];
+        state = new byte[n];
+        priority = new float[n];
+        deletedNeighbors = new int[n];
+        level = new int[n];
+        stale = new boolean[n];
+        upNode = new int[n][];
+        upWeight = new float[n][];
+        upMiddle = new int[n][];
+        downNode = new int[n][];
+        downWeight = new float[n][];
+        downMiddle = new int[n][];
+        witnessSearches = ThreadLocal.withInitial(WitnessSearch::new);
+    }
+
+    /**
+     * Contracts the whole graph for the profile.
+     *
+     * @param threads worker threads for the rating and witness-search phases
+     */
+    public static ContractionHierarchy build(RoadGraph graph, RoadGraph.Profile profile, int threads) {
+        ContractionHierarchyBuilder builder = new ContractionHierarchyBuilder(graph, profile, threads);
+        try {
+            return builder.run();
+        } finally {
+            builder.pool.shutdown();
+        }
+    }
+
+    private ContractionHierarchy run() {
+        float[] seconds = graph.outgoingSeconds(profile);
+        for (int v = 0; v < n; v++) {
+            outNode[v] = new int[4];
+            outWeight[v] = new float[4];
+            outMiddle[v] = new int[4];
+            inNode[v] = new int[4];
+            inWeight[v] = new float[4];
+            inMiddle[v] = new int[4];
+        }
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.firstEdge[v]; e < graph.firstEdge[v + 1]; e++) {
+                int w = graph.edgeTarget[e];
+                if (w != v && seconds[e] != Float.POSITIVE_INFINITY) addOrImprove(v, w, seconds[e], -1);
+            }
+        }
+
+        int[] active = IntStream.range(0, n).toArray();
+        parallel(active, v -> priority[v] = rate(v));
+
+        while (active.length > 0) {
+            int[] round = lowestRated(active);
+            for (int v : round) state[v] = SELECTED;
+
+            List<List<float[]>> shortcuts = new ArrayList<>(Collections.nCopies(round.length, null));
+            parallelIndexed(round.length, i -> shortcuts.set(i, shortcutsFor(round[i], -1, WITNESS_SETTLE_LIMIT)));
+
+            for (int i = 0; i < round.length; i++) contract(round[i], shortcuts.get(i));
+
+            int kept = 0;
+            for (int v : active) if (state[v] == ACTIVE) active[kept++] = v;
+            active = Arrays.copyOf(active, kept);
+        }
+        return pack();
+    }
+
+    /**
+     * The next round: active nodes rated lower than all their neighbours. Ratings are updated
+     * lazily: a stale node is only re-rated once it would be chosen, and the choice is made
+     * again until every chosen node is rated up to date.
+     */
+    private int[] lowestRated(int[] active) {
+        while (true) {
+            int[] chosen = independentLowest(active);
+            int[] rerate = Arrays.stream(chosen).filter(v -> stale[v]).toArray();
+            if (rerate.length == 0) return chosen;
+            parallel(rerate, v -> {
+                priority[v] = rate(v);
+                stale[v] = false;
+            });
+        }
+    }
+
+    /** Active nodes rated strictly lower than every active neighbour (ties broken by a hash). */
+    private int[] independentLowest(int[] active) {
+        boolean[] chosen = new boolean[n];
+        parallel(active, v -> {
+            for (int i = 0; i < outSize[v]; i++) if (!lower(v, outNode[v][i])) return;
+            for (int i = 0; i < inSize[v]; i++) if (!lower(v, inNode[v][i])) return;
+            chosen[v] = true;
+        });
+        return Arrays.stream(active).filter(v -> chosen[v]).toArray();
+    }
+
+    private boolean lower(int v, int u) {
+        if (priority[v] != priority[u]) return priority[v] < priority[u];
+        int hv = v * 0x9E3779B1, hu = u * 0x9E3779B1;
+        return hv != hu ? hv < hu : v < u;
+    }
+
+    /** Edge difference plus contracted neighbours plus depth; lower is contracted sooner. */
+    private float rate(int v) {
+        int shortcuts = shortcutsFor(v, v, RATING_SETTLE_LIMIT).size();
+        int edgeDifference = shortcuts - inSize[v] - outSize[v];
+        return 2f * edgeDifference + deletedNeighbors[v] + level[v];
+    }
+
+    /**
+     * Shortcuts {u, w, seconds} needed to keep every shortest u -> v -> w path once v is gone.
+     * Witness paths may only use ACTIVE nodes other than {@code skip}.
+     *
+     * @param settleLimit nodes each witness search may settle
+     */
+    private List<float[]> shortcutsFor(int v, int skip, int settleLimit) {
+        List<float[]> shortcuts = new ArrayList<>();
+        if (inSize[v] == 0 || outSize[v] == 0) return shortcuts;
+
+        float maxOut = 0;
+        for (int j = 0; j < outSize[v]; j++) maxOut = Math.max(maxOut, outWeight[v][j]);
+
+        WitnessSearch search = witnessSearches.get();
+        for (int i = 0; i < inSize[v]; i++) {
+            int u = inNode[v][i];
+            float viaV = inWeight[v][i];
+            search.run(u, skip, viaV + maxOut, outNode[v], outSize[v], settleLimit);
+            for (int j = 0; j < outSize[v]; j++) {
+                int w = outNode[v][j];
+                if (w == u) continue;
+                float through = viaV + outWeight[v][j];
+                if (search.distance(w) > through) {
+                    shortcuts.add(new float[]{u, w, through});
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    /** Moves v's remaining edges into the hierarchy, removes v and adds its shortcuts. */
+    private void contract(int v, List<float[]> shortcuts) {
+        upNode[v] = Arrays.copyOf(outNode[v], outSize[v]);
+        upWeight[v] = Arrays.copyOf(outWeight[v], outSize[v]);
+        upMiddle[v] = Arrays.copyOf(outMiddle[v], outSize[v]);
+        downNode[v] = Arrays.copyOf(inNode[v], inSize[v]);
+        downWeight[v] = Arrays.copyOf(inWeight[v], inSize[v]);
+        downMiddle[v] = Arrays.copyOf(inMiddle[v], inSize[v]);
+
+        for (int i = 0; i < outSize[v]; i++) neighbourLost(outNode[v][i], v);
+        for (int i = 0; i < inSize[v]; i++) {
+            int u = inNode[v][i];
+            if (indexOf(outNode[v], outSize[v], u) < 0) neighbourLost(u, v);
+        }
+        for (int i = 0; i < outSize[v]; i++) removeIn(outNode[v][i], v);
+        for (int i = 0; i < inSize[v]; i++) removeOut(inNode[v][i], v);
+        outSize[v] = 0;
+        inSize[v] = 0;
+        state[v] = CONTRACTED;
+
+        for (float[] s : shortcuts) addOrImprove((int) s[0], (int) s[1], s[2], v);
+    }
+
+    private void neighbourLost(int u, int v) {
+        deletedNeighbors[u]++;
+        level[u] = Math.max(level[u], level[v] + 1);
+        stale[u] = true;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Remaining-graph adjacency                                           */
+    /* ------------------------------------------------------------------ */
+
+    private void addOrImprove(int u, int w, float weight, int middle) {
+        for (int i = 0; i < outSize[u]; i++) {
+            if (outNode[u][i] == w) {
+                if (weight < outWeight[u][i]) {
+                    outWeight[u][i] = weight;
+                    outMiddle[u][i] = middle;
+                    int j = find(inNode[w], inSize[w], u);
+                    inWeight[w][j] = weight;
+                    inMiddle[w][j] = middle;
+                }
+                return;
+            }
+        }
+        if (outSize[u] == outNode[u].length) {
+            int capacity = outSize[u] * 2;
+            outNode[u] = Arrays.copyOf(outNode[u], capacity);
+            outWeight[u] = Arrays.copyOf(outWeight[u], capacity);
+            outMiddle[u] = Arrays.copyOf(outMiddle[u], capacity);
+        }
+        outNode[u][outSize[u]] = w;
+        outWeight[u][outSize[u]] = weight;
+        outMiddle[u][outSize[u]++] = middle;
+
+        if (inSize[w] == inNode[w].length) {
+            int capacity = inSize[w] * 2;
+            inNode[w] = Arrays.copyOf(inNode[w], capacity);
+            inWeight[w] = Arrays.copyOf(inWeight[w], capacity);
+            inMiddle[w] = Arrays.copyOf(inMiddle[w], capacity);
+        }
+        inNode[w][inSize[w]] = u;
+        inWeight[w][inSize[w]] = weight;
+        inMiddle[w][inSize[w]++] = middle;
+    }
+
+    private void removeOut(int u, int w) {
+        int i = find(outNode[u], outSize[u], w);
+        int last = --outSize[u];
+        outNode[u][i] = outNode[u][last];
+        outWeight[u][i] = outWeight[u][last];
+        outMiddle[u][i] = outMiddle[u][last];
+    }
+
+    private void removeIn(int w, int u) {
+        int i = find(inNode[w], inSize[w], u);
+        int last = --inSize[w];
+        inNode[w][i] = inNode[w][last];
+        inWeight[w][i] = inWeight[w][last];
+        inMiddle[w][i] = inMiddle[w][last];
+    }
+
+    private static int indexOf(int[] nodes, int size, int node) {
+        for (int i = 0; i < size; i++) if (nodes[i] == node) return i;
+        return -1;
+    }
+
+    private static int find(int[] nodes, int size, int node) {
+        int i = indexOf(nodes, size, node);
+        if (i < 0) throw new IllegalStateException("Missing adjacency entry for node " + node);
+        return i;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Packing                                                             */
+    /* ------------------------------------------------------------------ */
+
+    private ContractionHierarchy pack() {
+        int[] upFirst = new int[n + 1];
+        int[] downFirst = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            upFirst[v + 1] = upFirst[v] + (upNode[v] == null ? 0 : upNode[v].length);
+            downFirst[v + 1] = downFirst[v] + (downNode[v] == null ? 0 : downNode[v].length);
+        }
+        int[] upTarget = new int[upFirst[n]];
+        float[] upSeconds = new float[upFirst[n]];
+        int[] upVia = new int[upFirst[n]];
+        int[] downSource = new int[downFirst[n]];
+        float[] downSeconds = new float[downFirst[n]];
+        int[] downVia = new int[downFirst[n]];
+        for (int v = 0; v < n; v++) {
+            if (upNode[v] != null) {
+                System.arraycopy(upNode[v], 0, upTarget, upFirst[v], upNode[v].length);
+                System.arraycopy(upWeight[v], 0, upSeconds, upFirst[v], upNode[v].length);
+                System.arraycopy(upMiddle[v], 0, upVia, upFirst[v], upNode[v].length);
+            }
+            if (downNode[v] != null) {
+                System.arraycopy(downNode[v], 0, downSource, downFirst[v], downNode[v].length);
+                System.arraycopy(downWeight[v], 0, downSeconds, downFirst[v], downNode[v].length);
+                System.arraycopy(downMiddle[v], 0, downVia, downFirst[v], downNode[v].length);
+            }
+        }
+        return new ContractionHierarchy(graph, profile, upFirst, upTarget, upSeconds, upVia,
+                downFirst, downSource, downSeconds, downVia);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Parallel helpers                                                    */
+    /* ------------------------------------------------------------------ */
+
+    private void parallel(int[] nodes, IntConsumer action) {
+        parallelIndexed(nodes.length, i -> action.accept(nodes[i]));
+    }
+
+    private void parallelIndexed(int count, IntConsumer action) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(action)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Contraction was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Contraction failed", e.getCause());
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Witness search                                                      */
+    /* ------------------------------------------------------------------ */
+
+    /** Bounded Dijkstra over the remaining graph; one per worker thread. */
+    private final class WitnessSearch {
+        final float[] dist = new float[n];
+        final int[] stamp = new int[n];
+        /** targetStamp[v] == query while v is a target not settled yet. */
+        final int[] targetStamp = new int[n];
+        final MinHeap heap = new MinHeap();
+        int query;
+
+        /**
+         * Distances from {@code source} avoiding {@code skip} and non-active nodes, until every
+         * target is settled, the distance exceeds {@code maxDistance} or the settle limit is hit.
+         */
+        void run(int source, int skip, float maxDistance, int[] targets, int targetCount, int settleLimit) {
+            if (++query >= Integer.MAX_VALUE / 2) {
+                Arrays.fill(stamp, 0);
+                Arrays.fill(targetStamp, 0);
+                query = 1;
+            }
+            heap.clear();
+            stamp[source] = 2 * query;
+            dist[source] = 0;
+            heap.push(0, source);
+
+            int targetsLeft = 0;
+            for (int i = 0; i < targetCount; i++) {
+                if (targets[i] != source && targetStamp[targets[i]] != query) {
+                    targetStamp[targets[i]] = query;
+                    targetsLeft++;
+                }
+            }
+            int settled = 0;
+            while (!heap.isEmpty() && targetsLeft > 0 && settled < settleLimit) {
+                if (heap.minKey() > maxDistance) break;
+                int u = heap.pop();
+                if (stamp[u] != 2 * query) continue;
+                stamp[u] = 2 * query + 1;
+                settled++;
+                if (targetStamp[u] == query) targetsLeft--;
+
+                float du = dist[u];
+                for (int i = 0; i < outSize[u]; i++) {
+                    int w = outNode[u][i];
+                    if (w == skip || state[w] != ACTIVE) continue;
+                    float dw = du + outWeight[u][i];
+                    if (dw > maxDistance) continue;
+                    if (stamp[w] < 2 * query || stamp[w] == 2 * query && dw < dist[w]) {
+                        stamp[w] = 2 * query;
+                        dist[w] = dw;
+                        heap.push(dw, w);
+                    }
+                }
+            }
+        }
+
+        /** Witness distance to w, infinite if not reached. */
+        float distance(int w) {
+            return stamp[w] >= 2 * query ? dist[w] : Float.POSITIVE_INFINITY;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package data_access;
+
+import entity.Location;
+import use_case.batch_geocode.BatchGeocodeDataAccessInterface;
+import use_case.search.SearchDataAccessInterface;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * FileBatchGeocodeDataAccessObject
+ * File side of batch geocoding.
+ * <p>
+ * Responsibilities:
+ * - Read addresses from a CSV (address column, or all columns joined) or a plain list
+ * - Keep an append-only checkpoint per source file, flushed after every row
+ * - Geocode through the normal search stack (cache, gazetteer, rate-limited Nominatim)
+ */
+public class FileBatchGeocodeDataAccessObject implements BatchGeocodeDataAccessInterface {
+
+    /** Header names recognised as the address column (case-insensitive). */
+    private static final Set<String> ADDRESS_COLUMNS = Set.of("address", "location", "query", "place", "name");
+
+    private final SearchDataAccessInterface search;
+    private final File checkpointDirectory;
+
+    public FileBatchGeocodeDataAccessObject(SearchDataAccessInterface search, File checkpointDirectory) {
+        this.search = search;
+        this.checkpointDirectory = checkpointDirectory;
+    }
+
+    /**
+     * File format:
+     *   CSV with a header naming an address column (address, location, query, place, name), or
+     *   rows whose fields are joined with ", " (e.g. street,city,country), or
+     *   one address per line. Blank lines and lines starting with # are skipped.
+     */
+    @Override
+    public List<String> readAddresses(String sourcePath) throws IOException {
+        List<String> addresses = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(new File(sourcePath).toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int column = -1;
+            boolean first = true;
+            while ((line = br.readLine()) != null) {
+                if (first && line.startsWith("\uFEFF")) line = line.substring(1);
+                if (line.isBlank() || line.startsWith("#")) continue;
+                List<String> fields = splitCsv(line);
+
+                if (first) {
+                    first = false;
+                    column = addressColumn(fields);
+                    if (column >= 0) continue;   // header row
+                }
+
+                String address = column >= 0
+                        ? (column < fields.size() ? fields.get(column) : "")
+                        : joinNonBlank(fields);
+                if (!address.isBlank()) addresses.add(address.trim());
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * File format (tab separated, one finished address per line):
+     *   normalizedAddress  found  lat  lon  name
+     *   normalizedAddress  none
+     */
+    @Override
+    public Map<String, Optional<Location>> loadCheckpoint(String sourcePath) throws IOException {
+        Map<String, Optional<Location>> done = new HashMap<>();
+        File file = checkpointFile(sourcePath);
+        if (!file.isFile()) return done;
+
+        try (BufferedReader br = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] p = line.split("\t", -1);
+                try {
+                    if (p.length == 2 && p[1].equals("none")) {
+                        done.put(p[0], Optional.empty());
+                    } else if (p.length == 5 && p[1].equals("found")) {
+                        done.put(p[0], Optional.of(new Location(
+                                p[4], Double.parseDouble(p[2]), Double.parseDouble(p[3]))));
+                    }
+                    // anything else is a row cut short by a crash: geocode it again
+                } catch (NumberFormatException ignored) {
+                    // same as above
+                }
+            }
+        }
+        return done;
+    }
+
+    @Override
+    public void checkpoint(String sourcePath, String normalizedAddress, Optional<Location> result) throws IOException {
+        String line = result
+                .map(loc -> normalizedAddress + "\tfound\t" + loc.getLatitude() + "\t" + loc.getLongitude()
+                        + "\t" + loc.getName().replace('\t', ' ').replace('\n', ' '))
+                .orElse(normalizedAddress + "\tnone");
+
+        try (Writer out = new OutputStreamWriter(
+                new FileOutputStream(checkpointFile(sourcePath), true), StandardCharsets.UTF_8)) {
+            out.write(line);
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<Location>> geocode(String address) {
+        return search.findInBackground(address);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Helpers                                                             */
+    /* ------------------------------------------------------------------ */
+
+    private File checkpointFile(String sourcePath) throws IOException {
+        if (!checkpointDirectory.isDirectory() && !checkpointDirectory.mkdirs()) {
+            throw new IOException("Could not create checkpoint directory: " + checkpointDirectory);
+        }
+        File source = new File(sourcePath).getAbsoluteFile();
+        String id = Integer.toHexString(source.getPath().hashCode());
+        return new File(checkpointDirectory, source.getName() + "-" + id + ".progress");
+    }
+
+    private static int addressColumn(List<String> header) {
+        for (int i = 0; i < header.size(); i++) {
+            if (ADDRESS_COLUMNS.contains(header.get(i).trim().toLowerCase(Locale.ROOT))) return i;
+        }
+        return -1;
+    }
+
+    private static String joinNonBlank(List<String> fields) {
+        StringJoiner joined = new StringJoiner(", ");
+        for (String field : fields) {
+            if (!field.isBlank()) joined.add(field.trim());
+        }
+        return joined.toString();
+    }
+
+    /** Splits one CSV line, honouring double quotes ("" inside quotes is a literal quote). */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,33 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Helpers for chaining CompletableFutures without losing cancellation.
+ * A plain thenApply result does not cancel its source; these do.
+ */
+final class FutureUtils {
+
+    private FutureUtils() {}
+
+    /** Like {@code source.thenApply(fn)}, but cancelling the result also cancels the source. */
+    static <S, T> CompletableFuture<T> mapCancellable(CompletableFuture<S> source, Function<S, T> fn) {
+        CompletableFuture<T> mapped = source.thenApply(fn);
+        mapped.whenComplete((value, error) -> {
+            if (mapped.isCancelled()) source.cancel(true);
+        });
+        return mapped;
+    }
+
+    /** Like {@code source.handle(fn)} (sees failures too), but cancelling the result also cancels the source. */
+    static <S, T> CompletableFuture<T> handleCancellable(CompletableFuture<S> source,
+                                                        BiFunction<S, Throwable, T> fn) {
+        CompletableFuture<T> mapped = source.handle(fn);
+        mapped.whenComplete((value, error) -> {
+            if (mapped.isCancelled()) source.cancel(true);
+        });
+        return mapped;
+    }
+}
@@ -0,0 +1,288 @@
+package data_access;
+
+import entity.Location;
+import use_case.search.QueryNormalizer;
+
+import java.util.*;
+
+/**
+ * FuzzyPlaceIndex
+ * Typo-tolerant lookup over the places this app already knows
+ * (cached geocodes, saved stops, earlier searches).
+ * <p>
+ * Layout:
+ * - Each place is searchable by its full normalized name and by its first
+ *   comma-separated part ("toronto" for "Toronto, Ontario, Canada")
+ * - The keys are kept sorted, so keys sharing a prefix form one contiguous range:
+ *   an implicit trie with no node objects
+ * - A query walks that trie carrying one row of a bounded edit distance table
+ *   (adjacent swaps count as one edit) per character, and leaves a branch as soon
+ *   as every cell in the row is over the allowed edits. Only the few branches near
+ *   the query are ever visited, however many places are indexed.
+ * <p>
+ * A key matches when the query is within the allowed edits of the key or of any
+ * prefix of it, so typing is tolerated while the word is still incomplete.
+ * Allowed edits grow with the query: none up to 3 characters, one up to 8, then two.
+ * The first character must match exactly (people rarely mistype it, and it keeps
+ * the walk inside one branch of the trie).
+ */
+public class FuzzyPlaceIndex {
+
+    public static final int MAX_EDITS = 2;
+
+    /* Places (entries), by id */
+    private final List<Location> entries = new ArrayList<>();
+    private float[] weights = new float[64];
+    private final Map<String, Integer> entryByName = new HashMap<>();
+
+    /* Keys in sorted order, and the entry each belongs to */
+    private char[][] sortedKeys = new char[0][];
+    private int[] sortedEntry = new int[0];
+
+    /* Keys added since the last search; merged in before the next one */
+    private final List<char[]> pendingKeys = new ArrayList<>();
+    private final List<Integer> pendingEntry = new ArrayList<>();
+
+    /** Adds a place, or makes an already known place rank higher. */
+    public void add(Location location) {
+        add(location, 1f);
+    }
+
+    /**
+     * @param weight how strongly to prefer this place among equally close matches
+     *               (e.g. more for saved stops); repeated adds accumulate
+     */
+    public synchronized void add(Location location, float weight) {
+        if (location == null || location.getName() == null) return;
+        String full = QueryNormalizer.normalize(location.getName());
+        if (full.isEmpty()) return;
+
+        Integer existing = entryByName.get(location.getName());
+        if (existing != null) {
+            weights[existing] += weight;
+            return;
+        }
+
+        int entry = entries.size();
+        entries.add(location);
+        entryByName.put(location.getName(), entry);
+        if (entry == weights.length) weights = Arrays.copyOf(weights, entry * 2);
+        weights[entry] = weight;
+
+        addKey(full, entry);
+        int comma = full.indexOf(',');
+        if (comma > 0) {
+            String head = full.substring(0, comma).trim();
+            if (!head.isEmpty()) addKey(head, entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Known places matching the query within the allowed edits, best first:
+     * fewer edits, then whole-key matches before prefix matches, then higher weight.
+     */
+    public synchronized List<Location> search(String query, int limit) {
+        String q = QueryNormalizer.normalize(query);
+        if (q.isEmpty() || limit <= 0) return new ArrayList<>();
+        mergePending();
+
+        Walk walk = new Walk(q.toCharArray());
+        walk.visit(0, sortedKeys.length, 0, walk.rows[0][walk.query.length]);
+
+        List<Candidate> ranked = new ArrayList<>(walk.best.values());
+        ranked.sort(null);
+        List<Location> results = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && results.size() < limit; i++) {
+            results.add(entries.get(ranked.get(i).entry));
+        }
+        return results;
+    }
+
+    /**
+     * The best known place whose whole name, or whole first comma-separated part, is within the
+     * allowed edits of the query ("Toronot" finds "Toronto, Ontario"). Prefix-only matches do not
+     * count: "Spring" does not find "Springfield Mall".
+     */
+    public synchronized Optional<Location> closestWholeName(String query) {
+        String q = QueryNormalizer.normalize(query);
+        if (q.isEmpty()) return Optional.empty();
+        mergePending();
+
+        Walk walk = new Walk(q.toCharArray());
+        walk.visit(0, sortedKeys.length, 0, walk.rows[0][walk.query.length]);
+        return walk.bestWhole.values().stream().min(Comparator.naturalOrder())
+                .map(candidate -> entries.get(candidate.entry));
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Index maintenance                                                   */
+    /* ------------------------------------------------------------------ */
+
+    private void addKey(String key, int entry) {
+        pendingKeys.add(key.toCharArray());
+        pendingEntry.add(entry);
+    }
+
+    /** Sorts the pending keys and merges them into the sorted arrays in one pass. */
+    private void mergePending() {
+        if (pendingKeys.isEmpty()) return;
+
+        Integer[] order = new Integer[pendingKeys.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Arrays.compare(pendingKeys.get(a), pendingKeys.get(b)));
+
+        int n = sortedKeys.length;
+        char[][] keys = new char[n + order.length][];
+        int[] owners = new int[keys.length];
+        int i = 0;
+        int p = 0;
+        for (int out = 0; out < keys.length; out++) {
+            if (p < order.length && (i == n || Arrays.compare(pendingKeys.get(order[p]), sortedKeys[i]) < 0)) {
+                keys[out] = pendingKeys.get(order[p]);
+                owners[out] = pendingEntry.get(order[p++]);
+            } else {
+                keys[out] = sortedKeys[i];
+                owners[out] = sortedEntry[i++];
+            }
+        }
+        sortedKeys = keys;
+        sortedEntry = owners;
+        pendingKeys.clear();
+        pendingEntry.clear();
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Trie walk (optimal string alignment distance, bounded)              */
+    /* ------------------------------------------------------------------ */
+
+    /** State of one search: rows[d][j] = distance between a d-character key prefix and q[0..j). */
+    private final class Walk {
+        final char[] query;
+        final int maxEdits;
+        final int[][] rows;
+        final Map<Integer, Candidate> best = new HashMap<>();
+        /** Like {@code best}, but only matches of a whole key. */
+        final Map<Integer, Candidate> bestWhole = new HashMap<>();
+
+        Walk(char[] query) {
+            this.query = query;
+            this.maxEdits = Math.min(MAX_EDITS, query.length <= 3 ? 0 : query.length <= 8 ? 1 : 2);
+            // Past query.length + maxEdits characters every cell exceeds maxEdits
+            this.rows = new int[query.length + maxEdits + 2][query.length + 1];
+            for (int j = 0; j <= query.length; j++) rows[0][j] = j;
+        }
+
+        /**
+         * Visits the keys in [lo, hi), which share their first {@code depth} characters.
+         *
+         * @param prefixBest fewest edits between the query and any prefix of those first characters
+         */
+        void visit(int lo, int hi, int depth, int prefixBest) {
+            int[] row = rows[depth];
+            int m = query.length;
+            prefixBest = Math.min(prefixBest, row[m]);
+
+            // Keys ending here sort first; for them the whole-key distance is row[m]
+            while (lo < hi && sortedKeys[lo].length == depth) {
+                if (prefixBest <= maxEdits) offer(lo, prefixBest, row[m] == prefixBest);
+                if (row[m] <= maxEdits) offerWhole(lo, row[m]);
+                lo++;
+            }
+            if (lo == hi) return;
+
+            int rowMin = Integer.MAX_VALUE;
+            for (int d : row) rowMin = Math.min(rowMin, d);
+            if (rowMin > maxEdits) {
+                // Nothing below can get closer; everything below matches by this prefix or not at all
+                if (prefixBest <= maxEdits) {
+                    for (int k = lo; k < hi; k++) offer(k, prefixBest, false);
+                }
+                return;
+            }
+
+            // One child per distinct next character
+            while (lo < hi) {
+                char c = sortedKeys[lo][depth];
+                int end = childEnd(lo, hi, depth, c);
+                if (depth > 0 || c == query[0]) {
+                    nextRow(depth, c, depth > 0 ? sortedKeys[lo][depth - 1] : 0);
+                    visit(lo, end, depth + 1, prefixBest);
+                }
+                lo = end;
+            }
+        }
+
+        /** Fills rows[depth + 1] for key character c (the previous key character is {@code before}). */
+        private void nextRow(int depth, char c, char before) {
+            int[] prev = rows[depth];
+            int[] cur = rows[depth + 1];
+            int[] prev2 = depth > 0 ? rows[depth - 1] : null;
+            cur[0] = depth + 1;
+            for (int j = 1; j <= query.length; j++) {
+                int cost = query[j - 1] == c ? 0 : 1;
+                int d = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (prev2 != null && j > 1 && query[j - 1] == before && query[j - 2] == c) {
+                    d = Math.min(d, prev2[j - 2] + 1);
+                }
+                cur[j] = d;
+            }
+        }
+
+        private void offer(int key, int distance, boolean whole) {
+            int entry = sortedEntry[key];
+            Candidate c = new Candidate(entry, distance, whole, sortedKeys[key].length);
+            Candidate previous = best.get(entry);
+            if (previous == null || c.compareTo(previous) < 0) best.put(entry, c);
+        }
+
+        private void offerWhole(int key, int distance) {
+            int entry = sortedEntry[key];
+            Candidate c = new Candidate(entry, distance, true, sortedKeys[key].length);
+            Candidate previous = bestWhole.get(entry);
+            if (previous == null || c.compareTo(previous) < 0) bestWhole.put(entry, c);
+        }
+    }
+
+    /** First index in [lo, hi) whose character at {@code depth} is past c (all keys there are longer than depth). */
+    private int childEnd(int lo, int hi, int depth, char c) {
+        int a = lo + 1;
+        int b = hi;
+        while (a < b) {
+            int mid = (a + b) >>> 1;
+            if (sortedKeys[mid][depth] <= c) a = mid + 1;
+            else b = mid;
+        }
+        return a;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Helpers                                                             */
+    /* ------------------------------------------------------------------ */
+
+    private class Candidate implements Comparable<Candidate> {
+        final int entry;
+        final int distance;
+        final boolean whole;
+        final int keyLength;
+
+        Candidate(int entry, int distance, boolean whole, int keyLength) {
+            this.entry = entry;
+            this.distance = distance;
+            this.whole = whole;
+            this.keyLength = keyLength;
+        }
+
+        @Override
+        public int compareTo(Candidate o) {
+            if (distance != o.distance) return Integer.compare(distance, o.distance);
+            if (whole != o.whole) return whole ? -1 : 1;
+            int byWeight = Float.compare(weights[o.entry], weights[entry]);
+            if (byWeight != 0) return byWeight;
+            return Integer.compare(keyLength, o.keyLength);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package data_access;
+
+import entity.Location;
+import use_case.search.SearchDataAccessInterface;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * FuzzySearchDataAccessObject
+ * Decorator that adds typo-tolerant matches from the {@link FuzzyPlaceIndex}
+ * (places we already know) to another SearchDataAccessInterface.
+ * <p>
+ * - Suggestions: known places come first (up to half the list), remote results fill the rest
+ * - Search: when the remote source finds nothing ("Toronot"), a known place is used only if its
+ *   whole name (or its first comma-separated part) matches within the typo allowance; a mere
+ *   prefix ("Spring" for "Springfield Mall") is reported as not found
+ * - If the remote source fails but known places match, those are returned instead of the error
+ */
+public class FuzzySearchDataAccessObject implements SearchDataAccessInterface {
+
+    private final FuzzyPlaceIndex index;
+    private final SearchDataAccessInterface delegate;
+
+    public FuzzySearchDataAccessObject(FuzzyPlaceIndex index, SearchDataAccessInterface delegate) {
+        this.index = index;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean existsByName(String locationName) throws IOException, InterruptedException {
+        return find(locationName).isPresent();
+    }
+
+    @Override
+    public Location get(String locationName) throws IOException, InterruptedException {
+        return find(locationName)
+                .orElseThrow(() -> new IOException("No results found for: " + locationName));
+    }
+
+    @Override
+    public Optional<Location> find(String locationName) throws IOException, InterruptedException {
+        Optional<Location> found = delegate.find(locationName);
+        return found.isPresent() ? found : closestKnown(locationName);
+    }
+
+    @Override
+    public List<Location> searchSuggestions(String query, int limit) throws IOException, InterruptedException {
+        List<Location> local = index.search(query, localSlots(limit));
+        try {
+            return merge(local, delegate.searchSuggestions(query, limit), limit);
+        } catch (IOException e) {
+            if (local.isEmpty()) throw e;
+            return local;
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Location>> searchSuggestionsAsync(String query, int limit) {
+        List<Location> local = index.search(query, localSlots(limit));
+        return FutureUtils.handleCancellable(delegate.searchSuggestionsAsync(query, limit), (remote, error) -> {
+            if (error == null) return merge(local, remote, limit);
+            if (local.isEmpty() || unwrap(error) instanceof CancellationException) {
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            }
+            return local;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Location>> findInBackground(String locationName) {
+        return FutureUtils.mapCancellable(delegate.findInBackground(locationName),
+                found -> found.isPresent() ? found : closestKnown(locationName));
+    }
+
+    private Optional<Location> closestKnown(String locationName) {
+        return index.closestWholeName(locationName);
+    }
+
+    private static int localSlots(int limit) {
+        return Math.max(1, (limit + 1) / 2);
+    }
+
+    /** Known places first, then remote results not already listed, up to {@code limit}. */
+    private static List<Location> merge(List<Location> local, List<Location> remote, int limit) {
+        List<Location> merged = new ArrayList<>(limit);
+        Set<String> names = new HashSet<>();
+        for (List<Location> source : List.of(local, remote)) {
+            for (Location location : source) {
+                if (merged.size() == limit) return merged;
+                if (names.add(location.getName())) merged.add(location);
+            }
+        }
+        return merged;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,43 @@
+package data_access;
+
+import entity.Location;
+import use_case.search.SearchDataAccessInterface;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * GazetteerDataAccessObject
+ * Offline SearchDataAccessInterface backed by a prebuilt {@link GazetteerIndex}
+ * (see app.BuildGazetteerIndex). Answers without any network access.
+ */
+public class GazetteerDataAccessObject implements SearchDataAccessInterface {
+
+    private final GazetteerIndex index;
+
+    public GazetteerDataAccessObject(GazetteerIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public boolean existsByName(String locationName) {
+        return find(locationName).isPresent();
+    }
+
+    @Override
+    public Location get(String locationName) throws IOException {
+        return find(locationName)
+                .orElseThrow(() -> new IOException("No results found for: " + locationName));
+    }
+
+    @Override
+    public Optional<Location> find(String locationName) {
+        return index.exactMatch(locationName);
+    }
+
+    @Override
+    public List<Location> searchSuggestions(String query, int limit) {
+        return index.prefixSearch(query, limit);
+    }
+}
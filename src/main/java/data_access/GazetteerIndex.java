@@ -0,0 +1,313 @@
+package data_access;
+
+import entity.Location;
+import use_case.search.QueryNormalizer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * GazetteerIndex
+ * Compact, read-only prefix index over a local list of places.
+ * <p>
+ * Layout (one row per searchable name, sorted by normalized key bytes):
+ * - keys and display names packed into two UTF-8 byte blobs with offset tables
+ * - latitude / longitude / importance in parallel primitive arrays
+ * - a max segment tree over importance, so the top-k rows of any prefix range
+ *   are found in O(k log n) without scanning the range
+ * <p>
+ * A prefix lookup is two binary searches plus the top-k walk, which stays far
+ * below a millisecond for millions of rows.
+ */
+public class GazetteerIndex {
+
+    private static final int MAGIC = 0x475a5431; // "GZT1"
+
+    private final int size;
+    private final byte[] keyBlob;
+    private final int[] keyOffsets;
+    private final byte[] nameBlob;
+    private final int[] nameOffsets;
+    private final float[] latitudes;
+    private final float[] longitudes;
+    private final float[] importance;
+    /** Segment tree of row indices (argmax of importance); leaves start at {@code leafBase}. */
+    private final int[] maxTree;
+    private final int leafBase;
+
+    private GazetteerIndex(int size, byte[] keyBlob, int[] keyOffsets, byte[] nameBlob, int[] nameOffsets,
+                           float[] latitudes, float[] longitudes, float[] importance) {
+        this.size = size;
+        this.keyBlob = keyBlob;
+        this.keyOffsets = keyOffsets;
+        this.nameBlob = nameBlob;
+        this.nameOffsets = nameOffsets;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.importance = importance;
+
+        int base = 1;
+        while (base < Math.max(1, size)) base <<= 1;
+        this.leafBase = base;
+        this.maxTree = new int[2 * base];
+        Arrays.fill(maxTree, -1);
+        for (int i = 0; i < size; i++) maxTree[base + i] = i;
+        for (int node = base - 1; node >= 1; node--) {
+            maxTree[node] = better(maxTree[2 * node], maxTree[2 * node + 1]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Queries                                                             */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Returns up to {@code limit} places whose normalized name starts with the normalized
+     * query, most important first. Rows sharing a display name are reported once.
+     */
+    public List<Location> prefixSearch(String query, int limit) {
+        byte[] prefix = QueryNormalizer.normalize(query).getBytes(StandardCharsets.UTF_8);
+        if (prefix.length == 0 || limit <= 0) return new ArrayList<>();
+
+        int lo = lowerBound(prefix);
+        int hi = prefixEnd(prefix, lo);
+
+        List<Location> results = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+
+        // Best-first walk over the range: each heap entry is a sub-range and its best row
+        PriorityQueue<int[]> heap = new PriorityQueue<>((a, b) -> Float.compare(importance[b[2]], importance[a[2]]));
+        pushRange(heap, lo, hi);
+        while (!heap.isEmpty() && results.size() < limit) {
+            int[] top = heap.poll();
+            int row = top[2];
+            String name = displayName(row);
+            if (seen.add(name)) {
+                results.add(new Location(name, latitudes[row], longitudes[row]));
+            }
+            pushRange(heap, top[0], row);
+            pushRange(heap, row + 1, top[1]);
+        }
+        return results;
+    }
+
+    /** Most important place whose normalized name equals the normalized query exactly. */
+    public Optional<Location> exactMatch(String query) {
+        byte[] key = QueryNormalizer.normalize(query).getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0) return Optional.empty();
+
+        // Equal keys sort before any longer key with the same prefix
+        int best = -1;
+        for (int row = lowerBound(key); row < size && compareKey(row, key, Integer.MAX_VALUE) == 0; row++) {
+            best = better(best, row);
+        }
+        if (best < 0) return Optional.empty();
+        return Optional.of(new Location(displayName(best), latitudes[best], longitudes[best]));
+    }
+
+    private void pushRange(PriorityQueue<int[]> heap, int from, int to) {
+        if (from >= to) return;
+        heap.add(new int[]{from, to, argmax(from, to)});
+    }
+
+    /** Row with the highest importance in [from, to). */
+    private int argmax(int from, int to) {
+        int best = -1;
+        for (int l = from + leafBase, r = to + leafBase; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) best = better(best, maxTree[l++]);
+            if ((r & 1) == 1) best = better(best, maxTree[--r]);
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        return importance[b] > importance[a] ? b : a;
+    }
+
+    /** First row whose key is >= the given bytes. */
+    private int lowerBound(byte[] key) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareKey(mid, key, Integer.MAX_VALUE) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** First row at or after {@code from} whose key does not start with the prefix. */
+    private int prefixEnd(byte[] prefix, int from) {
+        int lo = from, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareKey(mid, prefix, prefix.length) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Unsigned byte comparison of row key (truncated to maxLen) against other. */
+    private int compareKey(int row, byte[] other, int maxLen) {
+        int start = keyOffsets[row];
+        int len = Math.min(keyOffsets[row + 1] - start, maxLen);
+        int n = Math.min(len, other.length);
+        for (int i = 0; i < n; i++) {
+            int diff = (keyBlob[start + i] & 0xFF) - (other[i] & 0xFF);
+            if (diff != 0) return diff;
+        }
+        return len - other.length;
+    }
+
+    private String displayName(int row) {
+        int start = nameOffsets[row];
+        return new String(nameBlob, start, nameOffsets[row + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Binary file format                                                  */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * File format (little-endian):
+     *   int magic, int size, int keyBlobLength, int nameBlobLength
+     *   int[size + 1] keyOffsets, int[size + 1] nameOffsets
+     *   float[size] latitudes, float[size] longitudes, float[size] importance
+     *   byte[] keyBlob, byte[] nameBlob
+     */
+    public void write(Path path) throws IOException {
+        long bytes = 16L + 8L * (size + 1) + 12L * size + keyBlob.length + nameBlob.length;
+        ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(bytes)).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(size).putInt(keyBlob.length).putInt(nameBlob.length);
+        buf.asIntBuffer().put(keyOffsets);
+        buf.position(buf.position() + 4 * keyOffsets.length);
+        buf.asIntBuffer().put(nameOffsets);
+        buf.position(buf.position() + 4 * nameOffsets.length);
+        for (float[] column : new float[][]{latitudes, longitudes, importance}) {
+            buf.asFloatBuffer().put(column);
+            buf.position(buf.position() + 4 * column.length);
+        }
+        buf.put(keyBlob).put(nameBlob);
+        buf.flip();
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+    }
+
+    /** Loads an index written by {@link #write(Path)}, using bulk primitive reads from a mapped file. */
+    public static GazetteerIndex read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.getInt() != MAGIC) throw new IOException("Not a gazetteer index: " + path);
+
+            int size = buf.getInt();
+            byte[] keyBlob = new byte[buf.getInt()];
+            byte[] nameBlob = new byte[buf.getInt()];
+            int[] keyOffsets = readInts(buf, size + 1);
+            int[] nameOffsets = readInts(buf, size + 1);
+            float[] lat = readFloats(buf, size);
+            float[] lon = readFloats(buf, size);
+            float[] importance = readFloats(buf, size);
+            buf.get(keyBlob);
+            buf.get(nameBlob);
+            return new GazetteerIndex(size, keyBlob, keyOffsets, nameBlob, nameOffsets, lat, lon, importance);
+        }
+    }
+
+    private static int[] readInts(ByteBuffer buf, int n) {
+        int[] out = new int[n];
+        buf.asIntBuffer().get(out);
+        buf.position(buf.position() + 4 * n);
+        return out;
+    }
+
+    private static float[] readFloats(ByteBuffer buf, int n) {
+        float[] out = new float[n];
+        buf.asFloatBuffer().get(out);
+        buf.position(buf.position() + 4 * n);
+        return out;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Builder                                                             */
+    /* ------------------------------------------------------------------ */
+
+    /** Collects places, then sorts and packs them into a GazetteerIndex. */
+    public static class Builder {
+        private final List<byte[]> keys = new ArrayList<>();
+        private final List<byte[]> names = new ArrayList<>();
+        private float[] lat = new float[1024];
+        private float[] lon = new float[1024];
+        private float[] importance = new float[1024];
+
+        /**
+         * Adds one searchable name for a place. Call again with an alternate spelling
+         * (e.g. the ASCII name) and the same display name to make it findable both ways.
+         */
+        public Builder add(String searchName, String displayName, double latitude, double longitude,
+                           float placeImportance) {
+            String key = QueryNormalizer.normalize(searchName);
+            if (key.isEmpty()) return this;
+
+            int row = keys.size();
+            if (row == lat.length) {
+                lat = Arrays.copyOf(lat, row * 2);
+                lon = Arrays.copyOf(lon, row * 2);
+                importance = Arrays.copyOf(importance, row * 2);
+            }
+            keys.add(key.getBytes(StandardCharsets.UTF_8));
+            names.add(displayName.getBytes(StandardCharsets.UTF_8));
+            lat[row] = (float) latitude;
+            lon[row] = (float) longitude;
+            importance[row] = placeImportance;
+            return this;
+        }
+
+        public int size() {
+            return keys.size();
+        }
+
+        public GazetteerIndex build() {
+            int n = keys.size();
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys.get(a), keys.get(b)));
+
+            int[] keyOffsets = new int[n + 1];
+            int[] nameOffsets = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                keyOffsets[i + 1] = keyOffsets[i] + keys.get(order[i]).length;
+                nameOffsets[i + 1] = nameOffsets[i] + names.get(order[i]).length;
+            }
+
+            byte[] keyBlob = new byte[keyOffsets[n]];
+            byte[] nameBlob = new byte[nameOffsets[n]];
+            float[] sortedLat = new float[n];
+            float[] sortedLon = new float[n];
+            float[] sortedImportance = new float[n];
+            for (int i = 0; i < n; i++) {
+                int src = order[i];
+                System.arraycopy(keys.get(src), 0, keyBlob, keyOffsets[i], keys.get(src).length);
+                System.arraycopy(names.get(src), 0, nameBlob, nameOffsets[i], names.get(src).length);
+                sortedLat[i] = lat[src];
+                sortedLon[i] = lon[src];
+                sortedImportance[i] = importance[src];
+            }
+            return new GazetteerIndex(n, keyBlob, keyOffsets, nameBlob, nameOffsets,
+                    sortedLat, sortedLon, sortedImportance);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package data_access;
+
+import entity.Location;
+import use_case.search.SearchDataAccessInterface;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HybridSearchDataAccessObject
+ * Asks a local source first (normally the offline gazetteer) and only falls back
+ * to the remote source (Nominatim) when the local one has nothing.
+ */
+public class HybridSearchDataAccessObject implements SearchDataAccessInterface {
+
+    private final SearchDataAccessInterface local;
+    private final SearchDataAccessInterface remote;
+
+    public HybridSearchDataAccessObject(SearchDataAccessInterface local, SearchDataAccessInterface remote) {
+        this.local = local;
+        this.remote = remote;
+    }
+
+    @Override
+    public boolean existsByName(String locationName) throws IOException, InterruptedException {
+        return find(locationName).isPresent();
+    }
+
+    @Override
+    public Location get(String locationName) throws IOException, InterruptedException {
+        return find(locationName)
+                .orElseThrow(() -> new IOException("No results found for: " + locationName));
+    }
+
+    @Override
+    public Optional<Location> find(String locationName) throws IOException, InterruptedException {
+        Optional<Location> hit = local.find(locationName);
+        return hit.isPresent() ? hit : remote.find(locationName);
+    }
+
+    @Override
+    public List<Location> searchSuggestions(String query, int limit) throws IOException, InterruptedException {
+        List<Location> hits = local.searchSuggestions(query, limit);
+        return hits.isEmpty() ? remote.searchSuggestions(query, limit) : hits;
+    }
+
+    /** The local lookup is answered inline; only a miss returns the remote (cancellable) future. */
+    @Override
+    public CompletableFuture<List<Location>> searchSuggestionsAsync(String query, int limit) {
+        List<Location> hits = local.searchSuggestionsAsync(query, limit)
+                .exceptionally(e -> List.of())
+                .getNow(List.of());
+        return hits.isEmpty() ? remote.searchSuggestionsAsync(query, limit)
+                : CompletableFuture.completedFuture(hits);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Location>> findInBackground(String locationName) {
+        Optional<Location> hit = local.findInBackground(locationName)
+                .exceptionally(e -> Optional.empty())
+                .getNow(Optional.empty());
+        return hit.isPresent() ? CompletableFuture.completedFuture(hit) : remote.findInBackground(locationName);
+    }
+}
@@ -0,0 +1,432 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JsonPullParser
+ * Minimal incremental JSON reader for the web service responses we decode.
+ * <p>
+ * Responsibilities:
+ * - Read tokens one at a time from a stream, so the body is never held as a String or DOM
+ * - Parse numbers straight from the character buffer (no String per coordinate)
+ * - Skip whole values we do not need
+ * <p>
+ * Usage follows the usual pull style: {@link #peek()} the next token, then consume it
+ * with the matching begin/end/next method. Object names are read with {@link #nextName()}.
+ */
+final class JsonPullParser implements AutoCloseable {
+
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos;
+    private int limit;
+
+    /** Container nesting: 'o' object, 'a' array. */
+    private char[] stack = new char[32];
+    private int depth;
+    /** True when the next value in the current container must be preceded by a comma. */
+    private boolean needComma;
+    /** Inside an object, true when the next token is a name rather than a value. */
+    private boolean expectName;
+
+    private Token peeked;
+    private final StringBuilder scratch = new StringBuilder(64);
+
+    JsonPullParser(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    JsonPullParser(Reader in) {
+        this.in = in;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Token level                                                         */
+    /* ------------------------------------------------------------------ */
+
+    Token peek() throws IOException {
+        if (peeked != null) return peeked;
+
+        int c = nextNonWhitespace();
+        boolean inObject = depth > 0 && stack[depth - 1] == 'o';
+
+        if (c == '}' || c == ']') {
+            char expected = c == '}' ? 'o' : 'a';
+            if (depth == 0 || stack[depth - 1] != expected) throw syntax("unexpected '" + (char) c + "'");
+            pos--;
+            return peeked = c == '}' ? Token.END_OBJECT : Token.END_ARRAY;
+        }
+        if (c == -1) {
+            if (depth != 0) throw syntax("unexpected end of input");
+            return peeked = Token.END_DOCUMENT;
+        }
+
+        if (needComma) {
+            if (c != ',') throw syntax("expected ','");
+            c = nextNonWhitespace();
+            needComma = false;
+        }
+
+        if (inObject && expectName) {
+            if (c != '"') throw syntax("expected object name");
+            pos--;
+            return peeked = Token.NAME;
+        }
+
+        pos--;
+        switch (c) {
+            case '{': return peeked = Token.BEGIN_OBJECT;
+            case '[': return peeked = Token.BEGIN_ARRAY;
+            case '"': return peeked = Token.STRING;
+            case 't': case 'f': return peeked = Token.BOOLEAN;
+            case 'n': return peeked = Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return peeked = Token.NUMBER;
+                throw syntax("unexpected character '" + (char) c + "'");
+        }
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        pos++;
+        push('o');
+        expectName = true;
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        pos++;
+        pop();
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        pos++;
+        push('a');
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        pos++;
+        pop();
+    }
+
+    /** True while the current object or array has more members. */
+    boolean hasNext() throws IOException {
+        Token t = peek();
+        return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END_DOCUMENT;
+    }
+
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        String name = readQuoted();
+        consumeColon();
+        expectName = false;
+        return name;
+    }
+
+    /** True if the next name equals {@code name}; the name is consumed either way. */
+    boolean nextNameIs(String name) throws IOException {
+        expect(Token.NAME);
+        boolean same = quotedEquals(name);
+        consumeColon();
+        expectName = false;
+        return same;
+    }
+
+    String nextString() throws IOException {
+        Token t = peek();
+        String value;
+        if (t == Token.STRING) {
+            value = readQuoted();
+        } else if (t == Token.NUMBER) {
+            scratch.setLength(0);
+            readNumberChars();
+            value = scratch.toString();
+        } else {
+            throw syntax("expected a string but was " + t);
+        }
+        afterValue();
+        return value;
+    }
+
+    /** Reads a number; a quoted number (as Nominatim sends lat/lon) is accepted too. */
+    double nextDouble() throws IOException {
+        Token t = peek();
+        double value;
+        if (t == Token.NUMBER) {
+            value = readNumber();
+        } else if (t == Token.STRING) {
+            try {
+                value = Double.parseDouble(readQuoted());
+            } catch (NumberFormatException e) {
+                throw syntax("expected a number");
+            }
+        } else {
+            throw syntax("expected a number but was " + t);
+        }
+        afterValue();
+        return value;
+    }
+
+    boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        boolean value = buf[pos] == 't';
+        expectLiteral(value ? "true" : "false");
+        afterValue();
+        return value;
+    }
+
+    void nextNull() throws IOException {
+        expect(Token.NULL);
+        expectLiteral("null");
+        afterValue();
+    }
+
+    /** Skips the next value, including everything nested in it. */
+    void skipValue() throws IOException {
+        int nested = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT: beginObject(); nested++; break;
+                case BEGIN_ARRAY: beginArray(); nested++; break;
+                case END_OBJECT: endObject(); nested--; break;
+                case END_ARRAY: endArray(); nested--; break;
+                case NAME: nextNameIs(""); break;
+                case STRING: skipQuoted(); afterValue(); break;
+                case NUMBER: skipNumber(); afterValue(); break;
+                case BOOLEAN: nextBoolean(); break;
+                case NULL: nextNull(); break;
+                default: throw syntax("unexpected end of input");
+            }
+        } while (nested > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Structure bookkeeping                                               */
+    /* ------------------------------------------------------------------ */
+
+    private void expect(Token token) throws IOException {
+        Token t = peek();
+        if (t != token) throw syntax("expected " + token + " but was " + t);
+        peeked = null;
+    }
+
+    private void push(char kind) {
+        if (depth == stack.length) {
+            char[] grown = new char[depth * 2];
+            System.arraycopy(stack, 0, grown, 0, depth);
+            stack = grown;
+        }
+        stack[depth++] = kind;
+        needComma = false;
+    }
+
+    private void pop() {
+        depth--;
+        afterValue();
+    }
+
+    /** Called after a complete value: the next member of the container needs a comma. */
+    private void afterValue() {
+        peeked = null;
+        needComma = depth > 0;
+        expectName = depth > 0 && stack[depth - 1] == 'o';
+    }
+
+    private void consumeColon() throws IOException {
+        if (nextNonWhitespace() != ':') throw syntax("expected ':'");
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Characters                                                          */
+    /* ------------------------------------------------------------------ */
+
+    private boolean fill() throws IOException {
+        if (pos < limit) return true;
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private int read() throws IOException {
+        return fill() ? buf[pos++] : -1;
+    }
+
+    /** Next non-whitespace character (consumed), or -1 at end of input. */
+    private int nextNonWhitespace() throws IOException {
+        while (fill()) {
+            char c = buf[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+        }
+        return -1;
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) throw syntax("expected " + literal);
+        }
+    }
+
+    private String readQuoted() throws IOException {
+        scratch.setLength(0);
+        read();   // opening quote
+        while (true) {
+            int c = read();
+            if (c == -1) throw syntax("unterminated string");
+            if (c == '"') return scratch.toString();
+            if (c == '\\') {
+                scratch.append(readEscape());
+            } else {
+                scratch.append((char) c);
+            }
+        }
+    }
+
+    /** Compares the quoted text at the cursor with {@code expected} without building a String. */
+    private boolean quotedEquals(String expected) throws IOException {
+        read();   // opening quote
+        int i = 0;
+        boolean same = true;
+        while (true) {
+            int c = read();
+            if (c == -1) throw syntax("unterminated string");
+            if (c == '"') return same && i == expected.length();
+            char ch = c == '\\' ? readEscape() : (char) c;
+            if (same && (i >= expected.length() || expected.charAt(i) != ch)) same = false;
+            i++;
+        }
+    }
+
+    private void skipQuoted() throws IOException {
+        read();   // opening quote
+        while (true) {
+            int c = read();
+            if (c == -1) throw syntax("unterminated string");
+            if (c == '"') return;
+            if (c == '\\') readEscape();
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"': case '\\': case '/': return (char) c;
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int d = Character.digit(read(), 16);
+                    if (d < 0) throw syntax("bad \\u escape");
+                    value = (value << 4) | d;
+                }
+                return (char) value;
+            default:
+                throw syntax("bad escape");
+        }
+    }
+
+    private static boolean isNumberChar(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    private void skipNumber() throws IOException {
+        while (fill() && isNumberChar(buf[pos])) pos++;
+    }
+
+    private void readNumberChars() throws IOException {
+        while (fill() && isNumberChar(buf[pos])) scratch.append(buf[pos++]);
+    }
+
+    /**
+     * Parses a JSON number in place. Plain decimals with up to 15 significant digits
+     * (every coordinate OSRM and Nominatim send) are exact this way; anything longer or
+     * with an exponent goes through Double.parseDouble.
+     */
+    private double readNumber() throws IOException {
+        boolean negative = false;
+        if (fill() && buf[pos] == '-') {
+            negative = true;
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        boolean simple = true;
+
+        while (fill()) {
+            char c = buf[pos];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) digits++;
+                if (fraction) fractionDigits++;
+                pos++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+                pos++;
+            } else if (c == 'e' || c == 'E') {
+                simple = false;
+                break;
+            } else {
+                break;
+            }
+            if (digits > 15) {
+                simple = false;
+                break;
+            }
+        }
+
+        if (simple && fractionDigits < POW10.length) {
+            double value = mantissa / POW10[fractionDigits];
+            return negative ? -value : value;
+        }
+
+        // Rare slow path: rebuild the literal and let the JDK parse it exactly
+        scratch.setLength(0);
+        if (negative) scratch.append('-');
+        String head = Long.toString(mantissa);
+        if (fraction) {
+            while (head.length() <= fractionDigits) head = "0" + head;
+            scratch.append(head, 0, head.length() - fractionDigits).append('.')
+                    .append(head, head.length() - fractionDigits, head.length());
+        } else {
+            scratch.append(head);
+        }
+        readNumberChars();
+        try {
+            return Double.parseDouble(scratch.toString());
+        } catch (NumberFormatException e) {
+            throw syntax("bad number " + scratch);
+        }
+    }
+
+    private IOException syntax(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
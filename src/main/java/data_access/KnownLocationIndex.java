@@ -0,0 +1,236 @@
+package data_access;
+
+import entity.GeoDistance;
+import entity.Location;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * KnownLocationIndex
+ * Spatial index of every place the app has already resolved or saved, used to name
+ * map points without a network call.
+ * <p>
+ * Layout:
+ * - A fixed grid of roughly 1 km cells (like a geohash prefix), each holding its places
+ * - A nearest query only visits the cells that overlap the search radius
+ * <p>
+ * When a file is given, new places are appended to it ("lat;lon;name" lines),
+ * so the index survives restarts.
+ * <p>
+ * The same name at the same spot (to about 1 m) is stored once, and only the newest
+ * {@code maxPlaces} places are kept; the file is rewritten without the dropped lines
+ * once they pile up.
+ */
+public class KnownLocationIndex {
+
+    /** Cell edge in degrees of latitude (about 1.1 km). */
+    private static final double CELL_DEGREES = 0.01;
+    private static final double METERS_PER_DEGREE_LAT = 111_320;
+    /** Columns around the globe. */
+    private static final long COLUMNS = Math.round(360 / CELL_DEGREES);
+
+    public static final int DEFAULT_MAX_PLACES = 50_000;
+
+    private final Map<Long, List<Location>> cells = new HashMap<>();
+    /** Identity of stored places, so repeated lookups of the same place are stored once. */
+    private final Set<String> known = new HashSet<>();
+    /** Stored places, oldest first, for eviction past {@code maxPlaces}. */
+    private final ArrayDeque<Location> order = new ArrayDeque<>();
+    private final File file;
+    private final int maxPlaces;
+    private int size;
+    /** Lines in the file, including duplicates and evicted places not yet compacted away. */
+    private int fileLines;
+
+    /** Memory-only index. */
+    public KnownLocationIndex() {
+        this.file = null;
+        this.maxPlaces = DEFAULT_MAX_PLACES;
+    }
+
+    /**
+     * @param file append-only store; loaded now if it exists
+     */
+    public KnownLocationIndex(File file) {
+        this(file, DEFAULT_MAX_PLACES);
+    }
+
+    /**
+     * @param maxPlaces most places kept; the oldest go first
+     */
+    public KnownLocationIndex(File file, int maxPlaces) {
+        if (maxPlaces <= 0) throw new IllegalArgumentException("maxPlaces must be positive");
+        this.file = file;
+        this.maxPlaces = maxPlaces;
+        load();
+    }
+
+    /** Adds a place; returns false if the same place is already indexed. */
+    public synchronized boolean add(Location location) {
+        if (location == null || location.getName() == null || location.getName().isBlank()) return false;
+        if (!insert(location)) return false;
+        append(location);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Every indexed place (a copy). */
+    public synchronized List<Location> all() {
+        List<Location> all = new ArrayList<>(size);
+        for (List<Location> cell : cells.values()) all.addAll(cell);
+        return all;
+    }
+
+    /** Nearest indexed place within {@code maxMeters} of the point, if any. */
+    public synchronized Optional<Location> nearest(double latitude, double longitude, double maxMeters) {
+        double latSpan = maxMeters / METERS_PER_DEGREE_LAT;
+        double cos = Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+        double lonSpan = latSpan / cos;
+
+        long minRow = row(latitude - latSpan);
+        long maxRow = row(latitude + latSpan);
+        // Columns are walked unwrapped and wrapped one by one, so a search across the antimeridian
+        // visits both edges of the grid
+        long minCol = col(longitude) - (long) Math.ceil(lonSpan / CELL_DEGREES);
+        long maxCol = col(longitude) + (long) Math.ceil(lonSpan / CELL_DEGREES);
+        if (maxCol - minCol >= COLUMNS) {
+            minCol = 0;
+            maxCol = COLUMNS - 1;
+        }
+
+        Location best = null;
+        double bestMeters = maxMeters;
+        for (long r = minRow; r <= maxRow; r++) {
+            for (long c = minCol; c <= maxCol; c++) {
+                List<Location> cell = cells.get(cellKey(r, Math.floorMod(c, COLUMNS)));
+                if (cell == null) continue;
+                for (Location candidate : cell) {
+                    double d = GeoDistance.meters(latitude, longitude,
+                            candidate.getLatitude(), candidate.getLongitude());
+                    if (d <= bestMeters) {
+                        bestMeters = d;
+                        best = candidate;
+                    }
+                }
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Grid                                                                */
+    /* ------------------------------------------------------------------ */
+
+    private boolean insert(Location location) {
+        if (!known.add(identity(location))) return false;
+
+        cells.computeIfAbsent(cellKeyOf(location), k -> new ArrayList<>(2)).add(location);
+        order.addLast(location);
+        size++;
+        while (size > maxPlaces) evict(order.removeFirst());
+        return true;
+    }
+
+    private void evict(Location location) {
+        known.remove(identity(location));
+        long key = cellKeyOf(location);
+        List<Location> cell = cells.get(key);
+        cell.remove(location);
+        if (cell.isEmpty()) cells.remove(key);
+        size--;
+    }
+
+    /** Name and position to 1e-5 degrees (about 1 m); case and surrounding spaces do not count. */
+    private static String identity(Location location) {
+        return String.format(Locale.ROOT, "%.5f;%.5f;%s", location.getLatitude(), location.getLongitude(),
+                location.getName().trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static long cellKeyOf(Location location) {
+        return cellKey(row(location.getLatitude()), col(location.getLongitude()));
+    }
+
+    private static long row(double latitude) {
+        return (long) Math.floor((latitude + 90) / CELL_DEGREES);
+    }
+
+    private static long col(double longitude) {
+        // Wrap at the antimeridian so both sides land in valid columns
+        double wrapped = ((longitude + 180) % 360 + 360) % 360;
+        return Math.min(COLUMNS - 1, (long) Math.floor(wrapped / CELL_DEGREES));
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Persistence                                                         */
+    /* ------------------------------------------------------------------ */
+
+    private void load() {
+        if (file == null || !file.isFile()) return;
+
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                fileLines++;
+                String[] p = line.split(";", 3);
+                if (p.length != 3) continue;
+                try {
+                    insert(new Location(p[2], Double.parseDouble(p[0]), Double.parseDouble(p[1])));
+                } catch (NumberFormatException ignored) {
+                    // skip damaged line
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to load known locations: " + e.getMessage());
+            return;
+        }
+        if (fileLines > size) rewrite();
+    }
+
+    private void append(Location location) {
+        if (file == null) return;
+
+        // Evicted and duplicate lines are dropped once they make up a quarter of the file
+        if (fileLines + 1 > size + maxPlaces / 4) {
+            rewrite();
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+            out.println(line(location));
+            fileLines++;
+        } catch (IOException e) {
+            System.err.println("Failed to store known location: " + e.getMessage());
+        }
+    }
+
+    /** Replaces the file with the places currently kept, oldest first. */
+    private void rewrite() {
+        try {
+            File tmp = File.createTempFile("known", ".tmp", file.getAbsoluteFile().getParentFile());
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                    new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+                for (Location location : order) out.println(line(location));
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            fileLines = size;
+        } catch (IOException e) {
+            System.err.println("Failed to compact known locations: " + e.getMessage());
+        }
+    }
+
+    private static String line(Location location) {
+        return location.getLatitude() + ";" + location.getLongitude() + ";" + location.getName().replace('\n', ' ');
+    }
+}
@@ -0,0 +1,71 @@
+package data_access;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small thread-safe LRU map bounded by entry count, or by total weight
+ * (e.g. estimated bytes) when a weigher is given.
+ * Used as the in-memory tier of the caching data access objects.
+ */
+public class LruCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    /** Bounded by entry count. */
+    public LruCache(int maxEntries) {
+        this(maxEntries, value -> 1);
+    }
+
+    /**
+     * Bounded by the sum of {@code weigher} over the values. A single value heavier than
+     * the bound is not kept at all.
+     */
+    public LruCache(long maxWeight, ToLongFunction<V> weigher) {
+        if (maxWeight <= 0) throw new IllegalArgumentException("maxWeight must be positive");
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /** Returns the cached value (marking it most recently used), or null. */
+    public synchronized V get(K key) {
+        return map.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        V previous = map.put(key, value);
+        if (previous != null) weight -= weigher.applyAsLong(previous);
+        weight += weigher.applyAsLong(value);
+
+        // Evict least recently used first (the new entry goes last, if it must go at all)
+        Iterator<Map.Entry<K, V>> eldest = map.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= weigher.applyAsLong(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    public synchronized void remove(K key) {
+        V removed = map.remove(key);
+        if (removed != null) weight -= weigher.applyAsLong(removed);
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /** Current total weight (the entry count for count-bounded caches). */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        weight = 0;
+    }
+}
@@ -1,6 +1,7 @@
 package data_access;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.*;
 import java.net.URLEncoder;
@@ -8,8 +9,12 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import data_access.RateLimitedRequestScheduler.Priority;
 import entity.Location;
 import use_case.search.SearchDataAccessInterface;
 
@@ -18,98 +23,209 @@ import use_case.search.SearchDataAccessInterface;
  * A clean, testable Data Access Object for the Nominatim (OpenStreetMap) API.
  * <p>
  * Responsibilities:
- * - Perform HTTP requests to Nominatim
+ * - Perform HTTP requests to Nominatim (/search and /reverse)
  * - Convert raw JSON into domain entities (Location)
- * - Handle API rate limiting and errors safely
+ * - Handle API rate limiting and errors safely (via RateLimitedRequestScheduler)
  * <p>
  * This class contains NO business logic,
  * and conforms to the SearchDataAccessInterface.
  */
 public class OSMDataAccessObject implements SearchDataAccessInterface {
 
+    /** Minimum gap between Nominatim requests (usage policy: max 1 request per second) */
+    public static final long RATE_LIMIT_INTERVAL_MS = 1100;
+
+    private static final String BASE_URL = "https://nominatim.openstreetmap.org";
+
     /** Recommended: only ONE client app-wide (keep-alive) */
     private final HttpClient client;
 
-    /** Enforce Nominatim rate limit: max 1 request per second */
-    private long lastRequestTimeMs = 0;
+    /** Enforces the Nominatim rate limit on its own thread; merges identical in-flight queries */
+    private final RateLimitedRequestScheduler<List<Location>> scheduler;
 
     public OSMDataAccessObject(HttpClient client) {
-        this.client = client;
+        this(client, new RateLimitedRequestScheduler<>(RATE_LIMIT_INTERVAL_MS, 1, "nominatim-dispatcher"));
     }
 
-    /** Enforces OpenStreetMap API rate limit. */
-    private void applyRateLimit() {
-        long now = System.currentTimeMillis();
-        long diff = now - lastRequestTimeMs;
-
-        if (diff < 1100) {
-            try { Thread.sleep(1100 - diff); } catch (InterruptedException ignored) {}
-        }
-        lastRequestTimeMs = System.currentTimeMillis();
+    public OSMDataAccessObject(HttpClient client, RateLimitedRequestScheduler<List<Location>> scheduler) {
+        this.client = client;
+        this.scheduler = scheduler;
     }
 
     @Override
     public boolean existsByName(String locationName) throws IOException, InterruptedException {
-        JSONArray array = fetchSearchResult(locationName, 1);
-        return array.length() > 0;
+        return !fetchSearchResult(locationName, 1, Priority.SEARCH).isEmpty();
     }
 
     @Override
     public Location get(String locationName) throws IOException, InterruptedException {
-        JSONArray array = fetchSearchResult(locationName, 1);
+        List<Location> results = fetchSearchResult(locationName, 1, Priority.SEARCH);
 
-        if (array.isEmpty()) {
+        if (results.isEmpty()) {
             throw new IOException("No results found for: " + locationName);
         }
 
-        JSONObject obj = array.getJSONObject(0);
-
-        String name = obj.optString("display_name", locationName);
-        double lat = obj.optDouble("lat", 0);
-        double lon = obj.optDouble("lon", 0);
+        return results.get(0);
+    }
 
-        return new Location(name, lat, lon);
+    @Override
+    public Optional<Location> find(String locationName) throws IOException, InterruptedException {
+        List<Location> results = fetchSearchResult(locationName, 1, Priority.SEARCH);
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
     }
 
-    /** Core helper: performs GET request and returns raw JSON search array. */
     @Override
     public List<Location> searchSuggestions(String query, int limit) throws IOException, InterruptedException {
-        JSONArray array = fetchSearchResult(query, limit);
-
-        List<Location> suggestions = new ArrayList<>();
-        for (int i = 0; i < array.length(); i++) {
-            JSONObject obj = array.getJSONObject(i);
-            String name = obj.optString("display_name", query);
-            double lat = obj.optDouble("lat", 0);
-            double lon = obj.optDouble("lon", 0);
-            suggestions.add(new Location(name, lat, lon));
+        return fetchSearchResult(query, limit, Priority.SUGGESTION);
+    }
+
+    /** Queues the request and returns immediately; cancelling withdraws it from the scheduler. */
+    @Override
+    public CompletableFuture<List<Location>> searchSuggestionsAsync(String query, int limit) {
+        return submitSearch(query, limit, Priority.SUGGESTION);
+    }
+
+    /** Queued at batch priority, behind anything the user is waiting for. */
+    @Override
+    public CompletableFuture<Optional<Location>> findInBackground(String locationName) {
+        return FutureUtils.mapCancellable(submitSearch(locationName, 1, Priority.BATCH),
+                results -> results.isEmpty() ? Optional.empty() : Optional.of(results.get(0)));
+    }
+
+    /**
+     * Names the place at a coordinate using Nominatim /reverse.
+     * Returns empty when Nominatim has nothing there (e.g. open sea).
+     */
+    public Optional<Location> reverse(double latitude, double longitude) throws IOException, InterruptedException {
+        // Fixed-point: concatenating a double writes small values as "1.0E-5"
+        String url = String.format(Locale.ROOT, "%s/reverse?lat=%.7f&lon=%.7f&format=json",
+                BASE_URL, latitude, longitude);
+        List<Location> results = await(submit(url, Priority.SEARCH,
+                body -> decodeReverseResult(body, latitude + ", " + longitude)));
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Streaming decoding                                                  */
+    /* ------------------------------------------------------------------ */
+
+    /** Decodes a /search response (an array of hits) straight from the body stream. */
+    static List<Location> decodeSearchResults(InputStream body, String fallbackName) throws IOException {
+        try (JsonPullParser json = new JsonPullParser(body)) {
+            List<Location> results = new ArrayList<>();
+            json.beginArray();
+            while (json.hasNext()) {
+                results.add(readLocation(json, fallbackName));
+            }
+            json.endArray();
+            return results;
         }
+    }
 
-        return suggestions;
+    /** Decodes a /reverse response: one hit, or an object with an "error" key when nothing is there. */
+    static List<Location> decodeReverseResult(InputStream body, String fallbackName) throws IOException {
+        try (JsonPullParser json = new JsonPullParser(body)) {
+            String name = null;
+            double lat = 0;
+            double lon = 0;
+            boolean error = false;
+
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "display_name": name = json.nextString(); break;
+                    case "lat": lat = json.nextDouble(); break;
+                    case "lon": lon = json.nextDouble(); break;
+                    case "error": error = true; json.skipValue(); break;
+                    default: json.skipValue();
+                }
+            }
+            json.endObject();
+
+            List<Location> found = new ArrayList<>(1);
+            if (!error) found.add(new Location(name != null ? name : fallbackName, lat, lon));
+            return found;
+        }
     }
 
-    /** Core helper: performs GET request and returns raw JSON search array. */
-    private JSONArray fetchSearchResult(String locationName, int limit)
-            throws IOException, InterruptedException {
+    /** Reads one Nominatim hit, keeping only the fields a Location needs. */
+    private static Location readLocation(JsonPullParser json, String fallbackName) throws IOException {
+        String name = fallbackName;
+        double lat = 0;
+        double lon = 0;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "display_name": name = json.nextString(); break;
+                case "lat": lat = json.nextDouble(); break;
+                case "lon": lon = json.nextDouble(); break;
+                default: json.skipValue();
+            }
+        }
+        json.endObject();
+        return new Location(name, lat, lon);
+    }
 
-        applyRateLimit();
+    /**
+     * Core helper: queues a search on the scheduler and waits for the decoded results.
+     * The calling thread only blocks on the result; the rate-limit wait happens on the dispatcher.
+     */
+    private List<Location> fetchSearchResult(String locationName, int limit, Priority priority)
+            throws IOException, InterruptedException {
+        return await(submitSearch(locationName, limit, priority));
+    }
 
-        String url = "https://nominatim.openstreetmap.org/search?q="
+    private CompletableFuture<List<Location>> submitSearch(String locationName, int limit, Priority priority) {
+        String url = BASE_URL + "/search?q="
                 + URLEncoder.encode(locationName, StandardCharsets.UTF_8)
                 + "&format=json&limit=" + limit;
 
+        return submit(url, priority, body -> decodeSearchResults(body, locationName));
+    }
+
+    /**
+     * Queues a GET request on the scheduler; the HTTP call is made with sendAsync and the body
+     * is decoded once as it streams in, so merged callers share the resulting list.
+     */
+    private CompletableFuture<List<Location>> submit(String url, Priority priority, BodyDecoder decoder) {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .timeout(Duration.ofSeconds(4))
                 .header("User-Agent", "TripPlanner/1.0 (UofT CSC207)")
                 .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return scheduler.submit(url, priority, () ->
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                        .thenApply(response -> {
+                            try (InputStream body = response.body()) {
+                                if (response.statusCode() != 200) {
+                                    throw new IOException("Nominatim API error: " + response.statusCode());
+                                }
+                                return decoder.decode(body);
+                            } catch (IOException e) {
+                                throw new CompletionException(e);
+                            }
+                        }));
+    }
 
-        if (response.statusCode() != 200) {
-            throw new IOException("Nominatim API error: " + response.statusCode());
+    private static List<Location> await(CompletableFuture<List<Location>> future)
+            throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Nominatim request failed: " + cause.getMessage(), cause);
         }
+    }
 
-        return new JSONArray(response.body());
+    /** Turns a response body stream into locations. */
+    @FunctionalInterface
+    interface BodyDecoder {
+        List<Location> decode(InputStream body) throws IOException;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package data_access;
+
+import entity.RouteGeometry;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.generate_route.GenerateRouteRoutingDataAccessInterface;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OfflineRoutingDataAccessObject
+ * GenerateRouteRoutingDataAccessInterface backed by a preprocessed local {@link RoadGraph}
+ * (see app.BuildRoadGraph), answered by {@link RoadGraphRouter} without any network access.
+ * <p>
+ * Responsibilities:
+ * - Snap each stop to the nearest node the profile may use
+ * - Route walking, cycling and driving on the same graph
+ * - Hand a leg to the fallback source (normally OSRM) when a stop lies outside the
+ *   graph or the graph has no path; without a fallback such legs come back empty
+ */
+public class OfflineRoutingDataAccessObject implements GenerateRouteRoutingDataAccessInterface {
+
+    /** Stops farther than this from any usable road are treated as outside the graph. */
+    public static final double DEFAULT_MAX_SNAP_METERS = 500;
+
+    private final RoadGraphRouter router;
+    private final GenerateRouteRoutingDataAccessInterface fallback;
+    private final double maxSnapMeters;
+
+    public OfflineRoutingDataAccessObject(RoadGraphRouter router, GenerateRouteRoutingDataAccessInterface fallback) {
+        this(router, fallback, DEFAULT_MAX_SNAP_METERS);
+    }
+
+    /**
+     * @param fallback source for legs the graph cannot answer, or null
+     */
+    public OfflineRoutingDataAccessObject(RoadGraphRouter router, GenerateRouteRoutingDataAccessInterface fallback,
+                                          double maxSnapMeters) {
+        this.router = router;
+        this.fallback = fallback;
+        this.maxSnapMeters = maxSnapMeters;
+    }
+
+    @Override
+    public RouteGeometry getRoute(GeoPosition start, GeoPosition end, String profile) throws IOException, InterruptedException {
+        RouteGeometry local = routeLocally(start, end, profileFor(profile));
+        if (local != null || fallback == null) return local != null ? local : RouteGeometry.empty();
+        return fallback.getRoute(start, end, profile);
+    }
+
+    @Override
+    public boolean routesManyLegsAtOnce() {
+        return true;
+    }
+
+    /** Every leg is routed locally; only the legs the graph cannot answer go to the fallback. */
+    @Override
+    public List<RouteGeometry> getRoutes(List<GeoPosition> stops, String profile) throws IOException, InterruptedException {
+        RoadGraph.Profile mode = profileFor(profile);
+        List<RouteGeometry> legs = new ArrayList<>(Math.max(0, stops.size() - 1));
+        for (int i = 0; i + 1 < stops.size(); i++) {
+            RouteGeometry leg = routeLocally(stops.get(i), stops.get(i + 1), mode);
+            if (leg == null) {
+                leg = fallback != null ? fallback.getRoute(stops.get(i), stops.get(i + 1), profile) : RouteGeometry.empty();
+            }
+            legs.add(leg);
+        }
+        return legs;
+    }
+
+    private static RoadGraph.Profile profileFor(String profile) throws IOException {
+        RoadGraph.Profile mode = RoadGraph.Profile.of(profile);
+        if (mode == null) throw new IOException("Unknown routing profile: " + profile);
+        return mode;
+    }
+
+    /** Geometry from the snapped start to the snapped end, or null if the graph cannot answer. */
+    private RouteGeometry routeLocally(GeoPosition start, GeoPosition end, RoadGraph.Profile profile) {
+        RoadGraph graph = router.getGraph();
+        int source = graph.nearestNode(start.getLatitude(), start.getLongitude(), profile, maxSnapMeters);
+        int target = graph.nearestNode(end.getLatitude(), end.getLongitude(), profile, maxSnapMeters);
+        if (source < 0 || target < 0) return null;
+
+        RoadGraphRouter.Route route = router.route(source, target, profile);
+        if (route == null) return null;
+
+        int[] nodes = route.getNodes();
+        RouteGeometry.Builder points = new RouteGeometry.Builder(Math.max(2, nodes.length));
+        for (int node : nodes) {
+            points.add(graph.latitude(node), graph.longitude(node));
+        }
+        // Both stops snapped to the same node: still a (zero-length) line, as OSRM returns
+        if (nodes.length == 1) points.add(graph.latitude(nodes[0]), graph.longitude(nodes[0]));
+        return points.build();
+    }
+}
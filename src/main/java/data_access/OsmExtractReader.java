@@ -0,0 +1,20 @@
+package data_access;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * OsmExtractReader
+ * Streams the nodes and ways of an OpenStreetMap extract to an {@link OsmHandler}.
+ */
+public interface OsmExtractReader {
+
+    void read(Path file, OsmHandler handler) throws IOException;
+
+    /** PBF reader for {@code .pbf} files decoding on {@code threads} threads, XML reader otherwise. */
+    static OsmExtractReader forFile(Path file, int threads) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".pbf") ? new OsmPbfReader(threads) : new OsmXmlReader();
+    }
+}
@@ -0,0 +1,31 @@
+package data_access;
+
+import java.util.Map;
+
+/**
+ * OsmHandler
+ * Receives the entities of an OpenStreetMap extract from an {@link OsmExtractReader}.
+ * <p>
+ * Readers may call it from several threads at once (one per block being decoded),
+ * so implementations must be thread-safe.
+ */
+public interface OsmHandler {
+
+    /** Whether the reader should decode nodes at all; skipping them saves most of the work. */
+    default boolean wantsNodes() {
+        return true;
+    }
+
+    /** Whether the reader should decode ways and their tags. */
+    default boolean wantsWays() {
+        return true;
+    }
+
+    default void node(long id, double latitude, double longitude) {}
+
+    /**
+     * @param nodeIds the way's node references in order
+     * @param tags    the way's tags; the reader may reuse the map after the call returns
+     */
+    default void way(long id, long[] nodeIds, Map<String, String> tags) {}
+}
@@ -0,0 +1,399 @@
+package data_access;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * OsmPbfReader
+ * Reads {@code .osm.pbf} extracts, decoding blocks in parallel.
+ * <p>
+ * Responsibilities:
+ * - Read the length-prefixed blobs in file order on the calling thread (plain sequential IO)
+ * - Inflate and decode each data block on a worker, with a bounded number of blocks in
+ *   flight so memory stays flat however large the extract is
+ * - Decode plain and dense nodes and ways straight from the protobuf wire format,
+ *   without generated classes or a protobuf dependency
+ * <p>
+ * Only zlib-compressed and raw blobs are supported, which is what common tools write.
+ */
+public class OsmPbfReader implements OsmExtractReader {
+
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+    private static final int MAX_BLOB_BYTES = 32 * 1024 * 1024;
+    private static final Set<String> SUPPORTED_FEATURES = Set.of("OsmSchema-V0.6", "DenseNodes");
+
+    private final int threads;
+
+    public OsmPbfReader(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    @Override
+    public void read(Path file, OsmHandler handler) throws IOException {
+        int maxInFlight = 2 * threads;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "osm-pbf");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (failure.get() == null) {
+                int headerLength;
+                try {
+                    headerLength = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (headerLength <= 0 || headerLength > MAX_HEADER_BYTES) {
+                    throw new IOException("Corrupt PBF blob header in " + file);
+                }
+                byte[] header = new byte[headerLength];
+                in.readFully(header);
+
+                String type = null;
+                int dataSize = -1;
+                Proto h = new Proto(header);
+                while (h.hasMore()) {
+                    int tag = h.tag();
+                    switch (tag >>> 3) {
+                        case 1: type = h.string(); break;
+                        case 3: dataSize = (int) h.varint(); break;
+                        default: h.skip(tag);
+                    }
+                }
+                if (dataSize < 0 || dataSize > MAX_BLOB_BYTES) throw new IOException("Corrupt PBF blob in " + file);
+                byte[] blob = new byte[dataSize];
+                in.readFully(blob);
+
+                if ("OSMHeader".equals(type)) {
+                    checkFeatures(inflate(blob));
+                } else if ("OSMData".equals(type)) {
+                    inFlight.acquire();
+                    workers.execute(() -> {
+                        try {
+                            decodePrimitiveBlock(inflate(blob), handler);
+                        } catch (Exception e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+            inFlight.acquire(maxInFlight);   // every queued block has been decoded
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading " + file);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt PBF data in " + file, e);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        Exception error = failure.get();
+        if (error instanceof IOException) throw (IOException) error;
+        if (error != null) throw new IOException("Corrupt PBF block in " + file, error);
+    }
+
+    private static void checkFeatures(byte[] headerBlock) throws IOException {
+        Proto p = new Proto(headerBlock);
+        while (p.hasMore()) {
+            int tag = p.tag();
+            if (tag >>> 3 == 4) {
+                String feature = p.string();
+                if (!SUPPORTED_FEATURES.contains(feature)) {
+                    throw new IOException("Unsupported PBF feature: " + feature);
+                }
+            } else {
+                p.skip(tag);
+            }
+        }
+    }
+
+    /** The blob's payload: raw (field 1) or zlib_data (field 3) inflated to raw_size (field 2). */
+    private static byte[] inflate(byte[] blob) throws IOException {
+        Proto p = new Proto(blob);
+        byte[] raw = null;
+        byte[] zlib = null;
+        int rawSize = -1;
+        while (p.hasMore()) {
+            int tag = p.tag();
+            switch (tag >>> 3) {
+                case 1: raw = p.bytes(); break;
+                case 2: rawSize = (int) p.varint(); break;
+                case 3: zlib = p.bytes(); break;
+                default:
+                    if ((tag & 7) == 2) throw new IOException("Unsupported PBF compression (field " + (tag >>> 3) + ")");
+                    p.skip(tag);
+            }
+        }
+        if (raw != null) return raw;
+        if (zlib == null || rawSize < 0 || rawSize > MAX_BLOB_BYTES) throw new IOException("Empty or oversized PBF blob");
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(zlib);
+            byte[] out = new byte[rawSize];
+            int n = 0;
+            while (n < rawSize && !inflater.finished()) {
+                int read = inflater.inflate(out, n, rawSize - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += read;
+            }
+            if (n != rawSize) throw new IOException("Truncated PBF blob");
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt zlib data in PBF blob", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* PrimitiveBlock                                                      */
+    /* ------------------------------------------------------------------ */
+
+    private static void decodePrimitiveBlock(byte[] data, OsmHandler handler) {
+        Proto block = new Proto(data);
+        Proto stringTable = null;
+        int groupCount = 0;
+        Proto[] groups = new Proto[8];
+        long granularity = 100;
+        long latOffset = 0;
+        long lonOffset = 0;
+        while (block.hasMore()) {
+            int tag = block.tag();
+            switch (tag >>> 3) {
+                case 1: stringTable = block.message(); break;
+                case 2:
+                    if (groupCount == groups.length) groups = Arrays.copyOf(groups, groupCount * 2);
+                    groups[groupCount++] = block.message();
+                    break;
+                case 17: granularity = block.varint(); break;
+                case 19: latOffset = block.varint(); break;
+                case 20: lonOffset = block.varint(); break;
+                default: block.skip(tag);
+            }
+        }
+
+        Block context = new Block(handler, strings(stringTable, handler.wantsWays()),
+                granularity, latOffset, lonOffset);
+        for (int i = 0; i < groupCount; i++) {
+            Proto group = groups[i];
+            while (group.hasMore()) {
+                int tag = group.tag();
+                int field = tag >>> 3;
+                if (field == 1 && handler.wantsNodes()) context.node(group.message());
+                else if (field == 2 && handler.wantsNodes()) context.denseNodes(group.message());
+                else if (field == 3 && handler.wantsWays()) context.way(group.message());
+                else group.skip(tag);
+            }
+        }
+    }
+
+    private static String[] strings(Proto table, boolean needed) {
+        if (table == null || !needed) return new String[0];
+        String[] strings = new String[16];
+        int count = 0;
+        while (table.hasMore()) {
+            int tag = table.tag();
+            if (tag >>> 3 == 1) {
+                if (count == strings.length) strings = Arrays.copyOf(strings, count * 2);
+                strings[count++] = table.string();
+            } else {
+                table.skip(tag);
+            }
+        }
+        return Arrays.copyOf(strings, count);
+    }
+
+    /** Decoding context of one PrimitiveBlock: its string table and coordinate scaling. */
+    private static final class Block {
+        final OsmHandler handler;
+        final String[] strings;
+        final long granularity;
+        final long latOffset;
+        final long lonOffset;
+
+        Block(OsmHandler handler, String[] strings, long granularity, long latOffset, long lonOffset) {
+            this.handler = handler;
+            this.strings = strings;
+            this.granularity = granularity;
+            this.latOffset = latOffset;
+            this.lonOffset = lonOffset;
+        }
+
+        double latitude(long raw) {
+            return 1e-9 * (latOffset + granularity * raw);
+        }
+
+        double longitude(long raw) {
+            return 1e-9 * (lonOffset + granularity * raw);
+        }
+
+        void node(Proto node) {
+            long id = 0, lat = 0, lon = 0;
+            while (node.hasMore()) {
+                int tag = node.tag();
+                switch (tag >>> 3) {
+                    case 1: id = node.sint64(); break;
+                    case 8: lat = node.sint64(); break;
+                    case 9: lon = node.sint64(); break;
+                    default: node.skip(tag);
+                }
+            }
+            handler.node(id, latitude(lat), longitude(lon));
+        }
+
+        /** Ids and coordinates are delta-coded, packed in three parallel arrays. */
+        void denseNodes(Proto dense) {
+            Proto ids = null, lats = null, lons = null;
+            while (dense.hasMore()) {
+                int tag = dense.tag();
+                switch (tag >>> 3) {
+                    case 1: ids = dense.packed(tag); break;
+                    case 8: lats = dense.packed(tag); break;
+                    case 9: lons = dense.packed(tag); break;
+                    default: dense.skip(tag);
+                }
+            }
+            if (ids == null || lats == null || lons == null) return;
+
+            long id = 0, lat = 0, lon = 0;
+            while (ids.hasMore()) {
+                id += ids.sint64();
+                lat += lats.sint64();
+                lon += lons.sint64();
+                handler.node(id, latitude(lat), longitude(lon));
+            }
+        }
+
+        void way(Proto way) {
+            long id = 0;
+            Proto keys = null, values = null, refs = null;
+            while (way.hasMore()) {
+                int tag = way.tag();
+                switch (tag >>> 3) {
+                    case 1: id = way.varint(); break;
+                    case 2: keys = way.packed(tag); break;
+                    case 3: values = way.packed(tag); break;
+                    case 8: refs = way.packed(tag); break;
+                    default: way.skip(tag);
+                }
+            }
+
+            Map<String, String> tags = new HashMap<>();
+            while (keys != null && values != null && keys.hasMore() && values.hasMore()) {
+                tags.put(strings[(int) keys.varint()], strings[(int) values.varint()]);
+            }
+
+            long[] nodeIds = new long[16];
+            int count = 0;
+            long ref = 0;
+            while (refs != null && refs.hasMore()) {
+                ref += refs.sint64();
+                if (count == nodeIds.length) nodeIds = Arrays.copyOf(nodeIds, count * 2);
+                nodeIds[count++] = ref;
+            }
+            handler.way(id, Arrays.copyOf(nodeIds, count), tags);
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Protobuf wire format                                                */
+    /* ------------------------------------------------------------------ */
+
+    /** Cursor over a protobuf message (or a packed field) in a byte range. */
+    static final class Proto {
+        private final byte[] buf;
+        private int pos;
+        private final int limit;
+
+        Proto(byte[] buf) {
+            this(buf, 0, buf.length);
+        }
+
+        private Proto(byte[] buf, int from, int limit) {
+            this.buf = buf;
+            this.pos = from;
+            this.limit = limit;
+        }
+
+        boolean hasMore() {
+            return pos < limit;
+        }
+
+        int tag() {
+            return (int) varint();
+        }
+
+        long varint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= limit) throw new IllegalStateException("Truncated varint");
+                byte b = buf[pos++];
+                result |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return result;
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+
+        /** Zigzag-decoded signed varint. */
+        long sint64() {
+            long v = varint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        /** The length-delimited field at the cursor, as its own cursor. */
+        Proto message() {
+            int length = (int) varint();
+            if (length < 0 || length > limit - pos) throw new IllegalStateException("Field overruns its message");
+            Proto field = new Proto(buf, pos, pos + length);
+            pos += length;
+            return field;
+        }
+
+        byte[] bytes() {
+            Proto field = message();
+            return Arrays.copyOfRange(buf, field.pos, field.limit);
+        }
+
+        String string() {
+            Proto field = message();
+            return new String(buf, field.pos, field.limit - field.pos, StandardCharsets.UTF_8);
+        }
+
+        /** A repeated scalar field: packed (the usual form) or a single unpacked value. */
+        Proto packed(int tag) {
+            if ((tag & 7) == 2) return message();
+            int start = pos;
+            skip(tag);
+            return new Proto(buf, start, pos);
+        }
+
+        void skip(int tag) {
+            switch (tag & 7) {
+                case 0: varint(); break;
+                case 1: pos += 8; break;
+                case 2: message(); break;
+                case 5: pos += 4; break;
+                default: throw new IllegalStateException("Unsupported wire type " + (tag & 7));
+            }
+        }
+    }
+}
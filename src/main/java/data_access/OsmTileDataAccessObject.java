@@ -0,0 +1,55 @@
+package data_access;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * OsmTileDataAccessObject
+ * Downloads map tiles from an OpenStreetMap-style tile server.
+ * <p>
+ * Responsibilities:
+ * - Send the application's User-Agent, as the OSM tile usage policy requires
+ * - Send If-None-Match / If-Modified-Since when the caller has a cached copy, and report 304 as not modified
+ * - Report a missing tile (404) as FileNotFoundException, so the map gives up on it instead of retrying
+ */
+public class OsmTileDataAccessObject implements TileSource {
+
+    private final HttpClient client;
+
+    public OsmTileDataAccessObject(HttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Download fetch(URL url, String etag, String lastModified) throws IOException, InterruptedException {
+        HttpRequest.Builder request;
+        try {
+            request = HttpRequest.newBuilder(url.toURI())
+                    .header("User-Agent", "TripPlanner/1.0 (207 5-6)")
+                    .GET();
+        } catch (URISyntaxException e) {
+            throw new IOException("Bad tile URL: " + url, e);
+        }
+        if (etag != null) request.header("If-None-Match", etag);
+        if (lastModified != null) request.header("If-Modified-Since", lastModified);
+
+        HttpResponse<byte[]> resp = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        switch (resp.statusCode()) {
+            case 200:
+                return new Download(resp.body(),
+                        resp.headers().firstValue("ETag").orElse(null),
+                        resp.headers().firstValue("Last-Modified").orElse(null));
+            case 304:
+                return Download.notModified();
+            case 404:
+                throw new FileNotFoundException("No tile at " + url);
+            default:
+                throw new IOException("Tile request failed with code: " + resp.statusCode());
+        }
+    }
+}
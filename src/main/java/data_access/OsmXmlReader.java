@@ -0,0 +1,78 @@
+package data_access;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OsmXmlReader
+ * Reads {@code .osm} XML extracts with a streaming (StAX) parser on the calling thread.
+ * <p>
+ * XML has no independent blocks to hand out to other cores, so this reader is sequential;
+ * it is meant for small extracts and tests. Use the PBF format for large areas.
+ */
+public class OsmXmlReader implements OsmExtractReader {
+
+    @Override
+    public void read(Path file, OsmHandler handler) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            try {
+                long wayId = -1;
+                long[] nodeIds = new long[16];
+                int nodeCount = 0;
+                Map<String, String> tags = new HashMap<>();
+
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (xml.getLocalName()) {
+                            case "node":
+                                if (handler.wantsNodes()) {
+                                    handler.node(Long.parseLong(xml.getAttributeValue(null, "id")),
+                                            Double.parseDouble(xml.getAttributeValue(null, "lat")),
+                                            Double.parseDouble(xml.getAttributeValue(null, "lon")));
+                                }
+                                break;
+                            case "way":
+                                wayId = Long.parseLong(xml.getAttributeValue(null, "id"));
+                                nodeCount = 0;
+                                tags.clear();
+                                break;
+                            case "nd":
+                                if (wayId >= 0) {
+                                    if (nodeCount == nodeIds.length) nodeIds = Arrays.copyOf(nodeIds, nodeCount * 2);
+                                    nodeIds[nodeCount++] = Long.parseLong(xml.getAttributeValue(null, "ref"));
+                                }
+                                break;
+                            case "tag":
+                                if (wayId >= 0) tags.put(xml.getAttributeValue(null, "k"), xml.getAttributeValue(null, "v"));
+                                break;
+                            default:
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(xml.getLocalName())) {
+                        if (handler.wantsWays()) handler.way(wayId, Arrays.copyOf(nodeIds, nodeCount), tags);
+                        wayId = -1;
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException | RuntimeException e) {
+            throw new IOException("Malformed OSM XML in " + file + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package data_access;
+
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * OsrmTableDataAccessObject
+ * Travel-time and distance matrices from OSRM's table service.
+ * <p>
+ * Responsibilities:
+ * - Answer an N x M matrix with as few requests as the server's coordinate limit allows:
+ *   one request when everything fits, otherwise tiles of sources x destinations
+ * - Send a stop list used as both sources and destinations only once per request
+ * - Stream each response into the matrix without building a JSON tree
+ * <p>
+ * Tiles are requested one after another, which is what the public server asks for.
+ */
+public class OsrmTableDataAccessObject implements TravelMatrixSource {
+
+    private static final String BASE_URL = "https://router.project-osrm.org/table/v1/";
+
+    /** Coordinates per request; the public OSRM server rejects longer lists. */
+    public static final int DEFAULT_MAX_COORDINATES = 100;
+
+    private final HttpClient client;
+    private final int maxCoordinates;
+
+    public OsrmTableDataAccessObject(HttpClient client) {
+        this(client, DEFAULT_MAX_COORDINATES);
+    }
+
+    /**
+     * @param maxCoordinates most coordinates sent in one request (the server's limit); at least 2
+     */
+    public OsrmTableDataAccessObject(HttpClient client, int maxCoordinates) {
+        if (maxCoordinates < 2) throw new IllegalArgumentException("maxCoordinates must be at least 2");
+        this.client = client;
+        this.maxCoordinates = maxCoordinates;
+    }
+
+    @Override
+    public TravelMatrix getMatrix(List<GeoPosition> sources, List<GeoPosition> destinations, String profile)
+            throws IOException, InterruptedException {
+        TravelMatrix matrix = new TravelMatrix(sources.size(), destinations.size());
+        if (sources.isEmpty() || destinations.isEmpty()) return matrix;
+
+        if (sources.equals(destinations) && sources.size() <= maxCoordinates) {
+            // Square matrix of one stop list: every coordinate doubles as source and destination
+            try (InputStream body = fetch(BASE_URL + profile + "/" + coordinates(sources)
+                    + "?annotations=duration,distance")) {
+                decodeTable(body, matrix, 0, 0, sources.size(), sources.size());
+            }
+            return matrix;
+        }
+
+        for (int[] tile : tiles(sources.size(), destinations.size(), maxCoordinates)) {
+            List<GeoPosition> coords = new ArrayList<>(sources.subList(tile[0], tile[1]));
+            coords.addAll(destinations.subList(tile[2], tile[3]));
+            String url = BASE_URL + profile + "/" + coordinates(coords) + "?annotations=duration,distance"
+                    + "&sources=" + indexRange(0, tile[1] - tile[0])
+                    + "&destinations=" + indexRange(tile[1] - tile[0], coords.size());
+            try (InputStream body = fetch(url)) {
+                decodeTable(body, matrix, tile[0], tile[2], tile[1] - tile[0], tile[3] - tile[2]);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Splits a rows x columns matrix into {rowFrom, rowTo, columnFrom, columnTo} tiles whose
+     * sources plus destinations fit in one request. Tiles are as square as the limit allows.
+     */
+    static List<int[]> tiles(int rows, int columns, int maxCoordinates) {
+        int rowBlock;
+        int columnBlock;
+        if (rows + columns <= maxCoordinates) {
+            rowBlock = rows;
+            columnBlock = columns;
+        } else {
+            rowBlock = Math.max(1, Math.min(rows, maxCoordinates / 2));
+            columnBlock = Math.min(columns, maxCoordinates - rowBlock);
+            rowBlock = Math.min(rows, maxCoordinates - columnBlock);   // hand back any unused room
+        }
+
+        List<int[]> tiles = new ArrayList<>();
+        for (int r = 0; r < rows; r += rowBlock) {
+            for (int c = 0; c < columns; c += columnBlock) {
+                tiles.add(new int[]{r, Math.min(rows, r + rowBlock), c, Math.min(columns, c + columnBlock)});
+            }
+        }
+        return tiles;
+    }
+
+    private static String coordinates(List<GeoPosition> points) {
+        StringBuilder coords = new StringBuilder();
+        for (GeoPosition p : points) {
+            if (coords.length() > 0) coords.append(';');
+            coords.append(String.format(Locale.ROOT, "%f,%f", p.getLongitude(), p.getLatitude()));
+        }
+        return coords.toString();
+    }
+
+    private static String indexRange(int from, int to) {
+        StringBuilder indices = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i > from) indices.append(';');
+            indices.append(i);
+        }
+        return indices.toString();
+    }
+
+    /** Sends the request and returns the body stream of a 200 response (caller closes it). */
+    private InputStream fetch(String url) throws IOException, InterruptedException {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("User-Agent", "TripPlanner/1.0 (207 5-6)")
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> resp = client.send(req, HttpResponse.BodyHandlers.ofInputStream());
+        if (resp.statusCode() != 200) {
+            resp.body().close();
+            throw new IOException("Table request failed with code: " + resp.statusCode());
+        }
+        return resp.body();
+    }
+
+    /**
+     * Reads "durations" and "distances" ([rows][columns], null where there is no route) from
+     * an OSRM table response into the matrix block at (rowOffset, columnOffset).
+     */
+    static void decodeTable(InputStream body, TravelMatrix out, int rowOffset, int columnOffset,
+                            int rows, int columns) throws IOException {
+        double[] seconds = null;
+        double[] meters = null;
+        String code = null;
+        try (JsonPullParser json = new JsonPullParser(body)) {
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if (name.equals("code") && json.peek() == JsonPullParser.Token.STRING) {
+                    code = json.nextString();
+                } else if (name.equals("durations") && json.peek() == JsonPullParser.Token.BEGIN_ARRAY) {
+                    seconds = readCells(json, rows, columns);
+                } else if (name.equals("distances") && json.peek() == JsonPullParser.Token.BEGIN_ARRAY) {
+                    meters = readCells(json, rows, columns);
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        }
+        if (!"Ok".equals(code) || seconds == null) {
+            throw new IOException("Table request failed: " + (code == null ? "no durations" : code));
+        }
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                out.set(rowOffset + r, columnOffset + c, seconds[r * columns + c],
+                        meters == null ? Double.NaN : meters[r * columns + c]);
+            }
+        }
+    }
+
+    /** A rows x columns array of numbers or nulls, flattened; null becomes infinity. */
+    private static double[] readCells(JsonPullParser json, int rows, int columns) throws IOException {
+        double[] cells = new double[rows * columns];
+        int r = 0;
+        json.beginArray();
+        while (json.hasNext()) {
+            if (r == rows) throw new IOException("Table has more than " + rows + " rows");
+            int c = 0;
+            json.beginArray();
+            while (json.hasNext()) {
+                if (c == columns) throw new IOException("Table row has more than " + columns + " cells");
+                if (json.peek() == JsonPullParser.Token.NULL) {
+                    json.nextNull();
+                    cells[r * columns + c] = Double.POSITIVE_INFINITY;
+                } else {
+                    cells[r * columns + c] = json.nextDouble();
+                }
+                c++;
+            }
+            json.endArray();
+            if (c != columns) throw new IOException("Table row has " + c + " cells, expected " + columns);
+            r++;
+        }
+        json.endArray();
+        if (r != rows) throw new IOException("Table has " + r + " rows, expected " + rows);
+        return cells;
+    }
+}
@@ -0,0 +1,85 @@
+package data_access;
+
+import entity.RouteGeometry;
+
+import java.io.IOException;
+
+/**
+ * Polyline6
+ * Google's encoded polyline format at 1e-6 degree precision, as OSRM sends it with
+ * {@code geometries=polyline6}.
+ * <p>
+ * Each vertex is the change in latitude and longitude from the previous one, zig-zag
+ * signed and written in 5-bit groups as characters from '?' upward. Decoding adds the
+ * changes straight into {@link RouteGeometry}'s fixed-point ints, so nothing is rounded.
+ */
+final class Polyline6 {
+
+    private Polyline6() {}
+
+    /**
+     * Appends the encoded vertices to {@code out}, in one pass over the characters.
+     *
+     * @param joinShared drop the first vertex if {@code out} already ends with it (consecutive steps share it)
+     */
+    static void decode(CharSequence encoded, RouteGeometry.Builder out, boolean joinShared) throws IOException {
+        int length = encoded.length();
+        int index = 0;
+        int latitude = 0;
+        int longitude = 0;
+        boolean first = true;
+        while (index < length) {
+            int result = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (index == length) throw new IOException("Truncated polyline");
+                b = encoded.charAt(index++) - 63;
+                result |= (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            latitude += (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+
+            result = 0;
+            shift = 0;
+            do {
+                if (index == length) throw new IOException("Truncated polyline");
+                b = encoded.charAt(index++) - 63;
+                result |= (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            longitude += (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+
+            if (!(first && joinShared && out.endsAt(latitude, longitude))) out.addE6(latitude, longitude);
+            first = false;
+        }
+    }
+
+    static RouteGeometry decode(CharSequence encoded) throws IOException {
+        RouteGeometry.Builder out = new RouteGeometry.Builder(encoded.length() / 4);
+        decode(encoded, out, false);
+        return out.build();
+    }
+
+    static String encode(RouteGeometry geometry) {
+        StringBuilder out = new StringBuilder(geometry.size() * 6);
+        int latitude = 0;
+        int longitude = 0;
+        for (int i = 0; i < geometry.size(); i++) {
+            encodeValue(geometry.latitudeE6(i) - latitude, out);
+            encodeValue(geometry.longitudeE6(i) - longitude, out);
+            latitude = geometry.latitudeE6(i);
+            longitude = geometry.longitudeE6(i);
+        }
+        return out.toString();
+    }
+
+    private static void encodeValue(int delta, StringBuilder out) {
+        int value = delta < 0 ? ~(delta << 1) : delta << 1;
+        while (value >= 0x20) {
+            out.append((char) ((0x20 | (value & 0x1f)) + 63));
+            value >>>= 5;
+        }
+        out.append((char) (value + 63));
+    }
+}
@@ -0,0 +1,220 @@
+package data_access;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * RateLimitedRequestScheduler
+ * Sends requests to a rate-limited API (Nominatim: 1 request per second) from a
+ * single dispatcher thread, so callers never sleep and the limit holds across threads.
+ * <p>
+ * Behaviour:
+ * - Token bucket: at most {@code burst} requests back to back, then one per interval
+ * - Priority queue: when a token frees up, the most important waiting request goes next
+ *   (an explicit search is sent before queued typing suggestions, and both before batch work)
+ * - Merging: identical requests (same key) queued or in flight share one result
+ * - Cancellation: once every caller of a request has cancelled, it is dropped from the
+ *   queue (or the in-flight call is cancelled), so stale requests never use a token
+ *
+ * @param <T> decoded response type shared by merged callers
+ */
+public class RateLimitedRequestScheduler<T> {
+
+    /** Request classes, most important first. */
+    public enum Priority {
+        SEARCH,
+        SUGGESTION,
+        BATCH
+    }
+
+    private final long intervalMs;
+    private final int burst;
+
+    private final PriorityBlockingQueue<PendingRequest> queue = new PriorityBlockingQueue<>();
+    /** Requests that are queued or in flight, by key. Used for merging identical calls. */
+    private final Map<String, PendingRequest> pendingByKey = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Thread dispatcher;
+
+    /* Token bucket state (dispatcher thread only) */
+    private double tokens;
+    private long lastRefillMs;
+
+    public RateLimitedRequestScheduler(long intervalMs, int burst, String name) {
+        if (intervalMs <= 0 || burst <= 0) throw new IllegalArgumentException("interval and burst must be positive");
+        this.intervalMs = intervalMs;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillMs = System.currentTimeMillis();
+
+        this.dispatcher = new Thread(this::dispatchLoop, name);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Queues a request. If an identical request (same key) is already waiting or in flight,
+     * no new call is made and the caller shares its result; a more urgent priority upgrades
+     * the waiting request.
+     *
+     * @param key  identity of the request (e.g. its URL)
+     * @param call starts the request once a token is available
+     * @return a future private to this caller; cancelling it withdraws this caller only
+     */
+    public CompletableFuture<T> submit(String key, Priority priority, Supplier<CompletableFuture<T>> call) {
+        while (true) {
+            PendingRequest fresh = new PendingRequest(key, priority, sequence.getAndIncrement(), call);
+            PendingRequest existing = pendingByKey.putIfAbsent(key, fresh);
+
+            if (existing == null) {
+                CompletableFuture<T> handle;
+                synchronized (fresh) {
+                    handle = fresh.subscribe();
+                }
+                queue.add(fresh);
+                return handle;
+            }
+
+            synchronized (existing) {
+                if (existing.finished) continue;   // raced with completion, retry
+                if (!existing.dispatched && priority.compareTo(existing.priority) < 0 && queue.remove(existing)) {
+                    existing.priority = priority;
+                    queue.add(existing);
+                }
+                return existing.subscribe();
+            }
+        }
+    }
+
+    /** Number of requests waiting for a token. */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /** Stops the dispatcher thread. Queued requests are failed. */
+    public void shutdown() {
+        dispatcher.interrupt();
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Dispatcher                                                          */
+    /* ------------------------------------------------------------------ */
+
+    private void dispatchLoop() {
+        try {
+            while (true) {
+                // Take the token first, so the request chosen is the best one at send time
+                awaitToken();
+                PendingRequest next = queue.take();
+                if (dispatch(next)) {
+                    tokens -= 1;
+                }
+            }
+        } catch (InterruptedException e) {
+            PendingRequest r;
+            while ((r = queue.poll()) != null) {
+                r.result.completeExceptionally(new InterruptedException("Request scheduler stopped"));
+            }
+        }
+    }
+
+    private void awaitToken() throws InterruptedException {
+        while (true) {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(burst, tokens + (double) (now - lastRefillMs) / intervalMs);
+            lastRefillMs = now;
+            if (tokens >= 1) return;
+
+            long waitMs = (long) Math.ceil((1 - tokens) * intervalMs);
+            Thread.sleep(Math.max(1, waitMs));
+        }
+    }
+
+    /** Starts the request; returns false if every caller withdrew before it could be sent. */
+    private boolean dispatch(PendingRequest request) {
+        synchronized (request) {
+            if (request.finished) return false;
+            request.dispatched = true;
+        }
+
+        CompletableFuture<T> response;
+        try {
+            response = request.call.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        synchronized (request) {
+            request.inFlight = response;
+        }
+
+        response.whenComplete((value, error) -> {
+            synchronized (request) {
+                request.finished = true;
+                pendingByKey.remove(request.key, request);
+            }
+            if (error != null) {
+                request.result.completeExceptionally(error);
+            } else {
+                request.result.complete(value);
+            }
+        });
+        return true;
+    }
+
+    /** A queued request and the result shared by every caller merged into it. */
+    private class PendingRequest implements Comparable<PendingRequest> {
+        final String key;
+        final long seq;
+        final Supplier<CompletableFuture<T>> call;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        volatile Priority priority;
+        boolean dispatched;
+        boolean finished;
+        int subscribers;
+        CompletableFuture<T> inFlight;
+
+        PendingRequest(String key, Priority priority, long seq, Supplier<CompletableFuture<T>> call) {
+            this.key = key;
+            this.priority = priority;
+            this.seq = seq;
+            this.call = call;
+        }
+
+        /** Hands out a per-caller view of the shared result. Caller must hold this request's lock. */
+        CompletableFuture<T> subscribe() {
+            subscribers++;
+            CompletableFuture<T> handle = result.copy();
+            handle.whenComplete((value, error) -> {
+                if (handle.isCancelled()) unsubscribe();
+            });
+            return handle;
+        }
+
+        private void unsubscribe() {
+            CompletableFuture<T> toCancel = null;
+            synchronized (this) {
+                if (--subscribers > 0 || finished) return;
+                finished = true;
+                pendingByKey.remove(key, this);
+                if (!dispatched) {
+                    queue.remove(this);
+                } else {
+                    toCancel = inFlight;
+                }
+            }
+            result.cancel(false);
+            if (toCancel != null) toCancel.cancel(true);
+        }
+
+        @Override
+        public int compareTo(PendingRequest other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+}
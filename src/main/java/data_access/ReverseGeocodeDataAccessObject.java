@@ -0,0 +1,38 @@
+package data_access;
+
+import entity.Location;
+import use_case.reverse_geocode.ReverseGeocodeDataAccessInterface;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * ReverseGeocodeDataAccessObject
+ * Answers reverse lookups from the {@link KnownLocationIndex} and, when asked,
+ * from Nominatim /reverse through the rate-limited OSMDataAccessObject.
+ */
+public class ReverseGeocodeDataAccessObject implements ReverseGeocodeDataAccessInterface {
+
+    private final KnownLocationIndex index;
+    private final OSMDataAccessObject remote;
+
+    public ReverseGeocodeDataAccessObject(KnownLocationIndex index, OSMDataAccessObject remote) {
+        this.index = index;
+        this.remote = remote;
+    }
+
+    @Override
+    public Optional<Location> findNearestKnown(double latitude, double longitude, double maxMeters) {
+        return index.nearest(latitude, longitude, maxMeters);
+    }
+
+    @Override
+    public Optional<Location> reverse(double latitude, double longitude) throws IOException, InterruptedException {
+        return remote.reverse(latitude, longitude);
+    }
+
+    @Override
+    public void remember(Location location) {
+        index.add(location);
+    }
+}
@@ -0,0 +1,467 @@
+package data_access;
+
+import entity.GeoDistance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * RoadGraph
+ * Compact, read-only road network for offline routing, in compressed sparse row form.
+ * <p>
+ * Layout (all primitive arrays, no per-node or per-edge objects):
+ * - node latitude / longitude
+ * - outgoing edges of node v at [firstEdge[v], firstEdge[v + 1]) in target / length / access / speed
+ * - incoming edges rebuilt at load time the same way, for searches that run backwards
+ * - a uniform grid over the nodes, to snap coordinates to the nearest usable node
+ * <p>
+ * Edges are directed; a two-way street is two edges. Each edge carries which profiles
+ * may use it in that direction and the car speed, so one graph serves walking, cycling
+ * and driving.
+ */
+public class RoadGraph {
+
+    private static final int MAGIC = 0x52475231; // "RGR1"
+
+    public static final int ACCESS_FOOT = 1;
+    public static final int ACCESS_BIKE = 2;
+    public static final int ACCESS_CAR = 4;
+
+    /** Car speed used for edges imported without one. */
+    public static final int DEFAULT_CAR_SPEED_KMH = 50;
+
+    /** Starting grid cell size; doubled until there are no more cells than nodes. */
+    private static final double MIN_CELL_DEGREES = 0.002;
+    private static final double METERS_PER_DEGREE = GeoDistance.EARTH_RADIUS_METERS * Math.PI / 180;
+
+    /** Travel mode: which edges it may use and how fast it moves along them. */
+    public enum Profile {
+        WALKING(ACCESS_FOOT, 5),
+        CYCLING(ACCESS_BIKE, 16),
+        DRIVING(ACCESS_CAR, 0);
+
+        private final int access;
+        /** Seconds per meter indexed by the edge's car speed byte. */
+        private final double[] secondsPerMeter = new double[256];
+
+        Profile(int access, int fixedSpeedKmh) {
+            this.access = access;
+            for (int carSpeed = 0; carSpeed < 256; carSpeed++) {
+                int kmh = fixedSpeedKmh > 0 ? fixedSpeedKmh : carSpeed > 0 ? carSpeed : DEFAULT_CAR_SPEED_KMH;
+                secondsPerMeter[carSpeed] = 3.6 / kmh;
+            }
+        }
+
+        public int access() {
+            return access;
+        }
+
+        /** Seconds per meter on an edge with the given car speed. */
+        double secondsPerMeter(int carSpeedKmh) {
+            return secondsPerMeter[carSpeedKmh];
+        }
+
+        /**
+         * Profile for an OSRM-style profile name ("walking" / "foot", "cycling" / "bike",
+         * "driving" / "car"), or null if unknown.
+         */
+        public static Profile of(String name) {
+            if (name == null) return null;
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "walking": case "foot": return WALKING;
+                case "cycling": case "bike": return CYCLING;
+                case "driving": case "car": return DRIVING;
+                default: return null;
+            }
+        }
+    }
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final float[] latitudes;
+    private final float[] longitudes;
+    final int[] firstEdge;
+    final int[] edgeTarget;
+    final float[] edgeLength;
+    final byte[] edgeAccess;
+    final byte[] edgeSpeed;
+
+    /** Incoming edges of v are inEdge[firstIn[v] .. firstIn[v + 1]), with their sources in inSource. */
+    final int[] firstIn;
+    final int[] inEdge;
+    final int[] inSource;
+
+    /** Node positions in meters east / north of the south-west corner, for cheap distance bounds. */
+    final float[] x;
+    final float[] y;
+    /** Union of the access flags of every edge touching the node. */
+    private final byte[] nodeAccess;
+    /** Largest car speed in the graph, for the driving heuristic. */
+    private final int maxCarSpeedKmh;
+    /** Per-profile travel seconds in outgoing and incoming edge order, built on first use. */
+    private final float[][] outSeconds = new float[Profile.values().length][];
+    private final float[][] inSeconds = new float[Profile.values().length][];
+
+    private final double minLat;
+    private final double minLon;
+    private final double metersPerDegreeLon;
+    private final double cellDegrees;
+    private final int gridColumns;
+    private final int gridRows;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+
+    private RoadGraph(int nodeCount, int edgeCount, float[] latitudes, float[] longitudes,
+                      int[] firstEdge, int[] edgeTarget, float[] edgeLength, byte[] edgeAccess, byte[] edgeSpeed) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.firstEdge = firstEdge;
+        this.edgeTarget = edgeTarget;
+        this.edgeLength = edgeLength;
+        this.edgeAccess = edgeAccess;
+        this.edgeSpeed = edgeSpeed;
+
+        // Reverse adjacency by counting sort on the target
+        firstIn = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) firstIn[edgeTarget[e] + 1]++;
+        for (int v = 0; v < nodeCount; v++) firstIn[v + 1] += firstIn[v];
+        inEdge = new int[edgeCount];
+        inSource = new int[edgeCount];
+        int[] fill = Arrays.copyOf(firstIn, nodeCount);
+        nodeAccess = new byte[nodeCount];
+        int maxSpeed = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            for (int e = firstEdge[v]; e < firstEdge[v + 1]; e++) {
+                int w = edgeTarget[e];
+                inEdge[fill[w]] = e;
+                inSource[fill[w]++] = v;
+                nodeAccess[v] |= edgeAccess[e];
+                nodeAccess[w] |= edgeAccess[e];
+                if ((edgeAccess[e] & ACCESS_CAR) != 0) maxSpeed = Math.max(maxSpeed, carSpeed(e));
+            }
+        }
+        maxCarSpeedKmh = maxSpeed > 0 ? maxSpeed : DEFAULT_CAR_SPEED_KMH;
+
+        double south = Double.MAX_VALUE, north = -Double.MAX_VALUE;
+        double west = Double.MAX_VALUE, east = -Double.MAX_VALUE;
+        for (int v = 0; v < nodeCount; v++) {
+            south = Math.min(south, latitudes[v]);
+            north = Math.max(north, latitudes[v]);
+            west = Math.min(west, longitudes[v]);
+            east = Math.max(east, longitudes[v]);
+        }
+        if (nodeCount == 0) south = north = west = east = 0;
+        minLat = south;
+        minLon = west;
+
+        // Scale longitude by the cosine of the latitude farthest from the equator, so planar
+        // distances never exceed the great-circle distance (the A* bound relies on it)
+        double widestLat = Math.max(Math.abs(south), Math.abs(north));
+        metersPerDegreeLon = METERS_PER_DEGREE * Math.cos(Math.toRadians(widestLat));
+        x = new float[nodeCount];
+        y = new float[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            x[v] = (float) ((longitudes[v] - minLon) * metersPerDegreeLon);
+            y[v] = (float) ((latitudes[v] - minLat) * METERS_PER_DEGREE);
+        }
+
+        double cell = MIN_CELL_DEGREES;
+        while (cellsFor(north - south, east - west, cell) > Math.max(1024, nodeCount)) cell *= 2;
+        cellDegrees = cell;
+        gridRows = (int) ((north - south) / cell) + 1;
+        gridColumns = (int) ((east - west) / cell) + 1;
+        cellStart = new int[gridRows * gridColumns + 1];
+        for (int v = 0; v < nodeCount; v++) cellStart[cellOf(v) + 1]++;
+        for (int c = 0; c < gridRows * gridColumns; c++) cellStart[c + 1] += cellStart[c];
+        cellNodes = new int[nodeCount];
+        int[] cellFill = Arrays.copyOf(cellStart, gridRows * gridColumns);
+        for (int v = 0; v < nodeCount; v++) cellNodes[cellFill[cellOf(v)]++] = v;
+    }
+
+    private static long cellsFor(double latSpan, double lonSpan, double cell) {
+        return ((long) (latSpan / cell) + 1) * ((long) (lonSpan / cell) + 1);
+    }
+
+    private int cellOf(int v) {
+        int row = (int) ((latitudes[v] - minLat) / cellDegrees);
+        int column = (int) ((longitudes[v] - minLon) / cellDegrees);
+        return row * gridColumns + column;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public double latitude(int node) {
+        return latitudes[node];
+    }
+
+    public double longitude(int node) {
+        return longitudes[node];
+    }
+
+    int carSpeed(int edge) {
+        return edgeSpeed[edge] & 0xFF;
+    }
+
+    boolean allows(int edge, Profile profile) {
+        return (edgeAccess[edge] & profile.access) != 0;
+    }
+
+    /** Travel time along the edge in seconds. */
+    double seconds(int edge, Profile profile) {
+        return edgeLength[edge] * profile.secondsPerMeter(carSpeed(edge));
+    }
+
+    /**
+     * Travel seconds of every edge for the profile, in outgoing order (parallel to edgeTarget);
+     * infinite where the profile may not use the edge. One array read per relaxed edge.
+     */
+    synchronized float[] outgoingSeconds(Profile profile) {
+        float[] seconds = outSeconds[profile.ordinal()];
+        if (seconds == null) {
+            seconds = new float[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                seconds[e] = allows(e, profile) ? (float) seconds(e, profile) : Float.POSITIVE_INFINITY;
+            }
+            outSeconds[profile.ordinal()] = seconds;
+        }
+        return seconds;
+    }
+
+    /** As {@link #outgoingSeconds(Profile)}, in incoming order (parallel to inSource). */
+    synchronized float[] incomingSeconds(Profile profile) {
+        float[] seconds = inSeconds[profile.ordinal()];
+        if (seconds == null) {
+            float[] out = outgoingSeconds(profile);
+            seconds = new float[edgeCount];
+            for (int i = 0; i < edgeCount; i++) seconds[i] = out[inEdge[i]];
+            inSeconds[profile.ordinal()] = seconds;
+        }
+        return seconds;
+    }
+
+    /** Lower bound on seconds per meter for the profile anywhere in this graph. */
+    double minSecondsPerMeter(Profile profile) {
+        return profile.secondsPerMeter(maxCarSpeedKmh);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Snapping                                                            */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Node nearest to the coordinate that the profile can use, or -1 if there is none
+     * within {@code maxMeters}. Searches the grid ring by ring outwards from the cell.
+     */
+    public int nearestNode(double latitude, double longitude, Profile profile, double maxMeters) {
+        if (nodeCount == 0) return -1;
+        double px = (longitude - minLon) * metersPerDegreeLon;
+        double py = (latitude - minLat) * METERS_PER_DEGREE;
+        int row = (int) Math.floor((latitude - minLat) / cellDegrees);
+        int column = (int) Math.floor((longitude - minLon) / cellDegrees);
+        double cellMeters = cellDegrees * metersPerDegreeLon;   // the narrower side of a cell
+
+        int best = -1;
+        double bestSq = maxMeters * maxMeters;
+        int maxRing = (int) Math.ceil(maxMeters / cellMeters) + 1;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Anything in this ring or beyond is at least (ring - 1) cells away
+            double reach = Math.max(0, ring - 1) * cellMeters;
+            if (best >= 0 && reach * reach > bestSq) break;
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= gridRows) continue;
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = column - ring; c <= column + ring; c += edgeRow ? 1 : 2 * ring) {
+                    if (c >= 0 && c < gridColumns) {
+                        int cell = r * gridColumns + c;
+                        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                            int v = cellNodes[i];
+                            if ((nodeAccess[v] & profile.access) == 0) continue;
+                            double dx = x[v] - px, dy = y[v] - py;
+                            double sq = dx * dx + dy * dy;
+                            if (sq < bestSq) {
+                                bestSq = sq;
+                                best = v;
+                            }
+                        }
+                    }
+                    if (ring == 0) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Binary file format                                                  */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * File format (little-endian):
+     *   int magic, int nodeCount, int edgeCount
+     *   float[nodeCount] latitudes, float[nodeCount] longitudes
+     *   int[nodeCount + 1] firstEdge, int[edgeCount] edgeTarget, float[edgeCount] edgeLength (meters)
+     *   byte[edgeCount] edgeAccess (ACCESS_* bits), byte[edgeCount] edgeSpeed (car km/h, unsigned)
+     */
+    public void write(Path path) throws IOException {
+        long bytes = 12L + 12L * nodeCount + 4 + 10L * edgeCount;
+        ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(bytes)).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(nodeCount).putInt(edgeCount);
+        for (float[] column : new float[][]{latitudes, longitudes}) {
+            buf.asFloatBuffer().put(column);
+            buf.position(buf.position() + 4 * column.length);
+        }
+        for (int[] column : new int[][]{firstEdge, edgeTarget}) {
+            buf.asIntBuffer().put(column);
+            buf.position(buf.position() + 4 * column.length);
+        }
+        buf.asFloatBuffer().put(edgeLength);
+        buf.position(buf.position() + 4 * edgeLength.length);
+        buf.put(edgeAccess).put(edgeSpeed);
+        buf.flip();
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+    }
+
+    /** Loads a graph written by {@link #write(Path)}, using bulk primitive reads from a mapped file. */
+    public static RoadGraph read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.getInt() != MAGIC) throw new IOException("Not a road graph: " + path);
+
+            int nodes = buf.getInt();
+            int edges = buf.getInt();
+            float[] lat = readFloats(buf, nodes);
+            float[] lon = readFloats(buf, nodes);
+            int[] firstEdge = readInts(buf, nodes + 1);
+            int[] target = readInts(buf, edges);
+            float[] length = readFloats(buf, edges);
+            byte[] access = new byte[edges];
+            byte[] speed = new byte[edges];
+            buf.get(access);
+            buf.get(speed);
+            return new RoadGraph(nodes, edges, lat, lon, firstEdge, target, length, access, speed);
+        }
+    }
+
+    private static int[] readInts(ByteBuffer buf, int n) {
+        int[] out = new int[n];
+        buf.asIntBuffer().get(out);
+        buf.position(buf.position() + 4 * n);
+        return out;
+    }
+
+    private static float[] readFloats(ByteBuffer buf, int n) {
+        float[] out = new float[n];
+        buf.asFloatBuffer().get(out);
+        buf.position(buf.position() + 4 * n);
+        return out;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Builder                                                             */
+    /* ------------------------------------------------------------------ */
+
+    /** Collects nodes and directed edges, then sorts the edges by source into a RoadGraph. */
+    public static class Builder {
+        private float[] lat = new float[1024];
+        private float[] lon = new float[1024];
+        private int nodes;
+        private int[] source = new int[1024];
+        private int[] target = new int[1024];
+        private float[] length = new float[1024];
+        private byte[] access = new byte[1024];
+        private byte[] speed = new byte[1024];
+        private int edges;
+
+        /** Adds a node and returns its id (ids are consecutive from 0). */
+        public int addNode(double latitude, double longitude) {
+            if (nodes == lat.length) {
+                lat = Arrays.copyOf(lat, nodes * 2);
+                lon = Arrays.copyOf(lon, nodes * 2);
+            }
+            lat[nodes] = (float) latitude;
+            lon[nodes] = (float) longitude;
+            return nodes++;
+        }
+
+        /**
+         * Adds a directed edge whose length is the great-circle distance between its nodes.
+         *
+         * @param accessFlags ACCESS_* bits of the profiles allowed in this direction
+         * @param carSpeedKmh car speed, 0 for {@link #DEFAULT_CAR_SPEED_KMH}; capped at 255
+         */
+        public Builder addEdge(int from, int to, int accessFlags, int carSpeedKmh) {
+            if (from < 0 || from >= nodes || to < 0 || to >= nodes) {
+                throw new IllegalArgumentException("Unknown node in edge " + from + " -> " + to);
+            }
+            if (accessFlags == 0) return this;
+            if (edges == source.length) {
+                int capacity = edges * 2;
+                source = Arrays.copyOf(source, capacity);
+                target = Arrays.copyOf(target, capacity);
+                length = Arrays.copyOf(length, capacity);
+                access = Arrays.copyOf(access, capacity);
+                speed = Arrays.copyOf(speed, capacity);
+            }
+            source[edges] = from;
+            target[edges] = to;
+            length[edges] = (float) GeoDistance.meters(lat[from], lon[from], lat[to], lon[to]);
+            access[edges] = (byte) accessFlags;
+            speed[edges] = (byte) Math.min(255, Math.max(0, carSpeedKmh));
+            edges++;
+            return this;
+        }
+
+        /** Adds a street segment with separate access flags for each direction. */
+        public Builder addRoad(int a, int b, int forwardAccess, int backwardAccess, int carSpeedKmh) {
+            addEdge(a, b, forwardAccess, carSpeedKmh);
+            return addEdge(b, a, backwardAccess, carSpeedKmh);
+        }
+
+        public int nodeCount() {
+            return nodes;
+        }
+
+        public int edgeCount() {
+            return edges;
+        }
+
+        public RoadGraph build() {
+            int[] firstEdge = new int[nodes + 1];
+            for (int e = 0; e < edges; e++) firstEdge[source[e] + 1]++;
+            for (int v = 0; v < nodes; v++) firstEdge[v + 1] += firstEdge[v];
+
+            int[] fill = Arrays.copyOf(firstEdge, nodes);
+            int[] sortedTarget = new int[edges];
+            float[] sortedLength = new float[edges];
+            byte[] sortedAccess = new byte[edges];
+            byte[] sortedSpeed = new byte[edges];
+            for (int e = 0; e < edges; e++) {
+                int slot = fill[source[e]]++;
+                sortedTarget[slot] = target[e];
+                sortedLength[slot] = length[e];
+                sortedAccess[slot] = access[e];
+                sortedSpeed[slot] = speed[e];
+            }
+            return new RoadGraph(nodes, edges, Arrays.copyOf(lat, nodes), Arrays.copyOf(lon, nodes),
+                    firstEdge, sortedTarget, sortedLength, sortedAccess, sortedSpeed);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package data_access;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static data_access.RoadGraph.ACCESS_BIKE;
+import static data_access.RoadGraph.ACCESS_CAR;
+import static data_access.RoadGraph.ACCESS_FOOT;
+
+/**
+ * RoadGraphImporter
+ * Turns an OpenStreetMap extract into a {@link RoadGraph}.
+ * <p>
+ * Responsibilities:
+ * - Keep the highways usable by the requested profiles, with per-direction access
+ *   (oneway, access / foot / bicycle / motor vehicle tags) and a car speed (maxspeed or road class)
+ * - Split every way into one street segment per pair of consecutive nodes
+ * - Drop everything outside the largest connected component, so no stop snaps onto an
+ *   island (a private driveway, a clipped fragment at the extract border) with no way out
+ * - Number the nodes along a Z-order curve, so nodes close on the map are close in memory
+ * <p>
+ * The extract is read twice: ways first, then only the coordinates of their nodes,
+ * looked up in a sorted primitive array rather than a map of boxed ids.
+ */
+public class RoadGraphImporter {
+
+    private static final Map<String, Integer> CAR_SPEED_BY_HIGHWAY = Map.ofEntries(
+            Map.entry("motorway", 100), Map.entry("motorway_link", 60),
+            Map.entry("trunk", 80), Map.entry("trunk_link", 50),
+            Map.entry("primary", 60), Map.entry("primary_link", 50),
+            Map.entry("secondary", 50), Map.entry("secondary_link", 40),
+            Map.entry("tertiary", 40), Map.entry("tertiary_link", 30),
+            Map.entry("unclassified", 30), Map.entry("residential", 30), Map.entry("road", 30),
+            Map.entry("living_street", 10), Map.entry("service", 15));
+    private static final Set<String> NO_FOOT_OR_BIKE = Set.of("motorway", "motorway_link", "trunk", "trunk_link");
+    private static final Set<String> FOOT_ONLY = Set.of("footway", "pedestrian", "steps");
+    private static final Set<String> PATHS = Set.of("path", "track", "cycleway", "bridleway");
+    private static final Set<String> YES = Set.of("yes", "designated", "permissive", "destination", "true", "1");
+    private static final Set<String> NO = Set.of("no", "private", "false", "0");
+
+    private final OsmExtractReader reader;
+    private final int accessMask;
+
+    private int wayCount;
+    private int removedNodeCount;
+
+    /**
+     * @param accessMask ACCESS_* bits of the profiles to keep; ways none of them may use are dropped
+     */
+    public RoadGraphImporter(OsmExtractReader reader, int accessMask) {
+        this.reader = reader;
+        this.accessMask = accessMask;
+    }
+
+    /** Routable ways read in the last import. */
+    public int getWayCount() {
+        return wayCount;
+    }
+
+    /** Nodes dropped in the last import for lying outside the largest connected component. */
+    public int getRemovedNodeCount() {
+        return removedNodeCount;
+    }
+
+    public RoadGraph importFile(Path extract) throws IOException {
+        // Pass 1: routable ways
+        List<Way> ways = new ArrayList<>();
+        reader.read(extract, new OsmHandler() {
+            @Override
+            public boolean wantsNodes() {
+                return false;
+            }
+
+            @Override
+            public void way(long id, long[] nodeIds, Map<String, String> tags) {
+                int[] road = roadAttributes(tags);
+                if (road == null || nodeIds.length < 2) return;
+                int forward = road[0] & accessMask;
+                int backward = road[1] & accessMask;
+                if ((forward | backward) == 0) return;
+                Way way = new Way(nodeIds, forward, backward, road[2]);
+                synchronized (ways) {
+                    ways.add(way);
+                }
+            }
+        });
+        wayCount = ways.size();
+
+        long[] nodeIds = referencedNodes(ways);
+
+        // Pass 2: coordinates of the referenced nodes only
+        float[] lat = new float[nodeIds.length];
+        float[] lon = new float[nodeIds.length];
+        boolean[] located = new boolean[nodeIds.length];
+        reader.read(extract, new OsmHandler() {
+            @Override
+            public boolean wantsWays() {
+                return false;
+            }
+
+            @Override
+            public void node(long id, double latitude, double longitude) {
+                int i = Arrays.binarySearch(nodeIds, id);
+                if (i < 0) return;
+                // Each index is written by one block only, so no locking is needed
+                lat[i] = (float) latitude;
+                lon[i] = (float) longitude;
+                located[i] = true;
+            }
+        });
+
+        return buildGraph(ways, nodeIds, lat, lon, located);
+    }
+
+    /** Sorted, distinct ids of every node the ways reference. */
+    private static long[] referencedNodes(List<Way> ways) {
+        long total = 0;
+        for (Way way : ways) total += way.nodeIds.length;
+        long[] ids = new long[Math.toIntExact(total)];
+        int n = 0;
+        for (Way way : ways) {
+            System.arraycopy(way.nodeIds, 0, ids, n, way.nodeIds.length);
+            n += way.nodeIds.length;
+        }
+        Arrays.parallelSort(ids);
+
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) ids[distinct++] = ids[i];
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    private RoadGraph buildGraph(List<Way> ways, long[] nodeIds, float[] lat, float[] lon, boolean[] located) {
+        int n = nodeIds.length;
+        int[] component = new int[n];
+        int[] size = new int[n];
+        for (int i = 0; i < n; i++) {
+            component[i] = i;
+            size[i] = 1;
+        }
+
+        // Segments between consecutive located nodes, joined into components as we go
+        int segmentCount = 0;
+        for (Way way : ways) segmentCount += way.nodeIds.length - 1;
+        int[] from = new int[segmentCount];
+        int[] to = new int[segmentCount];
+        Way[] owner = new Way[segmentCount];
+        int segments = 0;
+        for (Way way : ways) {
+            for (int k = 0; k + 1 < way.nodeIds.length; k++) {
+                int a = Arrays.binarySearch(nodeIds, way.nodeIds[k]);
+                int b = Arrays.binarySearch(nodeIds, way.nodeIds[k + 1]);
+                if (a == b || !located[a] || !located[b]) continue;
+                from[segments] = a;
+                to[segments] = b;
+                owner[segments++] = way;
+                union(component, size, a, b);
+            }
+        }
+
+        int largest = -1;
+        for (int i = 0; i < n; i++) {
+            if (located[i] && component[i] == i && (largest < 0 || size[i] > size[largest])) largest = i;
+        }
+        boolean[] keep = new boolean[n];
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            keep[i] = largest >= 0 && located[i] && find(component, i) == largest;
+            if (keep[i]) kept++;
+        }
+        int locatedCount = 0;
+        for (boolean l : located) if (l) locatedCount++;
+        removedNodeCount = locatedCount - kept;
+
+        int[] newId = zOrder(keep, kept, lat, lon);
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        int[] byNewId = new int[kept];
+        for (int i = 0; i < n; i++) if (keep[i]) byNewId[newId[i]] = i;
+        for (int id = 0; id < kept; id++) builder.addNode(lat[byNewId[id]], lon[byNewId[id]]);
+        for (int s = 0; s < segments; s++) {
+            if (!keep[from[s]]) continue;
+            Way way = owner[s];
+            builder.addRoad(newId[from[s]], newId[to[s]], way.forwardAccess, way.backwardAccess, way.carSpeedKmh);
+        }
+        return builder.build();
+    }
+
+    private static int find(int[] component, int i) {
+        while (component[i] != i) {
+            component[i] = component[component[i]];   // path halving
+            i = component[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] component, int[] size, int a, int b) {
+        int ra = find(component, a);
+        int rb = find(component, b);
+        if (ra == rb) return;
+        if (size[ra] < size[rb]) {
+            int tmp = ra;
+            ra = rb;
+            rb = tmp;
+        }
+        component[rb] = ra;
+        size[ra] += size[rb];
+    }
+
+    /** New ids 0..kept-1 for the kept nodes, in Z-order (Morton) of their quantized coordinates. */
+    private static int[] zOrder(boolean[] keep, int kept, float[] lat, float[] lon) {
+        float south = Float.MAX_VALUE, north = -Float.MAX_VALUE, west = Float.MAX_VALUE, east = -Float.MAX_VALUE;
+        for (int i = 0; i < keep.length; i++) {
+            if (!keep[i]) continue;
+            south = Math.min(south, lat[i]);
+            north = Math.max(north, lat[i]);
+            west = Math.min(west, lon[i]);
+            east = Math.max(east, lon[i]);
+        }
+        // 15 bits per axis keeps the 30-bit code, shifted above the index, a positive long
+        double latScale = 32767 / Math.max(1e-9, north - south);
+        double lonScale = 32767 / Math.max(1e-9, east - west);
+
+        long[] keys = new long[kept];
+        int k = 0;
+        for (int i = 0; i < keep.length; i++) {
+            if (!keep[i]) continue;
+            long morton = interleave((int) ((lon[i] - west) * lonScale)) | interleave((int) ((lat[i] - south) * latScale)) << 1;
+            keys[k++] = morton << 32 | i;
+        }
+        Arrays.parallelSort(keys);
+
+        int[] newId = new int[keep.length];
+        for (int rank = 0; rank < kept; rank++) newId[(int) keys[rank]] = rank;
+        return newId;
+    }
+
+    /** Spreads the low 16 bits of v to the even bit positions. */
+    private static long interleave(int v) {
+        long x = v & 0xFFFFL;
+        x = (x | x << 8) & 0x00FF00FFL;
+        x = (x | x << 4) & 0x0F0F0F0FL;
+        x = (x | x << 2) & 0x33333333L;
+        x = (x | x << 1) & 0x55555555L;
+        return x;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Tags                                                                */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Access and speed of a way from its tags: {forward ACCESS_* bits, backward ACCESS_* bits,
+     * car km/h}, or null if it is not a routable highway.
+     */
+    static int[] roadAttributes(Map<String, String> tags) {
+        String highway = tags.get("highway");
+        if (highway == null || "yes".equals(tags.get("area")) || "ferry".equals(tags.get("route"))) return null;
+
+        Integer classSpeed = CAR_SPEED_BY_HIGHWAY.get(highway);
+        boolean car = classSpeed != null;
+        boolean foot = car && !NO_FOOT_OR_BIKE.contains(highway) || FOOT_ONLY.contains(highway) || PATHS.contains(highway);
+        boolean bike = car && !NO_FOOT_OR_BIKE.contains(highway) || PATHS.contains(highway);
+        if (!car && !foot) return null;
+
+        // access=no closes the way to everyone; a mode-specific yes opens it again
+        if (NO.contains(tags.getOrDefault("access", ""))) car = foot = bike = false;
+        foot = override(foot, tags.get("foot"));
+        bike = override(bike, tags.get("bicycle"));
+        if (classSpeed != null) {
+            car = override(car, tags.get("motor_vehicle"));
+            car = override(car, tags.get("motorcar"));
+        }
+
+        int both = (foot ? ACCESS_FOOT : 0) | (bike ? ACCESS_BIKE : 0) | (car ? ACCESS_CAR : 0);
+        int oneway = oneway(tags, highway);
+        int forward = both;
+        int backward = both;
+        if (oneway != 0) {
+            // Only vehicles follow oneway; cyclists may be exempted
+            boolean bikeBothWays = "no".equals(tags.get("oneway:bicycle"))
+                    || tags.getOrDefault("cycleway", "").startsWith("opposite");
+            int restricted = ACCESS_CAR | (bikeBothWays ? 0 : ACCESS_BIKE);
+            if (oneway > 0) backward &= ~restricted;
+            else forward &= ~restricted;
+        }
+
+        int speed = car ? maxSpeed(tags.get("maxspeed"), classSpeed) : 0;
+        return new int[]{forward, backward, speed};
+    }
+
+    private static boolean override(boolean allowed, String value) {
+        if (value == null) return allowed;
+        if (YES.contains(value)) return true;
+        if (NO.contains(value)) return false;
+        return allowed;
+    }
+
+    /** 1 for oneway along the way, -1 against it, 0 for two-way. */
+    private static int oneway(Map<String, String> tags, String highway) {
+        String oneway = tags.getOrDefault("oneway", "");
+        if (oneway.equals("-1") || oneway.equals("reverse")) return -1;
+        if (YES.contains(oneway)) return 1;
+        if (oneway.equals("no")) return 0;
+        String junction = tags.getOrDefault("junction", "");
+        boolean implied = junction.equals("roundabout") || junction.equals("circular")
+                || highway.equals("motorway") || highway.equals("motorway_link");
+        return implied ? 1 : 0;
+    }
+
+    /** Numeric maxspeed in km/h ("50", "30 mph"), else the road class default. */
+    static int maxSpeed(String maxspeed, Integer classSpeed) {
+        int fallback = classSpeed != null ? classSpeed : RoadGraph.DEFAULT_CAR_SPEED_KMH;
+        if (maxspeed == null) return fallback;
+        String value = maxspeed.trim().toLowerCase(Locale.ROOT);
+        int end = 0;
+        while (end < value.length() && Character.isDigit(value.charAt(end))) end++;
+        if (end == 0) return fallback;
+        int speed = Integer.parseInt(value.substring(0, Math.min(end, 3)));
+        if (value.endsWith("mph")) speed = (int) Math.round(speed * 1.609);
+        return speed > 0 ? Math.min(speed, 255) : fallback;
+    }
+
+    /** A routable way kept from pass 1. */
+    private static final class Way {
+        final long[] nodeIds;
+        final int forwardAccess;
+        final int backwardAccess;
+        final int carSpeedKmh;
+
+        Way(long[] nodeIds, int forwardAccess, int backwardAccess, int carSpeedKmh) {
+            this.nodeIds = nodeIds;
+            this.forwardAccess = forwardAccess;
+            this.backwardAccess = backwardAccess;
+            this.carSpeedKmh = carSpeedKmh;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package data_access;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * RoadGraphRouter
+ * Fastest-path queries on a {@link RoadGraph} with bidirectional A*.
+ * <p>
+ * Responsibilities:
+ * - Search forwards from the source and backwards from the target at once, always
+ *   expanding the side with the smaller key, and stop once the two frontiers prove
+ *   that no shorter meeting point is left
+ * - Guide both sides with the average of the two straight-line travel-time bounds,
+ *   which keeps the searches consistent with each other
+ * - Keep the per-query arrays per thread and mark them with a query stamp, so a query
+ *   never clears or allocates node-sized arrays
+ * - Hand queries to a {@link ContractionHierarchy} instead when one was built for the profile
+ */
+public class RoadGraphRouter {
+
+    /** Keeps the planar bound safely below the great-circle edge lengths it is compared to. */
+    private static final double HEURISTIC_SCALE = 0.999;
+
+    /** A fastest path: its nodes from source to target and its travel time. */
+    public static class Route {
+        private final int[] nodes;
+        private final double seconds;
+
+        Route(int[] nodes, double seconds) {
+            this.nodes = nodes;
+            this.seconds = seconds;
+        }
+
+        public int[] getNodes() {
+            return nodes;
+        }
+
+        public double getSeconds() {
+            return seconds;
+        }
+    }
+
+    private final RoadGraph graph;
+    private final Map<RoadGraph.Profile, ContractionHierarchy> hierarchies =
+            new EnumMap<>(RoadGraph.Profile.class);
+    private final ThreadLocal<Search> searches;
+
+    public RoadGraphRouter(RoadGraph graph) {
+        this.graph = graph;
+        this.searches = ThreadLocal.withInitial(Search::new);
+    }
+
+    /** Uses the given hierarchies (built for this graph) for their profiles, A* for the rest. */
+    public RoadGraphRouter(RoadGraph graph, Collection<ContractionHierarchy> hierarchies) {
+        this(graph);
+        for (ContractionHierarchy hierarchy : hierarchies) this.hierarchies.put(hierarchy.getProfile(), hierarchy);
+    }
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    /** Fastest route between two nodes, or null if the target cannot be reached. */
+    public Route route(int source, int target, RoadGraph.Profile profile) {
+        if (source == target) return new Route(new int[]{source}, 0);
+        ContractionHierarchy hierarchy = hierarchies.get(profile);
+        if (hierarchy != null) return hierarchy.route(source, target);
+        return searches.get().run(source, target, profile);
+    }
+
+    /** Reusable state of one thread's queries. */
+    private final class Search {
+        /** Forward state of node v at slot v, backward state at slot nodeCount + v. */
+        final float[] dist = new float[2 * graph.nodeCount()];
+        final int[] parent = new int[2 * graph.nodeCount()];
+        /** stamp[i] == 2 * query when reached in this query, 2 * query + 1 once settled. */
+        final int[] stamp = new int[2 * graph.nodeCount()];
+        final MinHeap forward = new MinHeap();
+        final MinHeap backward = new MinHeap();
+        int query;
+
+        // Per-query constants of the potential
+        double scale;
+        float sourceX, sourceY, targetX, targetY;
+
+        Route run(int source, int target, RoadGraph.Profile profile) {
+            if (++query >= Integer.MAX_VALUE / 2) {
+                Arrays.fill(stamp, 0);
+                query = 1;
+            }
+            int n = graph.nodeCount();
+            float[] outSeconds = graph.outgoingSeconds(profile);
+            float[] inSeconds = graph.incomingSeconds(profile);
+            scale = HEURISTIC_SCALE * graph.minSecondsPerMeter(profile);
+            sourceX = graph.x[source];
+            sourceY = graph.y[source];
+            targetX = graph.x[target];
+            targetY = graph.y[target];
+            forward.clear();
+            backward.clear();
+
+            reach(source, 0, -1, forward, potential(source));
+            reach(n + target, 0, -1, backward, -potential(target));
+
+            double best = Double.POSITIVE_INFINITY;
+            int meeting = -1;
+            while (!forward.isEmpty() && !backward.isEmpty()) {
+                if (forward.minKey() + backward.minKey() >= best) break;
+
+                boolean isForward = forward.minKey() <= backward.minKey();
+                MinHeap heap = isForward ? forward : backward;
+                int u = heap.pop();
+                int slot = isForward ? u : n + u;
+                if (stamp[slot] != 2 * query) continue;   // stale heap entry
+                stamp[slot] = 2 * query + 1;
+
+                double du = dist[slot];
+                int[] first = isForward ? graph.firstEdge : graph.firstIn;
+                int[] adjacent = isForward ? graph.edgeTarget : graph.inSource;
+                float[] seconds = isForward ? outSeconds : inSeconds;
+                int offset = isForward ? 0 : n;
+                int other = isForward ? n : 0;
+                for (int i = first[u]; i < first[u + 1]; i++) {
+                    float w = seconds[i];
+                    if (w == Float.POSITIVE_INFINITY) continue;   // not allowed for this profile
+                    int v = adjacent[i];
+                    double dv = du + w;
+
+                    int vSlot = offset + v;
+                    int vStamp = stamp[vSlot];
+                    if (vStamp == 2 * query + 1) continue;
+                    if (vStamp != 2 * query || dv < dist[vSlot]) {
+                        double pv = potential(v);
+                        reach(vSlot, dv, u, heap, isForward ? dv + pv : dv - pv);
+                    }
+                    int oSlot = other + v;
+                    if (stamp[oSlot] >= 2 * query && dv + dist[oSlot] < best) {
+                        best = dv + dist[oSlot];
+                        meeting = v;
+                    }
+                }
+            }
+            return meeting < 0 ? null : path(source, target, meeting, best);
+        }
+
+        private void reach(int slot, double d, int parentNode, MinHeap heap, double key) {
+            stamp[slot] = 2 * query;
+            dist[slot] = (float) d;
+            parent[slot] = parentNode;
+            heap.push(key, slot >= graph.nodeCount() ? slot - graph.nodeCount() : slot);
+        }
+
+        /** Forward potential: half the bound to the target minus half the bound from the source. */
+        private double potential(int v) {
+            float vx = graph.x[v], vy = graph.y[v];
+            double toTarget = Math.sqrt(sq(targetX - vx) + sq(targetY - vy));
+            double fromSource = Math.sqrt(sq(vx - sourceX) + sq(vy - sourceY));
+            return 0.5 * scale * (toTarget - fromSource);
+        }
+
+        private Route path(int source, int target, int meeting, double seconds) {
+            int n = graph.nodeCount();
+            int count = 0;
+            for (int v = meeting; v != -1; v = parent[v]) count++;
+            for (int v = parent[n + meeting]; v != -1; v = parent[n + v]) count++;
+
+            int[] nodes = new int[count];
+            int i = 0;
+            for (int v = meeting; v != -1; v = parent[v]) nodes[i++] = v;
+            reverse(nodes, i);
+            for (int v = parent[n + meeting]; v != -1; v = parent[n + v]) nodes[i++] = v;
+            assert nodes[0] == source && nodes[count - 1] == target;
+            return new Route(nodes, seconds);
+        }
+    }
+
+    private static double sq(double value) {
+        return value * value;
+    }
+
+    private static void reverse(int[] values, int length) {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -1,59 +1,203 @@
 package data_access;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import entity.RouteGeometry;
 import org.jxmapviewer.viewer.GeoPosition;
 import use_case.generate_route.GenerateRouteRoutingDataAccessInterface;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 public class RoutingDataAccessObject implements GenerateRouteRoutingDataAccessInterface {
+
+    private static final String BASE_URL = "https://router.project-osrm.org/route/v1/";
+
+    /** Waypoints per request; the public OSRM server rejects longer lists. */
+    public static final int DEFAULT_MAX_WAYPOINTS = 100;
+
     private final HttpClient client;
+    private final int maxWaypoints;
 
     public RoutingDataAccessObject(HttpClient client) {
+        this(client, DEFAULT_MAX_WAYPOINTS);
+    }
+
+    /**
+     * @param maxWaypoints most coordinates sent in one request (the server's limit); at least 2
+     */
+    public RoutingDataAccessObject(HttpClient client, int maxWaypoints) {
+        if (maxWaypoints < 2) throw new IllegalArgumentException("maxWaypoints must be at least 2");
         this.client = client;
+        this.maxWaypoints = maxWaypoints;
     }
 
-    public List<GeoPosition> getRoute(GeoPosition src, GeoPosition dst, String profile) throws IOException, InterruptedException {
-        if (src == null || dst == null) return new ArrayList<>();
+    @Override
+    public RouteGeometry getRoute(GeoPosition src, GeoPosition dst, String profile) throws IOException, InterruptedException {
+        if (src == null || dst == null) return RouteGeometry.empty();
+
+        // polyline6 is a few bytes per point where GeoJSON spends about twenty
+        try (InputStream body = fetch(url(List.of(src, dst), profile, "overview=full&geometries=polyline6"))) {
+            return decodeRouteGeometry(body);
+        }
+    }
+
+    @Override
+    public boolean routesManyLegsAtOnce() {
+        return true;
+    }
+
+    /**
+     * All legs from one request per {@code maxWaypoints} stops. Longer itineraries are split
+     * into chunks that share their boundary stop, so every leg is still routed.
+     */
+    @Override
+    public List<RouteGeometry> getRoutes(List<GeoPosition> stops, String profile) throws IOException, InterruptedException {
+        List<RouteGeometry> legs = new ArrayList<>(Math.max(0, stops.size() - 1));
+        for (int from = 0; from < stops.size() - 1; from += maxWaypoints - 1) {
+            List<GeoPosition> chunk = stops.subList(from, Math.min(stops.size(), from + maxWaypoints));
+            // Per-leg geometry only comes with steps; the overview would be one line for all legs
+            try (InputStream body = fetch(url(chunk, profile, "overview=false&steps=true&geometries=polyline6"))) {
+                List<RouteGeometry> chunkLegs = decodeLegGeometries(body);
+                if (chunkLegs.size() != chunk.size() - 1) {
+                    throw new IOException("Expected " + (chunk.size() - 1) + " legs but got " + chunkLegs.size());
+                }
+                legs.addAll(chunkLegs);
+            }
+        }
+        return legs;
+    }
 
-        String coords = String.format("%f,%f;%f,%f", src.getLongitude(), src.getLatitude(), dst.getLongitude(), dst.getLatitude());
-        String url = "https://router.project-osrm.org/route/v1/" + profile + "/" + coords + "?overview=full&geometries=geojson";
+    private static String url(List<GeoPosition> waypoints, String profile, String options) {
+        StringBuilder coords = new StringBuilder();
+        for (GeoPosition p : waypoints) {
+            if (coords.length() > 0) coords.append(';');
+            coords.append(String.format(Locale.ROOT, "%f,%f", p.getLongitude(), p.getLatitude()));
+        }
+        return BASE_URL + profile + "/" + coords + "?" + options;
+    }
 
+    /** Sends the request and returns the body stream of a 200 response (caller closes it). */
+    private InputStream fetch(String url) throws IOException, InterruptedException {
         HttpRequest req = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("User-Agent", "TripPlanner/1.0 (207 5-6)")
                 .GET()
                 .build();
 
-        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        // Stream the body: long routes are megabytes of JSON we never need as a String or DOM
+        HttpResponse<InputStream> resp = client.send(req, HttpResponse.BodyHandlers.ofInputStream());
         if (resp.statusCode() != 200) {
+            resp.body().close();
             throw new IOException("Routing request failed with code: " + resp.statusCode());
         }
+        return resp.body();
+    }
 
-        JSONObject root = new JSONObject(resp.body());
-        JSONArray routes = root.optJSONArray("routes");
-        if (routes == null || routes.isEmpty()) return new ArrayList<>();
+    /**
+     * Reads routes[0].geometry from an OSRM response made with geometries=polyline6.
+     * Returns an empty geometry when there is no route.
+     */
+    static RouteGeometry decodeRouteGeometry(InputStream body) throws IOException {
+        try (JsonPullParser json = new JsonPullParser(body)) {
+            RouteGeometry.Builder result = new RouteGeometry.Builder();
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextNameIs("routes") && json.peek() == JsonPullParser.Token.BEGIN_ARRAY) {
+                    json.beginArray();
+                    if (json.hasNext()) readFirstRouteGeometry(json, result);
+                    while (json.hasNext()) json.skipValue();
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            return result.build();
+        }
+    }
 
-        JSONObject first = routes.getJSONObject(0);
-        JSONObject geometry = first.getJSONObject("geometry");
-        JSONArray coordsArray = geometry.getJSONArray("coordinates");
+    private static void readFirstRouteGeometry(JsonPullParser json, RouteGeometry.Builder out) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextNameIs("geometry") && json.peek() == JsonPullParser.Token.STRING) {
+                Polyline6.decode(json.nextString(), out, false);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
 
-        List<GeoPosition> result = new ArrayList<>(coordsArray.length());
-        for (int i = 0; i < coordsArray.length(); i++) {
-            JSONArray p = coordsArray.getJSONArray(i);
-            double lon = p.getDouble(0);
-            double lat = p.getDouble(1);
-            result.add(new GeoPosition(lat, lon));
+    /**
+     * Reads routes[0].legs[i].steps[j].geometry from an OSRM response made with steps=true
+     * and geometries=polyline6, joining each leg's steps into one line. Returns an empty list
+     * when there is no route.
+     */
+    static List<RouteGeometry> decodeLegGeometries(InputStream body) throws IOException {
+        try (JsonPullParser json = new JsonPullParser(body)) {
+            List<RouteGeometry> legs = new ArrayList<>();
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextNameIs("routes") && json.peek() == JsonPullParser.Token.BEGIN_ARRAY) {
+                    json.beginArray();
+                    if (json.hasNext()) readFirstRouteLegs(json, legs);
+                    while (json.hasNext()) json.skipValue();
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            return legs;
         }
+    }
 
-        return result;
+    private static void readFirstRouteLegs(JsonPullParser json, List<RouteGeometry> legs) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextNameIs("legs") && json.peek() == JsonPullParser.Token.BEGIN_ARRAY) {
+                json.beginArray();
+                while (json.hasNext()) {
+                    RouteGeometry.Builder leg = new RouteGeometry.Builder();
+                    readLegSteps(json, leg);
+                    legs.add(leg.build());
+                }
+                json.endArray();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
     }
-}
 
+    /** Appends every step's line; a step's first point equal to the previous step's last is dropped. */
+    private static void readLegSteps(JsonPullParser json, RouteGeometry.Builder leg) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextNameIs("steps") && json.peek() == JsonPullParser.Token.BEGIN_ARRAY) {
+                json.beginArray();
+                while (json.hasNext()) {
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        if (json.nextNameIs("geometry") && json.peek() == JsonPullParser.Token.STRING) {
+                            Polyline6.decode(json.nextString(), leg, true);
+                        } else {
+                            json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                }
+                json.endArray();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+}
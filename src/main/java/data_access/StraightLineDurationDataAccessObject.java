@@ -0,0 +1,88 @@
+package data_access;
+
+import entity.GeoDistance;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.optimize_order.OptimizeOrderDataAccessInterface;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * StraightLineDurationDataAccessObject
+ * Travel-time matrix estimated from great-circle distances, without any network access.
+ * <p>
+ * Responsibilities:
+ * - Stretch each straight line by a typical street detour and divide by the profile's
+ *   average speed
+ * - Answer instantly for any number of stops, so ordering works offline
+ * - Serve as the offline fallback for {@link CachingTravelMatrixDataAccessObject}
+ * <p>
+ * Estimates are symmetric and ignore one-way streets; they rank stops well enough for
+ * ordering but are not trip times. Coordinates are converted to radians once into primitive
+ * arrays, so an N x M matrix costs N + M trigonometric setups plus one haversine per cell.
+ */
+public class StraightLineDurationDataAccessObject implements OptimizeOrderDataAccessInterface, TravelMatrixSource {
+
+    /** Street distance over straight-line distance in a typical city grid. */
+    public static final double DETOUR_FACTOR = 1.3;
+
+    @Override
+    public double[][] getDurations(List<GeoPosition> stops, String profile) throws IOException {
+        return getMatrix(stops, stops, profile).toSecondsArray();
+    }
+
+    @Override
+    public TravelMatrix getMatrix(List<GeoPosition> sources, List<GeoPosition> destinations, String profile)
+            throws IOException {
+        double metersPerSecond = averageSpeedKmh(profile) / 3.6;
+        int rows = sources.size();
+        int columns = destinations.size();
+
+        double[] rowLat = new double[rows];
+        double[] rowLon = new double[rows];
+        double[] rowCos = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            rowLat[r] = Math.toRadians(sources.get(r).getLatitude());
+            rowLon[r] = Math.toRadians(sources.get(r).getLongitude());
+            rowCos[r] = Math.cos(rowLat[r]);
+        }
+        double[] columnLat = new double[columns];
+        double[] columnLon = new double[columns];
+        double[] columnCos = new double[columns];
+        for (int c = 0; c < columns; c++) {
+            columnLat[c] = Math.toRadians(destinations.get(c).getLatitude());
+            columnLon[c] = Math.toRadians(destinations.get(c).getLongitude());
+            columnCos[c] = Math.cos(columnLat[c]);
+        }
+
+        TravelMatrix matrix = new TravelMatrix(rows, columns);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                double sinLat = Math.sin((columnLat[c] - rowLat[r]) / 2);
+                double sinLon = Math.sin((columnLon[c] - rowLon[r]) / 2);
+                double a = sinLat * sinLat + rowCos[r] * columnCos[c] * sinLon * sinLon;
+                double meters = 2 * GeoDistance.EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)))
+                        * DETOUR_FACTOR;
+                matrix.set(r, c, meters / metersPerSecond, meters);
+            }
+        }
+        return matrix;
+    }
+
+    /** Door-to-door average speed, stops and lights included. */
+    static double averageSpeedKmh(String profile) throws IOException {
+        switch (profile == null ? "" : profile) {
+            case "walking":
+            case "foot":
+                return 5;
+            case "cycling":
+            case "bike":
+                return 15;
+            case "driving":
+            case "car":
+                return 30;
+            default:
+                throw new IOException("Unknown routing profile: " + profile);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package data_access;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Remote map tile images, with conditional requests so cached copies can be revalidated.
+ */
+public interface TileSource {
+
+    /**
+     * Fetches the tile image at {@code url}. With a validator from an earlier download, a
+     * source may answer {@link Download#notModified()} instead of sending the image again.
+     *
+     * @param etag         entity tag of the cached copy, or null
+     * @param lastModified Last-Modified of the cached copy, or null
+     * @throws java.io.FileNotFoundException if the source has no such tile
+     */
+    Download fetch(URL url, String etag, String lastModified) throws IOException, InterruptedException;
+
+    /** One answer: the image and its validators, or "not modified" (no image). */
+    final class Download {
+        private static final Download NOT_MODIFIED = new Download(null, null, null);
+
+        private final byte[] image;
+        private final String etag;
+        private final String lastModified;
+
+        public Download(byte[] image, String etag, String lastModified) {
+            this.image = image;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public static Download notModified() {
+            return NOT_MODIFIED;
+        }
+
+        public boolean isNotModified() {
+            return image == null;
+        }
+
+        /** The encoded image, or null if not modified. */
+        public byte[] getImage() { return image; }
+
+        public String getEtag() { return etag; }
+
+        public String getLastModified() { return lastModified; }
+    }
+}
@@ -0,0 +1,58 @@
+package data_access;
+
+import java.util.Arrays;
+
+/**
+ * TravelMatrix
+ * Travel seconds and meters from each source to each destination, in flat row-major arrays.
+ * <p>
+ * A cell is NaN until it is filled in, and infinite when there is no route.
+ */
+public class TravelMatrix {
+
+    private final int rows;
+    private final int columns;
+    private final double[] seconds;
+    private final double[] meters;
+
+    public TravelMatrix(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.seconds = new double[rows * columns];
+        this.meters = new double[rows * columns];
+        Arrays.fill(seconds, Double.NaN);
+        Arrays.fill(meters, Double.NaN);
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getColumnCount() {
+        return columns;
+    }
+
+    public double seconds(int row, int column) {
+        return seconds[row * columns + column];
+    }
+
+    public double meters(int row, int column) {
+        return meters[row * columns + column];
+    }
+
+    public void set(int row, int column, double seconds, double meters) {
+        this.seconds[row * columns + column] = seconds;
+        this.meters[row * columns + column] = meters;
+    }
+
+    public boolean isKnown(int row, int column) {
+        return !Double.isNaN(seconds[row * columns + column]);
+    }
+
+    /** Seconds as one array per source. */
+    public double[][] toSecondsArray() {
+        double[][] out = new double[rows][];
+        for (int r = 0; r < rows; r++) out[r] = Arrays.copyOfRange(seconds, r * columns, (r + 1) * columns);
+        return out;
+    }
+}
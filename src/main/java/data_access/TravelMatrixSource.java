@@ -0,0 +1,19 @@
+package data_access;
+
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Many-to-many travel costs: one call answers every source-destination pair.
+ */
+public interface TravelMatrixSource {
+
+    /**
+     * Travel costs from every source (rows) to every destination (columns) for a routing
+     * profile; pairs with no route are infinite.
+     */
+    TravelMatrix getMatrix(List<GeoPosition> sources, List<GeoPosition> destinations, String profile)
+            throws IOException, InterruptedException;
+}
@@ -0,0 +1,26 @@
+package entity;
+
+/**
+ * GeoDistance
+ * Great-circle distance between two coordinates (haversine formula).
+ */
+public final class GeoDistance {
+
+    /** Mean Earth radius in meters. */
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private GeoDistance() {}
+
+    public static double meters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public static double meters(Location a, Location b) {
+        return meters(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+    }
+}
@@ -0,0 +1,158 @@
+package entity;
+
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RouteGeometry
+ * Read-only polyline of a routed leg, packed as whole millionths of a degree.
+ * <p>
+ * Responsibilities:
+ * - Hold the vertices in one int array (latitude, longitude, latitude, ...), 8 bytes
+ *   per vertex instead of a GeoPosition object plus its list slot
+ * - Hand out coordinates by index, and GeoPosition views only where a drawing API needs them
+ * <p>
+ * 1e-6 degrees (about 0.1 m) is the precision OSRM's polyline6 geometry is sent in, so
+ * decoded routes are stored exactly.
+ */
+public final class RouteGeometry {
+
+    /** Stored units per degree. */
+    public static final double SCALE = 1e6;
+
+    private static final RouteGeometry EMPTY = new RouteGeometry(new int[0]);
+
+    private final int[] coordinates;
+
+    private RouteGeometry(int[] coordinates) {
+        this.coordinates = coordinates;
+    }
+
+    public static RouteGeometry empty() {
+        return EMPTY;
+    }
+
+    public static RouteGeometry of(List<GeoPosition> points) {
+        Builder builder = new Builder(points.size());
+        for (GeoPosition p : points) builder.add(p.getLatitude(), p.getLongitude());
+        return builder.build();
+    }
+
+    public static RouteGeometry straightLine(GeoPosition a, GeoPosition b) {
+        return new Builder(2).add(a.getLatitude(), a.getLongitude()).add(b.getLatitude(), b.getLongitude()).build();
+    }
+
+    public static int toFixed(double degrees) {
+        return (int) Math.round(degrees * SCALE);
+    }
+
+    public int size() {
+        return coordinates.length / 2;
+    }
+
+    public boolean isEmpty() {
+        return coordinates.length == 0;
+    }
+
+    public int latitudeE6(int index) {
+        return coordinates[2 * index];
+    }
+
+    public int longitudeE6(int index) {
+        return coordinates[2 * index + 1];
+    }
+
+    public double latitude(int index) {
+        return coordinates[2 * index] / SCALE;
+    }
+
+    public double longitude(int index) {
+        return coordinates[2 * index + 1] / SCALE;
+    }
+
+    /** A new GeoPosition for one vertex. */
+    public GeoPosition get(int index) {
+        return new GeoPosition(latitude(index), longitude(index));
+    }
+
+    /** Read-only list view; each element is created when it is read. */
+    public List<GeoPosition> asPositions() {
+        return new AbstractList<GeoPosition>() {
+            @Override
+            public GeoPosition get(int index) {
+                return RouteGeometry.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return RouteGeometry.this.size();
+            }
+        };
+    }
+
+    /** Heap held by this geometry, for cache budgets. */
+    public long estimatedBytes() {
+        return 32 + 16 + 4L * coordinates.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RouteGeometry && Arrays.equals(coordinates, ((RouteGeometry) o).coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(coordinates);
+    }
+
+    @Override
+    public String toString() {
+        return "RouteGeometry[" + size() + " points]";
+    }
+
+    /**
+     * Appends vertices into a growing int array; {@link #build()} trims it once.
+     */
+    public static final class Builder {
+        private int[] coordinates;
+        private int length;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(int expectedPoints) {
+            coordinates = new int[Math.max(2, 2 * expectedPoints)];
+        }
+
+        public Builder add(double latitude, double longitude) {
+            return addE6(toFixed(latitude), toFixed(longitude));
+        }
+
+        public Builder addE6(int latitudeE6, int longitudeE6) {
+            if (length + 2 > coordinates.length) {
+                coordinates = Arrays.copyOf(coordinates, Math.max(16, coordinates.length * 2));
+            }
+            coordinates[length++] = latitudeE6;
+            coordinates[length++] = longitudeE6;
+            return this;
+        }
+
+        public int size() {
+            return length / 2;
+        }
+
+        /** True if the last vertex added is exactly this one. */
+        public boolean endsAt(int latitudeE6, int longitudeE6) {
+            return length > 0 && coordinates[length - 2] == latitudeE6 && coordinates[length - 1] == longitudeE6;
+        }
+
+        public RouteGeometry build() {
+            if (length == 0) return EMPTY;
+            return new RouteGeometry(length == coordinates.length ? coordinates : Arrays.copyOf(coordinates, length));
+        }
+    }
+}
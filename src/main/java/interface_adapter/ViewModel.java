@@ -1,5 +1,6 @@
 package interface_adapter;
 
+import javax.swing.SwingUtilities;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 
@@ -9,7 +10,8 @@ public class ViewModel<T> {
 
     private final PropertyChangeSupport support = new PropertyChangeSupport(this);
 
-    private T state;
+    /** Replaced on the event thread; volatile for adapters that read it from use case threads. */
+    private volatile T state;
 
     public ViewModel(String viewName) {
         this.viewName = viewName;
@@ -35,6 +37,19 @@ public class ViewModel<T> {
         support.firePropertyChange(propertyName, null, value);
     }
 
+    /**
+     * Runs a state update on the Swing event thread: right away if already there, otherwise queued.
+     * Presenters of use cases that finish on background threads read, copy and replace the state
+     * through this, so their updates cannot interleave with the view's and drop its edits.
+     */
+    public void updateOnEventThread(Runnable update) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            update.run();
+        } else {
+            SwingUtilities.invokeLater(update);
+        }
+    }
+
     public void addPropertyChangeListener(PropertyChangeListener listener) {
         this.support.addPropertyChangeListener(listener);
     }
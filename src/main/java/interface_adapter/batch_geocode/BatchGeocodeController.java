@@ -0,0 +1,21 @@
+package interface_adapter.batch_geocode;
+
+import use_case.batch_geocode.BatchGeocodeInputBoundary;
+import use_case.batch_geocode.BatchGeocodeInputData;
+
+/**
+ * batch geocode usecase controller (imports an address file as stops).
+ * Blocks until the whole file is done; call it off the event dispatch thread.
+ */
+public class BatchGeocodeController {
+
+    private final BatchGeocodeInputBoundary batchGeocodeInteractor;
+
+    public BatchGeocodeController(BatchGeocodeInputBoundary batchGeocodeInteractor) {
+        this.batchGeocodeInteractor = batchGeocodeInteractor;
+    }
+
+    public void execute(String sourcePath) {
+        batchGeocodeInteractor.execute(new BatchGeocodeInputData(sourcePath));
+    }
+}
@@ -0,0 +1,76 @@
+package interface_adapter.batch_geocode;
+
+import entity.Location;
+import interface_adapter.search.SearchState;
+import interface_adapter.search.SearchViewModel;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.batch_geocode.BatchGeocodeOutputBoundary;
+import use_case.batch_geocode.BatchGeocodeOutputData;
+
+import java.util.List;
+
+/**
+ * Appends every imported place to the stop list in a single state update.
+ * The import runs off the event thread; state is only changed on it.
+ */
+public class BatchGeocodePresenter implements BatchGeocodeOutputBoundary {
+
+    /** Unresolved addresses listed by name in the message; the rest are counted. */
+    private static final int MAX_LISTED_UNRESOLVED = 5;
+
+    private final SearchViewModel searchViewModel;
+
+    public BatchGeocodePresenter(SearchViewModel searchViewModel) {
+        this.searchViewModel = searchViewModel;
+    }
+
+    @Override
+    public void prepareSuccessView(BatchGeocodeOutputData response) {
+        searchViewModel.updateOnEventThread(() -> appendStops(response));
+    }
+
+    private void appendStops(BatchGeocodeOutputData response) {
+        final SearchState searchState = new SearchState(searchViewModel.getState());
+
+        List<String> names = searchState.getStopNames();
+        List<GeoPosition> stops = searchState.getStops();
+        for (Location location : response.getLocations()) {
+            names.add(location.getName());
+            stops.add(new GeoPosition(location.getLatitude(), location.getLongitude()));
+        }
+        searchState.setStopNames(names);
+        searchState.setStops(stops);
+
+        if (!response.getLocations().isEmpty()) {
+            Location last = response.getLocations().get(response.getLocations().size() - 1);
+            searchState.setLatitude(last.getLatitude());
+            searchState.setLongitude(last.getLongitude());
+        }
+        searchState.setSearchError(unresolvedMessage(response.getUnresolved()));
+
+        searchViewModel.setState(searchState);
+        searchViewModel.firePropertyChange();
+    }
+
+    @Override
+    public void prepareFailView(String error) {
+        searchViewModel.updateOnEventThread(() -> {
+            final SearchState searchState = new SearchState(searchViewModel.getState());
+            searchState.setSearchError(error);
+            searchViewModel.setState(searchState);
+            searchViewModel.firePropertyChange();
+        });
+    }
+
+    private static String unresolvedMessage(List<String> unresolved) {
+        if (unresolved.isEmpty()) return null;
+
+        StringBuilder message = new StringBuilder(unresolved.size() + " address(es) could not be found: ");
+        int listed = Math.min(MAX_LISTED_UNRESOLVED, unresolved.size());
+        message.append(String.join("; ", unresolved.subList(0, listed)));
+        if (unresolved.size() > listed) {
+            message.append(" and ").append(unresolved.size() - listed).append(" more");
+        }
+        return message.toString();
+    }
+}
@@ -3,6 +3,10 @@ package interface_adapter.generate_route;
 import use_case.generate_route.GenerateRouteOutputBoundary;
 import use_case.generate_route.GenerateRouteOutputData;
 
+/**
+ * Shows the generated route, or why it could not be generated.
+ * The use case runs off the event thread; state is only changed on it.
+ */
 public class GenerateRoutePresenter implements GenerateRouteOutputBoundary {
 
     private final GenerateRouteViewModel routeViewModel;
@@ -13,18 +17,24 @@ public class GenerateRoutePresenter implements GenerateRouteOutputBoundary {
 
     @Override
     public void prepareSuccessView(GenerateRouteOutputData outputData) {
-        GenerateRouteState state = new GenerateRouteState(routeViewModel.getState());
-        state.setRouteSegments(outputData.getSegments());
-        state.setErrorMessage(null);
-        routeViewModel.setState(state);
-        routeViewModel.firePropertyChange("route", state);
+        routeViewModel.updateOnEventThread(() -> {
+            GenerateRouteState state = new GenerateRouteState(routeViewModel.getState());
+            state.setRouteSegments(outputData.getSegments());
+            state.setRoutedStops(outputData.getStops());
+            state.setRoutedProfile(outputData.getProfile());
+            state.setErrorMessage(null);
+            routeViewModel.setState(state);
+            routeViewModel.firePropertyChange("route", state);
+        });
     }
 
     @Override
     public void prepareFailView(String error) {
-        GenerateRouteState state = new GenerateRouteState(routeViewModel.getState());
-        state.setErrorMessage(error);
-        routeViewModel.setState(state);
-        routeViewModel.firePropertyChange("error", state);
+        routeViewModel.updateOnEventThread(() -> {
+            GenerateRouteState state = new GenerateRouteState(routeViewModel.getState());
+            state.setErrorMessage(error);
+            routeViewModel.setState(state);
+            routeViewModel.firePropertyChange("error", state);
+        });
     }
 }
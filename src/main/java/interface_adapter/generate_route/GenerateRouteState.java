@@ -1,40 +1,55 @@
 package interface_adapter.generate_route;
 
+import entity.RouteGeometry;
 import org.jxmapviewer.viewer.GeoPosition;
 
-import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Route shown on the map. Segments are immutable packed geometries, so copies of the
+ * state (and the next route, for legs that did not change) share them.
+ */
 public class GenerateRouteState {
-    private List<List<GeoPosition>> routeSegments = new ArrayList<>();
+    private List<RouteGeometry> routeSegments = List.of();
+    private List<GeoPosition> routedStops = List.of();
+    private String routedProfile;
     private String errorMessage;
 
     public GenerateRouteState() {}
 
     public GenerateRouteState(GenerateRouteState copy) {
-        this.routeSegments = new ArrayList<>();
         if (copy != null) {
-            for (List<GeoPosition> segment : copy.getRouteSegments()) {
-                this.routeSegments.add(new ArrayList<>(segment));
-            }
+            this.routeSegments = copy.routeSegments;
+            this.routedStops = copy.routedStops;
+            this.routedProfile = copy.routedProfile;
             this.errorMessage = copy.getErrorMessage();
         }
     }
 
-    public List<List<GeoPosition>> getRouteSegments() {
-        List<List<GeoPosition>> copy = new ArrayList<>();
-        for (List<GeoPosition> segment : routeSegments) {
-            copy.add(new ArrayList<>(segment));
-        }
-        return copy;
+    /** Unmodifiable; segment i runs from routed stop i to routed stop i + 1. */
+    public List<RouteGeometry> getRouteSegments() {
+        return routeSegments;
     }
 
-    public void setRouteSegments(List<List<GeoPosition>> routeSegments) {
-        List<List<GeoPosition>> copy = new ArrayList<>();
-        for (List<GeoPosition> segment : routeSegments) {
-            copy.add(new ArrayList<>(segment));
-        }
-        this.routeSegments = copy;
+    /** Takes the segments as they are; only the outer list is copied. */
+    public void setRouteSegments(List<RouteGeometry> routeSegments) {
+        this.routeSegments = List.copyOf(routeSegments);
+    }
+
+    public List<GeoPosition> getRoutedStops() {
+        return routedStops;
+    }
+
+    public void setRoutedStops(List<GeoPosition> routedStops) {
+        this.routedStops = List.copyOf(routedStops);
+    }
+
+    public String getRoutedProfile() {
+        return routedProfile;
+    }
+
+    public void setRoutedProfile(String routedProfile) {
+        this.routedProfile = routedProfile;
     }
 
     public String getErrorMessage() {
@@ -44,4 +59,4 @@ public class GenerateRouteState {
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
     }
-}
\ No newline at end of file
+}
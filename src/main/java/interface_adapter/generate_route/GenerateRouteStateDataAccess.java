@@ -0,0 +1,35 @@
+package interface_adapter.generate_route;
+
+import entity.RouteGeometry;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.generate_route.GenerateRoutePreviousRouteDataAccessInterface;
+
+import java.util.List;
+
+/**
+ * Adapter exposing the route in {@link GenerateRouteViewModel} to the generate-route
+ * interactor, so unchanged legs are reused on the next generation.
+ */
+public class GenerateRouteStateDataAccess implements GenerateRoutePreviousRouteDataAccessInterface {
+
+    private final GenerateRouteViewModel routeViewModel;
+
+    public GenerateRouteStateDataAccess(GenerateRouteViewModel routeViewModel) {
+        this.routeViewModel = routeViewModel;
+    }
+
+    @Override
+    public String getRoutedProfile() {
+        return routeViewModel.getState().getRoutedProfile();
+    }
+
+    @Override
+    public List<GeoPosition> getRoutedStops() {
+        return routeViewModel.getState().getRoutedStops();
+    }
+
+    @Override
+    public List<RouteGeometry> getRouteSegments() {
+        return routeViewModel.getState().getRouteSegments();
+    }
+}
@@ -0,0 +1,24 @@
+package interface_adapter.optimize_order;
+
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.optimize_order.OptimizeOrderInputBoundary;
+import use_case.optimize_order.OptimizeOrderInputData;
+
+import java.util.List;
+
+/**
+ * optimize stop order usecase controller.
+ * Waits for the travel-time matrix; call it off the event dispatch thread.
+ */
+public class OptimizeOrderController {
+    private final OptimizeOrderInputBoundary optimizeOrderInteractor;
+
+    public OptimizeOrderController(OptimizeOrderInputBoundary optimizeOrderInteractor) {
+        this.optimizeOrderInteractor = optimizeOrderInteractor;
+    }
+
+    public void optimize(String profile, List<String> stopNames, List<GeoPosition> stops,
+                         boolean keepFirst, boolean keepLast) {
+        optimizeOrderInteractor.execute(new OptimizeOrderInputData(stopNames, stops, profile, keepFirst, keepLast));
+    }
+}
@@ -0,0 +1,53 @@
+package interface_adapter.optimize_order;
+
+import interface_adapter.search.SearchState;
+import interface_adapter.search.SearchViewModel;
+import use_case.optimize_order.OptimizeOrderOutputBoundary;
+import use_case.optimize_order.OptimizeOrderOutputData;
+
+/**
+ * Replaces the stop list with the optimized order in a single state update.
+ * The use case runs off the event thread; state is only changed on it, and only if the
+ * stops are still the ones that were optimized.
+ */
+public class OptimizeOrderPresenter implements OptimizeOrderOutputBoundary {
+
+    private final SearchViewModel searchViewModel;
+
+    public OptimizeOrderPresenter(SearchViewModel searchViewModel) {
+        this.searchViewModel = searchViewModel;
+    }
+
+    @Override
+    public void prepareSuccessView(OptimizeOrderOutputData outputData) {
+        searchViewModel.updateOnEventThread(() -> reorder(outputData));
+    }
+
+    private void reorder(OptimizeOrderOutputData outputData) {
+        SearchState state = new SearchState(searchViewModel.getState());
+        // A stop added or removed during the request would be lost by applying the old list
+        if (!state.getStops().equals(outputData.getOriginalStops())
+                || !state.getStopNames().equals(outputData.getOriginalStopNames())) {
+            state.setErrorMessage("The stops changed while their order was being optimized. Optimize again.");
+            searchViewModel.setState(state);
+            searchViewModel.firePropertyChange();
+            return;
+        }
+        state.setStopNames(outputData.getStopNames());
+        state.setStops(outputData.getStops());
+        state.setErrorMessage(null);
+        state.setSearchError(null);
+        searchViewModel.setState(state);
+        searchViewModel.firePropertyChange();
+    }
+
+    @Override
+    public void prepareFailView(String error) {
+        searchViewModel.updateOnEventThread(() -> {
+            SearchState state = new SearchState(searchViewModel.getState());
+            state.setErrorMessage(error);
+            searchViewModel.setState(state);
+            searchViewModel.firePropertyChange();
+        });
+    }
+}
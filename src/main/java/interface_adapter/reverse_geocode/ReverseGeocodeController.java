@@ -0,0 +1,20 @@
+package interface_adapter.reverse_geocode;
+
+import use_case.reverse_geocode.ReverseGeocodeInputBoundary;
+import use_case.reverse_geocode.ReverseGeocodeInputData;
+
+/**
+ * reverse geocode usecase controller (names a point picked on the map).
+ */
+public class ReverseGeocodeController {
+
+    private final ReverseGeocodeInputBoundary reverseGeocodeInteractor;
+
+    public ReverseGeocodeController(ReverseGeocodeInputBoundary reverseGeocodeInteractor) {
+        this.reverseGeocodeInteractor = reverseGeocodeInteractor;
+    }
+
+    public void execute(double latitude, double longitude) {
+        reverseGeocodeInteractor.execute(new ReverseGeocodeInputData(latitude, longitude));
+    }
+}
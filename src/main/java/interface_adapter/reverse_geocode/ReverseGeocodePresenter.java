@@ -0,0 +1,55 @@
+package interface_adapter.reverse_geocode;
+
+import interface_adapter.search.SearchState;
+import interface_adapter.search.SearchViewModel;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.reverse_geocode.ReverseGeocodeOutputBoundary;
+import use_case.reverse_geocode.ReverseGeocodeOutputData;
+
+import java.util.List;
+
+/**
+ * Adds the named map point as a new stop, like a successful search does.
+ * The use case runs off the event thread; state is only changed on it.
+ */
+public class ReverseGeocodePresenter implements ReverseGeocodeOutputBoundary {
+
+    private final SearchViewModel searchViewModel;
+
+    public ReverseGeocodePresenter(SearchViewModel searchViewModel) {
+        this.searchViewModel = searchViewModel;
+    }
+
+    @Override
+    public void prepareSuccessView(ReverseGeocodeOutputData response) {
+        searchViewModel.updateOnEventThread(() -> addStop(response));
+    }
+
+    private void addStop(ReverseGeocodeOutputData response) {
+        final SearchState searchState = new SearchState(searchViewModel.getState());
+
+        List<String> names = searchState.getStopNames();
+        names.add(response.getLocationName());
+        searchState.setStopNames(names);
+        List<GeoPosition> stops = searchState.getStops();
+        stops.add(new GeoPosition(response.getLatitude(), response.getLongitude()));
+        searchState.setStops(stops);
+
+        searchState.setLatitude(response.getLatitude());
+        searchState.setLongitude(response.getLongitude());
+        searchState.setSearchError(null);
+
+        searchViewModel.setState(searchState);
+        searchViewModel.firePropertyChange();
+    }
+
+    @Override
+    public void prepareFailView(String error) {
+        searchViewModel.updateOnEventThread(() -> {
+            final SearchState searchState = new SearchState(searchViewModel.getState());
+            searchState.setSearchError(error);
+            searchViewModel.setState(searchState);
+            searchViewModel.firePropertyChange();
+        });
+    }
+}
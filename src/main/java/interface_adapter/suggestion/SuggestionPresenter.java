@@ -13,20 +13,25 @@ public class SuggestionPresenter implements SuggestionOutputBoundary {
         this.searchViewModel = searchViewModel;
     }
 
+    /** Called on the HttpClient completion thread; the state is only touched on the event thread. */
     @Override
     public void presentSuggestions(SuggestionOutputData data) {
-        SearchState state = new SearchState(searchViewModel.getState());
-        state.setSuggestions(data.getSuggestions());
-        state.setSuggestionError(null);
-        searchViewModel.setState(state);
-        searchViewModel.firePropertyChange();
+        searchViewModel.updateOnEventThread(() -> {
+            SearchState state = new SearchState(searchViewModel.getState());
+            state.setSuggestions(data.getSuggestions());
+            state.setSuggestionError(null);
+            searchViewModel.setState(state);
+            searchViewModel.firePropertyChange();
+        });
     }
 
     @Override
     public void presentError(String message) {
-        SearchState state = new SearchState(searchViewModel.getState());
-        state.setSuggestionError(message);
-        searchViewModel.setState(state);
-        searchViewModel.firePropertyChange();
+        searchViewModel.updateOnEventThread(() -> {
+            SearchState state = new SearchState(searchViewModel.getState());
+            state.setSuggestionError(message);
+            searchViewModel.setState(state);
+            searchViewModel.firePropertyChange();
+        });
     }
 }
\ No newline at end of file
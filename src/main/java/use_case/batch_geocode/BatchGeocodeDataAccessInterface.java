@@ -0,0 +1,27 @@
+package use_case.batch_geocode;
+
+import entity.Location;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface BatchGeocodeDataAccessInterface {
+
+    /** Addresses in file order (CSV address column, or one per line). */
+    List<String> readAddresses(String sourcePath) throws IOException;
+
+    /**
+     * Results recorded by earlier runs over this file, by normalized address.
+     * An empty Optional means the address was looked up and nothing was found.
+     */
+    Map<String, Optional<Location>> loadCheckpoint(String sourcePath) throws IOException;
+
+    /** Durably records one finished address, so a rerun will not query it again. */
+    void checkpoint(String sourcePath, String normalizedAddress, Optional<Location> result) throws IOException;
+
+    /** Geocodes one address without blocking; queued behind interactive requests. */
+    CompletableFuture<Optional<Location>> geocode(String address);
+}
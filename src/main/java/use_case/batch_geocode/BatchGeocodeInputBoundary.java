@@ -0,0 +1,5 @@
+package use_case.batch_geocode;
+
+public interface BatchGeocodeInputBoundary {
+    void execute(BatchGeocodeInputData inputData);
+}
@@ -0,0 +1,17 @@
+package use_case.batch_geocode;
+
+public class BatchGeocodeInputData {
+
+    private final String sourcePath;
+
+    /**
+     * @param sourcePath CSV or line-delimited file of addresses
+     */
+    public BatchGeocodeInputData(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    String getSourcePath() {
+        return sourcePath;
+    }
+}
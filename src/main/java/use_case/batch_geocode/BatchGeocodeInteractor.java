@@ -0,0 +1,123 @@
+package use_case.batch_geocode;
+
+import entity.Location;
+import use_case.search.QueryNormalizer;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * BatchGeocodeInteractor
+ * Turns a file of addresses into stops.
+ * <p>
+ * Responsibilities:
+ * - Normalize and deduplicate the addresses (first spelling in the file wins)
+ * - Skip addresses already finished by an earlier run (checkpoint), so a rerun resumes
+ * - Keep a small window of lookups queued, recording each result as it completes
+ * - Hand every resolved place to the presenter at once, in file order
+ * <p>
+ * Addresses whose lookup failed (e.g. network error) are not checkpointed,
+ * so the next run tries them again.
+ */
+public class BatchGeocodeInteractor implements BatchGeocodeInputBoundary {
+
+    /** Lookups kept queued at once; enough to keep the rate-limited queue busy. */
+    public static final int DEFAULT_WINDOW = 4;
+
+    private final BatchGeocodeDataAccessInterface batchDataAccessObj;
+    private final BatchGeocodeOutputBoundary batchPresenter;
+    private final int window;
+
+    public BatchGeocodeInteractor(BatchGeocodeDataAccessInterface dataAccessInterface,
+                                  BatchGeocodeOutputBoundary outputBoundary) {
+        this(dataAccessInterface, outputBoundary, DEFAULT_WINDOW);
+    }
+
+    public BatchGeocodeInteractor(BatchGeocodeDataAccessInterface dataAccessInterface,
+                                  BatchGeocodeOutputBoundary outputBoundary, int window) {
+        if (window <= 0) throw new IllegalArgumentException("window must be positive");
+        this.batchDataAccessObj = dataAccessInterface;
+        this.batchPresenter = outputBoundary;
+        this.window = window;
+    }
+
+    @Override
+    public void execute(BatchGeocodeInputData inputData) {
+        final String path = inputData.getSourcePath();
+        Deque<Pending> inFlight = new ArrayDeque<>();
+        try {
+            // 1. Distinct addresses, keyed by normalized form, in file order
+            Map<String, String> addresses = new LinkedHashMap<>();
+            for (String raw : batchDataAccessObj.readAddresses(path)) {
+                String key = QueryNormalizer.normalize(raw);
+                if (!key.isEmpty()) addresses.putIfAbsent(key, raw.trim());
+            }
+            if (addresses.isEmpty()) {
+                batchPresenter.prepareFailView("No addresses found in " + path);
+                return;
+            }
+
+            // 2. Resume: earlier results are reused as they are
+            Map<String, Optional<Location>> results = new HashMap<>(batchDataAccessObj.loadCheckpoint(path));
+            results.keySet().retainAll(addresses.keySet());
+            int resumed = results.size();
+
+            // 3. Pipeline the rest: keep `window` lookups queued, finish them in order
+            Iterator<Map.Entry<String, String>> todo = addresses.entrySet().iterator();
+            while (todo.hasNext() || !inFlight.isEmpty()) {
+                while (inFlight.size() < window && todo.hasNext()) {
+                    Map.Entry<String, String> next = todo.next();
+                    if (results.containsKey(next.getKey())) continue;
+                    inFlight.add(new Pending(next.getKey(), batchDataAccessObj.geocode(next.getValue())));
+                }
+                if (inFlight.isEmpty()) break;
+
+                Pending head = inFlight.poll();
+                Optional<Location> result;
+                try {
+                    result = head.future.get();
+                } catch (ExecutionException e) {
+                    continue;   // not checkpointed: retried on the next run
+                }
+                results.put(head.key, result);
+                batchDataAccessObj.checkpoint(path, head.key, result);
+            }
+
+            // 4. One answer for the whole file
+            List<Location> found = new ArrayList<>();
+            List<String> unresolved = new ArrayList<>();
+            for (Map.Entry<String, String> address : addresses.entrySet()) {
+                Optional<Location> result = results.getOrDefault(address.getKey(), Optional.empty());
+                if (result.isPresent()) {
+                    found.add(result.get());
+                } else {
+                    unresolved.add(address.getValue());
+                }
+            }
+            batchPresenter.prepareSuccessView(new BatchGeocodeOutputData(found, unresolved, resumed));
+        } catch (IOException e) {
+            batchPresenter.prepareFailView("Batch geocoding failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batchPresenter.prepareFailView("Batch geocoding interrupted; finished rows are saved and will be skipped next time.");
+        } catch (Exception e) {
+            batchPresenter.prepareFailView("Unexpected error: " + e.getMessage());
+        } finally {
+            for (Pending pending : inFlight) {
+                pending.future.cancel(true);
+            }
+        }
+    }
+
+    private static class Pending {
+        final String key;
+        final CompletableFuture<Optional<Location>> future;
+
+        Pending(String key, CompletableFuture<Optional<Location>> future) {
+            this.key = key;
+            this.future = future;
+        }
+    }
+}
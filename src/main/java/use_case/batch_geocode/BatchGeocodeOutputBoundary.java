@@ -0,0 +1,7 @@
+package use_case.batch_geocode;
+
+public interface BatchGeocodeOutputBoundary {
+    void prepareSuccessView(BatchGeocodeOutputData outputData);
+
+    void prepareFailView(String errorMessage);
+}
@@ -0,0 +1,33 @@
+package use_case.batch_geocode;
+
+import entity.Location;
+
+import java.util.List;
+
+public class BatchGeocodeOutputData {
+
+    private final List<Location> locations;
+    private final List<String> unresolved;
+    private final int resumedCount;
+
+    public BatchGeocodeOutputData(List<Location> locations, List<String> unresolved, int resumedCount) {
+        this.locations = List.copyOf(locations);
+        this.unresolved = List.copyOf(unresolved);
+        this.resumedCount = resumedCount;
+    }
+
+    /** Resolved places, in file order, one per distinct address. */
+    public List<Location> getLocations() {
+        return locations;
+    }
+
+    /** Addresses nothing was found for, as written in the file. */
+    public List<String> getUnresolved() {
+        return unresolved;
+    }
+
+    /** How many addresses were taken from the checkpoint of an earlier run instead of geocoded. */
+    public int getResumedCount() {
+        return resumedCount;
+    }
+}
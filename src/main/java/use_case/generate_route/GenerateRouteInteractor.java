@@ -1,51 +1,221 @@
 package use_case.generate_route;
 
+import entity.RouteGeometry;
 import org.jxmapviewer.viewer.GeoPosition;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * GenerateRouteInteractor
+ * Routes an itinerary.
+ * <p>
+ * Responsibilities:
+ * - Reuse every leg of the previous route whose two stops are still adjacent, so after
+ *   removing, inserting or moving a stop only the legs around the edit are routed
+ * - Ask for each run of remaining legs in one multi-waypoint request when the routing
+ *   source supports it
+ * - Otherwise request those legs at once on the given executor, whose size bounds how many
+ *   routing requests run together, so the route takes about as long as its slowest leg
+ * - Reassemble the legs in stop order
+ * - Draw a straight line for any leg the routing service could not answer
+ */
 public class GenerateRouteInteractor implements GenerateRouteInputBoundary {
+
+    /** Legs requested together by default; polite to the public OSRM server. */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /** Leg executor of interactors built without one; shared so instances never add threads. */
+    private static final ExecutorService SHARED_LEG_EXECUTOR = newLegExecutor(DEFAULT_PARALLELISM);
+
     private final GenerateRouteRoutingDataAccessInterface routingDataAccessInterface;
     private final GenerateRouteOutputBoundary generateRoutePresenter;
+    private final Executor legExecutor;
+    private final GenerateRoutePreviousRouteDataAccessInterface previousRoute;
 
+    /**
+     * Routes legs on a pool of {@link #DEFAULT_PARALLELISM} daemon threads shared by every
+     * interactor built this way.
+     */
     public GenerateRouteInteractor(GenerateRouteRoutingDataAccessInterface routingDataAccessInterface,
                                    GenerateRouteOutputBoundary generateRoutePresenter) {
+        this(routingDataAccessInterface, generateRoutePresenter, SHARED_LEG_EXECUTOR);
+    }
+
+    /**
+     * @param legExecutor runs the leg requests; its thread count is the request parallelism
+     */
+    public GenerateRouteInteractor(GenerateRouteRoutingDataAccessInterface routingDataAccessInterface,
+                                   GenerateRouteOutputBoundary generateRoutePresenter,
+                                   Executor legExecutor) {
+        this(routingDataAccessInterface, generateRoutePresenter, legExecutor, null);
+    }
+
+    /**
+     * @param previousRoute the route shown now, whose legs may be reused; null to route every leg
+     */
+    public GenerateRouteInteractor(GenerateRouteRoutingDataAccessInterface routingDataAccessInterface,
+                                   GenerateRouteOutputBoundary generateRoutePresenter,
+                                   Executor legExecutor,
+                                   GenerateRoutePreviousRouteDataAccessInterface previousRoute) {
         this.routingDataAccessInterface = routingDataAccessInterface;
         this.generateRoutePresenter = generateRoutePresenter;
+        this.legExecutor = legExecutor;
+        this.previousRoute = previousRoute;
+    }
+
+    /** Fixed pool of daemon threads, so pending legs never keep the app alive. */
+    public static ExecutorService newLegExecutor(int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "route-leg");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
     public void execute(GenerateRouteInputData inputData) {
-        List<GeoPosition> stops = inputData.getStops();
+        List<GeoPosition> stops = List.copyOf(inputData.getStops());
         if (stops.size() < 2) {
             generateRoutePresenter.prepareFailView("Add at least two stops to compute a full route.");
             return;
         }
 
         String profile = inputData.getProfile();
-        List<List<GeoPosition>> segments = new ArrayList<>();
-        for (int i = 0; i < stops.size() - 1; i++) {
+        List<RouteGeometry> segments = new ArrayList<>(Collections.nCopies(stops.size() - 1, null));
+        int reused = reusePreviousLegs(stops, profile, segments);
+
+        routeMissingRuns(stops, profile, segments);
+        try {
+            routeMissingLegs(stops, profile, segments);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            generateRoutePresenter.prepareFailView("Route generation was interrupted.");
+            return;
+        } catch (ExecutionException e) {
+            // routeLeg never throws; only reachable if the executor itself failed
+            generateRoutePresenter.prepareFailView("Unexpected error: " + e.getCause().getMessage());
+            return;
+        }
+
+        generateRoutePresenter.prepareSuccessView(new GenerateRouteOutputData(segments, stops, profile, reused));
+    }
+
+    /**
+     * Fills in the legs whose (start, end) pair was a leg of the previous route with the same
+     * profile. The previous segment objects are shared, not copied.
+     *
+     * @return number of legs reused
+     */
+    private int reusePreviousLegs(List<GeoPosition> stops, String profile, List<RouteGeometry> segments) {
+        if (previousRoute == null || !profile.equals(previousRoute.getRoutedProfile())) return 0;
+        List<GeoPosition> oldStops = previousRoute.getRoutedStops();
+        List<RouteGeometry> oldSegments = previousRoute.getRouteSegments();
+        if (oldStops == null || oldSegments == null || oldSegments.size() != oldStops.size() - 1) return 0;
+
+        Map<List<GeoPosition>, RouteGeometry> byEnds = new HashMap<>();
+        for (int i = 0; i < oldSegments.size(); i++) {
+            byEnds.put(List.of(oldStops.get(i), oldStops.get(i + 1)), oldSegments.get(i));
+        }
+
+        int reused = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            RouteGeometry segment = byEnds.get(List.of(stops.get(i), stops.get(i + 1)));
+            // A straight-line fallback is routed again: the service may answer this time
+            if (segment != null && !segment.equals(straightLine(stops.get(i), stops.get(i + 1)))) {
+                segments.set(i, segment);
+                reused++;
+            }
+        }
+        return reused;
+    }
+
+    /** Routes each run of consecutive missing legs with one multi-waypoint call, where supported. */
+    private void routeMissingRuns(List<GeoPosition> stops, String profile, List<RouteGeometry> segments) {
+        if (!routingDataAccessInterface.routesManyLegsAtOnce()) return;
+        int i = 0;
+        while (i < segments.size()) {
+            if (segments.get(i) != null) {
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < segments.size() && segments.get(end) == null) end++;
+
+            List<RouteGeometry> legs = routeInOneRequest(stops.subList(i, end + 1), profile);
+            if (legs == null && Thread.currentThread().isInterrupted()) return;
+            if (legs != null) {
+                for (int j = i; j < end; j++) segments.set(j, legs.get(j - i));
+            }
+            i = end;   // legs still missing are routed one by one
+        }
+    }
+
+    /** All legs between the waypoints from one multi-waypoint call, or null if unsupported or failed. */
+    private List<RouteGeometry> routeInOneRequest(List<GeoPosition> waypoints, String profile) {
+        List<RouteGeometry> legs;
+        try {
+            legs = routingDataAccessInterface.getRoutes(waypoints, profile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();   // the leg-by-leg wait reports it
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+        if (legs == null || legs.size() != waypoints.size() - 1) return null;
+
+        List<RouteGeometry> segments = new ArrayList<>(legs.size());
+        for (int i = 0; i < legs.size(); i++) {
+            RouteGeometry leg = legs.get(i);
+            segments.add(leg != null && !leg.isEmpty() ? leg : straightLine(waypoints.get(i), waypoints.get(i + 1)));
+        }
+        return segments;
+    }
+
+    /** Routes every leg still missing, concurrently on the leg executor. */
+    private void routeMissingLegs(List<GeoPosition> stops, String profile, List<RouteGeometry> segments)
+            throws InterruptedException, ExecutionException {
+        Map<Integer, CompletableFuture<RouteGeometry>> legs = new HashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            if (segments.get(i) != null) continue;
             GeoPosition a = stops.get(i);
             GeoPosition b = stops.get(i + 1);
-            try {
-                List<GeoPosition> segment = routingDataAccessInterface.getRoute(a, b, profile);
-                if (segment != null && !segment.isEmpty()) {
-                    segments.add(segment);
-                } else {
-                    List<GeoPosition> straight = new ArrayList<>();
-                    straight.add(a);
-                    straight.add(b);
-                    segments.add(straight);
-                }
-            } catch (Exception e) {
-                List<GeoPosition> straight = new ArrayList<>();
-                straight.add(a);
-                straight.add(b);
-                segments.add(straight);
+            legs.put(i, CompletableFuture.supplyAsync(() -> routeLeg(a, b, profile), legExecutor));
+        }
+
+        try {
+            for (Map.Entry<Integer, CompletableFuture<RouteGeometry>> leg : legs.entrySet()) {
+                segments.set(leg.getKey(), leg.getValue().get());
             }
+        } catch (InterruptedException e) {
+            for (CompletableFuture<RouteGeometry> leg : legs.values()) leg.cancel(true);
+            throw e;
         }
+    }
+
+    /** One leg's geometry, or the straight line between its ends if routing fails. */
+    private RouteGeometry routeLeg(GeoPosition a, GeoPosition b, String profile) {
+        try {
+            RouteGeometry segment = routingDataAccessInterface.getRoute(a, b, profile);
+            if (segment != null && !segment.isEmpty()) {
+                return segment;
+            }
+        } catch (Exception e) {
+            // fall through to the straight line
+        }
+        return straightLine(a, b);
+    }
 
-        generateRoutePresenter.prepareSuccessView(new GenerateRouteOutputData(segments));
+    private static RouteGeometry straightLine(GeoPosition a, GeoPosition b) {
+        return RouteGeometry.straightLine(a, b);
     }
 }
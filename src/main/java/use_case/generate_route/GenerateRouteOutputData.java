@@ -1,17 +1,39 @@
 package use_case.generate_route;
 
+import entity.RouteGeometry;
 import org.jxmapviewer.viewer.GeoPosition;
 
 import java.util.List;
 
 public class GenerateRouteOutputData {
-    private final List<List<GeoPosition>> segments;
+    private final List<RouteGeometry> segments;
+    private final List<GeoPosition> stops;
+    private final String profile;
+    private final int reusedLegCount;
 
-    public GenerateRouteOutputData(List<List<GeoPosition>> segments) {
+    public GenerateRouteOutputData(List<RouteGeometry> segments, List<GeoPosition> stops,
+                                   String profile, int reusedLegCount) {
         this.segments = segments;
+        this.stops = stops;
+        this.profile = profile;
+        this.reusedLegCount = reusedLegCount;
     }
 
-    public List<List<GeoPosition>> getSegments() {
+    public List<RouteGeometry> getSegments() {
         return segments;
     }
+
+    /** The stops the segments connect, in order. */
+    public List<GeoPosition> getStops() {
+        return stops;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    /** Legs taken unchanged from the previous route. */
+    public int getReusedLegCount() {
+        return reusedLegCount;
+    }
 }
@@ -0,0 +1,20 @@
+package use_case.generate_route;
+
+import entity.RouteGeometry;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.util.List;
+
+/**
+ * Gateway to the route generated last, so legs between stops that are still
+ * adjacent after an edit can be reused instead of routed again.
+ */
+public interface GenerateRoutePreviousRouteDataAccessInterface {
+    /** Profile the previous route was generated with, or null if there is none. */
+    String getRoutedProfile();
+
+    /** Stops of the previous route; leg i runs from stop i to stop i + 1. */
+    List<GeoPosition> getRoutedStops();
+
+    List<RouteGeometry> getRouteSegments();
+}
@@ -1,9 +1,33 @@
 package use_case.generate_route;
 
+import entity.RouteGeometry;
 import org.jxmapviewer.viewer.GeoPosition;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface GenerateRouteRoutingDataAccessInterface {
-    List<GeoPosition> getRoute(GeoPosition start, GeoPosition end, String profile) throws Exception;
+    RouteGeometry getRoute(GeoPosition start, GeoPosition end, String profile) throws IOException, InterruptedException;
+
+    /**
+     * Geometry of every leg of the ordered stops (stops.size() - 1 legs, in order),
+     * fetched with as few requests as the routing service allows.
+     * Sources that cannot route several waypoints at once ask for each leg in turn.
+     */
+    default List<RouteGeometry> getRoutes(List<GeoPosition> stops, String profile) throws IOException, InterruptedException {
+        List<RouteGeometry> legs = new ArrayList<>(Math.max(0, stops.size() - 1));
+        for (int i = 0; i + 1 < stops.size(); i++) {
+            legs.add(getRoute(stops.get(i), stops.get(i + 1), profile));
+        }
+        return legs;
+    }
+
+    /**
+     * Whether {@link #getRoutes} answers several legs in fewer requests than one per leg.
+     * Callers route legs one by one, concurrently, when it does not.
+     */
+    default boolean routesManyLegsAtOnce() {
+        return false;
+    }
 }
@@ -0,0 +1,18 @@
+package use_case.optimize_order;
+
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Gateway for travel times between every pair of stops.
+ */
+public interface OptimizeOrderDataAccessInterface {
+
+    /**
+     * Travel seconds from stop i to stop j at [i][j], for the given profile. Entries may differ
+     * by direction (one-way streets); an unreachable pair is Double.POSITIVE_INFINITY.
+     */
+    double[][] getDurations(List<GeoPosition> stops, String profile) throws IOException, InterruptedException;
+}
@@ -0,0 +1,5 @@
+package use_case.optimize_order;
+
+public interface OptimizeOrderInputBoundary {
+    void execute(OptimizeOrderInputData inputData);
+}
@@ -0,0 +1,46 @@
+package use_case.optimize_order;
+
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.util.List;
+
+public class OptimizeOrderInputData {
+    private final List<String> stopNames;
+    private final List<GeoPosition> stops;
+    private final String profile;
+    private final boolean keepFirst;
+    private final boolean keepLast;
+
+    /**
+     * @param keepFirst the first stop stays first (e.g. where the trip starts)
+     * @param keepLast  the last stop stays last (e.g. where the trip ends)
+     */
+    public OptimizeOrderInputData(List<String> stopNames, List<GeoPosition> stops, String profile,
+                                  boolean keepFirst, boolean keepLast) {
+        this.stopNames = stopNames;
+        this.stops = stops;
+        this.profile = profile;
+        this.keepFirst = keepFirst;
+        this.keepLast = keepLast;
+    }
+
+    public List<String> getStopNames() {
+        return stopNames;
+    }
+
+    public List<GeoPosition> getStops() {
+        return stops;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public boolean isKeepFirst() {
+        return keepFirst;
+    }
+
+    public boolean isKeepLast() {
+        return keepLast;
+    }
+}
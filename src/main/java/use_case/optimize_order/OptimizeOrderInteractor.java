@@ -0,0 +1,76 @@
+package use_case.optimize_order;
+
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * OptimizeOrderInteractor
+ * Reorders the itinerary's stops for the shortest trip.
+ * <p>
+ * Responsibilities:
+ * - Fetch the travel times between every pair of stops in one call
+ * - Run {@link StopOrderOptimizer}, keeping the first and/or last stop in place if asked
+ * - Hand the names and stops to the presenter together, in the new order, along with the
+ *   order they were given in and the trip time before and after
+ * <p>
+ * The given order is one of the optimizer's starts, so the result is never slower.
+ */
+public class OptimizeOrderInteractor implements OptimizeOrderInputBoundary {
+
+    private final OptimizeOrderDataAccessInterface durationDataAccess;
+    private final OptimizeOrderOutputBoundary optimizeOrderPresenter;
+
+    public OptimizeOrderInteractor(OptimizeOrderDataAccessInterface durationDataAccess,
+                                   OptimizeOrderOutputBoundary optimizeOrderPresenter) {
+        this.durationDataAccess = durationDataAccess;
+        this.optimizeOrderPresenter = optimizeOrderPresenter;
+    }
+
+    @Override
+    public void execute(OptimizeOrderInputData inputData) {
+        List<GeoPosition> stops = List.copyOf(inputData.getStops());
+        List<String> names = List.copyOf(inputData.getStopNames());
+        int fixed = (inputData.isKeepFirst() ? 1 : 0) + (inputData.isKeepLast() ? 1 : 0);
+        if (stops.size() < 2 + fixed) {
+            optimizeOrderPresenter.prepareFailView("Add more stops to optimize their order.");
+            return;
+        }
+        if (names.size() != stops.size()) {
+            optimizeOrderPresenter.prepareFailView("Stop names and positions are out of sync.");
+            return;
+        }
+
+        double[][] seconds;
+        try {
+            seconds = durationDataAccess.getDurations(stops, inputData.getProfile());
+        } catch (IOException e) {
+            optimizeOrderPresenter.prepareFailView("Could not get travel times: " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            optimizeOrderPresenter.prepareFailView("Stop order optimization was interrupted.");
+            return;
+        }
+        if (seconds == null || seconds.length != stops.size()) {
+            optimizeOrderPresenter.prepareFailView("Could not get travel times for every stop.");
+            return;
+        }
+
+        StopOrderOptimizer optimizer = new StopOrderOptimizer(seconds, inputData.isKeepFirst(), inputData.isKeepLast());
+        int[] order = optimizer.optimize();
+
+        List<String> orderedNames = new ArrayList<>(order.length);
+        List<GeoPosition> orderedStops = new ArrayList<>(order.length);
+        for (int index : order) {
+            orderedNames.add(names.get(index));
+            orderedStops.add(stops.get(index));
+        }
+        double before = optimizer.cost(IntStream.range(0, order.length).toArray());
+        optimizeOrderPresenter.prepareSuccessView(
+                new OptimizeOrderOutputData(orderedNames, orderedStops, names, stops, before, optimizer.cost(order)));
+    }
+}
@@ -0,0 +1,7 @@
+package use_case.optimize_order;
+
+public interface OptimizeOrderOutputBoundary {
+    void prepareSuccessView(OptimizeOrderOutputData outputData);
+
+    void prepareFailView(String error);
+}
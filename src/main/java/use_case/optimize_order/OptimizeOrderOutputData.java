@@ -0,0 +1,55 @@
+package use_case.optimize_order;
+
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.util.List;
+
+public class OptimizeOrderOutputData {
+    private final List<String> stopNames;
+    private final List<GeoPosition> stops;
+    private final List<String> originalStopNames;
+    private final List<GeoPosition> originalStops;
+    private final double originalSeconds;
+    private final double optimizedSeconds;
+
+    public OptimizeOrderOutputData(List<String> stopNames, List<GeoPosition> stops,
+                                   List<String> originalStopNames, List<GeoPosition> originalStops,
+                                   double originalSeconds, double optimizedSeconds) {
+        this.stopNames = List.copyOf(stopNames);
+        this.stops = List.copyOf(stops);
+        this.originalStopNames = List.copyOf(originalStopNames);
+        this.originalStops = List.copyOf(originalStops);
+        this.originalSeconds = originalSeconds;
+        this.optimizedSeconds = optimizedSeconds;
+    }
+
+    /** Stop names in the new order. */
+    public List<String> getStopNames() {
+        return stopNames;
+    }
+
+    /** Stops in the new order. */
+    public List<GeoPosition> getStops() {
+        return stops;
+    }
+
+    /** Stop names in the order they were given. */
+    public List<String> getOriginalStopNames() {
+        return originalStopNames;
+    }
+
+    /** Stops in the order they were given. */
+    public List<GeoPosition> getOriginalStops() {
+        return originalStops;
+    }
+
+    /** Travel time of the itinerary in the order it was given. */
+    public double getOriginalSeconds() {
+        return originalSeconds;
+    }
+
+    /** Travel time in the new order; never more than the original. */
+    public double getOptimizedSeconds() {
+        return optimizedSeconds;
+    }
+}
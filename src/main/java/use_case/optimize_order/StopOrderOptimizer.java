@@ -0,0 +1,243 @@
+package use_case.optimize_order;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * StopOrderOptimizer
+ * Orders stops for the shortest trip through all of them (an open-path travelling salesman
+ * heuristic), given the travel time between every pair.
+ * <p>
+ * Responsibilities:
+ * - Start from the given order, the nearest-neighbour order and a few randomized
+ *   nearest-neighbour orders
+ * - Improve each start with 2-opt (reverse a run of stops) and Or-opt (move a run of up to
+ *   three stops elsewhere, either way round) until neither finds a shorter trip
+ * - Improve the starts in parallel and keep the shortest result
+ * - Keep the first and/or last stop in place when asked
+ * <p>
+ * Travel times may differ by direction; reversed runs are priced in the reverse direction.
+ */
+public class StopOrderOptimizer {
+
+    /** Starting orders improved independently; the best one wins. */
+    public static final int DEFAULT_STARTS = 8;
+
+    /** Randomized starts pick among this many nearest unvisited stops. */
+    private static final int RANDOM_CANDIDATES = 3;
+    private static final int MAX_MOVED_RUN = 3;
+    private static final double EPSILON = 1e-9;
+
+    private final double[][] seconds;
+    private final int n;
+    private final boolean keepFirst;
+    private final boolean keepLast;
+    /** Positions the optimizer may change, inclusive. */
+    private final int lo;
+    private final int hi;
+
+    /**
+     * @param seconds travel time from i to j at [i][j]; infinite or NaN entries count as a large penalty
+     */
+    public StopOrderOptimizer(double[][] seconds, boolean keepFirst, boolean keepLast) {
+        this.n = seconds.length;
+        this.seconds = withPenalties(seconds);
+        this.keepFirst = keepFirst;
+        this.keepLast = keepLast;
+        this.lo = keepFirst ? 1 : 0;
+        this.hi = keepLast ? n - 2 : n - 1;
+    }
+
+    /** The best order found, as indices into the stop list. */
+    public int[] optimize() {
+        return optimize(DEFAULT_STARTS);
+    }
+
+    public int[] optimize(int starts) {
+        int[] identity = IntStream.range(0, n).toArray();
+        if (hi - lo < 1) return identity;
+
+        return IntStream.range(0, Math.max(1, starts)).parallel()
+                .mapToObj(start -> improve(start == 0 ? identity.clone() : nearestNeighbour(start)))
+                .reduce((a, b) -> cost(b) < cost(a) - EPSILON ? b : a)
+                .orElse(identity);
+    }
+
+    /** Travel time of the trip in the given order (penalties included). */
+    public double cost(int[] order) {
+        double total = 0;
+        for (int i = 0; i + 1 < order.length; i++) total += seconds[order[i]][order[i + 1]];
+        return total;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Starting orders                                                     */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Greedy order: always go to the nearest unvisited stop. Start 1 is deterministic; later
+     * starts pick randomly among the few nearest and, if the first stop is free, begin elsewhere.
+     */
+    private int[] nearestNeighbour(int start) {
+        Random random = new Random(start);
+        boolean[] used = new boolean[n];
+        int[] order = new int[n];
+        if (keepLast) {
+            order[n - 1] = n - 1;
+            used[n - 1] = true;
+        }
+        int first = keepFirst ? 0 : (start == 1 ? 0 : lo + random.nextInt(hi - lo + 1));
+        order[0] = first;
+        used[first] = true;
+
+        for (int pos = 1; pos <= hi; pos++) {
+            int from = order[pos - 1];
+            int picks = start == 1 ? 1 : RANDOM_CANDIDATES;
+            int[] nearest = new int[picks];
+            Arrays.fill(nearest, -1);
+            for (int v = 0; v < n; v++) {
+                if (used[v]) continue;
+                for (int k = 0; k < picks; k++) {
+                    if (nearest[k] < 0 || seconds[from][v] < seconds[from][nearest[k]]) {
+                        System.arraycopy(nearest, k, nearest, k + 1, picks - k - 1);
+                        nearest[k] = v;
+                        break;
+                    }
+                }
+            }
+            int found = 0;
+            while (found < picks && nearest[found] >= 0) found++;
+            int next = nearest[random.nextInt(found)];
+            order[pos] = next;
+            used[next] = true;
+        }
+        return order;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Local search                                                        */
+    /* ------------------------------------------------------------------ */
+
+    private int[] improve(int[] order) {
+        double[] forward = new double[n];
+        double[] backward = new double[n];
+        boolean improved = true;
+        while (improved) {
+            prefixCosts(order, forward, backward);
+            improved = twoOpt(order, forward, backward);
+            if (!improved) improved = orOpt(order, forward, backward);
+        }
+        return order;
+    }
+
+    /**
+     * forward[k]: time along positions 0..k in order; backward[k]: the same run driven
+     * from k back to 0. A run i..j costs forward[j] - forward[i] (backward[j] - backward[i] reversed).
+     */
+    private void prefixCosts(int[] order, double[] forward, double[] backward) {
+        for (int k = 1; k < n; k++) {
+            forward[k] = forward[k - 1] + seconds[order[k - 1]][order[k]];
+            backward[k] = backward[k - 1] + seconds[order[k]][order[k - 1]];
+        }
+    }
+
+    /** Applies the first reversal of positions i..j that shortens the trip. */
+    private boolean twoOpt(int[] order, double[] forward, double[] backward) {
+        for (int i = lo; i < hi; i++) {
+            int before = at(order, i - 1);
+            for (int j = i + 1; j <= hi; j++) {
+                int after = at(order, j + 1);
+                double delta = leg(before, order[j]) + leg(order[i], after) + backward[j] - backward[i]
+                        - leg(before, order[i]) - leg(order[j], after) - (forward[j] - forward[i]);
+                if (delta < -EPSILON) {
+                    reverse(order, i, j);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Applies the first move of a run of 1..3 stops (kept or reversed) that shortens the trip. */
+    private boolean orOpt(int[] order, double[] forward, double[] backward) {
+        for (int length = 1; length <= MAX_MOVED_RUN; length++) {
+            for (int i = lo; i + length - 1 <= hi; i++) {
+                int j = i + length - 1;
+                int a = order[i];
+                int b = order[j];
+                int before = at(order, i - 1);
+                int after = at(order, j + 1);
+                double removed = leg(before, a) + leg(b, after) - leg(before, after);
+                double reversedRun = backward[j] - backward[i] - (forward[j] - forward[i]);
+
+                // Gap k lies between positions k and k + 1 of the current order
+                for (int k = lo - 1; k <= hi; k++) {
+                    if (k >= i - 1 && k <= j) continue;
+                    int x = at(order, k);
+                    int y = at(order, k + 1);
+                    double kept = leg(x, a) + leg(b, y) - leg(x, y);
+                    double flipped = leg(x, b) + leg(a, y) - leg(x, y) + reversedRun;
+                    if (kept - removed < -EPSILON) {
+                        moveRun(order, i, j, k, false);
+                        return true;
+                    }
+                    if (length > 1 && flipped - removed < -EPSILON) {
+                        moveRun(order, i, j, k, true);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Moves positions i..j into the gap after position k (k outside i - 1..j). */
+    private void moveRun(int[] order, int i, int j, int k, boolean reversed) {
+        int[] run = Arrays.copyOfRange(order, i, j + 1);
+        if (reversed) reverse(run, 0, run.length - 1);
+        int length = run.length;
+        if (k < i) {
+            System.arraycopy(order, k + 1, order, k + 1 + length, i - k - 1);
+            System.arraycopy(run, 0, order, k + 1, length);
+        } else {
+            System.arraycopy(order, j + 1, order, i, k - j);
+            System.arraycopy(run, 0, order, k - length + 1, length);
+        }
+    }
+
+    private static void reverse(int[] order, int i, int j) {
+        for (; i < j; i++, j--) {
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+    }
+
+    /** Stop at a position, or -1 past either end of the trip. */
+    private int at(int[] order, int position) {
+        return position >= 0 && position < n ? order[position] : -1;
+    }
+
+    /** Time between two stops; nothing to or from the open ends. */
+    private double leg(int from, int to) {
+        return from < 0 || to < 0 ? 0 : seconds[from][to];
+    }
+
+    /** Copy with unreachable pairs priced above any trip made of reachable legs. */
+    private static double[][] withPenalties(double[][] seconds) {
+        double max = 0;
+        for (double[] row : seconds) {
+            for (double s : row) if (Double.isFinite(s)) max = Math.max(max, s);
+        }
+        double penalty = (max + 1) * (seconds.length + 1);
+        double[][] copy = new double[seconds.length][];
+        for (int i = 0; i < seconds.length; i++) {
+            copy[i] = seconds[i].clone();
+            for (int j = 0; j < copy[i].length; j++) {
+                if (!Double.isFinite(copy[i][j]) || copy[i][j] < 0) copy[i][j] = penalty;
+            }
+        }
+        return copy;
+    }
+}
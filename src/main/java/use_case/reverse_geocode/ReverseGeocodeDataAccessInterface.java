@@ -0,0 +1,21 @@
+package use_case.reverse_geocode;
+
+import entity.Location;
+
+import java.io.IOException;
+import java.util.Optional;
+
+public interface ReverseGeocodeDataAccessInterface {
+
+    /**
+     * Nearest place we have already resolved or saved, if one lies within {@code maxMeters}.
+     * Must not touch the network.
+     */
+    Optional<Location> findNearestKnown(double latitude, double longitude, double maxMeters);
+
+    /** Asks the remote geocoder what is at this point; empty when it has nothing there. */
+    Optional<Location> reverse(double latitude, double longitude) throws IOException, InterruptedException;
+
+    /** Adds a resolved place to the local index so nearby points resolve offline next time. */
+    void remember(Location location);
+}
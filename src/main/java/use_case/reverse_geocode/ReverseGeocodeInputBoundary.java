@@ -0,0 +1,5 @@
+package use_case.reverse_geocode;
+
+public interface ReverseGeocodeInputBoundary {
+    void execute(ReverseGeocodeInputData inputData);
+}
@@ -0,0 +1,20 @@
+package use_case.reverse_geocode;
+
+public class ReverseGeocodeInputData {
+
+    private final double latitude;
+    private final double longitude;
+
+    public ReverseGeocodeInputData(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    double getLatitude() {
+        return latitude;
+    }
+
+    double getLongitude() {
+        return longitude;
+    }
+}
@@ -0,0 +1,69 @@
+package use_case.reverse_geocode;
+
+import entity.Location;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * ReverseGeocodeInteractor
+ * Names a point on the map.
+ * <p>
+ * Responsibilities:
+ * - Answer from the nearest already known place when it is within the distance threshold
+ * - Otherwise ask the remote geocoder and remember its answer for next time
+ */
+public class ReverseGeocodeInteractor implements ReverseGeocodeInputBoundary {
+
+    /** A known place this close to the pin is taken as the pin's name. */
+    public static final double DEFAULT_MAX_DISTANCE_METERS = 75;
+
+    private final ReverseGeocodeDataAccessInterface reverseGeocodeDataAccessObj;
+    private final ReverseGeocodeOutputBoundary reverseGeocodePresenter;
+    private final double maxDistanceMeters;
+
+    public ReverseGeocodeInteractor(ReverseGeocodeDataAccessInterface dataAccessInterface,
+                                    ReverseGeocodeOutputBoundary outputBoundary) {
+        this(dataAccessInterface, outputBoundary, DEFAULT_MAX_DISTANCE_METERS);
+    }
+
+    public ReverseGeocodeInteractor(ReverseGeocodeDataAccessInterface dataAccessInterface,
+                                    ReverseGeocodeOutputBoundary outputBoundary,
+                                    double maxDistanceMeters) {
+        this.reverseGeocodeDataAccessObj = dataAccessInterface;
+        this.reverseGeocodePresenter = outputBoundary;
+        this.maxDistanceMeters = maxDistanceMeters;
+    }
+
+    @Override
+    public void execute(ReverseGeocodeInputData inputData) {
+        final double lat = inputData.getLatitude();
+        final double lon = inputData.getLongitude();
+
+        final Optional<Location> known = reverseGeocodeDataAccessObj.findNearestKnown(lat, lon, maxDistanceMeters);
+        if (known.isPresent()) {
+            // The stop goes where the user clicked, named after the place it is in
+            reverseGeocodePresenter.prepareSuccessView(
+                    new ReverseGeocodeOutputData(known.get().getName(), lat, lon, true));
+            return;
+        }
+
+        try {
+            final Optional<Location> remote = reverseGeocodeDataAccessObj.reverse(lat, lon);
+            if (remote.isEmpty()) {
+                reverseGeocodePresenter.prepareFailView("No named place found at this point.");
+                return;
+            }
+            reverseGeocodeDataAccessObj.remember(remote.get());
+            reverseGeocodePresenter.prepareSuccessView(
+                    new ReverseGeocodeOutputData(remote.get().getName(), lat, lon, false));
+        } catch (IOException e) {
+            reverseGeocodePresenter.prepareFailView("Network error while naming location: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reverseGeocodePresenter.prepareFailView("Request interrupted while naming location.");
+        } catch (Exception e) {
+            reverseGeocodePresenter.prepareFailView("Unexpected error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package use_case.reverse_geocode;
+
+public interface ReverseGeocodeOutputBoundary {
+    void prepareSuccessView(ReverseGeocodeOutputData outputData);
+
+    void prepareFailView(String errorMessage);
+}
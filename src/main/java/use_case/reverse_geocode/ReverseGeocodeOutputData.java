@@ -0,0 +1,33 @@
+package use_case.reverse_geocode;
+
+public class ReverseGeocodeOutputData {
+
+    private final String locationName;
+    private final double latitude;
+    private final double longitude;
+    private final boolean fromLocalIndex;
+
+    public ReverseGeocodeOutputData(String locationName, double lat, double lon, boolean fromLocalIndex) {
+        this.locationName = locationName;
+        this.latitude = lat;
+        this.longitude = lon;
+        this.fromLocalIndex = fromLocalIndex;
+    }
+
+    public String getLocationName() {
+        return locationName;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /** True when the name came from an already known place rather than a remote lookup. */
+    public boolean isFromLocalIndex() {
+        return fromLocalIndex;
+    }
+}
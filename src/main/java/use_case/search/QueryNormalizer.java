@@ -0,0 +1,40 @@
+package use_case.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Canonical form of a free-text place query.
+ * Two queries that normalize to the same string are treated as the same search
+ * (e.g. "  Toronto " and "TORONTO", or composed/decomposed accents).
+ */
+public final class QueryNormalizer {
+
+    private QueryNormalizer() {}
+
+    /**
+     * NFKC-normalizes, lower-cases and collapses runs of whitespace into a single space.
+     * Returns an empty string for null input.
+     */
+    public static String normalize(String query) {
+        if (query == null) return "";
+
+        String text = Normalizer.normalize(query, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -4,6 +4,8 @@ import entity.Location;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface SearchDataAccessInterface {
 
@@ -11,6 +13,43 @@ public interface SearchDataAccessInterface {
 
     Location get(String locationName) throws IOException, InterruptedException;
 
+    /**
+     * Resolves a location with a single remote request.
+     * Returns an empty Optional when nothing matches (instead of a separate existsByName call).
+     */
+    Optional<Location> find(String locationName) throws IOException, InterruptedException;
+
     List<Location> searchSuggestions(String query, int limit) throws IOException, InterruptedException;
 
+    /**
+     * Non-blocking variant of {@link #searchSuggestions}. Cancelling the returned future
+     * should abandon the request if it has not been answered yet.
+     * The default answers synchronously, which suits local (in-memory) sources.
+     */
+    default CompletableFuture<List<Location>> searchSuggestionsAsync(String query, int limit) {
+        try {
+            return CompletableFuture.completedFuture(searchSuggestions(query, limit));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Non-blocking {@link #find} for bulk work (e.g. batch geocoding). Remote sources queue it
+     * behind interactive searches and suggestions, so a long batch never delays the user.
+     * The default answers synchronously, which suits local (in-memory) sources.
+     */
+    default CompletableFuture<Optional<Location>> findInBackground(String locationName) {
+        try {
+            return CompletableFuture.completedFuture(find(locationName));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package use_case.search;
 import entity.Location;
 
 import java.io.IOException;
+import java.util.Optional;
 
 public class SearchInteractor implements SearchInputBoundary {
     private final SearchDataAccessInterface searchDataAccessObj;
@@ -18,12 +19,13 @@ public class SearchInteractor implements SearchInputBoundary {
     public void execute(SearchInputData searchInputData) {
         final String locationName = searchInputData.getLocationName();
         try {
-            if (!searchDataAccessObj.existsByName(locationName)) {
+            // one round trip: lookup both checks existence and returns the location
+            final Optional<Location> result = searchDataAccessObj.find(locationName);
+            if (result.isEmpty()) {
                 searchPresenter.prepareFailView(locationName + ": Location does not exist.");
             }
             else {
-                // get location data from OSM
-                final Location location = searchDataAccessObj.get(searchInputData.getLocationName());
+                final Location location = result.get();
 
                 final SearchOutputData searchOutputData = new SearchOutputData(location.getName(),
                         location.getLatitude(), location.getLongitude());
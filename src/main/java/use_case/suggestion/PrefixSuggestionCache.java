@@ -0,0 +1,98 @@
+package use_case.suggestion;
+
+import entity.Location;
+import use_case.search.QueryNormalizer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers suggestion results per query and answers longer queries by refining
+ * the results of their longest cached prefix ("toro" answers "toron").
+ * <p>
+ * A cached place still matches a longer query when every query word is the start
+ * of some word in the place name. The refined answer is only used when it still has
+ * at least {@code limit} places; otherwise the caller should go to the network.
+ */
+public class PrefixSuggestionCache {
+
+    public static final int DEFAULT_MAX_QUERIES = 256;
+
+    private final LinkedHashMap<String, List<Location>> resultsByQuery;
+
+    public PrefixSuggestionCache() {
+        this(DEFAULT_MAX_QUERIES);
+    }
+
+    public PrefixSuggestionCache(int maxQueries) {
+        this.resultsByQuery = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Location>> eldest) {
+                return size() > maxQueries;
+            }
+        };
+    }
+
+    public synchronized void put(String query, List<Location> results) {
+        String key = QueryNormalizer.normalize(query);
+        if (!key.isEmpty()) {
+            resultsByQuery.put(key, new ArrayList<>(results));
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} places for the query without a remote call,
+     * or null when the cache cannot answer it with a full list.
+     */
+    public synchronized List<Location> lookup(String query, int limit) {
+        String key = QueryNormalizer.normalize(query);
+        if (key.isEmpty()) return null;
+
+        List<Location> exact = resultsByQuery.get(key);
+        if (exact != null) {
+            return new ArrayList<>(exact.subList(0, Math.min(limit, exact.size())));
+        }
+
+        for (int end = key.length() - 1; end > 0; end--) {
+            List<Location> base = resultsByQuery.get(key.substring(0, end));
+            if (base == null) continue;
+
+            // Only the longest cached prefix is consulted: it is the tightest superset
+            List<Location> refined = refine(base, key.split(" "), limit);
+            return refined.size() >= limit ? refined : null;
+        }
+        return null;
+    }
+
+    private static List<Location> refine(List<Location> base, String[] queryWords, int limit) {
+        List<Location> refined = new ArrayList<>(limit);
+        for (Location place : base) {
+            if (matches(QueryNormalizer.normalize(place.getName()), queryWords)) {
+                refined.add(place);
+                if (refined.size() == limit) break;
+            }
+        }
+        return refined;
+    }
+
+    /** True when every query word starts some word of the name. */
+    private static boolean matches(String name, String[] queryWords) {
+        for (String word : queryWords) {
+            if (word.isEmpty()) continue;
+            if (!startsSomeWord(name, word)) return false;
+        }
+        return true;
+    }
+
+    private static boolean startsSomeWord(String name, String word) {
+        int from = 0;
+        while (true) {
+            int at = name.indexOf(word, from);
+            if (at < 0) return false;
+            if (at == 0 || !Character.isLetterOrDigit(name.charAt(at - 1))) return true;
+            from = at + 1;
+        }
+    }
+}
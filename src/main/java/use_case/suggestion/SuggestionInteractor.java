@@ -6,16 +6,44 @@ import use_case.search.SearchDataAccessInterface;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
+/**
+ * Fetches type-ahead suggestions asynchronously with "switch to latest" semantics:
+ * - a new query cancels the request still in flight for the previous one
+ * - every query gets a sequence number; results for anything but the latest are dropped
+ * - a query identical to the previous one is skipped
+ * - a query that refines a cached one is answered locally when possible (see PrefixSuggestionCache)
+ * The output boundary may therefore be called from a background thread.
+ */
 public class SuggestionInteractor implements SuggestionInputBoundary {
+    static final int SUGGESTION_LIMIT = 5;
+    /** Remote requests over-fetch so that longer queries can still be answered from the cache. */
+    static final int FETCH_LIMIT = 15;
+
     private final SearchDataAccessInterface searchDataAccess;
     private final SuggestionOutputBoundary outputBoundary;
+    private final PrefixSuggestionCache suggestionCache;
+
+    // Guarded by this
+    private long latestSequence = 0;
+    private String lastQuery = null;
+    private CompletableFuture<List<Location>> inFlight = null;
 
     public SuggestionInteractor(SearchDataAccessInterface searchDataAccess,
                                 SuggestionOutputBoundary outputBoundary) {
+        this(searchDataAccess, outputBoundary, new PrefixSuggestionCache());
+    }
+
+    public SuggestionInteractor(SearchDataAccessInterface searchDataAccess,
+                                SuggestionOutputBoundary outputBoundary,
+                                PrefixSuggestionCache suggestionCache) {
         this.searchDataAccess = searchDataAccess;
         this.outputBoundary = outputBoundary;
+        this.suggestionCache = suggestionCache;
     }
 
     @Override
@@ -23,24 +51,78 @@ public class SuggestionInteractor implements SuggestionInputBoundary {
         final String rawQuery = inputData.getQuery();
         final String query = rawQuery == null ? "" : rawQuery.trim();
 
-        if (query.isEmpty()) {
+        final long sequence;
+        CompletableFuture<List<Location>> request = null;
+        List<Location> cached = null;
+        synchronized (this) {
+            if (query.equals(lastQuery)) {
+                return;
+            }
+            lastQuery = query;
+            sequence = ++latestSequence;
+
+            if (inFlight != null) {
+                inFlight.cancel(true);
+                inFlight = null;
+            }
+            if (!query.isEmpty()) {
+                cached = suggestionCache.lookup(query, SUGGESTION_LIMIT);
+                if (cached == null) {
+                    request = searchDataAccess.searchSuggestionsAsync(query, FETCH_LIMIT);
+                    inFlight = request;
+                }
+            }
+        }
+
+        if (cached != null) {
+            outputBoundary.presentSuggestions(new SuggestionOutputData(names(cached)));
+            return;
+        }
+        if (request == null) {
             outputBoundary.presentSuggestions(new SuggestionOutputData(Collections.emptyList()));
             return;
         }
+        request.whenComplete((matches, error) -> deliver(sequence, query, matches, error));
+    }
+
+    private void deliver(long sequence, String query, List<Location> matches, Throwable error) {
+        if (error == null) {
+            suggestionCache.put(query, matches);   // useful even if this answer is stale
+        }
+
+        synchronized (this) {
+            if (sequence != latestSequence) {
+                return;   // a newer query has been issued; this answer is stale
+            }
+            inFlight = null;
+            if (error != null) {
+                lastQuery = null;   // allow the same text to be retried
+            }
+        }
+
+        if (error == null) {
+            List<Location> top = matches.subList(0, Math.min(SUGGESTION_LIMIT, matches.size()));
+            outputBoundary.presentSuggestions(new SuggestionOutputData(names(top)));
+            return;
+        }
 
-        try {
-            List<Location> matches = searchDataAccess.searchSuggestions(query, 5);
-            List<String> suggestions = matches.stream()
-                    .map(Location::getName)
-                    .collect(Collectors.toList());
-            outputBoundary.presentSuggestions(new SuggestionOutputData(suggestions));
-        } catch (IOException e) {
-            outputBoundary.presentError("Network error while fetching suggestions: " + e.getMessage());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            return;
+        }
+        if (cause instanceof IOException) {
+            outputBoundary.presentError("Network error while fetching suggestions: " + cause.getMessage());
+        } else if (cause instanceof InterruptedException) {
             outputBoundary.presentError("Request interrupted while fetching suggestions.");
-        } catch (Exception e) {
-            outputBoundary.presentError("Unexpected error: " + e.getMessage());
+        } else {
+            outputBoundary.presentError("Unexpected error: " + cause.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private static List<String> names(List<Location> places) {
+        return places.stream()
+                .map(Location::getName)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,6 +1,8 @@
 package view;
 
+import entity.RouteGeometry;
 import org.jxmapviewer.*;
+import org.jxmapviewer.cache.LocalCache;
 import org.jxmapviewer.input.PanMouseInputListener;
 import org.jxmapviewer.painter.CompoundPainter;
 import org.jxmapviewer.viewer.*;
@@ -59,6 +61,9 @@ public class MapPanel extends JPanel {
     /** The JXMapViewer instance that renders the OSM map. */
     private final JXMapViewer mapViewer;
 
+    /** Loads OSM tiles in the background, through the tile cache once one is set. */
+    private final DefaultTileFactory tileFactory;
+
     /* ------------------- Smooth Zoom & Pan State -------------------- */
 
     /** Fractional zoom accumulator (for ultra-smooth trackpad zooming). */
@@ -90,8 +95,7 @@ public class MapPanel extends JPanel {
         System.setProperty("http.agent", "TripPlanner/1.0");
 
         // Configure HTTPS tile factory for OSM
-        DefaultTileFactory tileFactory =
-                new DefaultTileFactory(new HttpsOsmTileFactoryInfo());
+        tileFactory = new DefaultTileFactory(new HttpsOsmTileFactoryInfo());
 
         // Initialize map viewer
         mapViewer = new JXMapViewer();
@@ -127,10 +131,9 @@ public class MapPanel extends JPanel {
         add(mapViewer, BorderLayout.CENTER);
     }
 
-    public void setRouteSegments(List<List<GeoPosition>> segments) {
-        this.routePainter = new RoutePainter(null);
+    public void setRouteSegments(List<RouteGeometry> segments) {
+        // Same painter: legs that did not change keep their simplification pyramid
         this.routePainter.setSegments(segments);
-        compoundPainter.setPainters(Arrays.asList(routePainter, waypointPainter));
         mapViewer.repaint();
     }
 
@@ -462,6 +465,26 @@ public class MapPanel extends JPanel {
         mapViewer.repaint();
     }
 
+    /** Calls the listener with the map position under the cursor on every double click. */
+    public void addMapDoubleClickListener(Consumer<GeoPosition> listener) {
+        mapViewer.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && SwingUtilities.isLeftMouseButton(e)) {
+                    listener.accept(mapViewer.convertPointToGeoPosition(e.getPoint()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads tiles through {@code cache} (for example a persistent disk store) before the
+     * network. Set it before the map is first shown.
+     */
+    public void setTileCache(LocalCache cache) {
+        tileFactory.setLocalCache(cache);
+    }
+
     /** Returns the underlying map viewer. */
     public JXMapViewer getMapViewer() { return mapViewer; }
 
@@ -0,0 +1,181 @@
+package view;
+
+import entity.RouteGeometry;
+import org.jxmapviewer.viewer.TileFactoryInfo;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * ProjectedPolyline
+ * World-pixel positions of a leg's drawn vertices at one zoom level, in a float array.
+ * <p>
+ * Responsibilities:
+ * - Project once per zoom with the same Mercator formula as the tile factory's geoToPixel,
+ *   without creating a GeoPosition or Point2D per vertex
+ * - Store positions as float offsets from the first vertex of their block (kept as doubles);
+ *   a block holds at most {@link #BLOCK} vertices within {@link #MAX_OFFSET} pixels of its
+ *   first one, so offsets stay exact to a few thousandths of a pixel even where world
+ *   coordinates run to hundreds of millions
+ * - Turn into a screen path with nothing but an add per coordinate, which is all a pan needs
+ * - Keep a bounding box per block and per {@link #GROUP} blocks (a two-level R-tree packed in
+ *   path order) so a frame only emits the blocks that cross the viewport
+ */
+final class ProjectedPolyline {
+
+    /** Most vertices sharing one double-precision origin. */
+    static final int BLOCK = 64;
+    /** Farthest a vertex may lie from its block origin, in pixels; floats step by 1/256 here. */
+    static final double MAX_OFFSET = 65536;
+    /** Blocks under one upper-level bounding box. */
+    static final int GROUP = 64;
+
+    /** First vertex of each block, plus the vertex count at the end. */
+    private final int[] blockStarts;
+    /** x, y of each block's first vertex, interleaved. */
+    private final double[] origins;
+    /** x, y offsets from the block origin, interleaved. */
+    private final float[] offsets;
+    /** minX, minY, maxX, maxY of each block, including the segment from the previous block's last vertex. */
+    private final double[] blockBounds;
+    /** minX, minY, maxX, maxY of each run of {@link #GROUP} blocks. */
+    private final double[] groupBounds;
+
+    private ProjectedPolyline(int[] blockStarts, double[] origins, float[] offsets, double[] blockBounds) {
+        this.blockStarts = blockStarts;
+        this.origins = origins;
+        this.offsets = offsets;
+        this.blockBounds = blockBounds;
+
+        int blocks = blockStarts.length - 1;
+        this.groupBounds = new double[4 * ((blocks + GROUP - 1) / GROUP)];
+        for (int group = 0; group < groupBounds.length / 4; group++) {
+            startBounds(groupBounds, group, blockBounds[4 * group * GROUP], blockBounds[4 * group * GROUP + 1]);
+            for (int block = group * GROUP; block < Math.min(blocks, (group + 1) * GROUP); block++) {
+                extendBounds(groupBounds, group, blockBounds[4 * block], blockBounds[4 * block + 1]);
+                extendBounds(groupBounds, group, blockBounds[4 * block + 2], blockBounds[4 * block + 3]);
+            }
+        }
+    }
+
+    /**
+     * @param kept indices of the vertices to project, in order, or null for every vertex
+     */
+    static ProjectedPolyline project(RouteGeometry geometry, int[] kept, TileFactoryInfo info, int zoom) {
+        int count = kept == null ? geometry.size() : kept.length;
+        Point2D center = info.getMapCenterInPixelsAtZoom(zoom);
+        double degreeWidth = info.getLongitudeDegreeWidthInPixels(zoom);
+        double radianWidth = info.getLongitudeRadianWidthInPixels(zoom);
+
+        int[] blockStarts = new int[count / BLOCK + 2];
+        double[] origins = new double[2 * blockStarts.length];
+        float[] offsets = new float[2 * count];
+        double[] bounds = new double[4 * blockStarts.length];
+        double previousX = 0;
+        double previousY = 0;
+        int block = -1;
+        for (int k = 0; k < count; k++) {
+            int i = kept == null ? k : kept[k];
+            double x = center.getX() + geometry.longitude(i) * degreeWidth;
+            double e = Math.max(-0.9999, Math.min(0.9999, Math.sin(Math.toRadians(geometry.latitude(i)))));
+            double y = center.getY() - 0.5 * Math.log((1 + e) / (1 - e)) * radianWidth;
+            if (block < 0 || k - blockStarts[block] == BLOCK
+                    || Math.abs(x - origins[2 * block]) > MAX_OFFSET || Math.abs(y - origins[2 * block + 1]) > MAX_OFFSET) {
+                block++;
+                if (block + 1 >= blockStarts.length) {
+                    blockStarts = Arrays.copyOf(blockStarts, blockStarts.length * 2);
+                    origins = Arrays.copyOf(origins, origins.length * 2);
+                    bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                }
+                blockStarts[block] = k;
+                origins[2 * block] = x;
+                origins[2 * block + 1] = y;
+                // The segment joining the previous block is drawn with this one
+                startBounds(bounds, block, x, y);
+                if (k > 0) extendBounds(bounds, block, previousX, previousY);
+            }
+            offsets[2 * k] = (float) (x - origins[2 * block]);
+            offsets[2 * k + 1] = (float) (y - origins[2 * block + 1]);
+            extendBounds(bounds, block, x, y);
+            previousX = x;
+            previousY = y;
+        }
+        int blocks = block + 1;
+        blockStarts = Arrays.copyOf(blockStarts, blocks + 1);
+        blockStarts[blocks] = count;
+        return new ProjectedPolyline(blockStarts, Arrays.copyOf(origins, 2 * blocks), offsets,
+                Arrays.copyOf(bounds, 4 * blocks));
+    }
+
+    int size() {
+        return offsets.length / 2;
+    }
+
+    /** Whole path in screen pixels for a viewport whose top-left corner is at world (left, top). */
+    Path2D.Float toPath(double left, double top) {
+        double infinity = Double.POSITIVE_INFINITY;
+        return toPath(left, top, -infinity, -infinity, infinity, infinity);
+    }
+
+    /**
+     * Path in screen pixels for a viewport in world pixels, holding only the blocks that come
+     * within {@code margin} pixels of it (the stroke's reach).
+     */
+    Path2D.Float toPath(Rectangle2D viewport, double margin) {
+        return toPath(viewport.getX(), viewport.getY(), viewport.getX() - margin, viewport.getY() - margin,
+                viewport.getMaxX() + margin, viewport.getMaxY() + margin);
+    }
+
+    private Path2D.Float toPath(double left, double top, double minX, double minY, double maxX, double maxY) {
+        Path2D.Float path = new Path2D.Float();
+        int blocks = blockStarts.length - 1;
+        boolean joined = false;
+        for (int group = 0; group < groupBounds.length / 4; group++) {
+            if (!intersects(groupBounds, group, minX, minY, maxX, maxY)) {
+                joined = false;
+                continue;
+            }
+            for (int block = group * GROUP; block < Math.min(blocks, (group + 1) * GROUP); block++) {
+                if (!intersects(blockBounds, block, minX, minY, maxX, maxY)) {
+                    joined = false;
+                    continue;
+                }
+                int k = blockStarts[block];
+                if (!joined) {
+                    // Start from the previous block's last vertex, or from the very first one
+                    if (k > 0) {
+                        path.moveTo(origins[2 * block - 2] - left + offsets[2 * k - 2],
+                                origins[2 * block - 1] - top + offsets[2 * k - 1]);
+                    } else {
+                        path.moveTo(origins[0] - left + offsets[0], origins[1] - top + offsets[1]);
+                        k++;
+                    }
+                }
+                double dx = origins[2 * block] - left;
+                double dy = origins[2 * block + 1] - top;
+                for (; k < blockStarts[block + 1]; k++) path.lineTo(dx + offsets[2 * k], dy + offsets[2 * k + 1]);
+                joined = true;
+            }
+        }
+        return path;
+    }
+
+    private static boolean intersects(double[] bounds, int box, double minX, double minY, double maxX, double maxY) {
+        return bounds[4 * box] <= maxX && bounds[4 * box + 2] >= minX
+                && bounds[4 * box + 1] <= maxY && bounds[4 * box + 3] >= minY;
+    }
+
+    private static void startBounds(double[] bounds, int box, double x, double y) {
+        bounds[4 * box] = bounds[4 * box + 2] = x;
+        bounds[4 * box + 1] = bounds[4 * box + 3] = y;
+    }
+
+    private static void extendBounds(double[] bounds, int box, double x, double y) {
+        bounds[4 * box] = Math.min(bounds[4 * box], x);
+        bounds[4 * box + 1] = Math.min(bounds[4 * box + 1], y);
+        bounds[4 * box + 2] = Math.max(bounds[4 * box + 2], x);
+        bounds[4 * box + 3] = Math.max(bounds[4 * box + 3], y);
+    }
+}
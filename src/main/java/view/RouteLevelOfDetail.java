@@ -0,0 +1,145 @@
+package view;
+
+import entity.RouteGeometry;
+
+import java.util.Arrays;
+
+/**
+ * RouteLevelOfDetail
+ * Douglas-Peucker simplification pyramid of one route leg, one level per map scale.
+ * <p>
+ * Responsibilities:
+ * - Rank every vertex once by the tolerance at which Douglas-Peucker would drop it,
+ *   measured in Web Mercator world units so it holds at every zoom
+ * - Keep, for each scale, the indices of the vertices that still matter at
+ *   {@link #TOLERANCE_PIXELS}; scales that keep most of the line store nothing and draw it whole
+ * <p>
+ * Level k is the scale where the whole world is 256 * 2^k pixels wide, which is how the tile
+ * zoom levels grow, so a zoomed-out frame draws a few hundred vertices however long the leg is.
+ */
+final class RouteLevelOfDetail {
+
+    /** Largest distance from the drawn line to a dropped vertex, in screen pixels. */
+    static final double TOLERANCE_PIXELS = 0.5;
+    /** Finest level; 256 * 2^24 pixels is beyond any tile zoom. */
+    static final int MAX_LEVEL = 24;
+
+    private static final double BASE_WORLD_PIXELS = 256;
+
+    private final int vertexCount;
+    /** Kept vertex indices per level, or null where the whole leg is drawn. */
+    private final int[][] levels = new int[MAX_LEVEL + 1][];
+
+    RouteLevelOfDetail(RouteGeometry geometry) {
+        this.vertexCount = geometry.size();
+        float[] significance = significance(geometry);
+
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            double tolerance = TOLERANCE_PIXELS / (BASE_WORLD_PIXELS * Math.pow(2, level));
+            int kept = 0;
+            for (float s : significance) if (s >= tolerance) kept++;
+            // Finer levels keep at least as much; drawing every vertex costs at most twice as much
+            if (2 * kept > vertexCount) break;
+
+            int[] indices = new int[kept];
+            int k = 0;
+            for (int i = 0; i < vertexCount; i++) if (significance[i] >= tolerance) indices[k++] = i;
+            levels[level] = indices;
+        }
+    }
+
+    /** Level whose tolerance holds on a map whose world is this many pixels wide. */
+    static int levelFor(double worldPixels) {
+        int level = (int) Math.ceil(Math.log(worldPixels / BASE_WORLD_PIXELS) / Math.log(2) - 1e-9);
+        return Math.max(0, Math.min(MAX_LEVEL, level));
+    }
+
+    /** Indices of the vertices to draw at a level, in order, or null to draw every vertex. */
+    int[] indicesAt(int level) {
+        return levels[level];
+    }
+
+    int vertexCountAt(int level) {
+        return levels[level] == null ? vertexCount : levels[level].length;
+    }
+
+    /**
+     * Per vertex, the largest tolerance (world widths) at which Douglas-Peucker keeps it: its
+     * distance from the chord it splits, capped by the chord's own split so levels nest.
+     * The end points are always kept.
+     */
+    static float[] significance(RouteGeometry geometry) {
+        int n = geometry.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = mercatorX(geometry.longitude(i));
+            y[i] = mercatorY(geometry.latitude(i));
+        }
+
+        float[] significance = new float[n];
+        if (n == 0) return significance;
+        significance[0] = Float.POSITIVE_INFINITY;
+        significance[n - 1] = Float.POSITIVE_INFINITY;
+
+        // Explicit stack of (first, last, cap): long legs would overflow a recursive one
+        int[] ranges = new int[64];
+        float[] caps = new float[32];
+        ranges[0] = 0;
+        ranges[1] = n - 1;
+        caps[0] = Float.POSITIVE_INFINITY;
+        int depth = 1;
+        while (depth > 0) {
+            depth--;
+            int first = ranges[2 * depth];
+            int last = ranges[2 * depth + 1];
+            float cap = caps[depth];
+            if (last - first < 2) continue;
+
+            int split = -1;
+            double farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = distanceToChord(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (d > farthest) {
+                    farthest = d;
+                    split = i;
+                }
+            }
+            float s = Math.min(cap, (float) farthest);
+            significance[split] = s;
+
+            if (2 * (depth + 2) > ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+                caps = Arrays.copyOf(caps, caps.length * 2);
+            }
+            ranges[2 * depth] = first;
+            ranges[2 * depth + 1] = split;
+            caps[depth++] = s;
+            ranges[2 * depth] = split;
+            ranges[2 * depth + 1] = last;
+            caps[depth++] = s;
+        }
+        return significance;
+    }
+
+    /** Distance from (px, py) to the segment a-b. */
+    private static double distanceToChord(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+
+    /** Web Mercator x as a fraction of the world width. */
+    static double mercatorX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    /** Web Mercator y as a fraction of the world height (0 at the top). */
+    static double mercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+}
@@ -1,40 +1,104 @@
 package view;
 
+import entity.RouteGeometry;
 import org.jxmapviewer.JXMapViewer;
 import org.jxmapviewer.painter.Painter;
 import org.jxmapviewer.viewer.GeoPosition;
+import org.jxmapviewer.viewer.TileFactoryInfo;
 
 import java.awt.*;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-
+import java.util.Map;
+
+/**
+ * RoutePainter
+ * Draws the route legs over the map, fading from the first leg to the last.
+ * <p>
+ * Each leg gets a {@link RouteLevelOfDetail} when the route is set, and a frame draws only
+ * the vertices that matter at the current zoom. Legs kept from the previous route keep
+ * their pyramid.
+ * <p>
+ * Those vertices are projected to world pixels once per zoom ({@link ProjectedPolyline});
+ * a pan repaint only shifts them by the viewport corner. The projection is dropped when
+ * the zoom, the tile factory or the route changes.
+ * <p>
+ * Only the 64-vertex blocks whose bounding boxes come within a stroke width of the viewport
+ * are emitted, so a zoomed-in frame of a long route costs what its visible part costs.
+ * <p>
+ * The legs are rasterized into an off-screen image covering the viewport and a quarter viewport
+ * around it, and a frame just copies that image at the pan offset. It is drawn again when the
+ * projection changes, the viewport is resized, or a pan leaves the covered area. The image is
+ * reused while it is large enough and never holds more than {@link #MAX_RASTER_PIXELS}: the
+ * margin shrinks to fit, and a viewport too large for even that is drawn directly each frame.
+ */
 public class RoutePainter implements Painter<JXMapViewer> {
 
+    private static final float STROKE_WIDTH = 4f;
+    /** 48 MB of ARGB: a full-screen 4K viewport plus some margin. */
+    static final long MAX_RASTER_PIXELS = 12_000_000L;
+
     private List<GeoPosition> route = new ArrayList<>();
-    private List<List<GeoPosition>> segments = null;
+    private List<RouteGeometry> segments = null;
+    private RouteLevelOfDetail[] details = new RouteLevelOfDetail[0];
+
+    /** Drawn vertices of each leg in world pixels at {@code projectedZoom}; null until painted. */
+    private ProjectedPolyline[] projected;
+    private int projectedZoom;
+    private TileFactoryInfo projectedInfo;
+
+    /** Legs rendered into {@code raster}, which covers {@code rasterBounds} in world pixels. */
+    private ProjectedPolyline[] rasterLegs;
+    private BufferedImage raster;
+    private Rectangle rasterBounds;
+    /** Part of {@code raster} in use; the image may be larger after the viewport shrank. */
+    private int rasterWidth;
+    private int rasterHeight;
+    private Dimension rasterViewportSize;
+    private double rasterScale;
+    private int rasterizations;
+    private final long maxRasterPixels;
 
     public RoutePainter(List<GeoPosition> route) {
+        this(route, MAX_RASTER_PIXELS);
+    }
+
+    RoutePainter(List<GeoPosition> route, long maxRasterPixels) {
         if (route != null) this.route = route;
+        this.maxRasterPixels = maxRasterPixels;
     }
 
     public void setRoute(List<GeoPosition> route) {
         this.route = (route == null) ? new ArrayList<>() : route;
         this.segments = null;
+        this.raster = null;
+        this.rasterLegs = null;
     }
 
-    public void setSegments(List<List<GeoPosition>> segments) {
+    /** Packed leg geometries; GeoPositions are only created while painting. */
+    public void setSegments(List<RouteGeometry> segments) {
+        Map<RouteGeometry, RouteLevelOfDetail> previous = new IdentityHashMap<>();
+        if (this.segments != null) {
+            for (int i = 0; i < this.segments.size(); i++) previous.put(this.segments.get(i), details[i]);
+        }
+
         this.segments = segments;
         this.route = new ArrayList<>();
-        if (segments != null) {
-            for (List<GeoPosition> seg : segments) {
-                if (seg == null) continue;
-                if (!this.route.isEmpty() && !seg.isEmpty()) {
-                    this.route.remove(this.route.size() - 1);
-                }
-                this.route.addAll(seg);
-            }
+        this.details = new RouteLevelOfDetail[segments == null ? 0 : segments.size()];
+        for (int i = 0; i < details.length; i++) {
+            RouteGeometry seg = segments.get(i);
+            if (seg == null) continue;
+            RouteLevelOfDetail kept = previous.get(seg);
+            details[i] = kept != null ? kept : new RouteLevelOfDetail(seg);
+        }
+        this.projected = null;
+        if (details.length == 0) {
+            this.raster = null;
+            this.rasterLegs = null;
         }
     }
 
@@ -43,36 +107,27 @@ public class RoutePainter implements Painter<JXMapViewer> {
         if ((segments == null || segments.isEmpty()) && (route == null || route.size() < 2)) return;
 
         g = (Graphics2D) g.create();
-        g.setStroke(new BasicStroke(4f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g.setStroke(new BasicStroke(STROKE_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
         Rectangle viewport = map.getViewportBounds();
 
         if (segments != null && !segments.isEmpty()) {
-            int sCount = segments.size();
-            int alphaStart = 255;
-            int alphaEnd = Math.max(1, (int) Math.round(255 * 0.40)); // opacity lower bound
-
-            for (int si = 0; si < sCount; si++) {
-                List<GeoPosition> seg = segments.get(si);
-                if (seg == null || seg.size() < 2) continue;
-
-                float t = (sCount == 1) ? 0f : ((float) si) / (float) (sCount - 1);
-                int alpha = (int) Math.round(alphaStart + t * (alphaEnd - alphaStart));
-                alpha = Math.max(0, Math.min(255, alpha));
-
-                g.setColor(new Color(0, 120, 255, alpha));
-
-                GeneralPath path = new GeneralPath();
-                boolean first = true;
-                for (GeoPosition gp : seg) {
-                    Point2D pt = map.getTileFactory().geoToPixel(gp, map.getZoom());
-                    double x = pt.getX() - viewport.getX();
-                    double y = pt.getY() - viewport.getY();
-                    if (first) { path.moveTo(x, y); first = false; }
-                    else path.lineTo(x, y);
+            ProjectedPolyline[] legs = projectedFor(map);
+            double scale = g.getTransform().getScaleX();
+            if (pixels(viewport.width, viewport.height, scale) > maxRasterPixels) {
+                raster = null;
+                rasterLegs = null;
+                drawLegs(g, legs, viewport);
+            } else {
+                if (legs != rasterLegs || scale != rasterScale || !viewport.getSize().equals(rasterViewportSize)
+                        || !rasterBounds.contains(viewport)) {
+                    rasterize(g.getDeviceConfiguration(), legs, viewport, scale);
                 }
-                g.draw(path);
+                int x = rasterBounds.x - viewport.x;
+                int y = rasterBounds.y - viewport.y;
+                g.drawImage(raster, x, y, x + rasterBounds.width, y + rasterBounds.height,
+                        0, 0, rasterWidth, rasterHeight, null);
             }
         } else {
             g.setColor(new Color(0, 120, 255, 180));
@@ -96,4 +151,101 @@ public class RoutePainter implements Painter<JXMapViewer> {
 
         g.dispose();
     }
+
+    /** Times the legs were drawn into the off-screen image. */
+    int getRasterizationCount() {
+        return rasterizations;
+    }
+
+    /** Pixels held by the off-screen image, 0 if there is none. */
+    long getRasterPixelCount() {
+        return raster == null ? 0 : (long) raster.getWidth() * raster.getHeight();
+    }
+
+    /**
+     * Draws the legs into the off-screen image, centred on the viewport with up to a quarter
+     * viewport to spare around it. The image is reused if it is large enough.
+     */
+    private void rasterize(GraphicsConfiguration device, ProjectedPolyline[] legs, Rectangle viewport, double scale) {
+        Rectangle bounds = new Rectangle(viewport);
+        int marginX = viewport.width / 4;
+        int marginY = viewport.height / 4;
+        while (pixels(viewport.width + 2 * marginX, viewport.height + 2 * marginY, scale) > maxRasterPixels) {
+            marginX /= 2;
+            marginY /= 2;
+        }
+        bounds.grow(marginX, marginY);
+        int width = Math.max(1, (int) Math.ceil(bounds.width * scale));
+        int height = Math.max(1, (int) Math.ceil(bounds.height * scale));
+
+        Graphics2D g;
+        if (raster != null && raster.getWidth() >= width && raster.getHeight() >= height) {
+            g = raster.createGraphics();
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, width, height);
+            g.setComposite(AlphaComposite.SrcOver);
+        } else {
+            raster = null;   // let the old image go before allocating the new one
+            raster = device.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+            g = raster.createGraphics();
+        }
+        g.clipRect(0, 0, width, height);
+        g.scale(scale, scale);
+        g.setStroke(new BasicStroke(STROKE_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        drawLegs(g, legs, bounds);
+        g.dispose();
+
+        rasterLegs = legs;
+        rasterBounds = bounds;
+        rasterWidth = width;
+        rasterHeight = height;
+        rasterViewportSize = viewport.getSize();
+        rasterScale = scale;
+        rasterizations++;
+    }
+
+    private static long pixels(int width, int height, double scale) {
+        return (long) Math.ceil(width * scale) * (long) Math.ceil(height * scale);
+    }
+
+    /** Draws each leg relative to the corner of {@code bounds}, fading from the first leg to the last. */
+    private void drawLegs(Graphics2D g, ProjectedPolyline[] legs, Rectangle bounds) {
+        int sCount = segments.size();
+        int alphaStart = 255;
+        int alphaEnd = Math.max(1, (int) Math.round(255 * 0.40)); // opacity lower bound
+
+        for (int si = 0; si < sCount; si++) {
+            RouteGeometry seg = segments.get(si);
+            if (seg == null || seg.size() < 2) continue;
+
+            float t = (sCount == 1) ? 0f : ((float) si) / (float) (sCount - 1);
+            int alpha = (int) Math.round(alphaStart + t * (alphaEnd - alphaStart));
+            alpha = Math.max(0, Math.min(255, alpha));
+
+            g.setColor(new Color(0, 120, 255, alpha));
+
+            g.draw(legs[si].toPath(bounds, STROKE_WIDTH));
+        }
+    }
+
+    /** The drawn vertices of every leg in world pixels at the map's zoom, projected when the zoom changes. */
+    private ProjectedPolyline[] projectedFor(JXMapViewer map) {
+        int zoom = map.getZoom();
+        TileFactoryInfo info = map.getTileFactory().getInfo();
+        if (projected != null && zoom == projectedZoom && info == projectedInfo) return projected;
+
+        int level = RouteLevelOfDetail.levelFor(
+                map.getTileFactory().getMapSize(zoom).getWidth() * map.getTileFactory().getTileSize(zoom));
+        ProjectedPolyline[] legs = new ProjectedPolyline[segments.size()];
+        for (int si = 0; si < legs.length; si++) {
+            RouteGeometry seg = segments.get(si);
+            if (seg == null || seg.size() < 2) continue;
+            legs[si] = ProjectedPolyline.project(seg, details[si].indicesAt(level), info, zoom);
+        }
+        projected = legs;
+        projectedZoom = zoom;
+        projectedInfo = info;
+        return legs;
+    }
 }
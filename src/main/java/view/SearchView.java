@@ -1,6 +1,8 @@
 package view;
 
 import interface_adapter.save_stops.SaveStopsController;
+import interface_adapter.batch_geocode.BatchGeocodeController;
+import interface_adapter.reverse_geocode.ReverseGeocodeController;
 import interface_adapter.search.SearchController;
 import interface_adapter.remove_marker.RemoveMarkerController;
 import interface_adapter.search.SearchState;
@@ -13,12 +15,18 @@ import java.awt.*;
 import java.awt.event.*;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Logger;
 import interface_adapter.generate_route.GenerateRouteController;
+import interface_adapter.optimize_order.OptimizeOrderController;
 import interface_adapter.generate_route.GenerateRouteViewModel;
 import interface_adapter.generate_route.GenerateRouteState;
 
+import org.jxmapviewer.cache.LocalCache;
 import org.jxmapviewer.viewer.GeoPosition;
 
 /**
@@ -46,16 +54,22 @@ public class SearchView extends JPanel implements ActionListener, PropertyChange
     private final JButton moveUpButton = new JButton("Up");
     private final JButton moveDownButton = new JButton("Down");
     private final JButton removeButton = new JButton("Remove");
+    private final JButton importButton = new JButton("Import");
+    private final JButton optimizeButton = new JButton("Optimize");
     private final DefaultListModel<String> suggestionListModel = new DefaultListModel<>();
     private final JList<String> suggestionList = new JList<>(suggestionListModel);
     private final Timer suggestionDebounceTimer;
 
     // Controller
     private transient SearchController searchController = null;
+    private transient Executor backgroundExecutor = null;
     private transient SaveStopsController saveStopsController = null;
     private transient RemoveMarkerController removeMarkerController = null;
     private transient GenerateRouteController generateRouteController = null;
     private transient SuggestionController suggestionController = null;
+    private transient ReverseGeocodeController reverseGeocodeController = null;
+    private transient BatchGeocodeController batchGeocodeController = null;
+    private transient OptimizeOrderController optimizeOrderController = null;
 
     // Map panel
     private final MapPanel mapPanel = new MapPanel();
@@ -99,6 +113,9 @@ public class SearchView extends JPanel implements ActionListener, PropertyChange
         attachRemoveButtonListener();
         attachRouteButtonListener();
         attachSuggestionListListeners();
+        attachMapDoubleClickListener();
+        attachImportButtonListener();
+        attachOptimizeButtonListener();
     }
 
     /* --------------------------------------------------------------------- */
@@ -174,12 +191,14 @@ public class SearchView extends JPanel implements ActionListener, PropertyChange
      * Buttons for stop reordering/removal.
      */
     private JPanel buildStopsControlSection() {
-        JPanel controls = new JPanel(new GridLayout(1, 3, 5, 5));
+        JPanel controls = new JPanel(new GridLayout(1, 5, 5, 5));
         controls.setOpaque(false);
 
         controls.add(moveUpButton);     // Placeholder for clean architecture hooks
         controls.add(moveDownButton);
         controls.add(removeButton);
+        controls.add(importButton);
+        controls.add(optimizeButton);
 
         return controls;
     }
@@ -202,8 +221,9 @@ public class SearchView extends JPanel implements ActionListener, PropertyChange
         routeButton.addActionListener(evt -> {
             if (generateRouteController == null) return;
 
-            List<GeoPosition> stops = searchViewModel.getState().getStops();
-            generateRouteController.generate("walking", stops);
+            // Legs are fetched off the EDT; the route comes back through propertyChange
+            List<GeoPosition> stops = new ArrayList<>(searchViewModel.getState().getStops());
+            runInBackground(() -> generateRouteController.generate("walking", stops), routeButton);
         });
     }
 
@@ -312,6 +332,61 @@ public class SearchView extends JPanel implements ActionListener, PropertyChange
         searchButton.doClick();
     }
 
+    /** Double-clicking the map adds a stop there, named by the reverse geocode use case. */
+    private void attachMapDoubleClickListener() {
+        mapPanel.addMapDoubleClickListener(position -> {
+            if (reverseGeocodeController == null || position == null) return;
+            // May wait for the network; results come back through propertyChange
+            runInBackground(() -> reverseGeocodeController.execute(
+                    position.getLatitude(), position.getLongitude()), null);
+        });
+    }
+
+    /** Imports a CSV or plain list of addresses as stops; runs off the EDT (it is rate limited). */
+    private void attachImportButtonListener() {
+        importButton.addActionListener(evt -> {
+            if (batchGeocodeController == null) return;
+
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("Import addresses (CSV or one per line)");
+            if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+            String path = chooser.getSelectedFile().getPath();
+            // The button stays disabled until the whole batch is done
+            runInBackground(() -> batchGeocodeController.execute(path), importButton);
+        });
+    }
+
+    /** Reorders the stops for the shortest trip, starting from the first stop; runs off the EDT. */
+    private void attachOptimizeButtonListener() {
+        optimizeButton.addActionListener(evt -> {
+            if (optimizeOrderController == null) return;
+
+            SearchState current = searchViewModel.getState();
+            List<String> names = current.getStopNames();
+            List<GeoPosition> stops = current.getStops();
+            runInBackground(() -> optimizeOrderController.optimize("walking", names, stops, true, false),
+                    optimizeButton);
+        });
+    }
+
+    /**
+     * Runs blocking use case work on the background executor, with {@code button} (if any)
+     * disabled until it finishes. Work the executor has no room for is dropped and logged.
+     */
+    private void runInBackground(Runnable task, JButton button) {
+        if (backgroundExecutor == null) return;
+        if (button != null) button.setEnabled(false);
+        try {
+            CompletableFuture.runAsync(task, backgroundExecutor).whenComplete((ignored, error) -> {
+                if (button != null) SwingUtilities.invokeLater(() -> button.setEnabled(true));
+            });
+        } catch (RejectedExecutionException e) {
+            Logger.getLogger(getClass().getName()).warning("Background work is busy; request dropped");
+            if (button != null) button.setEnabled(true);
+        }
+    }
+
      private void attachRemoveButtonListener() {
         removeButton.addActionListener(evt -> {
             if (removeMarkerController == null) return;
@@ -337,6 +412,12 @@ public class SearchView extends JPanel implements ActionListener, PropertyChange
 
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
+        // Async use cases (e.g. suggestions) publish from background threads
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> propertyChange(evt));
+            return;
+        }
+
         String property = evt.getPropertyName();
         Object newValue = evt.getNewValue();
 
@@ -462,6 +543,16 @@ public class SearchView extends JPanel implements ActionListener, PropertyChange
         return viewName;
     }
 
+    /** Map tiles are read through this cache (see {@link MapPanel#setTileCache}). */
+    public void setTileCache(LocalCache tileCache) {
+        mapPanel.setTileCache(tileCache);
+    }
+
+    /** Runs the blocking use cases (routing, import, reverse geocoding, optimizing) off the EDT. */
+    public void setBackgroundExecutor(Executor backgroundExecutor) {
+        this.backgroundExecutor = backgroundExecutor;
+    }
+
     public void setGenerateRouteController(GenerateRouteController generateRouteController) {
         this.generateRouteController = generateRouteController;
     }
@@ -478,6 +569,18 @@ public class SearchView extends JPanel implements ActionListener, PropertyChange
         this.suggestionController = suggestionController;
     }
 
+    public void setReverseGeocodeController(ReverseGeocodeController reverseGeocodeController) {
+        this.reverseGeocodeController = reverseGeocodeController;
+    }
+
+    public void setBatchGeocodeController(BatchGeocodeController batchGeocodeController) {
+        this.batchGeocodeController = batchGeocodeController;
+    }
+
+    public void setOptimizeOrderController(OptimizeOrderController optimizeOrderController) {
+        this.optimizeOrderController = optimizeOrderController;
+    }
+
     public void setRemoveMarkerController(RemoveMarkerController removeMarkerController) {
         this.removeMarkerController = removeMarkerController;
     }
@@ -0,0 +1,180 @@
+package data_access;
+
+import entity.RouteGeometry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.generate_route.GenerateRouteRoutingDataAccessInterface;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingRoutingDataAccessObjectTest {
+
+    /** Routes every leg as a three-point line and records each request's waypoint count. */
+    static class CountingRouter implements GenerateRouteRoutingDataAccessInterface {
+        final List<Integer> multiRequests = new ArrayList<>();
+        int legRequests = 0;
+
+        @Override
+        public RouteGeometry getRoute(GeoPosition start, GeoPosition end, String profile) {
+            legRequests++;
+            return leg(start, end);
+        }
+
+        @Override
+        public List<RouteGeometry> getRoutes(List<GeoPosition> stops, String profile) {
+            multiRequests.add(stops.size());
+            List<RouteGeometry> legs = new ArrayList<>();
+            for (int i = 0; i < stops.size() - 1; i++) legs.add(leg(stops.get(i), stops.get(i + 1)));
+            return legs;
+        }
+
+        private static RouteGeometry leg(GeoPosition a, GeoPosition b) {
+            return RouteGeometry.of(List.of(a, new GeoPosition((a.getLatitude() + b.getLatitude()) / 2,
+                    (a.getLongitude() + b.getLongitude()) / 2), b));
+        }
+    }
+
+    private final List<File> tempDirectories = new ArrayList<>();
+
+    private File tempDirectory() throws IOException {
+        File dir = Files.createTempDirectory("route-cache").toFile();
+        tempDirectories.add(dir);
+        return dir;
+    }
+
+    @AfterEach
+    void deleteTempDirectories() {
+        for (File dir : tempDirectories) {
+            File[] files = dir.listFiles();
+            if (files != null) for (File file : files) file.delete();
+            dir.delete();
+        }
+    }
+
+    private static List<GeoPosition> trip(int stops) {
+        List<GeoPosition> trip = new ArrayList<>();
+        for (int i = 0; i < stops; i++) trip.add(new GeoPosition(43.6 + i * 0.01, -79.4 + i * 0.01));
+        return trip;
+    }
+
+    @Test
+    void appendingAStopRequestsOnlyTheNewLeg() throws Exception {
+        CountingRouter remote = new CountingRouter();
+        CachingRoutingDataAccessObject cache = new CachingRoutingDataAccessObject(remote, null);
+
+        cache.getRoutes(trip(30), "walking");
+        List<RouteGeometry> legs = cache.getRoutes(trip(31), "walking");
+
+        assertEquals(List.of(30, 2), remote.multiRequests);
+        assertEquals(30, legs.size());
+        assertEquals(29, cache.getHitCount());
+        assertEquals(30, cache.getMissCount());
+        assertEquals(29.0 / 59, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void endpointsWithinAMetreShareAnEntryButProfilesDoNot() throws Exception {
+        CountingRouter remote = new CountingRouter();
+        CachingRoutingDataAccessObject cache = new CachingRoutingDataAccessObject(remote, null);
+        GeoPosition a = new GeoPosition(43.65, -79.38);
+        GeoPosition b = new GeoPosition(43.66, -79.39);
+
+        cache.getRoute(a, b, "walking");
+        cache.getRoute(new GeoPosition(43.650002, -79.380003), b, "walking");
+        cache.getRoute(a, b, "driving");
+        cache.getRoute(new GeoPosition(43.6501, -79.38), b, "walking");   // ~11 m away
+
+        assertEquals(3, remote.legRequests);
+        assertEquals(1, cache.getMemoryHitCount());
+    }
+
+    @Test
+    void memoryTierStaysWithinItsByteBudget() throws Exception {
+        CountingRouter remote = new CountingRouter();
+        // Room for about three cached three-point legs
+        CachingRoutingDataAccessObject cache = new CachingRoutingDataAccessObject(
+                remote, null, 800, Duration.ofDays(1));
+
+        cache.getRoutes(trip(11), "walking");
+
+        assertTrue(cache.getMemoryBytes() <= 800);
+        cache.getRoutes(trip(11).subList(8, 11), "walking");   // most recent legs are still there
+        assertEquals(1, remote.multiRequests.size());
+    }
+
+    @Test
+    void legsSurviveRestartThroughDiskTier() throws Exception {
+        File dir = tempDirectory();
+        CountingRouter remote = new CountingRouter();
+
+        new CachingRoutingDataAccessObject(remote, dir).getRoutes(trip(4), "cycling");
+
+        CachingRoutingDataAccessObject restarted = new CachingRoutingDataAccessObject(remote, dir);
+        List<RouteGeometry> legs = restarted.getRoutes(trip(4), "cycling");
+
+        assertEquals(1, remote.multiRequests.size());
+        assertEquals(3, restarted.getDiskHitCount());
+        assertEquals(RouteGeometry.of(List.of(trip(4).get(1))).get(0), legs.get(0).get(2));
+    }
+
+    @Test
+    void expiredLegIsDeletedWhenRead() throws Exception {
+        File dir = tempDirectory();
+        new CachingRoutingDataAccessObject(new CountingRouter(), dir, 1 << 20, Duration.ZERO)
+                .getRoutes(trip(3), "walking");
+        assertEquals(2, dir.listFiles().length);
+
+        // A source with no route, so nothing is written back in place of the expired leg
+        GenerateRouteRoutingDataAccessInterface noRoute = (start, end, profile) -> RouteGeometry.empty();
+        CachingRoutingDataAccessObject restarted = new CachingRoutingDataAccessObject(noRoute, dir);
+        restarted.getRoute(trip(3).get(0), trip(3).get(1), "walking");
+
+        assertEquals(0, restarted.getDiskHitCount());
+        assertEquals(1, dir.listFiles().length);
+    }
+
+    @Test
+    void diskTierStaysWithinItsByteBudget() throws Exception {
+        File dir = tempDirectory();
+        CountingRouter remote = new CountingRouter();
+        // Each three-point leg file is a little over 60 bytes
+        CachingRoutingDataAccessObject cache = new CachingRoutingDataAccessObject(
+                remote, dir, 1 << 20, Duration.ofDays(1), 200);
+
+        cache.getRoutes(trip(11), "walking");
+
+        assertTrue(cache.getDiskBytes() <= 200);
+        long onDisk = 0;
+        for (File file : dir.listFiles()) onDisk += file.length();
+        assertEquals(cache.getDiskBytes(), onDisk);
+
+        // Only the most recent legs survive a restart
+        CachingRoutingDataAccessObject restarted = new CachingRoutingDataAccessObject(remote, dir);
+        restarted.getRoutes(trip(11).subList(9, 11), "walking");
+        assertEquals(1, restarted.getDiskHitCount());
+        restarted.getRoutes(trip(11).subList(0, 2), "walking");
+        assertEquals(1, restarted.getMissCount());
+    }
+
+    @Test
+    void filesOfTheOlderFormatAreDeletedOnOpen() throws Exception {
+        File dir = tempDirectory();
+        File legacy = new File(dir, "0000abcd-0000dcba.leg");
+        Files.write(legacy.toPath(), new byte[]{1, 2, 3});
+        File leftover = new File(dir, "route123.tmp");
+        Files.write(leftover.toPath(), new byte[]{4});
+
+        new CachingRoutingDataAccessObject(new CountingRouter(), dir);
+
+        assertFalse(legacy.exists());
+        assertFalse(leftover.exists());
+    }
+}
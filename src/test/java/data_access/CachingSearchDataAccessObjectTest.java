@@ -0,0 +1,187 @@
+package data_access;
+
+import entity.Location;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import use_case.search.SearchDataAccessInterface;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingSearchDataAccessObjectTest {
+
+    /** Counts how many lookups actually reach the "remote" side. */
+    static class CountingDAO implements SearchDataAccessInterface {
+        int calls = 0;
+        boolean down;
+
+        @Override
+        public boolean existsByName(String name) {
+            calls++;
+            return !name.isBlank();
+        }
+
+        @Override
+        public Location get(String name) {
+            calls++;
+            return new Location("Toronto, Ontario, Canada", 43.65, -79.38);
+        }
+
+        @Override
+        public Optional<Location> find(String name) {
+            calls++;
+            return Optional.of(new Location("Toronto, Ontario, Canada", 43.65, -79.38));
+        }
+
+        @Override
+        public List<Location> searchSuggestions(String query, int limit) throws IOException {
+            calls++;
+            if (down) throw new IOException("Nominatim down");
+            if (query.contains("nowhere")) return List.of();
+            return List.of(new Location("Toronto, Ontario, Canada", 43.65, -79.38));
+        }
+    }
+
+    private final List<File> tempDirectories = new ArrayList<>();
+
+    private File tempDirectory() throws IOException {
+        File dir = Files.createTempDirectory("geocode-cache").toFile();
+        tempDirectories.add(dir);
+        return dir;
+    }
+
+    @AfterEach
+    void deleteTempDirectories() {
+        for (File dir : tempDirectories) {
+            File[] files = dir.listFiles();
+            if (files != null) for (File file : files) file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    void repeatLookupIsServedFromMemory() throws Exception {
+        CountingDAO remote = new CountingDAO();
+        CachingSearchDataAccessObject cache = new CachingSearchDataAccessObject(remote, null);
+
+        Location first = cache.get("Toronto");
+        Location second = cache.get("  TORONTO ");
+
+        assertEquals(1, remote.calls);
+        assertEquals(first.getName(), second.getName());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getMemoryHitCount());
+    }
+
+    @Test
+    void entriesSurviveRestartThroughDiskTier() throws Exception {
+        File dir = tempDirectory();
+        CountingDAO remote = new CountingDAO();
+
+        new CachingSearchDataAccessObject(remote, dir).get("Toronto");
+
+        CachingSearchDataAccessObject restarted = new CachingSearchDataAccessObject(remote, dir);
+        Location loc = restarted.get("toronto");
+
+        assertEquals(1, remote.calls);
+        assertEquals(1, restarted.getDiskHitCount());
+        assertEquals(43.65, loc.getLatitude());
+        assertEquals("Toronto, Ontario, Canada", loc.getName());
+    }
+
+    @Test
+    void findSharesEntryWithGet() throws Exception {
+        CountingDAO remote = new CountingDAO();
+        CachingSearchDataAccessObject cache = new CachingSearchDataAccessObject(remote, null);
+
+        cache.get("Toronto");
+        Optional<Location> found = cache.find("toronto");
+
+        assertTrue(found.isPresent());
+        assertEquals(1, remote.calls);
+    }
+
+    @Test
+    void emptyResultsAreCachedAsMisses() throws Exception {
+        CountingDAO remote = new CountingDAO();
+        CachingSearchDataAccessObject cache = new CachingSearchDataAccessObject(
+                remote, null, 16, Duration.ofDays(1), Duration.ofHours(1));
+
+        assertFalse(cache.existsByName("nowhere land"));
+        assertThrows(IOException.class, () -> cache.get("Nowhere Land"));
+        assertEquals(1, remote.calls);
+    }
+
+    @Test
+    void expiredEntriesGoBackToRemote() throws Exception {
+        CountingDAO remote = new CountingDAO();
+        CachingSearchDataAccessObject cache = new CachingSearchDataAccessObject(
+                remote, null, 16, Duration.ZERO, Duration.ZERO);
+
+        cache.get("Toronto");
+        cache.get("Toronto");
+
+        assertEquals(2, remote.calls);
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void expiredFileIsDeletedWhenRead() throws Exception {
+        File dir = tempDirectory();
+        CountingDAO remote = new CountingDAO();
+        new CachingSearchDataAccessObject(remote, dir, 16, Duration.ZERO, Duration.ZERO).get("Toronto");
+        assertEquals(1, dir.listFiles().length);
+
+        // The remote is down, so nothing is written back in place of the expired entry
+        remote.down = true;
+        CachingSearchDataAccessObject restarted = new CachingSearchDataAccessObject(remote, dir);
+        assertThrows(IOException.class, () -> restarted.get("Toronto"));
+
+        assertEquals(0, restarted.getDiskHitCount());
+        assertEquals(0, dir.listFiles().length);
+        assertEquals(0, restarted.getDiskBytes());
+    }
+
+    @Test
+    void diskTierStaysWithinItsByteBudget() throws Exception {
+        File dir = tempDirectory();
+        CountingDAO remote = new CountingDAO();
+        // Each entry file is a little under 60 bytes
+        CachingSearchDataAccessObject cache = new CachingSearchDataAccessObject(
+                remote, dir, 16, Duration.ofDays(1), Duration.ofHours(1), 200);
+
+        for (String prefix : List.of("t", "to", "tor", "toro", "toron", "toront", "toronto")) {
+            cache.searchSuggestions(prefix, 5);
+        }
+
+        assertTrue(cache.getDiskBytes() <= 200);
+        long onDisk = 0;
+        for (File file : dir.listFiles()) onDisk += file.length();
+        assertEquals(cache.getDiskBytes(), onDisk);
+
+        // Only the most recent prefixes survive a restart
+        CachingSearchDataAccessObject restarted = new CachingSearchDataAccessObject(remote, dir);
+        restarted.searchSuggestions("toronto", 5);
+        assertEquals(1, restarted.getDiskHitCount());
+        restarted.searchSuggestions("t", 5);
+        assertEquals(1, restarted.getMissCount());
+    }
+
+    @Test
+    void leftoverTempFilesAreDeletedOnOpen() throws Exception {
+        File dir = tempDirectory();
+        File leftover = new File(dir, "geocode123.tmp");
+        Files.write(leftover.toPath(), new byte[]{1});
+
+        new CachingSearchDataAccessObject(new CountingDAO(), dir);
+
+        assertFalse(leftover.exists());
+    }
+}
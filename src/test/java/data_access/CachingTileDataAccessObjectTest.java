@@ -0,0 +1,108 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingTileDataAccessObjectTest {
+
+    /** Serves a 100-byte image per tile, tagged "v1", and records each request's validator. */
+    static class CountingTileServer implements TileSource {
+        final List<String> requests = new ArrayList<>();
+        boolean unchanged = false;
+
+        @Override
+        public Download fetch(URL url, String etag, String lastModified) {
+            requests.add(url.getPath() + " " + etag);
+            if (unchanged && "v1".equals(etag)) return Download.notModified();
+            byte[] image = new byte[100];
+            Arrays.fill(image, (byte) url.getPath().hashCode());
+            return new Download(image, "v1", null);
+        }
+    }
+
+    private static URL tile(int z, int x, int y) throws Exception {
+        return new URL("https://tile.openstreetmap.org/" + z + "/" + x + "/" + y + ".png");
+    }
+
+    private static byte[] load(CachingTileDataAccessObject cache, URL url) throws Exception {
+        try (InputStream in = cache.get(url)) {
+            byte[] image = in.readAllBytes();
+            // The map's loader hands every tile back after reading it
+            cache.put(url, new ByteArrayInputStream(image));
+            return image;
+        }
+    }
+
+    @Test
+    void aRestartServesKnownTilesWithoutTheNetwork() throws Exception {
+        File dir = Files.createTempDirectory("tiles").toFile();
+        CountingTileServer server = new CountingTileServer();
+        byte[] first = load(new CachingTileDataAccessObject(server, dir), tile(12, 1144, 1494));
+
+        CachingTileDataAccessObject restarted = new CachingTileDataAccessObject(server, dir);
+        assertArrayEquals(first, load(restarted, tile(12, 1144, 1494)));
+        assertEquals(1, server.requests.size());
+        assertEquals(1.0, restarted.getHitRatio());
+        assertEquals(1, restarted.getCachedTileCount());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedTilesPastTheByteBudget() throws Exception {
+        File dir = Files.createTempDirectory("tiles").toFile();
+        CountingTileServer server = new CountingTileServer();
+        // Room for two 100-byte images plus their headers
+        CachingTileDataAccessObject cache = new CachingTileDataAccessObject(server, dir, 300, null);
+        load(cache, tile(5, 1, 1));
+        load(cache, tile(5, 1, 2));
+        load(cache, tile(5, 1, 1));
+        load(cache, tile(5, 1, 3));
+
+        assertEquals(2, cache.getCachedTileCount());
+        assertFalse(new File(dir, "5/1/2.tile").exists());
+        assertTrue(new File(dir, "5/1/1.tile").exists());
+
+        CachingTileDataAccessObject restarted = new CachingTileDataAccessObject(server, dir, 300, null);
+        assertEquals(2, restarted.getCachedTileCount());
+        assertTrue(restarted.getCachedBytes() <= 300);
+    }
+
+    @Test
+    void staleTilesAreRevalidatedWithTheirEtag() throws Exception {
+        File dir = Files.createTempDirectory("tiles").toFile();
+        CountingTileServer server = new CountingTileServer();
+        server.unchanged = true;
+        CachingTileDataAccessObject cache = new CachingTileDataAccessObject(server, dir, 1 << 20, Duration.ZERO);
+        byte[] first = load(cache, tile(9, 10, 20));
+
+        assertArrayEquals(first, load(cache, tile(9, 10, 20)));
+        assertEquals(List.of("/9/10/20.png null", "/9/10/20.png v1"), server.requests);
+        assertEquals(1, cache.getRevalidationCount());
+        assertEquals(1, cache.getDownloadCount());
+    }
+
+    @Test
+    void offlineModeServesOnlyCachedTiles() throws Exception {
+        File dir = Files.createTempDirectory("tiles").toFile();
+        CountingTileServer server = new CountingTileServer();
+        CachingTileDataAccessObject cache = new CachingTileDataAccessObject(server, dir, 1 << 20, Duration.ZERO);
+        load(cache, tile(3, 2, 1));
+        cache.setOffline(true);
+
+        assertNotNull(load(cache, tile(3, 2, 1)));
+        assertThrows(FileNotFoundException.class, () -> cache.get(tile(3, 2, 2)));
+        assertEquals(1, server.requests.size());
+        assertEquals(1, cache.getOfflineMissCount());
+    }
+}
@@ -0,0 +1,123 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingTravelMatrixDataAccessObjectTest {
+
+    /** Travel time is 100 s per degree of longitude; records the size of each request. */
+    static class CountingMatrixSource implements TravelMatrixSource {
+        final List<String> requests = new ArrayList<>();
+        boolean down;
+
+        @Override
+        public TravelMatrix getMatrix(List<GeoPosition> sources, List<GeoPosition> destinations, String profile)
+                throws IOException {
+            if (down) throw new IOException("OSRM down");
+            requests.add(sources.size() + "x" + destinations.size());
+            TravelMatrix matrix = new TravelMatrix(sources.size(), destinations.size());
+            for (int r = 0; r < sources.size(); r++) {
+                for (int c = 0; c < destinations.size(); c++) {
+                    double degrees = Math.abs(sources.get(r).getLongitude() - destinations.get(c).getLongitude());
+                    matrix.set(r, c, degrees * 100, degrees * 1000);
+                }
+            }
+            return matrix;
+        }
+    }
+
+    private static List<GeoPosition> stops(int... longitudes) {
+        List<GeoPosition> stops = new ArrayList<>();
+        for (int lon : longitudes) stops.add(new GeoPosition(43, lon));
+        return stops;
+    }
+
+    @Test
+    void addingAStopOnlyRequestsItsRowAndColumn() throws Exception {
+        CountingMatrixSource remote = new CountingMatrixSource();
+        CachingTravelMatrixDataAccessObject cache = new CachingTravelMatrixDataAccessObject(remote, null);
+
+        double[][] first = cache.getDurations(stops(0, 1, 2), "walking");
+        double[][] second = cache.getDurations(stops(0, 1, 2, 4), "walking");
+
+        assertEquals(200, first[0][2], 0.0);
+        assertEquals(0, first[1][1], 0.0);
+        assertEquals(300, second[3][1], 0.0);
+        // The second call needs 3 -> 0..3 and 0..2 -> 3: 2N + 1 cells for N = 3
+        assertEquals(List.of("3x3", "1x4", "3x1"), remote.requests);
+        assertEquals(6, cache.getHitCount());
+        assertEquals(9 + 4 + 3, cache.getMissCount());
+
+        cache.getDurations(stops(4, 2, 0), "walking");
+        assertEquals(3, remote.requests.size(), "every cell is cached by now");
+        assertNotEquals(0, cache.getHitRatio());
+
+        cache.getDurations(stops(4, 2), "driving");
+        assertEquals(4, remote.requests.size(), "profiles are cached separately");
+    }
+
+    @Test
+    void rectangularRequestsAskOnlyForUnknownSourcesAndDestinations() throws Exception {
+        CountingMatrixSource remote = new CountingMatrixSource();
+        CachingTravelMatrixDataAccessObject cache = new CachingTravelMatrixDataAccessObject(remote, null);
+
+        cache.getMatrix(stops(0, 1), stops(5, 6, 7), "walking");
+        TravelMatrix matrix = cache.getMatrix(stops(0, 1, 2), stops(5, 6, 7), "walking");
+
+        assertEquals(List.of("2x3", "1x3"), remote.requests);
+        assertEquals(500, matrix.seconds(2, 2), 0.0);
+        assertEquals(5000, matrix.meters(0, 0), 0.0);
+
+        cache.getMatrix(stops(0, 1, 2), stops(5, 6, 7, 8), "walking");
+        assertEquals("3x1", remote.requests.get(2), "a new destination costs one column");
+    }
+
+    @Test
+    void fallsBackToTheEstimateWithoutCachingIt() throws Exception {
+        CountingMatrixSource remote = new CountingMatrixSource();
+        remote.down = true;
+        CachingTravelMatrixDataAccessObject cache = new CachingTravelMatrixDataAccessObject(
+                remote, new StraightLineDurationDataAccessObject());
+
+        TravelMatrix estimated = cache.getMatrix(stops(0, 1), stops(0, 1), "walking");
+
+        // One degree of longitude at 43 degrees north, stretched for street detours, at 5 km/h
+        double meters = 111_195 * Math.cos(Math.toRadians(43)) * StraightLineDurationDataAccessObject.DETOUR_FACTOR;
+        assertEquals(meters, estimated.meters(0, 1), meters * 1e-3);
+        assertEquals(meters / (5 / 3.6), estimated.seconds(1, 0), meters * 1e-3);
+        assertEquals(2, cache.getFallbackCount());
+        assertEquals(0, cache.getCachedCellCount());
+
+        remote.down = false;
+        assertEquals(100, cache.getMatrix(stops(0, 1), stops(0, 1), "walking").seconds(0, 1), 0.0);
+
+        CachingTravelMatrixDataAccessObject strict = new CachingTravelMatrixDataAccessObject(remote, null);
+        remote.down = true;
+        assertThrows(IOException.class, () -> strict.getDurations(stops(0, 1), "walking"));
+    }
+
+    @Test
+    void tilesKeepEveryRequestUnderTheCoordinateLimit() {
+        List<int[]> tiles = OsrmTableDataAccessObject.tiles(150, 150, 100);
+
+        assertEquals(9, tiles.size());
+        long cells = 0;
+        for (int[] tile : tiles) {
+            assertTrue(tile[1] - tile[0] + tile[3] - tile[2] <= 100);
+            cells += (long) (tile[1] - tile[0]) * (tile[3] - tile[2]);
+        }
+        assertEquals(150 * 150, cells);
+
+        assertEquals(1, OsrmTableDataAccessObject.tiles(30, 70, 100).size());
+        // One source against many destinations: the row block shrinks to leave room for columns
+        List<int[]> wide = OsrmTableDataAccessObject.tiles(1, 500, 100);
+        assertEquals(6, wide.size());
+        assertEquals(99, wide.get(0)[3]);
+    }
+}
@@ -0,0 +1,36 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Build time and query latency of {@link ContractionHierarchy} on the synthetic metro area
+ * of {@link RoadGraphRouterBenchmark}, for the same query sets.
+ * <p>
+ * Run manually: java data_access.ContractionHierarchyBenchmark [grid side, default 200] [threads]
+ */
+public class ContractionHierarchyBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Random random = new Random(42);
+        RoadGraph graph = RoadGraphRouterBenchmark.metroGrid(side, random);
+
+        List<ContractionHierarchy> hierarchies = new ArrayList<>();
+        for (RoadGraph.Profile profile : RoadGraph.Profile.values()) {
+            long start = System.nanoTime();
+            ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(graph, profile, threads);
+            System.out.printf(Locale.ROOT, "%s: contracted %d nodes on %d threads in %d ms, %d hierarchy edges for %d road edges%n",
+                    profile, graph.nodeCount(), threads, (System.nanoTime() - start) / 1_000_000,
+                    hierarchy.edgeCount(), graph.edgeCount());
+            hierarchies.add(hierarchy);
+        }
+
+        RoadGraphRouter router = new RoadGraphRouter(graph, hierarchies);
+        RoadGraphRouterBenchmark.measure(router, random, 10_000);
+        RoadGraphRouterBenchmark.measure(router, random, Double.MAX_VALUE);
+    }
+}
@@ -0,0 +1,76 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static data_access.RoadGraphRouterTest.dijkstra;
+import static data_access.RoadGraphRouterTest.pathSeconds;
+import static data_access.RoadGraphRouterTest.randomCity;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    @Test
+    void matchesDijkstraForEveryProfile() {
+        RoadGraph graph = randomCity(40, 7);
+        Random random = new Random(13);
+
+        for (RoadGraph.Profile profile : RoadGraph.Profile.values()) {
+            ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(graph, profile, 3);
+            for (int i = 0; i < 80; i++) {
+                int s = random.nextInt(graph.nodeCount());
+                int t = random.nextInt(graph.nodeCount());
+                double expected = dijkstra(graph, s, t, profile);
+                RoadGraphRouter.Route route = hierarchy.route(s, t);
+
+                if (Double.isInfinite(expected)) {
+                    assertNull(route);
+                    continue;
+                }
+                assertNotNull(route, profile + " " + s + " -> " + t);
+                assertEquals(expected, route.getSeconds(), expected * 1e-4 + 1e-3, profile + " " + s + " -> " + t);
+                int[] nodes = route.getNodes();
+                assertEquals(s, nodes[0]);
+                assertEquals(t, nodes[nodes.length - 1]);
+                // Shortcuts unpack into real road edges with the same total time
+                assertEquals(route.getSeconds(), pathSeconds(graph, nodes, profile), 1e-2);
+            }
+        }
+    }
+
+    @Test
+    void routerPrefersTheHierarchyForItsProfile() {
+        RoadGraph graph = randomCity(20, 5);
+        ContractionHierarchy driving = ContractionHierarchyBuilder.build(graph, RoadGraph.Profile.DRIVING, 1);
+        RoadGraphRouter plain = new RoadGraphRouter(graph);
+        RoadGraphRouter fast = new RoadGraphRouter(graph, List.of(driving));
+
+        int last = graph.nodeCount() - 1;
+        for (RoadGraph.Profile profile : RoadGraph.Profile.values()) {
+            assertEquals(plain.route(0, last, profile).getSeconds(), fast.route(0, last, profile).getSeconds(), 1e-2);
+        }
+    }
+
+    @Test
+    void hierarchySurvivesWriteAndReadButOnlyForItsGraph() throws Exception {
+        RoadGraph graph = randomCity(15, 3);
+        ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(graph, RoadGraph.Profile.CYCLING, 2);
+        Path file = Files.createTempFile("road-graph", ".ch");
+        hierarchy.write(file);
+
+        ContractionHierarchy loaded = ContractionHierarchy.read(file, graph);
+        assertEquals(RoadGraph.Profile.CYCLING, loaded.getProfile());
+        assertEquals(hierarchy.edgeCount(), loaded.edgeCount());
+        int last = graph.nodeCount() - 1;
+        assertArrayEquals(hierarchy.route(0, last).getNodes(), loaded.route(0, last).getNodes());
+
+        assertThrows(IOException.class, () -> ContractionHierarchy.read(file, randomCity(14, 3)));
+        assertEquals(Path.of("maps", "road_graph.walking.ch"),
+                ContractionHierarchy.fileFor(Path.of("maps", "road_graph.bin"), RoadGraph.Profile.WALKING));
+    }
+}
@@ -0,0 +1,60 @@
+package data_access;
+
+import entity.Location;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileBatchGeocodeDataAccessObjectTest {
+
+    @Test
+    void readsAddressColumnFromCsvWithHeader() throws Exception {
+        File dir = Files.createTempDirectory("batch").toFile();
+        File csv = new File(dir, "trip.csv");
+        Files.writeString(csv.toPath(), "day,address,notes\n1,\"100 Queen St W, Toronto\",lunch\n\n2,Ottawa,\n",
+                StandardCharsets.UTF_8);
+
+        FileBatchGeocodeDataAccessObject dao = new FileBatchGeocodeDataAccessObject(null, new File(dir, "cp"));
+
+        assertEquals(List.of("100 Queen St W, Toronto", "Ottawa"), dao.readAddresses(csv.getPath()));
+    }
+
+    @Test
+    void joinsColumnsWithoutHeaderAndReadsPlainLists() throws Exception {
+        File dir = Files.createTempDirectory("batch").toFile();
+        File csv = new File(dir, "rows.csv");
+        Files.writeString(csv.toPath(), "# exported\n221B Baker St,London,UK\nParis\n", StandardCharsets.UTF_8);
+
+        FileBatchGeocodeDataAccessObject dao = new FileBatchGeocodeDataAccessObject(null, new File(dir, "cp"));
+
+        assertEquals(List.of("221B Baker St, London, UK", "Paris"), dao.readAddresses(csv.getPath()));
+    }
+
+    @Test
+    void checkpointSurvivesReopenAndIgnoresTruncatedRow() throws Exception {
+        File dir = Files.createTempDirectory("batch").toFile();
+        String source = new File(dir, "trip.csv").getPath();
+        File checkpoints = new File(dir, "cp");
+
+        FileBatchGeocodeDataAccessObject first = new FileBatchGeocodeDataAccessObject(null, checkpoints);
+        first.checkpoint(source, "toronto", Optional.of(new Location("Toronto, Canada", 43.65, -79.38)));
+        first.checkpoint(source, "nowhere", Optional.empty());
+        File[] files = checkpoints.listFiles();
+        Files.writeString(files[0].toPath(), "ottawa\tfou", StandardCharsets.UTF_8,
+                java.nio.file.StandardOpenOption.APPEND);
+
+        Map<String, Optional<Location>> done =
+                new FileBatchGeocodeDataAccessObject(null, checkpoints).loadCheckpoint(source);
+
+        assertEquals(2, done.size());
+        assertEquals("Toronto, Canada", done.get("toronto").orElseThrow().getName());
+        assertTrue(done.get("nowhere").isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package data_access;
+
+import entity.Location;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Lookup latency of {@link FuzzyPlaceIndex} with misspelled queries over
+ * synthetic place names (random consonant-vowel syllables).
+ * <p>
+ * Run manually: java data_access.FuzzyPlaceIndexBenchmark [places, default 100000]
+ */
+public class FuzzyPlaceIndexBenchmark {
+
+    private static final String CONSONANTS = "bcdfghjklmnprstvwz";
+    private static final String VOWELS = "aeiou";
+    private static final int QUERIES = 20_000;
+
+    public static void main(String[] args) {
+        int places = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Random random = new Random(42);
+
+        String[] names = new String[places];
+        FuzzyPlaceIndex index = new FuzzyPlaceIndex();
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < places; i++) {
+            names[i] = randomWord(random) + (random.nextInt(3) == 0 ? " " + randomWord(random) : "")
+                    + ", Region " + (i % 50);
+            index.add(new Location(names[i], random.nextDouble() * 90, random.nextDouble() * 180));
+        }
+        System.out.printf(Locale.ROOT, "Indexed %d places in %d ms%n",
+                index.size(), (System.nanoTime() - buildStart) / 1_000_000);
+
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String name = names[random.nextInt(places)];
+            queries[i] = misspell(name.substring(0, name.indexOf(',')), random);
+        }
+
+        for (int i = 0; i < QUERIES; i++) index.search(queries[i], 5);   // warm-up
+
+        long[] nanos = new long[QUERIES];
+        int found = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            found += index.search(queries[i], 5).isEmpty() ? 0 : 1;
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double mean = Arrays.stream(nanos).average().orElse(0);
+        System.out.printf(Locale.ROOT, "mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us (%d/%d with a match)%n",
+                mean / 1e3, nanos[QUERIES / 2] / 1e3, nanos[QUERIES * 99 / 100] / 1e3,
+                nanos[QUERIES - 1] / 1e3, found, QUERIES);
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int parts = 2 + random.nextInt(3);
+        for (int i = 0; i < parts; i++) {
+            sb.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+            sb.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+            if (random.nextInt(3) == 0) sb.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+        }
+        return sb.toString();
+    }
+
+    /** One random edit: swap, drop, double or replace a letter. */
+    private static String misspell(String word, Random random) {
+        if (word.length() < 4) return word;
+        char[] c = word.toCharArray();
+        int i = 1 + random.nextInt(c.length - 2);
+        switch (random.nextInt(4)) {
+            case 0: { char t = c[i]; c[i] = c[i + 1]; c[i + 1] = t; return new String(c); }
+            case 1: return word.substring(0, i) + word.substring(i + 1);
+            case 2: return word.substring(0, i) + c[i] + word.substring(i);
+            default: c[i] = (char) ('a' + random.nextInt(26)); return new String(c);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package data_access;
+
+import entity.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyPlaceIndexTest {
+
+    private static FuzzyPlaceIndex sample() {
+        FuzzyPlaceIndex index = new FuzzyPlaceIndex();
+        index.add(new Location("Toronto, Ontario, Canada", 43.65, -79.38));
+        index.add(new Location("Toronto Island, Toronto, Ontario", 43.62, -79.38));
+        index.add(new Location("Ottawa, Ontario, Canada", 45.42, -75.69));
+        index.add(new Location("Torino, Piemonte, Italia", 45.07, 7.69));
+        return index;
+    }
+
+    private static List<String> names(List<Location> locations) {
+        return locations.stream().map(Location::getName).toList();
+    }
+
+    @Test
+    void transposedLettersStillMatch() {
+        List<Location> hits = sample().search("Toronot", 5);
+
+        assertEquals("Toronto, Ontario, Canada", hits.get(0).getName());
+    }
+
+    @Test
+    void incompleteWordMatchesByPrefixWithinEdits() {
+        List<String> hits = names(sample().search("tornto is", 5));
+
+        assertEquals("Toronto Island, Toronto, Ontario", hits.get(0));
+    }
+
+    @Test
+    void wholeKeyRanksAboveLongerKeyWithSameDistance() {
+        List<String> hits = names(sample().search("torontp", 5));
+
+        // "toronto" (1 edit, whole word) before "toronto island" (same edit, prefix only)
+        assertEquals(List.of("Toronto, Ontario, Canada", "Toronto Island, Toronto, Ontario"), hits);
+    }
+
+    @Test
+    void tooManyEditsOrShortTyposDoNotMatch() {
+        FuzzyPlaceIndex index = sample();
+
+        assertTrue(index.search("tranta", 5).isEmpty());
+        assertTrue(index.search("otw", 5).isEmpty(), "short queries must match exactly");
+        assertEquals("Ottawa, Ontario, Canada", index.search("otta", 5).get(0).getName());
+    }
+
+    @Test
+    void repeatedPlacesRankHigher() {
+        FuzzyPlaceIndex index = new FuzzyPlaceIndex();
+        index.add(new Location("Springfield, Illinois", 39.8, -89.6));
+        index.add(new Location("Springfield, Missouri", 37.2, -93.3));
+        index.add(new Location("Springfield, Missouri", 37.2, -93.3), 3f);
+
+        assertEquals("Springfield, Missouri", index.search("springfeild", 2).get(0).getName());
+        assertEquals(2, index.size());
+    }
+}
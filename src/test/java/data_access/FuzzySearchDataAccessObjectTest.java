@@ -0,0 +1,99 @@
+package data_access;
+
+import entity.Location;
+import org.junit.jupiter.api.Test;
+import use_case.search.SearchDataAccessInterface;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzySearchDataAccessObjectTest {
+
+    /** A remote source with fixed answers; suggestions fail when {@code down}. */
+    static class FixedRemote implements SearchDataAccessInterface {
+        Optional<Location> found = Optional.empty();
+        List<Location> suggestions = List.of();
+        boolean down = false;
+
+        @Override
+        public boolean existsByName(String locationName) {
+            return found.isPresent();
+        }
+
+        @Override
+        public Location get(String locationName) throws IOException {
+            return found.orElseThrow(() -> new IOException("No results found for: " + locationName));
+        }
+
+        @Override
+        public Optional<Location> find(String locationName) {
+            return found;
+        }
+
+        @Override
+        public List<Location> searchSuggestions(String query, int limit) throws IOException {
+            if (down) throw new IOException("offline");
+            return suggestions;
+        }
+    }
+
+    private static final Location TORONTO = new Location("Toronto, Ontario, Canada", 43.65, -79.38);
+    private static final Location MALL = new Location("Springfield Mall", 38.77, -77.17);
+
+    private static FuzzySearchDataAccessObject search(FixedRemote remote) {
+        FuzzyPlaceIndex index = new FuzzyPlaceIndex();
+        index.add(TORONTO);
+        index.add(MALL);
+        return new FuzzySearchDataAccessObject(index, remote);
+    }
+
+    @Test
+    void remoteAnswerWinsOverKnownPlaces() throws Exception {
+        FixedRemote remote = new FixedRemote();
+        Location nominatim = new Location("Toronto, Ontario, Canada (city)", 43.7, -79.4);
+        remote.found = Optional.of(nominatim);
+
+        assertEquals(nominatim, search(remote).get("Toronto"));
+    }
+
+    @Test
+    void remoteMissFallsBackToAKnownPlaceMatchedByWholeName() throws Exception {
+        FuzzySearchDataAccessObject search = search(new FixedRemote());
+
+        assertEquals(TORONTO, search.find("Toronot").orElseThrow());
+        assertEquals(TORONTO, search.findInBackground("toronto").get().orElseThrow());
+    }
+
+    @Test
+    void prefixOnlyMatchesAreNotFound() {
+        FuzzySearchDataAccessObject search = search(new FixedRemote());
+
+        assertThrows(IOException.class, () -> search.get("Spring"));
+    }
+
+    @Test
+    void suggestionsListKnownPlacesFirstWithoutDuplicates() throws Exception {
+        FixedRemote remote = new FixedRemote();
+        Location other = new Location("Springfield, Illinois", 39.8, -89.6);
+        remote.suggestions = List.of(MALL, other);
+
+        List<Location> merged = search(remote).searchSuggestions("spring", 4);
+
+        assertEquals(List.of(MALL, other), merged);
+    }
+
+    @Test
+    void knownPlacesStandInWhenTheRemoteFails() throws Exception {
+        FixedRemote remote = new FixedRemote();
+        remote.down = true;
+        FuzzySearchDataAccessObject search = search(remote);
+
+        assertEquals(List.of(MALL), search.searchSuggestions("spring", 4));
+        assertEquals(List.of(MALL), search.searchSuggestionsAsync("spring", 4).get());
+        assertThrows(IOException.class, () -> search.searchSuggestions("ottawa", 4));
+    }
+}
@@ -0,0 +1,72 @@
+package data_access;
+
+import entity.Location;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GazetteerIndexTest {
+
+    private static GazetteerIndex sampleIndex() {
+        return new GazetteerIndex.Builder()
+                .add("Toronto", "Toronto, CA", 43.65, -79.38, 2_700_000f)
+                .add("Toronto", "Toronto, US", 40.46, -80.60, 5_000f)
+                .add("Torino", "Torino, IT", 45.07, 7.69, 870_000f)
+                .add("Torrance", "Torrance, US", 33.84, -118.34, 145_000f)
+                .add("Montréal", "Montréal, CA", 45.50, -73.57, 1_700_000f)
+                .add("Montreal", "Montréal, CA", 45.50, -73.57, 1_700_000f)
+                .add("Paris", "Paris, FR", 48.85, 2.35, 2_100_000f)
+                .build();
+    }
+
+    @Test
+    void prefixSearchRanksByImportance() {
+        List<Location> hits = sampleIndex().prefixSearch("TOR", 3);
+
+        assertEquals(3, hits.size());
+        assertEquals("Toronto, CA", hits.get(0).getName());
+        assertEquals("Torino, IT", hits.get(1).getName());
+        assertEquals("Torrance, US", hits.get(2).getName());
+    }
+
+    @Test
+    void alternateSpellingsAreReportedOnce() {
+        List<Location> hits = sampleIndex().prefixSearch("montr", 5);
+
+        assertEquals(1, hits.size());
+        assertEquals("Montréal, CA", hits.get(0).getName());
+    }
+
+    @Test
+    void exactMatchPrefersMostImportantPlace() {
+        Optional<Location> hit = sampleIndex().exactMatch(" toronto ");
+
+        assertTrue(hit.isPresent());
+        assertEquals("Toronto, CA", hit.get().getName());
+        assertFalse(sampleIndex().exactMatch("Toro").isPresent());
+    }
+
+    @Test
+    void missReturnsNothing() {
+        assertTrue(sampleIndex().prefixSearch("zzz", 5).isEmpty());
+    }
+
+    @Test
+    void roundTripsThroughBinaryFile() throws Exception {
+        Path file = File.createTempFile("gazetteer", ".bin").toPath();
+        sampleIndex().write(file);
+
+        GazetteerIndex loaded = GazetteerIndex.read(file);
+
+        assertEquals(7, loaded.size());
+        Location paris = loaded.exactMatch("paris").orElseThrow();
+        assertEquals(48.85, paris.getLatitude(), 1e-4);
+        assertEquals(2.35, paris.getLongitude(), 1e-4);
+        assertEquals("Toronto, CA", loaded.prefixSearch("to", 1).get(0).getName());
+    }
+}
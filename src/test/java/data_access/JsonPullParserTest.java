@@ -0,0 +1,158 @@
+package data_access;
+
+import entity.Location;
+import entity.RouteGeometry;
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonPullParserTest {
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readsNestedValuesAndSkipsUnknownOnes() throws Exception {
+        JsonPullParser json = new JsonPullParser(new StringReader(
+                "{\"skip\": {\"a\": [1, {\"b\": null}], \"c\": \"x\\\"y\"}, \"ok\": true, "
+                        + "\"name\": \"Caf\\u00e9\", \"n\": -12.5e1, \"list\": []}"));
+
+        json.beginObject();
+        assertEquals("skip", json.nextName());
+        json.skipValue();
+        assertEquals("ok", json.nextName());
+        assertTrue(json.nextBoolean());
+        assertTrue(json.nextNameIs("name"));
+        assertEquals("Café", json.nextString());
+        assertFalse(json.nextNameIs("m"));
+        assertEquals(-125.0, json.nextDouble());
+        assertEquals("list", json.nextName());
+        json.beginArray();
+        assertFalse(json.hasNext());
+        json.endArray();
+        json.endObject();
+        assertEquals(JsonPullParser.Token.END_DOCUMENT, json.peek());
+    }
+
+    @Test
+    void parsesNumbersExactly() throws Exception {
+        String[] literals = {"-79.383186", "43.653482", "0.000001", "180", "-0.5",
+                "12345678901234567890.5", "1.25E-3", "0.1234567890123456789"};
+        StringBuilder array = new StringBuilder("[");
+        for (int i = 0; i < literals.length; i++) {
+            if (i > 0) array.append(',');
+            array.append(literals[i]);
+        }
+        JsonPullParser json = new JsonPullParser(new StringReader(array.append(']').toString()));
+
+        json.beginArray();
+        for (String literal : literals) {
+            assertEquals(Double.parseDouble(literal), json.nextDouble(), 0.0, literal);
+        }
+        json.endArray();
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(IOException.class, () -> {
+            JsonPullParser json = new JsonPullParser(new StringReader("[1 2]"));
+            json.beginArray();
+            json.nextDouble();
+            json.nextDouble();
+        });
+    }
+
+    /** A polyline6 string as it appears inside a JSON document. */
+    private static String encoded(double... latLon) {
+        RouteGeometry.Builder line = new RouteGeometry.Builder();
+        for (int i = 0; i < latLon.length; i += 2) line.add(latLon[i], latLon[i + 1]);
+        return "\"" + Polyline6.encode(line.build()).replace("\\", "\\\\") + "\"";
+    }
+
+    @Test
+    void decodesOsrmRouteGeometry() throws Exception {
+        String response = "{\"code\":\"Ok\",\"routes\":[{\"legs\":[{\"steps\":[]}],"
+                + "\"geometry\":" + encoded(43.6532, -79.3832, 43.66, -79.38) + ","
+                + "\"distance\":900.1},{\"geometry\":" + encoded(0, 0) + "}],\"waypoints\":[]}";
+
+        RouteGeometry route = RoutingDataAccessObject.decodeRouteGeometry(body(response));
+
+        assertEquals(2, route.size());
+        assertEquals(43.6532, route.latitude(0), 0.0);
+        assertEquals(-79.38, route.longitude(1), 0.0);
+        assertTrue(RoutingDataAccessObject.decodeRouteGeometry(body("{\"code\":\"NoRoute\"}")).isEmpty());
+    }
+
+    @Test
+    void decodesOsrmLegGeometriesFromSteps() throws Exception {
+        String step1 = "{\"geometry\":" + encoded(0, 0, 0, 1) + ",\"maneuver\":{\"type\":\"depart\"}}";
+        String step2 = "{\"geometry\":" + encoded(0, 1, 1, 1) + ",\"name\":\"Main\"}";
+        String step3 = "{\"geometry\":" + encoded(1, 1, 2, 2) + "}";
+        String response = "{\"code\":\"Ok\",\"routes\":[{\"legs\":["
+                + "{\"steps\":[" + step1 + "," + step2 + "],\"distance\":5},"
+                + "{\"summary\":\"\",\"steps\":[" + step3 + "]}]}]}";
+
+        List<RouteGeometry> legs = RoutingDataAccessObject.decodeLegGeometries(body(response));
+
+        assertEquals(2, legs.size());
+        // Steps are joined without repeating the point they share
+        assertEquals(List.of(new GeoPosition(0, 0), new GeoPosition(0, 1), new GeoPosition(1, 1)),
+                legs.get(0).asPositions());
+        assertEquals(List.of(new GeoPosition(1, 1), new GeoPosition(2, 2)), legs.get(1).asPositions());
+    }
+
+    @Test
+    void polyline6MatchesTheReferenceEncoding() throws Exception {
+        // Google's documented example, written at 1e-5 precision: read at 1e-6 every value is a tenth
+        RouteGeometry line = Polyline6.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+
+        assertEquals(3, line.size());
+        assertEquals(3_850_000, line.latitudeE6(0));
+        assertEquals(-12_020_000, line.longitudeE6(0));
+        assertEquals(4_325_200, line.latitudeE6(2));
+        assertEquals(-12_645_300, line.longitudeE6(2));
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", Polyline6.encode(line));
+        assertThrows(IOException.class, () -> Polyline6.decode("_p~iF~ps|U_"));
+    }
+
+    @Test
+    void decodesOsrmTableIntoAMatrixBlock() throws Exception {
+        String response = "{\"code\":\"Ok\",\"durations\":[[0,12.5],[null,0]],"
+                + "\"sources\":[{\"location\":[0,0]}],\"distances\":[[0,100.2],[null,0]]}";
+        TravelMatrix matrix = new TravelMatrix(3, 3);
+
+        OsrmTableDataAccessObject.decodeTable(body(response), matrix, 1, 1, 2, 2);
+
+        assertFalse(matrix.isKnown(0, 0));
+        assertEquals(12.5, matrix.seconds(1, 2), 0.0);
+        assertEquals(100.2, matrix.meters(1, 2), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, matrix.seconds(2, 1));
+        assertThrows(IOException.class, () -> OsrmTableDataAccessObject.decodeTable(
+                body("{\"code\":\"Ok\",\"durations\":[[0,1]]}"), matrix, 0, 0, 2, 2));
+        assertThrows(IOException.class, () -> OsrmTableDataAccessObject.decodeTable(
+                body("{\"code\":\"InvalidQuery\"}"), matrix, 0, 0, 2, 2));
+    }
+
+    @Test
+    void decodesNominatimSearchAndReverse() throws Exception {
+        String search = "[{\"place_id\":1,\"lat\":\"43.6534817\",\"lon\":\"-79.3839347\","
+                + "\"display_name\":\"Toronto, Ontario, Canada\",\"boundingbox\":[\"43.5\",\"43.8\"]}]";
+
+        List<Location> found = OSMDataAccessObject.decodeSearchResults(body(search), "toronto");
+
+        assertEquals(1, found.size());
+        assertEquals("Toronto, Ontario, Canada", found.get(0).getName());
+        assertEquals(-79.3839347, found.get(0).getLongitude(), 0.0);
+        assertTrue(OSMDataAccessObject.decodeSearchResults(body("[]"), "x").isEmpty());
+        assertTrue(OSMDataAccessObject.decodeReverseResult(body("{\"error\":\"Unable to geocode\"}"), "x").isEmpty());
+    }
+}
@@ -0,0 +1,41 @@
+package data_access;
+
+import entity.Location;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KnownLocationIndexTest {
+
+    @Test
+    void nearestLooksAcrossTheAntimeridian() {
+        KnownLocationIndex index = new KnownLocationIndex();
+        index.add(new Location("Taveuni east", -16.8, -179.999));
+
+        assertEquals("Taveuni east", index.nearest(-16.8, 179.999, 1000).orElseThrow().getName());
+    }
+
+    @Test
+    void storesEachPlaceOnceAndKeepsOnlyTheNewest() throws Exception {
+        File file = Files.createTempFile("known", ".txt").toFile();
+        file.deleteOnExit();
+        KnownLocationIndex index = new KnownLocationIndex(file, 3);
+
+        assertTrue(index.add(new Location("Union Station", 43.645200, -79.380600)));
+        assertFalse(index.add(new Location("union station ", 43.6452001, -79.3806002)));
+        for (int i = 0; i < 20; i++) index.add(new Location("Stop " + i, 43.7 + i * 0.01, -79.4));
+
+        assertEquals(3, index.size());
+        assertTrue(index.nearest(43.6452, -79.3806, 100).isEmpty());
+
+        List<String> lines = Files.readAllLines(file.toPath());
+        assertEquals(3, lines.size(), "evicted lines are compacted away");
+        KnownLocationIndex reloaded = new KnownLocationIndex(file, 3);
+        assertEquals(3, reloaded.size());
+        assertEquals("Stop 19", reloaded.nearest(43.89, -79.4, 100).orElseThrow().getName());
+    }
+}
@@ -0,0 +1,88 @@
+package data_access;
+
+import data_access.RateLimitedRequestScheduler.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitedRequestSchedulerTest {
+
+    @Test
+    void explicitSearchJumpsAheadOfQueuedSuggestions() throws Exception {
+        RateLimitedRequestScheduler<String> scheduler = new RateLimitedRequestScheduler<>(150, 1, "test");
+        List<String> sent = new CopyOnWriteArrayList<>();
+
+        // first request uses the only token; everything after it has to queue
+        scheduler.submit("t", Priority.SUGGESTION, record(sent, "t")).get(2, TimeUnit.SECONDS);
+        scheduler.submit("to", Priority.SUGGESTION, record(sent, "to"));
+        scheduler.submit("tor", Priority.SUGGESTION, record(sent, "tor"));
+        scheduler.submit("toro", Priority.SUGGESTION, record(sent, "toro"));
+        CompletableFuture<String> search = scheduler.submit("Toronto", Priority.SEARCH, record(sent, "Toronto"));
+
+        assertEquals("Toronto", search.get(2, TimeUnit.SECONDS));
+        assertEquals(List.of("t", "Toronto"), sent.subList(0, 2));
+        scheduler.shutdown();
+    }
+
+    @Test
+    void identicalRequestsShareOneCall() throws Exception {
+        RateLimitedRequestScheduler<String> scheduler = new RateLimitedRequestScheduler<>(150, 1, "test");
+        AtomicInteger calls = new AtomicInteger();
+
+        scheduler.submit("warmup", Priority.SEARCH, () -> CompletableFuture.completedFuture("w"))
+                .get(2, TimeUnit.SECONDS);
+        CompletableFuture<String> a = scheduler.submit("paris", Priority.SUGGESTION,
+                () -> CompletableFuture.completedFuture("Paris#" + calls.incrementAndGet()));
+        CompletableFuture<String> b = scheduler.submit("paris", Priority.SEARCH,
+                () -> CompletableFuture.completedFuture("Paris#" + calls.incrementAndGet()));
+
+        assertEquals("Paris#1", a.get(2, TimeUnit.SECONDS));
+        assertEquals("Paris#1", b.get(2, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void cancelledQueuedRequestIsNeverSent() throws Exception {
+        RateLimitedRequestScheduler<String> scheduler = new RateLimitedRequestScheduler<>(150, 1, "test");
+        List<String> sent = new CopyOnWriteArrayList<>();
+
+        scheduler.submit("t", Priority.SUGGESTION, record(sent, "t")).get(2, TimeUnit.SECONDS);
+        CompletableFuture<String> stale = scheduler.submit("to", Priority.SUGGESTION, record(sent, "to"));
+        stale.cancel(true);
+        CompletableFuture<String> latest = scheduler.submit("tor", Priority.SUGGESTION, record(sent, "tor"));
+
+        assertEquals("tor", latest.get(2, TimeUnit.SECONDS));
+        assertEquals(List.of("t", "tor"), sent);
+        assertEquals(0, scheduler.getQueuedCount());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void requestsAreSpacedByInterval() throws Exception {
+        RateLimitedRequestScheduler<Long> scheduler = new RateLimitedRequestScheduler<>(200, 1, "test");
+
+        CompletableFuture<Long> a = scheduler.submit("a", Priority.SEARCH,
+                () -> CompletableFuture.completedFuture(System.currentTimeMillis()));
+        CompletableFuture<Long> b = scheduler.submit("b", Priority.SEARCH,
+                () -> CompletableFuture.completedFuture(System.currentTimeMillis()));
+
+        long gap = b.get(2, TimeUnit.SECONDS) - a.get(2, TimeUnit.SECONDS);
+        assertTrue(gap >= 190, "second request must wait for a token, gap was " + gap);
+        scheduler.shutdown();
+    }
+
+    private static Supplier<CompletableFuture<String>> record(List<String> sent, String value) {
+        return () -> {
+            sent.add(value);
+            return CompletableFuture.completedFuture(value);
+        };
+    }
+}
@@ -0,0 +1,259 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static data_access.RoadGraph.ACCESS_BIKE;
+import static data_access.RoadGraph.ACCESS_CAR;
+import static data_access.RoadGraph.ACCESS_FOOT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadGraphImporterTest {
+
+    private static final int ALL = ACCESS_FOOT | ACCESS_BIKE | ACCESS_CAR;
+
+    /** id, lat, lon; nodes 7 and 8 form an island, node 9 is referenced but missing. */
+    private static final double[][] NODES = {
+            {1, 43.650, -79.400}, {2, 43.650, -79.395}, {3, 43.650, -79.390}, {4, 43.655, -79.395},
+            {7, 43.700, -79.300}, {8, 43.701, -79.300}};
+
+    /** id, node refs, then tag key / value pairs. */
+    private static final Object[][] WAYS = {
+            {100L, new long[]{1, 2, 3}, "highway", "residential"},
+            {101L, new long[]{3, 4}, "highway", "primary", "oneway", "yes"},
+            {102L, new long[]{4, 1}, "highway", "footway"},
+            {103L, new long[]{2, 4}, "highway", "residential", "maxspeed", "20 mph"},
+            {104L, new long[]{7, 8}, "highway", "service"},
+            {105L, new long[]{1, 3}, "building", "yes"},
+            {106L, new long[]{3, 9}, "highway", "residential"}};
+
+    @Test
+    void xmlExtractBecomesTheMainConnectedNetwork() throws Exception {
+        RoadGraphImporter importer = new RoadGraphImporter(new OsmXmlReader(), ALL);
+        RoadGraph graph = importer.importFile(writeXml());
+
+        assertEquals(6, importer.getWayCount());
+        assertEquals(4, graph.nodeCount());
+        assertEquals(2, importer.getRemovedNodeCount());
+        // 1-2, 2-3, 2-4 both ways; 3-4 both ways (car only 3 -> 4); 4-1 both ways on foot
+        assertEquals(10, graph.edgeCount());
+
+        RoadGraphRouter router = new RoadGraphRouter(graph);
+        int n1 = nodeAt(graph, 43.650, -79.400);
+        int n2 = nodeAt(graph, 43.650, -79.395);
+        int n3 = nodeAt(graph, 43.650, -79.390);
+        int n4 = nodeAt(graph, 43.655, -79.395);
+        assertArrayEquals(new int[]{n4, n2, n3}, router.route(n4, n3, RoadGraph.Profile.DRIVING).getNodes());
+        assertArrayEquals(new int[]{n4, n3}, router.route(n4, n3, RoadGraph.Profile.WALKING).getNodes());
+        assertArrayEquals(new int[]{n4, n1}, router.route(n4, n1, RoadGraph.Profile.WALKING).getNodes());
+        assertArrayEquals(new int[]{n4, n2, n1}, router.route(n4, n1, RoadGraph.Profile.CYCLING).getNodes());
+    }
+
+    @Test
+    void pbfExtractDecodedInParallelMatchesXml() throws Exception {
+        RoadGraph fromXml = new RoadGraphImporter(new OsmXmlReader(), ALL).importFile(writeXml());
+        RoadGraph fromPbf = new RoadGraphImporter(new OsmPbfReader(3), ALL).importFile(writePbf());
+
+        assertEquals(fromXml.nodeCount(), fromPbf.nodeCount());
+        assertEquals(fromXml.edgeCount(), fromPbf.edgeCount());
+        for (int v = 0; v < fromXml.nodeCount(); v++) {
+            assertEquals(fromXml.latitude(v), fromPbf.latitude(v), 1e-6);
+            assertEquals(fromXml.longitude(v), fromPbf.longitude(v), 1e-6);
+        }
+    }
+
+    @Test
+    void profileFilterDropsWaysNoListedProfileMayUse() throws Exception {
+        RoadGraph graph = new RoadGraphImporter(new OsmXmlReader(), ACCESS_CAR).importFile(writeXml());
+
+        // The footway is gone; the one-way primary keeps only its car direction
+        assertEquals(4, graph.nodeCount());
+        assertEquals(7, graph.edgeCount());
+    }
+
+    @Test
+    void tagsDecideAccessDirectionAndSpeed() {
+        assertArrayEquals(new int[]{ALL, ALL, 30}, RoadGraphImporter.roadAttributes(Map.of("highway", "residential")));
+        assertArrayEquals(new int[]{ACCESS_CAR, 0, 100}, RoadGraphImporter.roadAttributes(Map.of("highway", "motorway")));
+        assertArrayEquals(new int[]{ALL, ACCESS_FOOT | ACCESS_BIKE, 50}, RoadGraphImporter.roadAttributes(
+                Map.of("highway", "secondary", "oneway", "yes", "oneway:bicycle", "no")));
+        assertArrayEquals(new int[]{ACCESS_FOOT, ACCESS_FOOT, 0}, RoadGraphImporter.roadAttributes(
+                Map.of("highway", "service", "access", "private", "foot", "yes")));
+        assertArrayEquals(new int[]{ACCESS_FOOT | ACCESS_BIKE, ACCESS_FOOT | ACCESS_BIKE, 0},
+                RoadGraphImporter.roadAttributes(Map.of("highway", "footway", "bicycle", "designated")));
+        assertNull(RoadGraphImporter.roadAttributes(Map.of("highway", "pedestrian", "area", "yes")));
+        assertEquals(48, RoadGraphImporter.maxSpeed("30 mph", 50));
+        assertEquals(40, RoadGraphImporter.maxSpeed("signals", 40));
+    }
+
+    private static int nodeAt(RoadGraph graph, double lat, double lon) {
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            if (Math.abs(graph.latitude(v) - lat) < 1e-5 && Math.abs(graph.longitude(v) - lon) < 1e-5) return v;
+        }
+        throw new AssertionError("No node at " + lat + "," + lon);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Extract writers                                                     */
+    /* ------------------------------------------------------------------ */
+
+    private static Path writeXml() throws IOException {
+        StringBuilder xml = new StringBuilder("<?xml version='1.0' encoding='UTF-8'?>\n<osm version='0.6'>\n");
+        for (double[] node : NODES) {
+            xml.append(String.format(Locale.ROOT, "  <node id='%d' lat='%.7f' lon='%.7f'/>%n",
+                    (long) node[0], node[1], node[2]));
+        }
+        for (Object[] way : WAYS) {
+            xml.append("  <way id='").append(way[0]).append("'>\n");
+            for (long ref : (long[]) way[1]) xml.append("    <nd ref='").append(ref).append("'/>\n");
+            for (int i = 2; i < way.length; i += 2) {
+                xml.append("    <tag k='").append(way[i]).append("' v='").append(way[i + 1]).append("'/>\n");
+            }
+            xml.append("  </way>\n");
+        }
+        xml.append("</osm>\n");
+        Path file = Files.createTempFile("extract", ".osm");
+        Files.writeString(file, xml);
+        return file;
+    }
+
+    /**
+     * Same data as PBF: a header block, a zlib block of dense nodes, a raw block with one
+     * plain node, and a zlib block of ways.
+     */
+    private static Path writePbf() throws IOException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+
+        Proto header = new Proto().string(4, "OsmSchema-V0.6").string(4, "DenseNodes");
+        writeBlob(file, "OSMHeader", header.bytes(), true);
+
+        Proto ids = new Proto(), lats = new Proto(), lons = new Proto();
+        long prevId = 0, prevLat = 0, prevLon = 0;
+        for (int i = 0; i < NODES.length - 1; i++) {
+            long id = (long) NODES[i][0], lat = Math.round(NODES[i][1] * 1e7), lon = Math.round(NODES[i][2] * 1e7);
+            ids.sint64(id - prevId);
+            lats.sint64(lat - prevLat);
+            lons.sint64(lon - prevLon);
+            prevId = id;
+            prevLat = lat;
+            prevLon = lon;
+        }
+        Proto dense = new Proto().message(1, ids).message(8, lats).message(9, lons);
+        Proto denseBlock = new Proto().message(1, new Proto().string(1, ""))
+                .message(2, new Proto().message(2, dense));
+        writeBlob(file, "OSMData", denseBlock.bytes(), true);
+
+        double[] last = NODES[NODES.length - 1];
+        Proto plainNode = new Proto().tag(1, 0).sint64((long) last[0])
+                .tag(8, 0).sint64(Math.round(last[1] * 1e7)).tag(9, 0).sint64(Math.round(last[2] * 1e7));
+        Proto nodeBlock = new Proto().message(1, new Proto().string(1, ""))
+                .message(2, new Proto().message(1, plainNode));
+        writeBlob(file, "OSMData", nodeBlock.bytes(), false);
+
+        List<String> strings = new ArrayList<>(List.of(""));
+        Proto group = new Proto();
+        for (Object[] way : WAYS) {
+            Proto keys = new Proto(), values = new Proto(), refs = new Proto();
+            for (int i = 2; i < way.length; i += 2) {
+                keys.varint(indexOf(strings, (String) way[i]));
+                values.varint(indexOf(strings, (String) way[i + 1]));
+            }
+            long prev = 0;
+            for (long ref : (long[]) way[1]) {
+                refs.sint64(ref - prev);
+                prev = ref;
+            }
+            group.message(3, new Proto().tag(1, 0).varint((Long) way[0])
+                    .message(2, keys).message(3, values).message(8, refs));
+        }
+        Proto table = new Proto();
+        for (String s : strings) table.string(1, s);
+        writeBlob(file, "OSMData", new Proto().message(1, table).message(2, group).bytes(), true);
+
+        Path path = Files.createTempFile("extract", ".osm.pbf");
+        Files.write(path, file.toByteArray());
+        return path;
+    }
+
+    private static int indexOf(List<String> strings, String s) {
+        int i = strings.indexOf(s);
+        if (i >= 0) return i;
+        strings.add(s);
+        return strings.size() - 1;
+    }
+
+    private static void writeBlob(ByteArrayOutputStream file, String type, byte[] payload, boolean zlib)
+            throws IOException {
+        Proto blob = new Proto();
+        if (zlib) {
+            Deflater deflater = new Deflater();
+            deflater.setInput(payload);
+            deflater.finish();
+            byte[] buffer = new byte[payload.length + 64];
+            int length = deflater.deflate(buffer);
+            deflater.end();
+            blob.tag(2, 0).varint(payload.length).bytes(3, Arrays.copyOf(buffer, length));
+        } else {
+            blob.bytes(1, payload);
+        }
+        byte[] blobBytes = blob.bytes();
+        byte[] headerBytes = new Proto().string(1, type).tag(3, 0).varint(blobBytes.length).bytes();
+
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeInt(headerBytes.length);
+        out.write(headerBytes);
+        out.write(blobBytes);
+    }
+
+    /** Minimal protobuf writer for the test extract. */
+    private static final class Proto {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Proto tag(int field, int wireType) {
+            return varint((long) field << 3 | wireType);
+        }
+
+        Proto varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+            return this;
+        }
+
+        Proto sint64(long value) {
+            return varint(value << 1 ^ value >> 63);
+        }
+
+        Proto bytes(int field, byte[] bytes) {
+            tag(field, 2).varint(bytes.length);
+            out.write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        Proto string(int field, String s) {
+            return bytes(field, s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Proto message(int field, Proto message) {
+            return bytes(field, message.bytes());
+        }
+
+        byte[] bytes() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package data_access;
+
+import entity.GeoDistance;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Query latency of {@link RoadGraphRouter} on a synthetic metro area: a jittered street
+ * grid about 80 m apart, with faster arterials every 10th street and car-only
+ * expressways every 50th.
+ * <p>
+ * Run manually: java data_access.RoadGraphRouterBenchmark [grid side, default 700]
+ */
+public class RoadGraphRouterBenchmark {
+
+    private static final double SPACING_DEGREES = 0.0008;
+    private static final int QUERIES = 1_000;
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 700;
+        Random random = new Random(42);
+
+        long buildStart = System.nanoTime();
+        RoadGraph graph = metroGrid(side, random);
+        RoadGraphRouter router = new RoadGraphRouter(graph);
+        System.out.printf(Locale.ROOT, "Built %d nodes, %d edges in %d ms%n",
+                graph.nodeCount(), graph.edgeCount(), (System.nanoTime() - buildStart) / 1_000_000);
+
+        // Typical trips across town, then worst-case trips across the whole area
+        measure(router, random, 10_000);
+        measure(router, random, Double.MAX_VALUE);
+    }
+
+    /** The synthetic metro area: side x side intersections. */
+    static RoadGraph metroGrid(int side, Random random) {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                builder.addNode(43.5 + (r + random.nextDouble() * 0.3) * SPACING_DEGREES,
+                        -79.7 + (c + random.nextDouble() * 0.3) * SPACING_DEGREES * 1.38);
+            }
+        }
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int v = r * side + c;
+                if (c + 1 < side) addStreet(builder, v, v + 1, r);
+                if (r + 1 < side) addStreet(builder, v, v + side, c);
+            }
+        }
+        return builder.build();
+    }
+
+    /** Times random node pairs at most {@code maxMeters} apart (straight line). */
+    static void measure(RoadGraphRouter router, Random random, double maxMeters) {
+        RoadGraph graph = router.getGraph();
+        int[] sources = new int[QUERIES];
+        int[] targets = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            do {
+                sources[i] = random.nextInt(graph.nodeCount());
+                targets[i] = random.nextInt(graph.nodeCount());
+            } while (GeoDistance.meters(graph.latitude(sources[i]), graph.longitude(sources[i]),
+                    graph.latitude(targets[i]), graph.longitude(targets[i])) > maxMeters);
+        }
+        System.out.println(maxMeters == Double.MAX_VALUE ? "Any two nodes:"
+                : String.format(Locale.ROOT, "Nodes up to %.0f km apart:", maxMeters / 1000));
+
+        for (RoadGraph.Profile profile : RoadGraph.Profile.values()) {
+            for (int i = 0; i < QUERIES; i++) router.route(sources[i], targets[i], profile);   // warm-up
+
+            long[] nanos = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                long start = System.nanoTime();
+                router.route(sources[i], targets[i], profile);
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            double mean = Arrays.stream(nanos).average().orElse(0);
+            System.out.printf(Locale.ROOT, "  %-8s mean %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    profile, mean / 1e6, nanos[QUERIES / 2] / 1e6, nanos[QUERIES * 99 / 100] / 1e6,
+                    nanos[QUERIES - 1] / 1e6);
+        }
+    }
+
+    /** Street along grid line {@code line}: expressway, arterial or local street. */
+    private static void addStreet(RoadGraph.Builder builder, int a, int b, int line) {
+        int all = RoadGraph.ACCESS_FOOT | RoadGraph.ACCESS_BIKE | RoadGraph.ACCESS_CAR;
+        if (line % 50 == 25) builder.addRoad(a, b, RoadGraph.ACCESS_CAR, RoadGraph.ACCESS_CAR, 100);
+        else if (line % 10 == 5) builder.addRoad(a, b, all, all, 60);
+        else builder.addRoad(a, b, all, all, 40);
+    }
+}
@@ -0,0 +1,170 @@
+package data_access;
+
+import entity.RouteGeometry;
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.generate_route.GenerateRouteRoutingDataAccessInterface;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static data_access.RoadGraph.ACCESS_BIKE;
+import static data_access.RoadGraph.ACCESS_CAR;
+import static data_access.RoadGraph.ACCESS_FOOT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadGraphRouterTest {
+
+    private static final int ALL = ACCESS_FOOT | ACCESS_BIKE | ACCESS_CAR;
+
+    /** Jittered grid of streets with random speeds, car-only roads, footpaths and one-way streets. */
+    static RoadGraph randomCity(int side, long seed) {
+        Random random = new Random(seed);
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                builder.addNode(43.6 + r * 0.001 + random.nextDouble() * 0.0003,
+                        -79.4 + c * 0.0014 + random.nextDouble() * 0.0003);
+            }
+        }
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int v = r * side + c;
+                if (c + 1 < side) addRandomRoad(builder, random, v, v + 1);
+                if (r + 1 < side) addRandomRoad(builder, random, v, v + side);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void addRandomRoad(RoadGraph.Builder builder, Random random, int a, int b) {
+        int speed = new int[]{30, 40, 50, 60, 80}[random.nextInt(5)];
+        double kind = random.nextDouble();
+        if (kind < 0.1) builder.addRoad(a, b, ACCESS_CAR, ACCESS_CAR, 90);
+        else if (kind < 0.2) builder.addRoad(a, b, ACCESS_FOOT | ACCESS_BIKE, ACCESS_FOOT | ACCESS_BIKE, 0);
+        else if (kind < 0.3) builder.addRoad(a, b, ALL, ACCESS_FOOT | ACCESS_BIKE, speed);
+        else builder.addRoad(a, b, ALL, ALL, speed);
+    }
+
+    /** Plain one-directional Dijkstra, as the reference for travel times. */
+    static double dijkstra(RoadGraph graph, int source, int target, RoadGraph.Profile profile) {
+        double[] dist = new double[graph.nodeCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[]{0, source});
+        while (!queue.isEmpty()) {
+            double[] top = queue.poll();
+            int u = (int) top[1];
+            if (top[0] > dist[u]) continue;
+            if (u == target) return dist[u];
+            for (int e = graph.firstEdge[u]; e < graph.firstEdge[u + 1]; e++) {
+                if (!graph.allows(e, profile)) continue;
+                int v = graph.edgeTarget[e];
+                double d = dist[u] + graph.seconds(e, profile);
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    queue.add(new double[]{d, v});
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /** Travel time of a node path, using the fastest allowed edge between consecutive nodes. */
+    static double pathSeconds(RoadGraph graph, int[] nodes, RoadGraph.Profile profile) {
+        double total = 0;
+        for (int i = 0; i + 1 < nodes.length; i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = graph.firstEdge[nodes[i]]; e < graph.firstEdge[nodes[i] + 1]; e++) {
+                if (graph.edgeTarget[e] == nodes[i + 1] && graph.allows(e, profile)) {
+                    best = Math.min(best, graph.seconds(e, profile));
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    @Test
+    void matchesDijkstraForEveryProfile() {
+        RoadGraph graph = randomCity(40, 7);
+        RoadGraphRouter router = new RoadGraphRouter(graph);
+        Random random = new Random(11);
+
+        for (RoadGraph.Profile profile : RoadGraph.Profile.values()) {
+            for (int i = 0; i < 60; i++) {
+                int s = random.nextInt(graph.nodeCount());
+                int t = random.nextInt(graph.nodeCount());
+                double expected = dijkstra(graph, s, t, profile);
+                RoadGraphRouter.Route route = router.route(s, t, profile);
+
+                if (Double.isInfinite(expected)) {
+                    assertNull(route);
+                    continue;
+                }
+                assertNotNull(route, profile + " " + s + " -> " + t);
+                assertEquals(expected, route.getSeconds(), expected * 1e-4 + 1e-3, profile + " " + s + " -> " + t);
+                int[] nodes = route.getNodes();
+                assertEquals(s, nodes[0]);
+                assertEquals(t, nodes[nodes.length - 1]);
+                assertEquals(route.getSeconds(), pathSeconds(graph, nodes, profile), 1e-2);
+            }
+        }
+    }
+
+    @Test
+    void profilesRespectAccessAndOneWayStreets() {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        int a = builder.addNode(43.650, -79.400);
+        int b = builder.addNode(43.650, -79.390);
+        int c = builder.addNode(43.655, -79.395);
+        builder.addRoad(a, b, ACCESS_CAR, 0, 100);                   // one-way motorway a -> b
+        builder.addRoad(a, c, ALL, ALL, 30);
+        builder.addRoad(c, b, ALL, ALL, 30);
+        RoadGraphRouter router = new RoadGraphRouter(builder.build());
+
+        assertArrayEquals(new int[]{a, b}, router.route(a, b, RoadGraph.Profile.DRIVING).getNodes());
+        assertArrayEquals(new int[]{b, c, a}, router.route(b, a, RoadGraph.Profile.DRIVING).getNodes());
+        assertArrayEquals(new int[]{a, c, b}, router.route(a, b, RoadGraph.Profile.WALKING).getNodes());
+    }
+
+    @Test
+    void graphSurvivesWriteAndRead() throws Exception {
+        RoadGraph graph = randomCity(12, 3);
+        Path file = Files.createTempFile("road-graph", ".bin");
+        graph.write(file);
+        RoadGraph loaded = RoadGraph.read(file);
+
+        assertEquals(graph.nodeCount(), loaded.nodeCount());
+        assertEquals(graph.edgeCount(), loaded.edgeCount());
+        int last = graph.nodeCount() - 1;
+        assertEquals(new RoadGraphRouter(graph).route(0, last, RoadGraph.Profile.CYCLING).getSeconds(),
+                new RoadGraphRouter(loaded).route(0, last, RoadGraph.Profile.CYCLING).getSeconds(), 1e-6);
+    }
+
+    @Test
+    void stopsOutsideTheGraphGoToTheFallback() throws Exception {
+        RoadGraph graph = randomCity(10, 5);
+        GenerateRouteRoutingDataAccessInterface remote = (start, end, profile) -> RouteGeometry.straightLine(start, end);
+        OfflineRoutingDataAccessObject offline = new OfflineRoutingDataAccessObject(new RoadGraphRouter(graph), remote);
+
+        GeoPosition inside = new GeoPosition(43.6021, -79.3979);
+        GeoPosition alsoInside = new GeoPosition(43.6071, -79.3901);
+        GeoPosition farAway = new GeoPosition(45.5, -73.6);
+
+        RouteGeometry local = offline.getRoute(inside, alsoInside, "walking");
+        assertTrue(local.size() > 2);
+        assertEquals(inside.getLatitude(), local.get(0).getLatitude(), 0.001);
+        assertEquals(RouteGeometry.straightLine(inside, farAway), offline.getRoute(inside, farAway, "walking"));
+
+        List<RouteGeometry> legs = offline.getRoutes(List.of(inside, alsoInside, farAway), "driving");
+        assertEquals(2, legs.size());
+        assertTrue(legs.get(0).size() > 2);
+        assertEquals(2, legs.get(1).size());
+    }
+}
@@ -0,0 +1,175 @@
+package data_access;
+
+import entity.RouteGeometry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares decoding one long OSRM route three ways: the original path (GeoJSON body as a
+ * String, org.json DOM, then GeoPositions), streaming GeoJSON into GeoPositions, and the
+ * current path (polyline6 streamed into a packed RouteGeometry). Reports the response size,
+ * bytes allocated while decoding and heap kept by the decoded route.
+ * <p>
+ * Run manually: java data_access.RouteDecodingBenchmark [points per route, default 50000]
+ * (needs a HotSpot JVM for per-thread allocation counters).
+ */
+public class RouteDecodingBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+
+    public static void main(String[] args) throws IOException {
+        int points = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        RouteGeometry line = syntheticLine(points);
+        byte[] geoJson = geoJsonResponse(line);
+        byte[] polyline6 = polyline6Response(line);
+        System.out.printf(Locale.ROOT, "Route: %d points, GeoJSON %.2f MB, polyline6 %.2f MB%n",
+                points, geoJson.length / 1e6, polyline6.length / 1e6);
+
+        run("String + DOM", geoJson, RouteDecodingBenchmark::decodeWithDom);
+        run("GeoJSON stream", geoJson, RouteDecodingBenchmark::decodeGeoJsonStreaming);
+        run("polyline6", polyline6, RoutingDataAccessObject::decodeRouteGeometry);
+    }
+
+    private interface Decoder {
+        Object decode(InputStream body) throws IOException;
+    }
+
+    private static void run(String label, byte[] response, Decoder decoder) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += decoder.decode(new ByteArrayInputStream(response)).hashCode() & 1;
+        }
+
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += decoder.decode(new ByteArrayInputStream(response)).hashCode() & 1;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        // Heap kept: hold several decoded copies across a collection
+        Object[] kept = new Object[MEASURED_ROUNDS];
+        long usedBefore = usedHeap();
+        for (int i = 0; i < kept.length; i++) kept[i] = decoder.decode(new ByteArrayInputStream(response));
+        long retained = usedHeap() - usedBefore;
+
+        System.out.printf(Locale.ROOT, "%-14s %8.2f MB allocated/route %8.2f MB kept/route %8.2f ms/route (%d)%n",
+                label, allocated / 1e6 / MEASURED_ROUNDS, retained / 1e6 / kept.length,
+                elapsed / 1e6 / MEASURED_ROUNDS, sink + kept.length);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** The decoding RoutingDataAccessObject did before streaming. */
+    private static List<GeoPosition> decodeWithDom(InputStream body) throws IOException {
+        String text = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        JSONObject root = new JSONObject(text);
+        JSONArray routes = root.optJSONArray("routes");
+        if (routes == null || routes.isEmpty()) return new ArrayList<>();
+
+        JSONArray coordsArray = routes.getJSONObject(0).getJSONObject("geometry").getJSONArray("coordinates");
+        List<GeoPosition> result = new ArrayList<>(coordsArray.length());
+        for (int i = 0; i < coordsArray.length(); i++) {
+            JSONArray p = coordsArray.getJSONArray(i);
+            result.add(new GeoPosition(p.getDouble(1), p.getDouble(0)));
+        }
+        return result;
+    }
+
+    /** The GeoJSON decoding RoutingDataAccessObject did before polyline6. */
+    private static List<GeoPosition> decodeGeoJsonStreaming(InputStream body) throws IOException {
+        try (JsonPullParser json = new JsonPullParser(body)) {
+            List<GeoPosition> result = new ArrayList<>();
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextNameIs("routes")) {
+                    json.beginArray();
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        if (json.nextNameIs("geometry")) {
+                            json.beginObject();
+                            while (json.hasNext()) {
+                                if (json.nextNameIs("coordinates")) {
+                                    json.beginArray();
+                                    while (json.hasNext()) {
+                                        json.beginArray();
+                                        double lon = json.nextDouble();
+                                        double lat = json.nextDouble();
+                                        json.endArray();
+                                        result.add(new GeoPosition(lat, lon));
+                                    }
+                                    json.endArray();
+                                } else {
+                                    json.skipValue();
+                                }
+                            }
+                            json.endObject();
+                        } else {
+                            json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            return result;
+        }
+    }
+
+    /** A wandering line of the given length. */
+    private static RouteGeometry syntheticLine(int points) {
+        RouteGeometry.Builder line = new RouteGeometry.Builder(points);
+        double lon = -79.383186;
+        double lat = 43.653482;
+        for (int i = 0; i < points; i++) {
+            lon += 0.000137 * Math.cos(i * 0.01);
+            lat += 0.000091 * Math.sin(i * 0.013);
+            line.add(lat, lon);
+        }
+        return line.build();
+    }
+
+    /** An OSRM-shaped response with the line as GeoJSON coordinates. */
+    private static byte[] geoJsonResponse(RouteGeometry line) {
+        StringBuilder sb = new StringBuilder(line.size() * 24 + 256);
+        sb.append("{\"code\":\"Ok\",\"routes\":[{\"geometry\":{\"coordinates\":[");
+        for (int i = 0; i < line.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append('[').append(String.format(Locale.ROOT, "%.6f", line.longitude(i)))
+                    .append(',').append(String.format(Locale.ROOT, "%.6f", line.latitude(i))).append(']');
+        }
+        sb.append("],\"type\":\"LineString\"},\"legs\":[],\"distance\":12345.6,\"duration\":789.0}],"
+                + "\"waypoints\":[]}");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** The same response with the line as a polyline6 string. */
+    private static byte[] polyline6Response(RouteGeometry line) {
+        String encoded = Polyline6.encode(line).replace("\\", "\\\\");
+        return ("{\"code\":\"Ok\",\"routes\":[{\"geometry\":\"" + encoded + "\",\"legs\":[],"
+                + "\"distance\":12345.6,\"duration\":789.0}],\"waypoints\":[]}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+package interface_adapter.generate_route;
+
+import entity.RouteGeometry;
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.generate_route.GenerateRouteOutputData;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerateRoutePresenterTest {
+
+    @Test
+    void routeFromAWorkerThreadIsAppliedOnTheEventThread() throws Exception {
+        GenerateRouteViewModel vm = new GenerateRouteViewModel();
+        AtomicBoolean onEventThread = new AtomicBoolean();
+        vm.addPropertyChangeListener(evt -> onEventThread.set(SwingUtilities.isEventDispatchThread()));
+        GeoPosition a = new GeoPosition(43.65, -79.38);
+        GeoPosition b = new GeoPosition(43.66, -79.39);
+        GenerateRouteOutputData route = new GenerateRouteOutputData(
+                List.of(RouteGeometry.straightLine(a, b)), List.of(a, b), "walking", 0);
+
+        CompletableFuture.runAsync(() -> new GenerateRoutePresenter(vm).prepareSuccessView(route)).get();
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertTrue(onEventThread.get());
+        assertEquals(List.of(a, b), vm.getState().getRoutedStops());
+        assertEquals("walking", vm.getState().getRoutedProfile());
+    }
+
+    @Test
+    void failureFromAWorkerThreadIsAppliedOnTheEventThread() throws Exception {
+        GenerateRouteViewModel vm = new GenerateRouteViewModel();
+        AtomicBoolean onEventThread = new AtomicBoolean();
+        vm.addPropertyChangeListener(evt -> onEventThread.set(SwingUtilities.isEventDispatchThread()));
+
+        CompletableFuture.runAsync(() -> new GenerateRoutePresenter(vm).prepareFailView("no route")).get();
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertTrue(onEventThread.get());
+        assertEquals("no route", vm.getState().getErrorMessage());
+    }
+}
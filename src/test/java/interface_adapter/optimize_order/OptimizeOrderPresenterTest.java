@@ -0,0 +1,58 @@
+package interface_adapter.optimize_order;
+
+import interface_adapter.search.SearchState;
+import interface_adapter.search.SearchViewModel;
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.viewer.GeoPosition;
+import use_case.optimize_order.OptimizeOrderOutputData;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizeOrderPresenterTest {
+
+    private static final GeoPosition A = new GeoPosition(43.65, -79.38);
+    private static final GeoPosition B = new GeoPosition(43.66, -79.39);
+    private static final GeoPosition C = new GeoPosition(43.67, -79.40);
+
+    private static SearchViewModel withStops(List<String> names, List<GeoPosition> stops) {
+        SearchViewModel vm = new SearchViewModel();
+        SearchState state = new SearchState(vm.getState());
+        state.setStopNames(names);
+        state.setStops(stops);
+        vm.setState(state);
+        return vm;
+    }
+
+    private static OptimizeOrderOutputData reversed() {
+        return new OptimizeOrderOutputData(List.of("c", "b", "a"), List.of(C, B, A),
+                List.of("a", "b", "c"), List.of(A, B, C), 30, 20);
+    }
+
+    @Test
+    void optimizedOrderReplacesTheStopsOnTheEventThread() throws Exception {
+        SearchViewModel vm = withStops(List.of("a", "b", "c"), List.of(A, B, C));
+
+        new OptimizeOrderPresenter(vm).prepareSuccessView(reversed());
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(List.of("c", "b", "a"), vm.getState().getStopNames());
+        assertEquals(List.of(C, B, A), vm.getState().getStops());
+        assertNull(vm.getState().getErrorMessage());
+    }
+
+    @Test
+    void resultIsDiscardedIfTheStopsChangedMeanwhile() throws Exception {
+        GeoPosition added = new GeoPosition(43.68, -79.41);
+        SearchViewModel vm = withStops(List.of("a", "b", "c", "d"), List.of(A, B, C, added));
+
+        new OptimizeOrderPresenter(vm).prepareSuccessView(reversed());
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(List.of("a", "b", "c", "d"), vm.getState().getStopNames());
+        assertEquals(List.of(A, B, C, added), vm.getState().getStops());
+        assertNotNull(vm.getState().getErrorMessage());
+    }
+}
@@ -2,6 +2,10 @@ package interface_adapter.search;
 
 import org.junit.jupiter.api.Test;
 
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SearchViewModelTest {
@@ -27,4 +31,15 @@ class SearchViewModelTest {
         assertEquals(43.65, vm.getState().getLatitude());
         assertEquals(-79.38, vm.getState().getLongitude());
     }
+
+    @Test
+    void backgroundUpdatesRunOnTheEventThread() throws Exception {
+        SearchViewModel vm = new SearchViewModel();
+        CompletableFuture<Boolean> onEventThread = new CompletableFuture<>();
+
+        CompletableFuture.runAsync(() -> vm.updateOnEventThread(
+                () -> onEventThread.complete(SwingUtilities.isEventDispatchThread())));
+
+        assertTrue(onEventThread.get(2, TimeUnit.SECONDS));
+    }
 }
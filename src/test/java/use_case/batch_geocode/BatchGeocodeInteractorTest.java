@@ -0,0 +1,118 @@
+package use_case.batch_geocode;
+
+import entity.Location;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchGeocodeInteractorTest {
+
+    /** In-memory file, checkpoint and geocoder. */
+    static class FakeDAO implements BatchGeocodeDataAccessInterface {
+        List<String> addresses = new ArrayList<>();
+        final Map<String, Optional<Location>> checkpoint = new LinkedHashMap<>();
+        final List<String> geocoded = new ArrayList<>();
+        final Set<String> failing = new HashSet<>();
+
+        @Override
+        public List<String> readAddresses(String sourcePath) {
+            return addresses;
+        }
+
+        @Override
+        public Map<String, Optional<Location>> loadCheckpoint(String sourcePath) {
+            return new HashMap<>(checkpoint);
+        }
+
+        @Override
+        public void checkpoint(String sourcePath, String normalizedAddress, Optional<Location> result) {
+            checkpoint.put(normalizedAddress, result);
+        }
+
+        @Override
+        public CompletableFuture<Optional<Location>> geocode(String address) {
+            geocoded.add(address);
+            if (failing.contains(address)) return CompletableFuture.failedFuture(new IOException("timeout"));
+            if (address.startsWith("Nowhere")) return CompletableFuture.completedFuture(Optional.empty());
+            return CompletableFuture.completedFuture(Optional.of(new Location(address + ", Canada", 43, -79)));
+        }
+    }
+
+    static class FakePresenter implements BatchGeocodeOutputBoundary {
+        final List<BatchGeocodeOutputData> outputs = new ArrayList<>();
+        String error;
+
+        @Override
+        public void prepareSuccessView(BatchGeocodeOutputData outputData) {
+            outputs.add(outputData);
+        }
+
+        @Override
+        public void prepareFailView(String errorMessage) {
+            error = errorMessage;
+        }
+    }
+
+    @Test
+    void duplicatesAreGeocodedOnceAndPresentedTogether() {
+        FakeDAO dao = new FakeDAO();
+        dao.addresses = List.of("Toronto", "  toronto ", "Ottawa", "Nowhere Land", "Montreal");
+        FakePresenter presenter = new FakePresenter();
+
+        new BatchGeocodeInteractor(dao, presenter, 2).execute(new BatchGeocodeInputData("stops.csv"));
+
+        assertEquals(List.of("Toronto", "Ottawa", "Nowhere Land", "Montreal"), dao.geocoded);
+        assertEquals(1, presenter.outputs.size(), "whole file is one update");
+        BatchGeocodeOutputData out = presenter.outputs.get(0);
+        assertEquals(List.of("Toronto, Canada", "Ottawa, Canada", "Montreal, Canada"),
+                out.getLocations().stream().map(Location::getName).toList());
+        assertEquals(List.of("Nowhere Land"), out.getUnresolved());
+        assertEquals(4, dao.checkpoint.size());
+    }
+
+    @Test
+    void rerunResumesFromCheckpoint() {
+        FakeDAO dao = new FakeDAO();
+        dao.addresses = List.of("Toronto", "Ottawa", "Montreal");
+        dao.checkpoint.put("toronto", Optional.of(new Location("Toronto, Canada", 43, -79)));
+        dao.checkpoint.put("ottawa", Optional.empty());
+        FakePresenter presenter = new FakePresenter();
+
+        new BatchGeocodeInteractor(dao, presenter).execute(new BatchGeocodeInputData("stops.csv"));
+
+        assertEquals(List.of("Montreal"), dao.geocoded);
+        BatchGeocodeOutputData out = presenter.outputs.get(0);
+        assertEquals(2, out.getResumedCount());
+        assertEquals(2, out.getLocations().size());
+        assertEquals(List.of("Ottawa"), out.getUnresolved());
+    }
+
+    @Test
+    void failedLookupIsNotCheckpointed() {
+        FakeDAO dao = new FakeDAO();
+        dao.addresses = List.of("Toronto", "Ottawa");
+        dao.failing.add("Ottawa");
+        FakePresenter presenter = new FakePresenter();
+
+        new BatchGeocodeInteractor(dao, presenter).execute(new BatchGeocodeInputData("stops.csv"));
+
+        assertEquals(Set.of("toronto"), dao.checkpoint.keySet());
+        assertEquals(List.of("Ottawa"), presenter.outputs.get(0).getUnresolved());
+    }
+
+    @Test
+    void emptyFileFails() {
+        FakeDAO dao = new FakeDAO();
+        dao.addresses = List.of("   ");
+        FakePresenter presenter = new FakePresenter();
+
+        new BatchGeocodeInteractor(dao, presenter).execute(new BatchGeocodeInputData("empty.txt"));
+
+        assertEquals("No addresses found in empty.txt", presenter.error);
+        assertTrue(presenter.outputs.isEmpty());
+    }
+}
@@ -0,0 +1,289 @@
+package use_case.generate_route;
+
+import entity.RouteGeometry;
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerateRouteInteractorTest {
+
+    /** Each leg takes {@code delayMs}; legs starting at a failing latitude throw. */
+    static class SlowRouter implements GenerateRouteRoutingDataAccessInterface {
+        final long delayMs;
+        final double failingLatitude;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        SlowRouter(long delayMs, double failingLatitude) {
+            this.delayMs = delayMs;
+            this.failingLatitude = failingLatitude;
+        }
+
+        @Override
+        public RouteGeometry getRoute(GeoPosition start, GeoPosition end, String profile)
+                throws IOException, InterruptedException {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMs);
+                if (start.getLatitude() == failingLatitude) throw new IOException("no route");
+                GeoPosition middle = new GeoPosition((start.getLatitude() + end.getLatitude()) / 2,
+                        (start.getLongitude() + end.getLongitude()) / 2);
+                return RouteGeometry.of(List.of(start, middle, end));
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    static class FakePresenter implements GenerateRouteOutputBoundary {
+        GenerateRouteOutputData output;
+        String error;
+
+        @Override
+        public void prepareSuccessView(GenerateRouteOutputData outputData) {
+            output = outputData;
+        }
+
+        @Override
+        public void prepareFailView(String errorMessage) {
+            error = errorMessage;
+        }
+    }
+
+    private static List<GeoPosition> stops(int count) {
+        List<GeoPosition> stops = new ArrayList<>();
+        for (int i = 0; i < count; i++) stops.add(new GeoPosition(i, i));
+        return stops;
+    }
+
+    @Test
+    void legsRunConcurrentlyAndStayInStopOrder() {
+        // Each leg waits until three others have started, so the legs only succeed if they overlap
+        CyclicBarrier fourAtOnce = new CyclicBarrier(4);
+        GenerateRouteRoutingDataAccessInterface router = (start, end, profile) -> {
+            try {
+                fourAtOnce.await(5, TimeUnit.SECONDS);
+            } catch (BrokenBarrierException | TimeoutException e) {
+                throw new IOException("legs were not requested together", e);
+            }
+            GeoPosition middle = new GeoPosition((start.getLatitude() + end.getLatitude()) / 2,
+                    (start.getLongitude() + end.getLongitude()) / 2);
+            return RouteGeometry.of(List.of(start, middle, end));
+        };
+        FakePresenter presenter = new FakePresenter();
+        ExecutorService executor = GenerateRouteInteractor.newLegExecutor(8);
+        try {
+            new GenerateRouteInteractor(router, presenter, executor)
+                    .execute(new GenerateRouteInputData("walking", stops(9)));
+
+            List<RouteGeometry> segments = presenter.output.getSegments();
+            assertEquals(8, segments.size());
+            for (int i = 0; i < 8; i++) {
+                assertEquals(3, segments.get(i).size(), "leg " + i + " fell back to a straight line");
+                assertEquals(i, segments.get(i).get(0).getLatitude(), 1e-9);
+                assertEquals(i + 1, segments.get(i).get(2).getLatitude(), 1e-9);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void parallelismIsBoundedByTheExecutor() {
+        SlowRouter router = new SlowRouter(20, -1);
+        ExecutorService executor = GenerateRouteInteractor.newLegExecutor(2);
+        try {
+            new GenerateRouteInteractor(router, new FakePresenter(), executor)
+                    .execute(new GenerateRouteInputData("walking", stops(7)));
+
+            assertTrue(router.maxRunning.get() <= 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLegFallsBackToStraightLine() {
+        SlowRouter router = new SlowRouter(0, 1);
+        FakePresenter presenter = new FakePresenter();
+
+        new GenerateRouteInteractor(router, presenter).execute(new GenerateRouteInputData("walking", stops(3)));
+
+        List<RouteGeometry> segments = presenter.output.getSegments();
+        assertEquals(3, segments.get(0).size());
+        assertEquals(List.of(new GeoPosition(1, 1), new GeoPosition(2, 2)), segments.get(1).asPositions());
+    }
+
+    @Test
+    void multiWaypointSourceIsAskedOnceAndEmptyLegsBecomeStraight() {
+        AtomicInteger perLegCalls = new AtomicInteger();
+        AtomicInteger multiCalls = new AtomicInteger();
+        GenerateRouteRoutingDataAccessInterface router = new GenerateRouteRoutingDataAccessInterface() {
+            @Override
+            public RouteGeometry getRoute(GeoPosition start, GeoPosition end, String profile) {
+                perLegCalls.incrementAndGet();
+                return RouteGeometry.straightLine(start, end);
+            }
+
+            @Override
+            public boolean routesManyLegsAtOnce() {
+                return true;
+            }
+
+            @Override
+            public List<RouteGeometry> getRoutes(List<GeoPosition> stops, String profile) {
+                multiCalls.incrementAndGet();
+                return List.of(RouteGeometry.of(List.of(stops.get(0), new GeoPosition(0.5, 0.5), stops.get(1))),
+                        RouteGeometry.empty());
+            }
+        };
+        FakePresenter presenter = new FakePresenter();
+
+        new GenerateRouteInteractor(router, presenter).execute(new GenerateRouteInputData("walking", stops(3)));
+
+        assertEquals(1, multiCalls.get());
+        assertEquals(0, perLegCalls.get());
+        assertEquals(3, presenter.output.getSegments().get(0).size());
+        assertEquals(RouteGeometry.straightLine(new GeoPosition(1, 1), new GeoPosition(2, 2)),
+                presenter.output.getSegments().get(1));
+    }
+
+    @Test
+    void failedMultiWaypointRequestFallsBackToLegs() {
+        AtomicInteger perLegCalls = new AtomicInteger();
+        GenerateRouteRoutingDataAccessInterface router = new GenerateRouteRoutingDataAccessInterface() {
+            @Override
+            public RouteGeometry getRoute(GeoPosition start, GeoPosition end, String profile) {
+                perLegCalls.incrementAndGet();
+                return RouteGeometry.straightLine(start, end);
+            }
+
+            @Override
+            public boolean routesManyLegsAtOnce() {
+                return true;
+            }
+
+            @Override
+            public List<RouteGeometry> getRoutes(List<GeoPosition> stops, String profile) throws IOException {
+                throw new IOException("Too many waypoints");
+            }
+        };
+        FakePresenter presenter = new FakePresenter();
+
+        new GenerateRouteInteractor(router, presenter).execute(new GenerateRouteInputData("walking", stops(4)));
+
+        assertEquals(3, perLegCalls.get());
+        assertEquals(3, presenter.output.getSegments().size());
+    }
+
+    @Test
+    void defaultMultiWaypointRoutingAsksForEachLegInOrder() throws Exception {
+        SlowRouter router = new SlowRouter(0, -1);
+
+        List<RouteGeometry> legs = router.getRoutes(stops(4), "walking");
+
+        assertFalse(router.routesManyLegsAtOnce());
+        assertEquals(3, legs.size());
+        for (int i = 0; i < 3; i++) assertEquals(i, legs.get(i).get(0).getLatitude(), 1e-9);
+    }
+
+    /** Previous route taken from the last successful output, as the view model adapter does. */
+    static class LastRoute implements GenerateRoutePreviousRouteDataAccessInterface {
+        GenerateRouteOutputData last;
+
+        @Override
+        public String getRoutedProfile() {
+            return last == null ? null : last.getProfile();
+        }
+
+        @Override
+        public List<GeoPosition> getRoutedStops() {
+            return last == null ? List.of() : last.getStops();
+        }
+
+        @Override
+        public List<RouteGeometry> getRouteSegments() {
+            return last == null ? List.of() : last.getSegments();
+        }
+    }
+
+    /** Routes a list of stops, then routes {@code edited} with the first route as the previous one. */
+    private static List<GeoPosition> requestedStarts(List<GeoPosition> original, List<GeoPosition> edited,
+                                                     FakePresenter presenter, LastRoute previous) {
+        List<GeoPosition> starts = new ArrayList<>();
+        GenerateRouteRoutingDataAccessInterface router = (start, end, profile) -> {
+            synchronized (starts) {
+                starts.add(start);
+            }
+            return RouteGeometry.of(List.of(start, new GeoPosition(start.getLatitude(), end.getLongitude()), end));
+        };
+        GenerateRouteInteractor interactor = new GenerateRouteInteractor(
+                router, presenter, Runnable::run, previous);
+
+        interactor.execute(new GenerateRouteInputData("walking", original));
+        previous.last = presenter.output;
+        starts.clear();
+        interactor.execute(new GenerateRouteInputData("walking", edited));
+        return starts;
+    }
+
+    @Test
+    void removingAStopRoutesOnlyTheBridgingLegAndSharesTheRest() {
+        List<GeoPosition> original = stops(6);
+        List<GeoPosition> edited = new ArrayList<>(original);
+        edited.remove(3);
+        FakePresenter presenter = new FakePresenter();
+        LastRoute previous = new LastRoute();
+
+        assertEquals(List.of(new GeoPosition(2, 2)), requestedStarts(original, edited, presenter, previous));
+        List<RouteGeometry> previousSegments = previous.last.getSegments();
+        List<RouteGeometry> segments = presenter.output.getSegments();
+        assertEquals(4, segments.size());
+        assertEquals(3, presenter.output.getReusedLegCount());
+        assertEquals(new GeoPosition(4, 4), segments.get(2).get(2));
+        assertSame(previousSegments.get(4), segments.get(3));
+    }
+
+    @Test
+    void unchangedItineraryNeedsNoRequests() {
+        List<GeoPosition> original = stops(5);
+
+        assertTrue(requestedStarts(original, original, new FakePresenter(), new LastRoute()).isEmpty());
+    }
+
+    @Test
+    void movingAStopRoutesOnlyTheLegsAroundBothPlaces() {
+        List<GeoPosition> original = stops(6);
+        List<GeoPosition> edited = new ArrayList<>(original);
+        edited.add(1, edited.remove(4));   // 0 4 1 2 3 5
+        FakePresenter presenter = new FakePresenter();
+
+        List<GeoPosition> requested = requestedStarts(original, edited, presenter, new LastRoute());
+
+        // New legs: 0-4, 4-1, 3-5; legs 1-2 and 2-3 are kept
+        assertEquals(3, requested.size());
+        assertEquals(2, presenter.output.getReusedLegCount());
+    }
+
+    @Test
+    void fewerThanTwoStopsFails() {
+        FakePresenter presenter = new FakePresenter();
+
+        new GenerateRouteInteractor(new SlowRouter(0, -1), presenter)
+                .execute(new GenerateRouteInputData("walking", stops(1)));
+
+        assertNotNull(presenter.error);
+        assertNull(presenter.output);
+    }
+}
@@ -0,0 +1,189 @@
+package use_case.optimize_order;
+
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizeOrderInteractorTest {
+
+    /** Travel time is the planar distance between stops (lat/lon used as x/y), or a given matrix. */
+    static class FakeDurations implements OptimizeOrderDataAccessInterface {
+        double[][] matrix;
+        IOException failure;
+        int calls;
+
+        @Override
+        public double[][] getDurations(List<GeoPosition> stops, String profile) throws IOException {
+            calls++;
+            if (failure != null) throw failure;
+            if (matrix != null) return matrix;
+            double[][] seconds = new double[stops.size()][stops.size()];
+            for (int i = 0; i < stops.size(); i++) {
+                for (int j = 0; j < stops.size(); j++) {
+                    seconds[i][j] = Math.hypot(stops.get(i).getLatitude() - stops.get(j).getLatitude(),
+                            stops.get(i).getLongitude() - stops.get(j).getLongitude());
+                }
+            }
+            return seconds;
+        }
+    }
+
+    static class FakePresenter implements OptimizeOrderOutputBoundary {
+        final List<OptimizeOrderOutputData> outputs = new ArrayList<>();
+        String error;
+
+        @Override
+        public void prepareSuccessView(OptimizeOrderOutputData outputData) {
+            outputs.add(outputData);
+        }
+
+        @Override
+        public void prepareFailView(String error) {
+            this.error = error;
+        }
+    }
+
+    private static List<GeoPosition> onALine(int... xs) {
+        List<GeoPosition> stops = new ArrayList<>();
+        for (int x : xs) stops.add(new GeoPosition(0, x));
+        return stops;
+    }
+
+    private static List<String> namesOf(List<GeoPosition> stops) {
+        List<String> names = new ArrayList<>();
+        for (GeoPosition stop : stops) names.add("x" + (int) stop.getLongitude());
+        return names;
+    }
+
+    @Test
+    void shuffledStopsOnAStreetComeBackInStreetOrder() {
+        List<GeoPosition> stops = onALine(0, 7, 2, 9, 4, 1, 8, 3, 6, 5);
+        FakePresenter presenter = new FakePresenter();
+        new OptimizeOrderInteractor(new FakeDurations(), presenter).execute(
+                new OptimizeOrderInputData(namesOf(stops), stops, "walking", true, false));
+
+        assertNull(presenter.error);
+        assertEquals(1, presenter.outputs.size(), "names and stops arrive in one update");
+        OptimizeOrderOutputData out = presenter.outputs.get(0);
+        assertEquals(List.of("x0", "x1", "x2", "x3", "x4", "x5", "x6", "x7", "x8", "x9"), out.getStopNames());
+        assertEquals(onALine(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), out.getStops());
+        assertEquals(9, out.getOptimizedSeconds(), 1e-9);
+        assertTrue(out.getOriginalSeconds() > out.getOptimizedSeconds());
+    }
+
+    @Test
+    void keptEndsStayInPlace() {
+        List<GeoPosition> stops = onALine(5, 0, 9, 3, 7, 1);
+        FakePresenter presenter = new FakePresenter();
+        new OptimizeOrderInteractor(new FakeDurations(), presenter).execute(
+                new OptimizeOrderInputData(namesOf(stops), stops, "walking", true, true));
+
+        // From 5 to 1 through 0, 3, 7, 9: out to 9 first, then back down (4 + 9 + 1 = 14)
+        OptimizeOrderOutputData out = presenter.outputs.get(0);
+        assertEquals("x5", out.getStopNames().get(0));
+        assertEquals("x1", out.getStopNames().get(5));
+        assertEquals(14, out.getOptimizedSeconds(), 1e-9);
+    }
+
+    @Test
+    void oneWayTimesAreRespected() {
+        // Only 0 -> 3 -> 2 -> 1 is quick; the same streets the other way are slow
+        double[][] matrix = new double[4][4];
+        for (double[] row : matrix) Arrays.fill(row, 10);
+        matrix[0][3] = matrix[3][2] = matrix[2][1] = 1;
+        FakeDurations durations = new FakeDurations();
+        durations.matrix = matrix;
+        List<GeoPosition> stops = onALine(0, 1, 2, 3);
+        FakePresenter presenter = new FakePresenter();
+
+        new OptimizeOrderInteractor(durations, presenter).execute(
+                new OptimizeOrderInputData(namesOf(stops), stops, "driving", true, false));
+
+        assertEquals(onALine(0, 3, 2, 1), presenter.outputs.get(0).getStops());
+        assertEquals(3, presenter.outputs.get(0).getOptimizedSeconds(), 1e-9);
+    }
+
+    @Test
+    void matchesBruteForceOnSmallTrips() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 20; trial++) {
+            int n = 8;
+            double[][] seconds = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) seconds[i][j] = i == j ? 0 : 1 + random.nextInt(100);
+            }
+            StopOrderOptimizer optimizer = new StopOrderOptimizer(seconds, true, false);
+            int[] order = optimizer.optimize();
+
+            assertEquals(0, order[0]);
+            assertEquals(bruteForce(seconds), optimizer.cost(order), 1e-9, "trial " + trial);
+        }
+    }
+
+    @Test
+    void hundredStopsFinishWellUnderASecond() {
+        Random random = new Random(9);
+        List<GeoPosition> stops = new ArrayList<>();
+        for (int i = 0; i < 100; i++) stops.add(new GeoPosition(random.nextDouble() * 100, random.nextDouble() * 100));
+        FakePresenter presenter = new FakePresenter();
+        OptimizeOrderInteractor interactor = new OptimizeOrderInteractor(new FakeDurations(), presenter);
+
+        long start = System.nanoTime();
+        interactor.execute(new OptimizeOrderInputData(namesOf(stops), stops, "walking", true, true));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        OptimizeOrderOutputData out = presenter.outputs.get(0);
+        assertTrue(millis < 1000, "took " + millis + " ms");
+        assertEquals(stops.get(0), out.getStops().get(0));
+        assertEquals(stops.get(99), out.getStops().get(99));
+        assertEquals(100, out.getStops().stream().distinct().count());
+        // Random points in a 100 x 100 square: a decent tour is far below the given order
+        assertTrue(out.getOptimizedSeconds() < out.getOriginalSeconds() / 4);
+    }
+
+    @Test
+    void failuresAreReported() {
+        FakeDurations durations = new FakeDurations();
+        durations.failure = new IOException("OSRM down");
+        FakePresenter presenter = new FakePresenter();
+        OptimizeOrderInteractor interactor = new OptimizeOrderInteractor(durations, presenter);
+
+        List<GeoPosition> stops = onALine(0, 2, 1);
+        interactor.execute(new OptimizeOrderInputData(namesOf(stops), stops, "walking", false, false));
+        assertEquals("Could not get travel times: OSRM down", presenter.error);
+
+        interactor.execute(new OptimizeOrderInputData(namesOf(stops), stops, "walking", true, true));
+        assertEquals("Add more stops to optimize their order.", presenter.error);
+        assertEquals(1, durations.calls);
+        assertTrue(presenter.outputs.isEmpty());
+    }
+
+    /** Cheapest open path starting at stop 0, by trying every order. */
+    private static double bruteForce(double[][] seconds) {
+        int n = seconds.length;
+        int[] rest = new int[n - 1];
+        for (int i = 1; i < n; i++) rest[i - 1] = i;
+        return bestFrom(seconds, 0, rest, 0, 0);
+    }
+
+    private static double bestFrom(double[][] seconds, int from, int[] rest, int used, double sofar) {
+        if (used == rest.length) return sofar;
+        double best = Double.POSITIVE_INFINITY;
+        for (int k = used; k < rest.length; k++) {
+            int t = rest[used];
+            rest[used] = rest[k];
+            rest[k] = t;
+            best = Math.min(best, bestFrom(seconds, rest[used], rest, used + 1, sofar + seconds[from][rest[used]]));
+            rest[k] = rest[used];
+            rest[used] = t;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,96 @@
+package use_case.reverse_geocode;
+
+import data_access.KnownLocationIndex;
+import entity.Location;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReverseGeocodeInteractorTest {
+
+    /** Local index is real; the remote side counts its calls. */
+    static class FakeDAO implements ReverseGeocodeDataAccessInterface {
+        final KnownLocationIndex index = new KnownLocationIndex();
+        int remoteCalls = 0;
+        Location remoteAnswer;
+
+        @Override
+        public Optional<Location> findNearestKnown(double latitude, double longitude, double maxMeters) {
+            return index.nearest(latitude, longitude, maxMeters);
+        }
+
+        @Override
+        public Optional<Location> reverse(double latitude, double longitude) throws IOException {
+            remoteCalls++;
+            if (remoteAnswer == null) throw new IOException("offline");
+            return Optional.of(remoteAnswer);
+        }
+
+        @Override
+        public void remember(Location location) {
+            index.add(location);
+        }
+    }
+
+    static class FakePresenter implements ReverseGeocodeOutputBoundary {
+        ReverseGeocodeOutputData output;
+        String error;
+
+        @Override
+        public void prepareSuccessView(ReverseGeocodeOutputData outputData) {
+            output = outputData;
+        }
+
+        @Override
+        public void prepareFailView(String errorMessage) {
+            error = errorMessage;
+        }
+    }
+
+    @Test
+    void pointNearKnownPlaceResolvesLocally() {
+        FakeDAO dao = new FakeDAO();
+        dao.index.add(new Location("CN Tower, Toronto", 43.6426, -79.3871));
+        dao.index.add(new Location("Union Station, Toronto", 43.6453, -79.3806));
+        FakePresenter presenter = new FakePresenter();
+
+        // About 30 m from the CN Tower
+        new ReverseGeocodeInteractor(dao, presenter).execute(new ReverseGeocodeInputData(43.6428, -79.3874));
+
+        assertEquals(0, dao.remoteCalls);
+        assertEquals("CN Tower, Toronto", presenter.output.getLocationName());
+        assertTrue(presenter.output.isFromLocalIndex());
+        assertEquals(43.6428, presenter.output.getLatitude(), 1e-9);
+    }
+
+    @Test
+    void distantPointFallsBackToRemoteAndIsRemembered() {
+        FakeDAO dao = new FakeDAO();
+        dao.index.add(new Location("CN Tower, Toronto", 43.6426, -79.3871));
+        dao.remoteAnswer = new Location("Casa Loma, Toronto", 43.6780, -79.4094);
+        FakePresenter presenter = new FakePresenter();
+        ReverseGeocodeInteractor interactor = new ReverseGeocodeInteractor(dao, presenter);
+
+        interactor.execute(new ReverseGeocodeInputData(43.6781, -79.4095));
+        assertEquals(1, dao.remoteCalls);
+        assertFalse(presenter.output.isFromLocalIndex());
+
+        interactor.execute(new ReverseGeocodeInputData(43.6779, -79.4093));
+        assertEquals(1, dao.remoteCalls, "second pin nearby must resolve from the index");
+        assertEquals("Casa Loma, Toronto", presenter.output.getLocationName());
+    }
+
+    @Test
+    void remoteFailureIsReported() {
+        FakeDAO dao = new FakeDAO();
+        FakePresenter presenter = new FakePresenter();
+
+        new ReverseGeocodeInteractor(dao, presenter).execute(new ReverseGeocodeInputData(10, 10));
+
+        assertEquals("Network error while naming location: offline", presenter.error);
+        assertNull(presenter.output);
+    }
+}
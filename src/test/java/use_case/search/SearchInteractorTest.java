@@ -3,6 +3,9 @@ package use_case.search;
 import entity.Location;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SearchInteractorTest {
@@ -21,6 +24,45 @@ class SearchInteractorTest {
         public Location get(String name) {
             return loc;
         }
+
+        @Override
+        public Optional<Location> find(String name) {
+            return existsReturn ? Optional.of(loc) : Optional.empty();
+        }
+
+        @Override
+        public List<Location> searchSuggestions(String query, int limit) {
+            return existsReturn ? List.of(loc) : List.of();
+        }
+    }
+
+    /** Every method stands for one Nominatim request; counts them all. */
+    static class CountingDAO extends FakeDAO {
+        int remoteCalls = 0;
+
+        @Override
+        public boolean existsByName(String name) {
+            remoteCalls++;
+            return super.existsByName(name);
+        }
+
+        @Override
+        public Location get(String name) {
+            remoteCalls++;
+            return super.get(name);
+        }
+
+        @Override
+        public Optional<Location> find(String name) {
+            remoteCalls++;
+            return super.find(name);
+        }
+
+        @Override
+        public List<Location> searchSuggestions(String query, int limit) {
+            remoteCalls++;
+            return super.searchSuggestions(query, limit);
+        }
     }
 
     static class FakePresenter implements SearchOutputBoundary {
@@ -50,4 +92,27 @@ class SearchInteractorTest {
         assertEquals("Toronto", presenter.success.getLocationName());
     }
 
+    @Test
+    void successCaseUsesOneRemoteCall() {
+        CountingDAO dao = new CountingDAO();
+        FakePresenter presenter = new FakePresenter();
+
+        new SearchInteractor(dao, presenter).execute(new SearchInputData("Toronto"));
+
+        assertNotNull(presenter.success);
+        assertEquals(1, dao.remoteCalls);
+    }
+
+    @Test
+    void missingLocationUsesOneRemoteCall() {
+        CountingDAO dao = new CountingDAO();
+        dao.existsReturn = false;
+        FakePresenter presenter = new FakePresenter();
+
+        new SearchInteractor(dao, presenter).execute(new SearchInputData("Nowhere"));
+
+        assertNull(presenter.success);
+        assertEquals("Nowhere: Location does not exist.", presenter.failure);
+        assertEquals(1, dao.remoteCalls);
+    }
 }
@@ -0,0 +1,171 @@
+package use_case.suggestion;
+
+import entity.Location;
+import org.junit.jupiter.api.Test;
+import use_case.search.SearchDataAccessInterface;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionInteractorTest {
+
+    /** Hands out futures the test completes by hand, in any order. */
+    static class ControlledDAO implements SearchDataAccessInterface {
+        final List<String> queries = new ArrayList<>();
+        final List<CompletableFuture<List<Location>>> requests = new ArrayList<>();
+        boolean ignoreCancel = false;
+
+        @Override
+        public CompletableFuture<List<Location>> searchSuggestionsAsync(String query, int limit) {
+            CompletableFuture<List<Location>> f = ignoreCancel ? new ResponseInTransit() : new CompletableFuture<>();
+            queries.add(query);
+            requests.add(f);
+            return f;
+        }
+
+        @Override
+        public boolean existsByName(String name) { return false; }
+
+        @Override
+        public Location get(String name) throws IOException { throw new IOException("unused"); }
+
+        @Override
+        public Optional<Location> find(String name) { return Optional.empty(); }
+
+        @Override
+        public List<Location> searchSuggestions(String query, int limit) { return List.of(); }
+    }
+
+    /** A response already on the wire: cancelling it has no effect. */
+    static class ResponseInTransit extends CompletableFuture<List<Location>> {
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+    }
+
+    static class FakePresenter implements SuggestionOutputBoundary {
+        final List<List<String>> presented = new ArrayList<>();
+        String error;
+
+        @Override
+        public void presentSuggestions(SuggestionOutputData data) {
+            presented.add(data.getSuggestions());
+        }
+
+        @Override
+        public void presentError(String message) {
+            error = message;
+        }
+    }
+
+    private static List<Location> places(String name) {
+        return List.of(new Location(name, 0, 0));
+    }
+
+    @Test
+    void newerQueryCancelsOlderRequest() {
+        ControlledDAO dao = new ControlledDAO();
+        SuggestionInteractor interactor = new SuggestionInteractor(dao, new FakePresenter());
+
+        interactor.execute(new SuggestionInputData("toro"));
+        interactor.execute(new SuggestionInputData("toron"));
+
+        assertTrue(dao.requests.get(0).isCancelled());
+        assertFalse(dao.requests.get(1).isDone());
+    }
+
+    @Test
+    void lateAnswerForOldQueryIsDropped() {
+        ControlledDAO dao = new ControlledDAO();
+        dao.ignoreCancel = true;
+        FakePresenter presenter = new FakePresenter();
+        SuggestionInteractor interactor = new SuggestionInteractor(dao, presenter);
+
+        interactor.execute(new SuggestionInputData("toro"));
+        interactor.execute(new SuggestionInputData("toron"));
+
+        dao.requests.get(1).complete(places("Toronto"));
+        dao.requests.get(0).complete(places("Torino"));   // arrives after the newer answer
+
+        assertEquals(List.of(List.of("Toronto")), presenter.presented);
+        assertNull(presenter.error);
+    }
+
+    @Test
+    void duplicateQueryIsSkipped() {
+        ControlledDAO dao = new ControlledDAO();
+        SuggestionInteractor interactor = new SuggestionInteractor(dao, new FakePresenter());
+
+        interactor.execute(new SuggestionInputData("Paris"));
+        interactor.execute(new SuggestionInputData(" Paris "));
+
+        assertEquals(List.of("Paris"), dao.queries);
+    }
+
+    @Test
+    void failedQueryCanBeRetried() {
+        ControlledDAO dao = new ControlledDAO();
+        FakePresenter presenter = new FakePresenter();
+        SuggestionInteractor interactor = new SuggestionInteractor(dao, presenter);
+
+        interactor.execute(new SuggestionInputData("Paris"));
+        dao.requests.get(0).completeExceptionally(new IOException("timeout"));
+        interactor.execute(new SuggestionInputData("Paris"));
+
+        assertEquals("Network error while fetching suggestions: timeout", presenter.error);
+        assertEquals(2, dao.queries.size());
+    }
+
+    @Test
+    void emptyQueryClearsSuggestionsWithoutRequest() {
+        ControlledDAO dao = new ControlledDAO();
+        FakePresenter presenter = new FakePresenter();
+        SuggestionInteractor interactor = new SuggestionInteractor(dao, presenter);
+
+        interactor.execute(new SuggestionInputData("   "));
+
+        assertTrue(dao.queries.isEmpty());
+        assertEquals(List.of(List.of()), presenter.presented);
+    }
+
+    @Test
+    void longerQueryIsAnsweredFromCachedPrefix() {
+        ControlledDAO dao = new ControlledDAO();
+        FakePresenter presenter = new FakePresenter();
+        SuggestionInteractor interactor = new SuggestionInteractor(dao, presenter);
+
+        interactor.execute(new SuggestionInputData("toro"));
+        List<Location> fetched = new ArrayList<>();
+        for (int i = 0; i < 6; i++) fetched.add(new Location("Toronto " + i + ", Ontario", 0, 0));
+        fetched.add(new Location("Toro, Zamora, Spain", 0, 0));
+        dao.requests.get(0).complete(fetched);
+
+        interactor.execute(new SuggestionInputData("toron"));
+
+        assertEquals(1, dao.queries.size(), "refinement must not hit the network");
+        List<String> shown = presenter.presented.get(1);
+        assertEquals(5, shown.size());
+        assertTrue(shown.stream().allMatch(name -> name.startsWith("Toronto")));
+    }
+
+    @Test
+    void refinementWithTooFewMatchesGoesRemote() {
+        ControlledDAO dao = new ControlledDAO();
+        SuggestionInteractor interactor = new SuggestionInteractor(dao, new FakePresenter());
+
+        interactor.execute(new SuggestionInputData("toro"));
+        dao.requests.get(0).complete(List.of(
+                new Location("Toronto, Ontario", 0, 0),
+                new Location("Toro, Zamora, Spain", 0, 0)));
+
+        interactor.execute(new SuggestionInputData("toron"));
+
+        assertEquals(List.of("toro", "toron"), dao.queries);
+    }
+}
@@ -0,0 +1,88 @@
+package view;
+
+import entity.RouteGeometry;
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.OSMTileFactoryInfo;
+import org.jxmapviewer.viewer.GeoPosition;
+import org.jxmapviewer.viewer.TileFactoryInfo;
+import org.jxmapviewer.viewer.util.GeoUtil;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectedPolylineTest {
+
+    /** The projection the tile factory's geoToPixel uses. */
+    @Test
+    void matchesTheTileFactoryProjectionAtEveryZoom() {
+        TileFactoryInfo info = new OSMTileFactoryInfo();
+        RouteGeometry line = RouteGeometry.of(List.of(new GeoPosition(43.653482, -79.383186),
+                new GeoPosition(45.501689, -73.567256), new GeoPosition(49.282730, -123.120735)));
+
+        for (int zoom = 0; zoom <= info.getMaximumZoomLevel(); zoom++) {
+            ProjectedPolyline projected = ProjectedPolyline.project(line, null, info, zoom);
+            Point2D corner = GeoUtil.getBitmapCoordinate(line.get(1), zoom, info);
+            PathIterator it = projected.toPath(corner.getX() - 100, corner.getY() - 100).getPathIterator(null);
+
+            float[] xy = new float[6];
+            for (int i = 0; i < line.size(); i++, it.next()) {
+                it.currentSegment(xy);
+                Point2D expected = GeoUtil.getBitmapCoordinate(line.get(i), zoom, info);
+                // Screen coordinates around the middle vertex: exact near the screen, float precision far off it
+                double x = expected.getX() - corner.getX() + 100;
+                double y = expected.getY() - corner.getY() + 100;
+                assertEquals(x, xy[0], 0.05 + Math.abs(x) * 1e-7, "zoom " + zoom);
+                assertEquals(y, xy[1], 0.05 + Math.abs(y) * 1e-7, "zoom " + zoom);
+            }
+        }
+    }
+
+    @Test
+    void projectsOnlyTheKeptVertices() {
+        RouteGeometry line = RouteGeometry.of(List.of(new GeoPosition(0, 0), new GeoPosition(0, 1),
+                new GeoPosition(0, 2), new GeoPosition(0, 3)));
+
+        Path2D.Float path = ProjectedPolyline.project(line, new int[]{0, 3}, new OSMTileFactoryInfo(), 5).toPath(0, 0);
+
+        PathIterator it = path.getPathIterator(null);
+        int vertices = 0;
+        for (; !it.isDone(); it.next()) vertices++;
+        assertEquals(2, vertices);
+    }
+
+    @Test
+    void emitsOnlyTheBlocksNearTheViewportWithoutGaps() {
+        TileFactoryInfo info = new OSMTileFactoryInfo();
+        RouteGeometry.Builder builder = new RouteGeometry.Builder(6400);
+        for (int i = 0; i < 6400; i++) builder.add(0, i * 0.001);
+        RouteGeometry line = builder.build();
+        int zoom = 3;
+        ProjectedPolyline projected = ProjectedPolyline.project(line, null, info, zoom);
+
+        Point2D middle = GeoUtil.getBitmapCoordinate(line.get(3200), zoom, info);
+        Rectangle2D viewport = new Rectangle2D.Double(middle.getX() - 400, middle.getY() - 300, 800, 600);
+        PathIterator it = projected.toPath(viewport, 4).getPathIterator(null);
+
+        float[] xy = new float[6];
+        int vertices = 0;
+        float firstX = Float.NaN;
+        float lastX = Float.NaN;
+        for (; !it.isDone(); it.next()) {
+            int type = it.currentSegment(xy);
+            if (vertices++ == 0) {
+                assertEquals(PathIterator.SEG_MOVETO, type);
+                firstX = xy[0];
+            } else {
+                assertEquals(PathIterator.SEG_LINETO, type, "one unbroken run across the screen");
+            }
+            lastX = xy[0];
+        }
+        assertTrue(vertices < line.size() / 10, "emitted " + vertices + " vertices");
+        assertTrue(firstX <= -4 && lastX >= 804, "covers the screen from " + firstX + " to " + lastX);
+    }
+}
@@ -0,0 +1,100 @@
+package view;
+
+import entity.RouteGeometry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteLevelOfDetailTest {
+
+    /** A wiggly road from Toronto eastward, sampled at the given number of points. */
+    private static RouteGeometry wigglyRoad(int points) {
+        RouteGeometry.Builder road = new RouteGeometry.Builder(points);
+        for (int i = 0; i < points; i++) {
+            double t = (double) i / (points - 1);
+            road.add(43.65 + 0.02 * Math.sin(t * 40) + 0.002 * Math.sin(t * 900), -79.38 + t);
+        }
+        return road.build();
+    }
+
+    @Test
+    void collinearPointsCollapseToTheEnds() {
+        RouteGeometry.Builder line = new RouteGeometry.Builder();
+        for (int i = 0; i <= 1000; i++) line.add(0, i * 0.001);
+
+        RouteLevelOfDetail detail = new RouteLevelOfDetail(line.build());
+
+        assertArrayEquals(new int[]{0, 1000}, detail.indicesAt(RouteLevelOfDetail.MAX_LEVEL / 2));
+    }
+
+    @Test
+    void droppedVerticesStayWithinTheToleranceAndLevelsNest() {
+        Random random = new Random(4);
+        RouteGeometry.Builder walk = new RouteGeometry.Builder();
+        double lat = 43.65;
+        double lon = -79.38;
+        for (int i = 0; i < 5000; i++) {
+            lat += (random.nextDouble() - 0.5) * 1e-3;
+            lon += (random.nextDouble() - 0.3) * 1e-3;
+            walk.add(lat, lon);
+        }
+        RouteGeometry geometry = walk.build();
+        RouteLevelOfDetail detail = new RouteLevelOfDetail(geometry);
+
+        int[] previous = null;
+        for (int level = 0; level <= RouteLevelOfDetail.MAX_LEVEL; level++) {
+            int[] kept = detail.indicesAt(level);
+            if (kept == null) break;
+            double worldPixels = 256 * Math.pow(2, level);
+            for (int k = 0; k + 1 < kept.length; k++) {
+                for (int i = kept[k] + 1; i < kept[k + 1]; i++) {
+                    double d = chordDistance(geometry, i, kept[k], kept[k + 1]) * worldPixels;
+                    assertTrue(d <= RouteLevelOfDetail.TOLERANCE_PIXELS + 1e-6, "level " + level + " vertex " + i);
+                }
+            }
+            if (previous != null) {
+                for (int index : previous) {
+                    assertTrue(Arrays.binarySearch(kept, index) >= 0, "level " + level + " drops " + index);
+                }
+            }
+            previous = kept;
+        }
+        assertNotNull(previous, "zoomed out, a 5000-point walk is simplified");
+    }
+
+    @Test
+    void zoomedOutVertexCountDoesNotGrowWithRouteLength() {
+        int level = RouteLevelOfDetail.levelFor(256 * Math.pow(2, 8));   // whole road is ~200 px wide
+
+        int shortRoad = new RouteLevelOfDetail(wigglyRoad(20_000)).vertexCountAt(level);
+        int longRoad = new RouteLevelOfDetail(wigglyRoad(200_000)).vertexCountAt(level);
+
+        assertTrue(longRoad < 1000, "kept " + longRoad);
+        assertTrue(longRoad < shortRoad * 1.2 + 10, shortRoad + " vs " + longRoad);
+    }
+
+    @Test
+    void levelMatchesTheTileZoomWorldSize() {
+        assertEquals(0, RouteLevelOfDetail.levelFor(256));
+        assertEquals(1, RouteLevelOfDetail.levelFor(512));
+        assertEquals(17, RouteLevelOfDetail.levelFor(256 * Math.pow(2, 17)));
+        assertEquals(1, RouteLevelOfDetail.levelFor(300));
+        assertEquals(RouteLevelOfDetail.MAX_LEVEL, RouteLevelOfDetail.levelFor(1e30));
+    }
+
+    private static double chordDistance(RouteGeometry g, int i, int a, int b) {
+        double px = RouteLevelOfDetail.mercatorX(g.longitude(i));
+        double py = RouteLevelOfDetail.mercatorY(g.latitude(i));
+        double ax = RouteLevelOfDetail.mercatorX(g.longitude(a));
+        double ay = RouteLevelOfDetail.mercatorY(g.latitude(a));
+        double bx = RouteLevelOfDetail.mercatorX(g.longitude(b));
+        double by = RouteLevelOfDetail.mercatorY(g.latitude(b));
+        double dx = bx - ax;
+        double dy = by - ay;
+        double t = Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / (dx * dx + dy * dy)));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
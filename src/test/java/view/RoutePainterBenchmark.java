@@ -0,0 +1,130 @@
+package view;
+
+import entity.RouteGeometry;
+import org.jxmapviewer.JXMapViewer;
+import org.jxmapviewer.OSMTileFactoryInfo;
+import org.jxmapviewer.painter.Painter;
+import org.jxmapviewer.viewer.GeoPosition;
+import org.jxmapviewer.viewer.Tile;
+import org.jxmapviewer.viewer.TileFactory;
+
+import java.awt.*;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Frame time of RoutePainter while drag-panning over a long route, headless. Compares
+ * the original painter (every vertex projected with geoToPixel on every frame) with the
+ * current one (simplified and projected once per zoom, off-screen blocks skipped, drawn into
+ * an off-screen image that pans only copy). 60 fps leaves 16.7 ms per frame.
+ * <p>
+ * Run manually: java -Djava.awt.headless=true view.RoutePainterBenchmark [route points, default 200000]
+ */
+public class RoutePainterBenchmark {
+
+    private static final int FRAMES = 100;
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 800;
+
+    public static void main(String[] args) {
+        int points = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<RouteGeometry> legs = List.of(road(points / 2, 43.65, -79.38), road(points - points / 2, 44.1, -77.4));
+
+        // Pans start over the middle of the first leg, so the route is on screen at every zoom
+        GeoPosition start = legs.get(0).get(legs.get(0).size() / 2);
+        JXMapViewer map = new JXMapViewer();
+        map.setTileFactory(new NoTiles());
+        map.setSize(WIDTH, HEIGHT);
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        System.out.printf("Route: %d points in %d legs, %d x %d frames%n", points, legs.size(), WIDTH, HEIGHT);
+
+        // jxmapviewer zoom: 1 is street level, higher is farther out
+        for (int zoom : new int[]{11, 7, 3, 1}) {
+            map.setZoom(zoom);
+            RoutePainter current = new RoutePainter(null);
+            current.setSegments(legs);
+            OriginalPainter original = new OriginalPainter(legs);
+            System.out.printf(Locale.ROOT, "zoom %2d: original %8.2f ms/frame, current %8.2f ms/frame%n", zoom,
+                    pan(map, start, frame, original), pan(map, start, frame, current));
+        }
+    }
+
+    /** Average frame time over a drag pan of a few pixels per frame from {@code start}, after a warm-up pan. */
+    private static double pan(JXMapViewer map, GeoPosition start, BufferedImage frame, Painter<JXMapViewer> painter) {
+        double elapsed = 0;
+        for (int round = 0; round < 2; round++) {
+            map.setCenterPosition(start);
+            Point2D center = map.getCenter();
+            long began = System.nanoTime();
+            for (int i = 0; i < FRAMES; i++) {
+                map.setCenter(new Point2D.Double(center.getX() + 3 * i, center.getY() + i));
+                Graphics2D g = frame.createGraphics();
+                painter.paint(g, map, WIDTH, HEIGHT);
+                g.dispose();
+            }
+            elapsed = (System.nanoTime() - began) / 1e6 / FRAMES;
+        }
+        return elapsed;
+    }
+
+    /** Lake-shore road heading east for about 170 km, wiggling every few metres. */
+    private static RouteGeometry road(int points, double lat, double lon) {
+        RouteGeometry.Builder road = new RouteGeometry.Builder(points);
+        for (int i = 0; i < points; i++) {
+            double t = (double) i / points;
+            road.add(lat + 0.05 * Math.sin(t * 30) + 0.0003 * Math.sin(i * 0.7), lon + 2 * t);
+        }
+        return road.build();
+    }
+
+    /** The painter before simplification and projection caching, for comparison. */
+    private static class OriginalPainter implements Painter<JXMapViewer> {
+        private final List<RouteGeometry> segments;
+
+        OriginalPainter(List<RouteGeometry> segments) {
+            this.segments = segments;
+        }
+
+        @Override
+        public void paint(Graphics2D g, JXMapViewer map, int w, int h) {
+            g = (Graphics2D) g.create();
+            g.setStroke(new BasicStroke(4f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            Rectangle viewport = map.getViewportBounds();
+            for (RouteGeometry seg : segments) {
+                g.setColor(new Color(0, 120, 255, 200));
+                GeneralPath path = new GeneralPath();
+                for (int i = 0; i < seg.size(); i++) {
+                    Point2D pt = map.getTileFactory().geoToPixel(seg.get(i), map.getZoom());
+                    if (i == 0) path.moveTo(pt.getX() - viewport.getX(), pt.getY() - viewport.getY());
+                    else path.lineTo(pt.getX() - viewport.getX(), pt.getY() - viewport.getY());
+                }
+                g.draw(path);
+            }
+            g.dispose();
+        }
+    }
+
+    /** OSM projection without loading any tiles. */
+    private static class NoTiles extends TileFactory {
+        NoTiles() {
+            super(new OSMTileFactoryInfo());
+        }
+
+        @Override
+        public Tile getTile(int x, int y, int zoom) {
+            return null;
+        }
+
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        protected void startLoading(Tile tile) {
+        }
+    }
+}
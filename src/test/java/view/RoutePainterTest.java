@@ -0,0 +1,149 @@
+package view;
+
+import entity.RouteGeometry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jxmapviewer.JXMapViewer;
+import org.jxmapviewer.OSMTileFactoryInfo;
+import org.jxmapviewer.viewer.GeoPosition;
+import org.jxmapviewer.viewer.Tile;
+import org.jxmapviewer.viewer.TileFactory;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutePainterTest {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 300;
+
+    private JXMapViewer map;
+    private RoutePainter painter;
+
+    @BeforeEach
+    void setUp() {
+        map = new JXMapViewer();
+        map.setTileFactory(new NoTiles());
+        map.setSize(WIDTH, HEIGHT);
+        map.setZoom(5);
+        map.setCenterPosition(new GeoPosition(43.66, -79.39));
+
+        RouteGeometry.Builder leg = new RouteGeometry.Builder(2000);
+        for (int i = 0; i < 2000; i++) leg.add(43.66 + 0.02 * Math.sin(i * 0.01), -79.5 + i * 0.0001);
+        painter = new RoutePainter(null);
+        painter.setSegments(List.of(leg.build()));
+    }
+
+    @Test
+    void panWithinTheRenderedAreaOnlyShiftsTheImage() {
+        BufferedImage before = paint();
+        Point2D center = map.getCenter();
+        map.setCenter(new Point2D.Double(center.getX() + 40, center.getY() + 20));
+        BufferedImage after = paint();
+
+        assertEquals(1, painter.getRasterizationCount());
+        int drawn = 0;
+        for (int y = 0; y < HEIGHT - 20; y++) {
+            for (int x = 0; x < WIDTH - 40; x++) {
+                assertEquals(before.getRGB(x + 40, y + 20), after.getRGB(x, y), "pixel " + x + "," + y);
+                if (after.getRGB(x, y) != 0) drawn++;
+            }
+        }
+        assertTrue(drawn > 0, "the route is on screen");
+    }
+
+    @Test
+    void zoomResizeRouteChangeAndLongPansDrawAgain() {
+        paint();
+        map.setZoom(4);
+        paint();
+        assertEquals(2, painter.getRasterizationCount());
+
+        map.setSize(WIDTH + 100, HEIGHT);
+        paint();
+        assertEquals(3, painter.getRasterizationCount());
+
+        painter.setSegments(List.of(RouteGeometry.straightLine(new GeoPosition(43.6, -79.5), new GeoPosition(43.7, -79.3))));
+        paint();
+        assertEquals(4, painter.getRasterizationCount());
+
+        Point2D center = map.getCenter();
+        map.setCenter(new Point2D.Double(center.getX() + WIDTH, center.getY()));
+        paint();
+        assertEquals(5, painter.getRasterizationCount());
+    }
+
+    @Test
+    void rasterKeepsAQuarterViewportMarginAndIsReusedWhenTheViewportShrinks() {
+        paint();
+        assertEquals((long) (WIDTH * 3 / 2) * (HEIGHT * 3 / 2), painter.getRasterPixelCount());
+
+        map.setSize(WIDTH - 100, HEIGHT);
+        paint();
+        assertEquals(2, painter.getRasterizationCount());
+        assertEquals((long) (WIDTH * 3 / 2) * (HEIGHT * 3 / 2), painter.getRasterPixelCount());
+    }
+
+    @Test
+    void marginShrinksToTheCapAndLargerViewportsAreDrawnDirectly() {
+        RouteGeometry leg = RouteGeometry.straightLine(new GeoPosition(43.6, -79.5), new GeoPosition(43.7, -79.3));
+        long viewportPixels = (long) WIDTH * HEIGHT;
+
+        painter = new RoutePainter(null, viewportPixels * 3 / 2);
+        painter.setSegments(List.of(leg));
+        paint();
+        assertTrue(painter.getRasterPixelCount() > viewportPixels);
+        assertTrue(painter.getRasterPixelCount() <= viewportPixels * 3 / 2);
+
+        painter = new RoutePainter(null, viewportPixels - 1);
+        painter.setSegments(List.of(leg));
+        BufferedImage frame = paint();
+        assertEquals(0, painter.getRasterPixelCount());
+        assertEquals(0, painter.getRasterizationCount());
+        int drawn = 0;
+        for (int y = 0; y < HEIGHT; y++) for (int x = 0; x < WIDTH; x++) if (frame.getRGB(x, y) != 0) drawn++;
+        assertTrue(drawn > 0, "the route is still drawn");
+    }
+
+    @Test
+    void clearingTheRouteDropsTheRaster() {
+        paint();
+        assertTrue(painter.getRasterPixelCount() > 0);
+
+        painter.setSegments(List.of());
+
+        assertEquals(0, painter.getRasterPixelCount());
+    }
+
+    private BufferedImage paint() {
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = frame.createGraphics();
+        painter.paint(g, map, WIDTH, HEIGHT);
+        g.dispose();
+        return frame;
+    }
+
+    /** OSM projection without loading any tiles. */
+    private static class NoTiles extends TileFactory {
+        NoTiles() {
+            super(new OSMTileFactoryInfo());
+        }
+
+        @Override
+        public Tile getTile(int x, int y, int zoom) {
+            return null;
+        }
+
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        protected void startLoading(Tile tile) {
+        }
+    }
+}